@@ -0,0 +1,87 @@
+package controller;
+
+import game.solver.DeadlockDetector;
+import game.solver.Level;
+import game.state.SokobanState;
+import javafx.application.Platform;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Checks the positions of a game for deadlocks on a background thread, so
+ * the checks never delay the handling of the input. The checks run in the
+ * order they are requested, and each takes far less than a frame, so a
+ * deadlock is reported before the next frame in practice. The results of
+ * the checks requested before the game was restarted are never delivered.
+ */
+@Slf4j
+public class DeadlockWatcher {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "deadlock-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Level level;
+    private DeadlockDetector detector;
+    private long generation;
+
+    /**
+     * Starts watching a new game, discarding the results of the checks of
+     * the previous game not delivered yet. Must be called from the JavaFX
+     * application thread.
+     *
+     * @param state the initial state of the game
+     */
+    public void start(SokobanState state) {
+        generation++;
+        SokobanState snapshot = state.clone();
+        executor.execute(() -> {
+            level = Level.of(snapshot);
+            detector = new DeadlockDetector(level);
+        });
+    }
+
+    /**
+     * Starts checking a snapshot of the state specified for a deadlock. The
+     * callback is invoked on the JavaFX application thread with
+     * {@code true} if the position can no longer be solved. Must be called
+     * from the JavaFX application thread, after {@link #start}.
+     *
+     * @param state the current state of the game
+     * @param callback the callback receiving the result of the check
+     */
+    public void check(SokobanState state, Consumer<Boolean> callback) {
+        long requested = generation;
+        SokobanState snapshot = state.clone();
+        executor.execute(() -> {
+            long begin = System.nanoTime();
+            int[][] positions = snapshot.getBallPositions();
+            int[] balls = new int[positions.length];
+            for (int i = 0; i < balls.length; i++) {
+                balls[i] = level.cell(positions[i][0], positions[i][1]);
+            }
+            boolean deadlocked = detector.isDeadlocked(balls,
+                    level.cell(snapshot.getCharacterRow(), snapshot.getCharacterCol()));
+            log.debug("Deadlock check ended in {} us", (System.nanoTime() - begin) / 1000);
+            Platform.runLater(() -> {
+                if (requested == generation) {
+                    callback.accept(deadlocked);
+                }
+            });
+        });
+    }
+
+    /**
+     * Discards the results of the checks requested so far and not delivered
+     * yet. Must be called from the JavaFX application thread.
+     */
+    public void cancel() {
+        generation++;
+    }
+
+}
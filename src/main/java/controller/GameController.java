@@ -2,27 +2,32 @@ package controller;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.effect.Glow;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import game.results.GameResult;
 import game.results.GameResultDao;
+import game.saves.SaveGame;
+import game.saves.SaveSlots;
+import game.state.MoveKind;
+import game.state.PushPlanner;
 import game.state.SokobanState;
+import util.telemetry.GameTelemetry;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 public class GameController {
@@ -33,8 +38,13 @@ public class GameController {
     private int pushCount;
     private List<Image> levelImages;
     private Instant beginGame;
-
-    private GameResultDao gameResultDao;
+    private HintService hintService;
+    private ImageView hintedView;
+    private Node dragSource;
+    private SaveSlots saveSlots;
+    private DeadlockWatcher deadlockWatcher;
+    private Snapshot lastSolvable;
+    private long snapshotCount;
 
     @FXML
     private Label usernameLabel;
@@ -54,7 +64,27 @@ public class GameController {
     @FXML
     private Button doneButton;
 
+    @FXML
+    private Label hintLabel;
+
+    @FXML
+    private Button undoButton;
+
+    /*
+     * A position of the game with the counters reached there.
+     */
+    @Value
+    private static class Snapshot {
+
+        long sequence;
+        SokobanState state;
+        int steps;
+        int pushes;
+
+    }
+
     private void drawGameState() {
+        long start = GameTelemetry.start();
         stepLabel.setText(String.valueOf(stepCount));
         pushLabel.setText(String.valueOf(pushCount));
 
@@ -64,74 +94,241 @@ public class GameController {
                 view.setImage(levelImages.get(gameState.getTray()[i][j].getValue()));
             }
         }
+        GameTelemetry.rendered(start);
     }
 
-    public void initData(String userName) {
-        this.userName = userName;
-        usernameLabel.setText("Current user: " + this.userName);
+    private void clearHint() {
+        hintService.cancel();
+        hintLabel.setText("");
+        if (hintedView != null) {
+            hintedView.setEffect(null);
+            hintedView = null;
+        }
     }
 
-    @FXML
-    public void initialize() {
-        gameResultDao = GameResultDao.getInstance();
+    private void newGame() {
+        clearHint();
         gameState = new SokobanState();
         stepCount = 0;
         pushCount = 0;
+        solvedLabel.setText("");
+        doneButton.setText("GIVE UP");
+        watchNewGame();
+        drawGameState();
         beginGame = Instant.now();
+        autosave();
+    }
 
-        levelImages = Arrays.asList(
-                new Image(getClass().getResource("/pictures/empty.png").toExternalForm()),
-                new Image(getClass().getResource("/pictures/wall.png").toExternalForm()),
-                new Image(getClass().getResource("/pictures/character.png").toExternalForm()),
-                new Image(getClass().getResource("/pictures/ball.png").toExternalForm()),
-                new Image(getClass().getResource("/pictures/storage.png").toExternalForm()),
-                new Image(getClass().getResource("/pictures/storage1.png").toExternalForm())
-        );
-
+    private void resumeGame(SaveGame saved) {
+        clearHint();
+        gameState = saved.getState();
+        stepCount = saved.getSteps();
+        pushCount = saved.getPushes();
+        solvedLabel.setText("");
+        doneButton.setText("GIVE UP");
+        beginGame = Instant.now().minus(saved.getElapsed());
+        watchNewGame();
+        checkDeadlock();
         drawGameState();
+        hintLabel.setText("Resumed your saved game.");
+        log.info("Resumed saved game of player {}.", userName);
+    }
+
+    private void autosave() {
+        if (saveSlots == null || userName == null) {
+            return;
+        }
+        if (gameState.isSolved()) {
+            saveSlots.clear(SaveSlots.AUTOSAVE);
+        } else {
+            saveSlots.save(SaveSlots.AUTOSAVE, SaveGame.builder()
+                    .player(userName)
+                    .state(gameState)
+                    .steps(stepCount)
+                    .pushes(pushCount)
+                    .elapsed(Duration.between(beginGame, Instant.now()))
+                    .build());
+        }
+    }
+
+    public void initData(String userName) {
+        this.userName = userName;
+        usernameLabel.setText("Current user: " + this.userName);
+        try {
+            saveSlots = SaveSlots.getInstance(userName);
+        } catch (UncheckedIOException e) {
+            saveSlots = null;
+            log.warn("Save slots of player {} are not available", userName, e);
+        }
+        Optional<SaveGame> saved = saveSlots == null ? Optional.empty() : saveSlots.load(SaveSlots.AUTOSAVE)
+                .filter(game -> game.getPlayer().equals(userName));
+        if (saved.isPresent()) {
+            resumeGame(saved.get());
+        } else {
+            newGame();
+        }
+    }
+
+    @FXML
+    public void initialize() {
+        ImageView firstView = (ImageView) gameGrid.getChildren().get(0);
+        levelImages = TileAtlas.getTiles((int) firstView.getFitWidth());
+        hintService = new HintService(Duration.ofMillis(80));
+        deadlockWatcher = new DeadlockWatcher();
+        for (Node cell : gameGrid.getChildren()) {
+            cell.setOnDragDetected(event -> {
+                dragSource = cell;
+                cell.startFullDrag();
+            });
+            cell.setOnMouseDragReleased(event -> ballDrop(cell));
+            cell.setOnMouseReleased(event -> dragSource = null);
+        }
+        newGame();
     }
 
     public void levelClick(MouseEvent mouseEvent) {
+        clearHint();
         int clickedColumn = GridPane.getColumnIndex((Node)mouseEvent.getSource());
         int clickedRow = GridPane.getRowIndex((Node)mouseEvent.getSource());
 
-        if (gameState.isMoveDirectionCorrect(clickedRow, clickedColumn)) {
-            if (!gameState.isSolved() && !gameState.checkWallCollision(clickedRow, clickedColumn)
-                    && gameState.canMove(clickedRow, clickedColumn)) {
-                stepCount++;
-                if (!gameState.checkBallCollision(clickedRow, clickedColumn)) {
-                    gameState.moveToEmptySpace(clickedRow, clickedColumn);
-                } else {
-                    if (gameState.checksBallDisappearance(clickedRow, clickedColumn)) {
-                        gameState.avoidBallDisappearance(clickedRow, clickedColumn);
-                    } else {
-                        pushCount++;
-                        if (!gameState.isBallPlaced(clickedRow, clickedColumn)) {
-                            gameState.pushBall(clickedRow, clickedColumn);
-                        } else {
-                            gameState.fillStorage(clickedRow, clickedColumn);
-                        }
-                    }
-                }
-                gameState.placeEmptyStorage();
-                if (gameState.isSolved()) {
-                    log.info("Player {} completed the level in {} steps.", userName, stepCount);
-                    solvedLabel.setText("You completed the game!");
-                    doneButton.setText("FINISH");
-                    gameResultDao.persist(getResult());
+        long start = GameTelemetry.start();
+        if (!gameState.isSolved() && !gameState.isMoveDirectionCorrect(clickedRow, clickedColumn)
+                && gameState.isWalkable(clickedRow, clickedColumn)) {
+            int steps = gameState.walkTo(clickedRow, clickedColumn);
+            if (steps > 0) {
+                stepCount += steps;
+                GameTelemetry.moveApplied("walk", start);
+                autosave();
+            }
+        } else {
+            int pushes = pushCount;
+            String kind = applyMove(clickedRow, clickedColumn);
+            if (kind != null) {
+                GameTelemetry.moveApplied(kind, start);
+                checkCompletion();
+                if (pushCount != pushes) {
+                    checkDeadlock();
                 }
+                autosave();
             }
         }
         drawGameState();
     }
 
-    public void resetGame(ActionEvent actionEvent) {
-        gameState = new SokobanState();
-        stepCount = 0;
-        pushCount = 0;
+    private void ballDrop(Node target) {
+        Node source = dragSource;
+        dragSource = null;
+        if (source == null || gameState.isSolved()) {
+            return;
+        }
+        clearHint();
+        long start = GameTelemetry.start();
+        int[][] moves = new PushPlanner(gameState).plan(GridPane.getRowIndex(source), GridPane.getColumnIndex(source),
+                GridPane.getRowIndex(target), GridPane.getColumnIndex(target));
+        if (moves == null) {
+            hintLabel.setText("That ball cannot be pushed there.");
+            return;
+        }
+        for (int[] move : moves) {
+            applyMove(move[0], move[1]);
+        }
+        if (moves.length > 0) {
+            GameTelemetry.moveApplied("drag", start);
+            checkCompletion();
+            checkDeadlock();
+            autosave();
+            drawGameState();
+        }
+    }
+
+    /*
+     * Applies the rules of a single move to an adjacent space, counts it and
+     * returns the kind of the move, or null if the move is not allowed.
+     */
+    private String applyMove(int row, int col) {
+        MoveKind kind = gameState.applyMove(row, col);
+        if (kind == null) {
+            return null;
+        }
+        stepCount++;
+        if (kind.isPush()) {
+            pushCount++;
+        }
+        return kind.getName();
+    }
+
+    private void checkCompletion() {
+        if (gameState.isSolved()) {
+            log.info("Player {} completed the level in {} steps.", userName, stepCount);
+            solvedLabel.setText("You completed the game!");
+            doneButton.setText("FINISH");
+            GameResultDao.getInstance().persist(getResult());
+        }
+    }
+
+    private Snapshot snapshot() {
+        return new Snapshot(++snapshotCount, gameState.clone(), stepCount, pushCount);
+    }
+
+    private void watchNewGame() {
+        deadlockWatcher.start(gameState);
+        lastSolvable = snapshot();
+        undoButton.setVisible(false);
+    }
+
+    /*
+     * Checks the current position off the JavaFX application thread. A
+     * position found solvable becomes the target of the undo, and a deadlock
+     * is reported with the offer to undo.
+     */
+    private void checkDeadlock() {
+        Snapshot checked = snapshot();
+        deadlockWatcher.check(checked.getState(), deadlocked -> {
+            if (!deadlocked) {
+                if (checked.getSequence() > lastSolvable.getSequence()) {
+                    lastSolvable = checked;
+                }
+            } else if (!undoButton.isVisible()) {
+                log.info("Player {} deadlocked the level after {} pushes.", userName, checked.getPushes());
+                solvedLabel.setText("No longer solvable!");
+                undoButton.setVisible(true);
+            }
+        });
+    }
+
+    public void undoDeadlock(ActionEvent actionEvent) {
+        clearHint();
+        deadlockWatcher.cancel();
+        gameState = lastSolvable.getState().clone();
+        stepCount = lastSolvable.getSteps();
+        pushCount = lastSolvable.getPushes();
         solvedLabel.setText("");
+        undoButton.setVisible(false);
         drawGameState();
-        beginGame = Instant.now();
+        autosave();
+        hintLabel.setText("Undone to the last solvable position.");
+        log.info("Player {} undid the moves since the last solvable position.", userName);
+    }
+
+    public void showHint(ActionEvent actionEvent) {
+        if (gameState.isSolved()) {
+            return;
+        }
+        clearHint();
+        hintLabel.setText("Thinking...");
+        hintService.requestHint(gameState, hint -> {
+            if (hint.isPresent()) {
+                hintedView = (ImageView) gameGrid.getChildren().get(hint.get().getBallRow() * 9 + hint.get().getBallCol());
+                hintedView.setEffect(new Glow(0.8));
+                hintLabel.setText("Hint: push the highlighted ball " + hint.get().getDirection().name().toLowerCase() + ".");
+            } else {
+                hintLabel.setText("No hint found.");
+            }
+        });
+    }
+
+    public void resetGame(ActionEvent actionEvent) {
+        newGame();
         log.info("Game reset.");
     }
 
@@ -148,12 +345,15 @@ public class GameController {
 
     public void finishGame(ActionEvent actionEvent) throws IOException {
         if (!gameState.isSolved()) {
-            gameResultDao.persist(getResult());
+            GameResultDao.getInstance().persist(getResult());
+        }
+        if (saveSlots != null) {
+            saveSlots.clear(SaveSlots.AUTOSAVE);
         }
 
-        Parent root = FXMLLoader.load(getClass().getResource("/fxml/topten.fxml"));
+        SceneCache.<TopTenController>getController(SceneCache.TOPTEN).refresh();
         Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(new Scene(root));
+        stage.setScene(SceneCache.getScene(SceneCache.TOPTEN));
         stage.show();
         log.info("Finished game, loading Top Ten scene.");
     }
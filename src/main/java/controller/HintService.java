@@ -0,0 +1,134 @@
+package controller;
+
+import game.solutions.SolutionCache;
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.solver.Moves;
+import game.solver.Push;
+import game.solver.Solution;
+import game.solver.Solver;
+import game.state.Direction;
+import game.state.SokobanState;
+import javafx.application.Platform;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Computes "next push" hints on a background thread. Only one search runs at
+ * a time, a new request or a move of the player cancels the running search,
+ * and the results of cancelled searches are never delivered. Solutions are
+ * looked up in and recorded to the {@link SolutionCache}.
+ */
+@Slf4j
+public class HintService {
+
+    /**
+     * Class representing a suggested push.
+     */
+    @Value
+    public static class Hint {
+
+        /**
+         * The row of the ball to be pushed.
+         */
+        int ballRow;
+
+        /**
+         * The column of the ball to be pushed.
+         */
+        int ballCol;
+
+        /**
+         * The direction in which the ball should be pushed.
+         */
+        Direction direction;
+
+        /**
+         * The walk of the character to the ball followed by the push, in LURD
+         * notation.
+         */
+        String moves;
+
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hint-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Solver solver = new AStarSolver();
+    private final Duration deadline;
+    private Future<?> running;
+    private long generation;
+
+    /**
+     * Creates a {@code HintService} object.
+     *
+     * @param deadline the maximum time spent on searching for a hint
+     */
+    public HintService(Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Starts searching for the next push from a snapshot of the state
+     * specified, cancelling any search still running. The callback is invoked
+     * on the JavaFX application thread with the suggested push, or with an
+     * empty {@link Optional} if no solution was found before the deadline.
+     * Must be called from the JavaFX application thread.
+     *
+     * @param state the current state of the game
+     * @param callback the callback receiving the hint
+     */
+    public void requestHint(SokobanState state, Consumer<Optional<Hint>> callback) {
+        cancel();
+        long requested = generation;
+        Level level = Level.of(state);
+        running = executor.submit(() -> {
+            long begin = System.nanoTime();
+            Optional<Solution> found = SolutionCache.getInstance().solve(level, solver, deadline);
+            log.debug("Hint search ended in {} us", (System.nanoTime() - begin) / 1000);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            Optional<Hint> hint = found
+                    .filter(solution -> solution.getPushes() > 0)
+                    .map(solution -> toHint(level, solution.getMoves(), solution.toPushes(level).get(0)));
+            Platform.runLater(() -> {
+                if (requested == generation) {
+                    callback.accept(hint);
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancels the running search, if any. Must be called from the JavaFX
+     * application thread.
+     */
+    public void cancel() {
+        generation++;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    private static Hint toHint(Level level, String moves, Push push) {
+        int end = 0;
+        while (!Moves.isPush(moves.charAt(end))) {
+            end++;
+        }
+        return new Hint(level.row(push.getBall()), level.col(push.getBall()),
+                Level.DIRECTIONS[push.getDirection()], moves.substring(0, end + 1));
+    }
+
+}
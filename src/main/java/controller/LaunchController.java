@@ -2,10 +2,7 @@ package controller;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
@@ -26,11 +23,10 @@ public class LaunchController {
         if (usernameTextfield.getText().isEmpty()) {
             errorLabel.setText("* Username is empty! *");
         } else {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/game.fxml"));
-            Parent root = fxmlLoader.load();
-            fxmlLoader.<GameController>getController().initData(usernameTextfield.getText());
+            errorLabel.setText("");
+            SceneCache.<GameController>getController(SceneCache.GAME).initData(usernameTextfield.getText());
             Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
-            stage.setScene(new Scene(root));
+            stage.setScene(SceneCache.getScene(SceneCache.GAME));
             stage.show();
             log.info("Username is set to {}, loading game scene.", usernameTextfield.getText());
         }
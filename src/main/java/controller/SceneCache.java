@@ -0,0 +1,97 @@
+package controller;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Application-wide cache of the scenes loaded from FXML. Every FXML file is
+ * parsed only once, the scene graph and its controller are reused at every
+ * later scene switch. The class must be used from the JavaFX application
+ * thread.
+ */
+public final class SceneCache {
+
+    /**
+     * The FXML file of the launch scene.
+     */
+    public static final String LAUNCH = "/fxml/launch.fxml";
+
+    /**
+     * The FXML file of the game scene.
+     */
+    public static final String GAME = "/fxml/game.fxml";
+
+    /**
+     * The FXML file of the Top Ten scene.
+     */
+    public static final String TOPTEN = "/fxml/topten.fxml";
+
+    private static final Map<String, Scene> scenes = new HashMap<>();
+    private static final Map<String, Object> controllers = new HashMap<>();
+
+    private SceneCache() {
+    }
+
+    /**
+     * Returns the scene loaded from the FXML file specified. The file is
+     * parsed at the first request only.
+     *
+     * @param fxml the resource name of the FXML file
+     * @return the scene loaded from the FXML file specified
+     * @throws IOException if the FXML file could not be loaded
+     */
+    public static Scene getScene(String fxml) throws IOException {
+        Scene scene = scenes.get(fxml);
+        if (scene == null) {
+            URL location = SceneCache.class.getResource(fxml);
+            if (location == null) {
+                throw new FileNotFoundException(fxml);
+            }
+            FXMLLoader fxmlLoader = new FXMLLoader(location);
+            scene = new Scene(fxmlLoader.load());
+            scenes.put(fxml, scene);
+            controllers.put(fxml, fxmlLoader.getController());
+        }
+        return scene;
+    }
+
+    /**
+     * Returns the controller of the scene loaded from the FXML file
+     * specified. The file is parsed at the first request only.
+     *
+     * @param fxml the resource name of the FXML file
+     * @param <T> the type of the controller
+     * @return the controller of the scene loaded from the FXML file specified
+     * @throws IOException if the FXML file could not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T getController(String fxml) throws IOException {
+        getScene(fxml);
+        return (T) controllers.get(fxml);
+    }
+
+    /**
+     * Loads the scenes from the FXML files specified ahead of their first use.
+     *
+     * @param fxmls the resource names of the FXML files
+     * @throws UncheckedIOException if any of the FXML files could not be
+     * loaded
+     */
+    public static void preload(String... fxmls) {
+        for (String fxml : fxmls) {
+            try {
+                getScene(fxml);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+}
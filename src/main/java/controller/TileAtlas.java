@@ -0,0 +1,91 @@
+package controller;
+
+import game.state.Actor;
+import javafx.scene.image.Image;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Application-wide cache of the tile images. Every picture is decoded only
+ * once, scaled variants are decoded once per tile size.
+ */
+public final class TileAtlas {
+
+    private static final String[] PICTURES = {
+            "/pictures/empty.png",
+            "/pictures/wall.png",
+            "/pictures/character.png",
+            "/pictures/ball.png",
+            "/pictures/storage.png",
+            "/pictures/storage1.png"
+    };
+
+    private static final Map<Integer, List<Image>> tiles = new ConcurrentHashMap<>();
+
+    private TileAtlas() {
+    }
+
+    /**
+     * Returns the tile images in their original size, indexed by the value
+     * of the {@link Actor} they depict.
+     *
+     * @return the tile images in their original size
+     */
+    public static List<Image> getTiles() {
+        return getTiles(0);
+    }
+
+    /**
+     * Returns the tile images scaled to the size specified, indexed by the
+     * value of the {@link Actor} they depict. The images are decoded at the
+     * first request for the size, and are shared afterwards.
+     *
+     * @param size the width and height of the tiles in pixels, or {@code 0}
+     *             for the original size
+     * @return the tile images scaled to the size specified
+     */
+    public static List<Image> getTiles(int size) {
+        return getTiles(size, TileAtlas::decode);
+    }
+
+    /**
+     * Returns the tile images of the size specified, decoding them with the
+     * function specified at the first request for the size.
+     *
+     * @param size the width and height of the tiles in pixels, or {@code 0}
+     *             for the original size
+     * @param decoder the function decoding the tile images of a size
+     * @return the tile images of the size specified
+     */
+    static List<Image> getTiles(int size, IntFunction<List<Image>> decoder) {
+        return tiles.computeIfAbsent(size, decoder::apply);
+    }
+
+    /**
+     * Returns the tile image depicting the actor specified, scaled to the
+     * size specified.
+     *
+     * @param actor the actor depicted by the tile
+     * @param size the width and height of the tile in pixels, or {@code 0}
+     *             for the original size
+     * @return the tile image depicting the actor specified
+     */
+    public static Image getTile(Actor actor, int size) {
+        return getTiles(size).get(actor.getValue());
+    }
+
+    private static List<Image> decode(int size) {
+        List<Image> images = new ArrayList<>(PICTURES.length);
+        for (String picture : PICTURES) {
+            String url = TileAtlas.class.getResource(picture).toExternalForm();
+            images.add(size == 0 ? new Image(url) : new Image(url, size, size, true, true));
+        }
+        return Collections.unmodifiableList(images);
+    }
+
+}
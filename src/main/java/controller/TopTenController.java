@@ -1,13 +1,9 @@
 package controller;
 
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -45,23 +41,20 @@ public class TopTenController {
     @FXML
     private TableColumn<GameResult, ZonedDateTime> created;
 
-    private GameResultDao gameResultDao;
-
     public void back(ActionEvent actionEvent) throws IOException {
-
-        Parent root = FXMLLoader.load(getClass().getResource("/fxml/launch.fxml"));
         Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(new Scene(root));
+        stage.setScene(SceneCache.getScene(SceneCache.LAUNCH));
         stage.show();
         log.info("Loading launch scene.");
     }
 
+    public void refresh() {
+        List<GameResult> toptenList = GameResultDao.getInstance().findBest(10);
+        toptenTable.getItems().setAll(toptenList);
+    }
+
     @FXML
     public void initialize() {
-        gameResultDao = GameResultDao.getInstance();
-
-        List<GameResult> toptenList = gameResultDao.findBest(10);
-
         player.setCellValueFactory(new PropertyValueFactory<>("player"));
         steps.setCellValueFactory(new PropertyValueFactory<>("steps"));
         pushes.setCellValueFactory(new PropertyValueFactory<>("pushes"));
@@ -105,10 +98,7 @@ public class TopTenController {
             return cell;
         });
 
-        ObservableList<GameResult> observableResult = FXCollections.observableArrayList();
-        observableResult.addAll(toptenList);
-
-        toptenTable.setItems(observableResult);
+        toptenTable.setItems(FXCollections.observableArrayList());
     }
 
 }
@@ -0,0 +1,45 @@
+package game.generator;
+
+import game.solver.Level;
+import game.solver.Solution;
+import lombok.Value;
+
+/**
+ * Class representing a generated level that has been vetted by a solver.
+ */
+@Value
+public class GeneratedLevel {
+
+    /**
+     * The generated level.
+     */
+    Level level;
+
+    /**
+     * The solution found by the solver.
+     */
+    Solution solution;
+
+    /**
+     * The number of positions the solver expanded to solve the level.
+     */
+    long expandedNodes;
+
+    /**
+     * The difficulty score of the level, the number of pushes of the solution
+     * weighted by the order of magnitude of the search effort.
+     */
+    double difficulty;
+
+    /**
+     * Computes the difficulty score of a level.
+     *
+     * @param pushes the number of pushes of the solution
+     * @param expandedNodes the number of positions the solver expanded
+     * @return the difficulty score
+     */
+    public static double difficulty(int pushes, long expandedNodes) {
+        return pushes * (1.0 + Math.log10(1.0 + expandedNodes));
+    }
+
+}
@@ -0,0 +1,57 @@
+package game.generator;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Class representing the parameters of the level generation.
+ */
+@Value
+@Builder
+public class GeneratorConfig {
+
+    /**
+     * The number of columns of the generated trays, including the outer walls.
+     */
+    @Builder.Default
+    int width = 9;
+
+    /**
+     * The number of rows of the generated trays, including the outer walls.
+     */
+    @Builder.Default
+    int height = 9;
+
+    /**
+     * The number of balls in the generated levels.
+     */
+    @Builder.Default
+    int balls = 3;
+
+    /**
+     * The probability of an inner space becoming a wall.
+     */
+    @Builder.Default
+    double wallDensity = 0.25;
+
+    /**
+     * The number of random pulls made when scattering the balls.
+     */
+    @Builder.Default
+    int pulls = 150;
+
+    /**
+     * The minimum number of pushes a level must require to be accepted.
+     */
+    @Builder.Default
+    int minPushes = 10;
+
+    /**
+     * The maximum time of the solver run scoring a candidate level.
+     */
+    @Builder.Default
+    Duration solveTimeout = Duration.ofSeconds(2);
+
+}
@@ -0,0 +1,211 @@
+package game.generator;
+
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.solver.Reachability;
+import game.solver.Solver;
+import game.solver.SolverResult;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Generates candidate levels by building a random room, placing the balls in
+ * the storages, and scattering them by reverse play: the character pulls the
+ * balls away from the storages, so every candidate is solvable by
+ * construction. Candidates are vetted and scored by a solver. Instances are
+ * not thread-safe, but are cheap enough to create one per thread.
+ */
+public class LevelGenerator {
+
+    private final GeneratorConfig config;
+    private final Solver solver = new AStarSolver();
+
+    /**
+     * Creates a {@code LevelGenerator} object.
+     *
+     * @param config the parameters of the generation
+     */
+    public LevelGenerator(GeneratorConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Generates a candidate level and vets it with the solver.
+     *
+     * @param random the source of randomness
+     * @return the generated level, or an empty {@link Optional} if the
+     * candidate was rejected
+     */
+    public Optional<GeneratedLevel> generate(SplittableRandom random) {
+        return buildCandidate(random).flatMap(this::score);
+    }
+
+    /**
+     * Builds a candidate level without vetting it.
+     *
+     * @param random the source of randomness
+     * @return the candidate level, or an empty {@link Optional} if the random
+     * room was not suitable
+     */
+    public Optional<Level> buildCandidate(SplittableRandom random) {
+        int width = config.getWidth();
+        int height = config.getHeight();
+        boolean[] walls = buildRoom(random);
+        int[] floor = cellsWhere(walls, false);
+        if (floor.length < config.getBalls() * 3 + 4) {
+            return Optional.empty();
+        }
+        shuffle(floor, random);
+        boolean[] storages = new boolean[width * height];
+        int[] balls = new int[config.getBalls()];
+        for (int i = 0; i < balls.length; i++) {
+            storages[floor[i]] = true;
+            balls[i] = floor[i];
+        }
+        int character = floor[balls.length];
+        Level room = new Level(width, height, walls, storages, balls, character);
+        return scatter(room, random);
+    }
+
+    /**
+     * Scores a candidate level with the solver.
+     *
+     * @param candidate the candidate level
+     * @return the vetted level, or an empty {@link Optional} if the solver did
+     * not solve it in time or it requires too few pushes
+     */
+    public Optional<GeneratedLevel> score(Level candidate) {
+        SolverResult result = solver.solve(candidate, config.getSolveTimeout());
+        if (!result.isSolved() || result.getSolution().getPushes() < config.getMinPushes()) {
+            return Optional.empty();
+        }
+        return Optional.of(new GeneratedLevel(candidate, result.getSolution(), result.getExpandedNodes(),
+                GeneratedLevel.difficulty(result.getSolution().getPushes(), result.getExpandedNodes())));
+    }
+
+    /*
+     * Fills the inside of the tray with floor, scatters walls on it, and keeps
+     * the largest connected area of floor only.
+     */
+    private boolean[] buildRoom(SplittableRandom random) {
+        int width = config.getWidth();
+        int height = config.getHeight();
+        boolean[] walls = new boolean[width * height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                walls[row * width + col] = row == 0 || col == 0 || row == height - 1 || col == width - 1
+                        || random.nextDouble() < config.getWallDensity();
+            }
+        }
+        int[] component = new int[width * height];
+        int[] queue = new int[width * height];
+        int best = 0;
+        int bestSize = 0;
+        int label = 0;
+        for (int start = 0; start < walls.length; start++) {
+            if (walls[start] || component[start] != 0) {
+                continue;
+            }
+            label++;
+            int head = 0;
+            int tail = 0;
+            component[start] = label;
+            queue[tail++] = start;
+            while (head < tail) {
+                int cell = queue[head++];
+                int row = cell / width;
+                int col = cell % width;
+                int[] neighbors = {row > 0 ? cell - width : -1, col < width - 1 ? cell + 1 : -1,
+                        row < height - 1 ? cell + width : -1, col > 0 ? cell - 1 : -1};
+                for (int to : neighbors) {
+                    if (to >= 0 && !walls[to] && component[to] == 0) {
+                        component[to] = label;
+                        queue[tail++] = to;
+                    }
+                }
+            }
+            if (tail > bestSize) {
+                bestSize = tail;
+                best = label;
+            }
+        }
+        for (int cell = 0; cell < walls.length; cell++) {
+            walls[cell] = component[cell] != best;
+        }
+        return walls;
+    }
+
+    /*
+     * Reverse play: repeatedly picks a random ball next to a reachable space
+     * and pulls it towards the character, who steps back. Pulling a ball
+     * straight back to where it came from is avoided.
+     */
+    private Optional<Level> scatter(Level room, SplittableRandom random) {
+        Reachability reachability = new Reachability(room);
+        boolean[] occupied = new boolean[room.getSize()];
+        int[] balls = room.getBalls();
+        for (int ball : balls) {
+            occupied[ball] = true;
+        }
+        int character = room.getCharacter();
+        int[] candidates = new int[balls.length * 4];
+        int lastBall = -1;
+        int lastDirection = -1;
+        for (int pull = 0; pull < config.getPulls(); pull++) {
+            reachability.compute(character, occupied);
+            int count = 0;
+            for (int i = 0; i < balls.length; i++) {
+                for (int d = 0; d < 4; d++) {
+                    int stand = room.neighbor(balls[i], d);
+                    int back = stand < 0 ? -1 : room.neighbor(stand, d);
+                    if (reachability.isReachable(stand) && back >= 0 && !room.isWall(back) && !occupied[back]
+                            && !(balls[i] == lastBall && d == (lastDirection + 2) % 4)) {
+                        candidates[count++] = i * 4 + d;
+                    }
+                }
+            }
+            if (count == 0) {
+                break;
+            }
+            int chosen = candidates[random.nextInt(count)];
+            int i = chosen / 4;
+            int d = chosen % 4;
+            int stand = room.neighbor(balls[i], d);
+            occupied[balls[i]] = false;
+            occupied[stand] = true;
+            balls[i] = stand;
+            character = room.neighbor(stand, d);
+            lastBall = stand;
+            lastDirection = d;
+        }
+        for (int ball : balls) {
+            if (room.isStorage(ball)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(room.withPosition(balls, character));
+    }
+
+    private static int[] cellsWhere(boolean[] walls, boolean value) {
+        int[] cells = new int[walls.length];
+        int count = 0;
+        for (int cell = 0; cell < walls.length; cell++) {
+            if (walls[cell] == value) {
+                cells[count++] = cell;
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    private static void shuffle(int[] a, SplittableRandom random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+}
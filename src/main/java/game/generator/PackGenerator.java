@@ -0,0 +1,153 @@
+package game.generator;
+
+import game.solutions.LevelFingerprint;
+import game.solver.Level;
+import game.solver.XsbFormat;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Generates level packs in parallel. Every worker thread runs its own
+ * {@link LevelGenerator} with an independent random stream, and levels that
+ * are rotations or reflections of an already accepted level are discarded.
+ */
+@Slf4j
+public class PackGenerator {
+
+    private final GeneratorConfig config;
+    private final int threads;
+
+    /**
+     * Creates a {@code PackGenerator} object using all available processors.
+     *
+     * @param config the parameters of the generation
+     */
+    public PackGenerator(GeneratorConfig config) {
+        this(config, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@code PackGenerator} object.
+     *
+     * @param config the parameters of the generation
+     * @param threads the number of worker threads
+     */
+    public PackGenerator(GeneratorConfig config, int threads) {
+        this.config = config;
+        this.threads = threads;
+    }
+
+    /**
+     * Generates vetted levels until the requested number of levels has been
+     * accepted or the time limit has elapsed.
+     *
+     * @param count the number of levels requested
+     * @param timeLimit the maximum time of the generation
+     * @param seed the seed of the random streams
+     * @return the accepted levels ordered by increasing difficulty
+     * @throws InterruptedException if the calling thread is interrupted while
+     * waiting for the workers
+     */
+    public List<GeneratedLevel> generate(int count, Duration timeLimit, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + timeLimit.toNanos();
+        Set<String> fingerprints = ConcurrentHashMap.newKeySet();
+        ConcurrentLinkedQueue<GeneratedLevel> accepted = new ConcurrentLinkedQueue<>();
+        AtomicInteger acceptedCount = new AtomicInteger();
+        AtomicInteger candidates = new AtomicInteger();
+        SplittableRandom master = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = master.split();
+                executor.execute(() -> {
+                    LevelGenerator generator = new LevelGenerator(config);
+                    while (acceptedCount.get() < count && System.nanoTime() < deadline
+                            && !Thread.currentThread().isInterrupted()) {
+                        candidates.incrementAndGet();
+                        Optional<GeneratedLevel> level = generator.generate(random);
+                        if (level.isPresent()
+                                && fingerprints.add(LevelFingerprint.of(level.get().getLevel()).getFingerprint())
+                                && acceptedCount.incrementAndGet() <= count) {
+                            accepted.add(level.get());
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Math.max(0, deadline - System.nanoTime()) + TimeUnit.SECONDS.toNanos(10),
+                    TimeUnit.NANOSECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Accepted {} of {} candidate levels", accepted.size(), candidates.get());
+        return accepted.stream()
+                .sorted(Comparator.comparingDouble(GeneratedLevel::getDifficulty))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the level pack in XSB format. The title of every level records
+     * its difficulty and the length of the solution found.
+     *
+     * @param levels the levels of the pack
+     * @return the level pack in XSB format
+     */
+    public static String toXsb(List<GeneratedLevel> levels) {
+        List<Level> trays = new ArrayList<>();
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < levels.size(); i++) {
+            GeneratedLevel level = levels.get(i);
+            trays.add(level.getLevel());
+            titles.add(String.format("Level %d, difficulty %.1f, %d pushes, %d steps", i + 1,
+                    level.getDifficulty(), level.getSolution().getPushes(), level.getSolution().getSteps()));
+        }
+        return XsbFormat.formatPack(trays, titles);
+    }
+
+    /**
+     * Generates a level pack and writes it to a file. The arguments are the
+     * number of levels, the output file, and optionally the random seed and
+     * the time limit in seconds.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the generation or the writing of the file fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: PackGenerator <count> <output.xsb> [seed] [seconds]");
+            System.exit(1);
+        }
+        int count = Integer.parseInt(args[0]);
+        Path output = Paths.get(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        Duration timeLimit = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 60);
+        long begin = System.nanoTime();
+        List<GeneratedLevel> levels = new PackGenerator(GeneratorConfig.builder().build()).generate(count, timeLimit, seed);
+        writePack(output, levels);
+        log.info("Wrote {} levels to {} in {} ms", levels.size(), output, (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    private static void writePack(Path output, List<GeneratedLevel> levels) throws IOException {
+        Files.write(output, toXsb(levels).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Provides classes for generating new sokoban levels.
+ * @version 1.0
+ */
+package game.generator;
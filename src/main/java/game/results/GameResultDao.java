@@ -1,8 +1,12 @@
 package game.results;
 
 import util.jpa.GenericJpaDao;
-import javax.persistence.Persistence;
+import util.jpa.PersistenceBootstrap;
+import util.telemetry.GameTelemetry;
+
+import javax.persistence.LockModeType;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * DAO class for the {@link GameResult} entity.
@@ -11,18 +15,70 @@ public class GameResultDao extends GenericJpaDao<GameResult> {
 
     private static GameResultDao instance;
 
-    private GameResultDao() {
+    GameResultDao() {
         super(GameResult.class);
     }
 
-    public static GameResultDao getInstance() {
+    /**
+     * Returns the single {@code GameResultDao} instance, waiting for the
+     * persistence unit to be bootstrapped if necessary.
+     *
+     * @return the single {@code GameResultDao} instance
+     */
+    public static synchronized GameResultDao getInstance() {
         if (instance == null) {
-            instance = new GameResultDao();
-            instance.setEntityManager(Persistence.createEntityManagerFactory("jpa-persistence-unit-1").createEntityManager());
+            GameResultDao dao = new GameResultDao();
+            dao.setEntityManager(PersistenceBootstrap.getEntityManagerFactory().createEntityManager());
+            instance = dao;
         }
         return instance;
     }
 
+    /**
+     * Starts bootstrapping the persistence unit in the background and returns
+     * a future that is completed with the single {@code GameResultDao}
+     * instance once it can be used without blocking.
+     *
+     * @return a future completed with the single {@code GameResultDao}
+     * instance
+     */
+    public static CompletableFuture<GameResultDao> warmUp() {
+        return PersistenceBootstrap.start().thenApply(emf -> getInstance());
+    }
+
+    /**
+     * Persists a result and adds it to the {@link PlayerStats} of its player
+     * in the same transaction, so the statistics always agree with the
+     * results stored.
+     *
+     * @param result the result to be persisted in the database
+     */
+    @Override
+    public void persist(GameResult result) {
+        long start = GameTelemetry.start();
+        entityManager.getTransaction().begin();
+        try {
+            entityManager.persist(result);
+            PlayerStats stats = entityManager.find(PlayerStats.class, result.getPlayer(),
+                    LockModeType.PESSIMISTIC_WRITE);
+            if (stats == null) {
+                stats = PlayerStats.builder().player(result.getPlayer()).build();
+                entityManager.persist(stats);
+            }
+            stats.record(result);
+            entityManager.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            // Detaches the statistics updated by the failed transaction, so
+            // the next one reads them from the database again
+            entityManager.clear();
+            throw e;
+        }
+        GameTelemetry.persisted(entityClass.getSimpleName(), start);
+    }
+
     /**
      * Returns the list of {@code n} best results with respect to the time
      * spent for solving the puzzle.
@@ -32,9 +88,12 @@ public class GameResultDao extends GenericJpaDao<GameResult> {
      * spent for solving the puzzle
      */
     public List<GameResult> findBest(int n) {
-        return entityManager.createQuery("SELECT r FROM GameResult r WHERE r.solved = true ORDER BY r.duration ASC, r.created DESC", GameResult.class)
+        long start = GameTelemetry.start();
+        List<GameResult> result = entityManager.createQuery("SELECT r FROM GameResult r WHERE r.solved = true ORDER BY r.duration ASC, r.created DESC", GameResult.class)
                 .setMaxResults(n)
                 .getResultList();
+        GameTelemetry.queried("GameResult", "findBest", start);
+        return result;
     }
 
 }
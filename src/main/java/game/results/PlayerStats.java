@@ -0,0 +1,118 @@
+package game.results;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Class representing the statistics of the games played by a specific
+ * player. The statistics are updated together with every
+ * {@link GameResult} persisted by {@link GameResultDao}, so they can be read
+ * without aggregating the results of the player.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class PlayerStats {
+
+    /**
+     * The name of the player.
+     */
+    @Id
+    private String player;
+
+    /**
+     * The number of games played.
+     */
+    private long gamesPlayed;
+
+    /**
+     * The number of games in which the player has solved the puzzle.
+     */
+    private long gamesSolved;
+
+    /**
+     * The total number of steps made in the games solved.
+     */
+    private long totalSteps;
+
+    /**
+     * The total number of ball pushes made in the games solved.
+     */
+    private long totalPushes;
+
+    /**
+     * The shortest duration of the games solved, or {@code null} if no game
+     * was solved.
+     */
+    private Duration bestDuration;
+
+    /**
+     * The fewest ball pushes of the games solved, or {@code null} if no game
+     * was solved.
+     */
+    private Integer fewestPushes;
+
+    /**
+     * The timestamp when the statistics were last updated.
+     */
+    @Column(nullable = false)
+    private ZonedDateTime updated;
+
+    /**
+     * Adds a result of the player to the statistics.
+     *
+     * @param result the result of a game played by the player
+     * @throws IllegalArgumentException if the result belongs to another
+     * player
+     */
+    public void record(GameResult result) {
+        if (!result.getPlayer().equals(player)) {
+            throw new IllegalArgumentException("Result of another player");
+        }
+        gamesPlayed++;
+        if (result.isSolved()) {
+            gamesSolved++;
+            totalSteps += result.getSteps();
+            totalPushes += result.getPushes();
+            if (bestDuration == null || result.getDuration().compareTo(bestDuration) < 0) {
+                bestDuration = result.getDuration();
+            }
+            if (fewestPushes == null || result.getPushes() < fewestPushes) {
+                fewestPushes = result.getPushes();
+            }
+        }
+    }
+
+    /**
+     * Returns the average number of steps of the games solved.
+     *
+     * @return the average number of steps, or 0 if no game was solved
+     */
+    public double getAverageSteps() {
+        return gamesSolved == 0 ? 0 : (double) totalSteps / gamesSolved;
+    }
+
+    /**
+     * Returns the average number of ball pushes of the games solved.
+     *
+     * @return the average number of ball pushes, or 0 if no game was solved
+     */
+    public double getAveragePushes() {
+        return gamesSolved == 0 ? 0 : (double) totalPushes / gamesSolved;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updated = ZonedDateTime.now();
+    }
+
+}
@@ -0,0 +1,111 @@
+package game.results;
+
+import util.jpa.GenericJpaDao;
+import util.telemetry.GameTelemetry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * DAO class for the {@link PlayerStats} entity. The statistics are updated
+ * by {@link GameResultDao#persist}, and this DAO shares the entity manager
+ * of {@link GameResultDao}, so it always reads the statistics updated.
+ */
+public class PlayerStatsDao extends GenericJpaDao<PlayerStats> {
+
+    private static PlayerStatsDao instance;
+
+    PlayerStatsDao() {
+        super(PlayerStats.class);
+    }
+
+    /**
+     * Returns the single {@code PlayerStatsDao} instance, waiting for the
+     * persistence unit to be bootstrapped if necessary.
+     *
+     * @return the single {@code PlayerStatsDao} instance
+     */
+    public static synchronized PlayerStatsDao getInstance() {
+        if (instance == null) {
+            PlayerStatsDao dao = new PlayerStatsDao();
+            dao.setEntityManager(GameResultDao.getInstance().getEntityManager());
+            instance = dao;
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the statistics of a player.
+     *
+     * @param player the name of the player
+     * @return an {@link Optional} object wrapping the statistics of the
+     * player, empty if the player has no results
+     */
+    public Optional<PlayerStats> findByPlayer(String player) {
+        return find(player);
+    }
+
+    /**
+     * Returns the list of {@code n} players with the shortest games solved.
+     *
+     * @param n the maximum number of statistics to be returned
+     * @return the statistics of the players in ascending order of their best
+     * durations
+     */
+    public List<PlayerStats> findFastest(int n) {
+        long start = GameTelemetry.start();
+        List<PlayerStats> result = entityManager.createQuery("SELECT s FROM PlayerStats s WHERE s.bestDuration IS NOT NULL ORDER BY s.bestDuration ASC, s.player ASC", PlayerStats.class)
+                .setMaxResults(n)
+                .getResultList();
+        GameTelemetry.queried("PlayerStats", "findFastest", start);
+        return result;
+    }
+
+    /**
+     * Returns the list of {@code n} players with the most games played.
+     *
+     * @param n the maximum number of statistics to be returned
+     * @return the statistics of the players in descending order of the
+     * number of games played
+     */
+    public List<PlayerStats> findMostActive(int n) {
+        long start = GameTelemetry.start();
+        List<PlayerStats> result = entityManager.createQuery("SELECT s FROM PlayerStats s ORDER BY s.gamesPlayed DESC, s.player ASC", PlayerStats.class)
+                .setMaxResults(n)
+                .getResultList();
+        GameTelemetry.queried("PlayerStats", "findMostActive", start);
+        return result;
+    }
+
+    /**
+     * Recomputes the statistics of every player from the results stored, for
+     * example for results stored before the statistics were maintained.
+     * Scans all results, so it is meant to be run once, not per query.
+     */
+    public void rebuild() {
+        long start = GameTelemetry.start();
+        entityManager.getTransaction().begin();
+        try {
+            entityManager.createQuery("DELETE FROM PlayerStats").executeUpdate();
+            entityManager.clear();
+            Map<String, PlayerStats> stats = new HashMap<>();
+            for (GameResult result : entityManager.createQuery("SELECT r FROM GameResult r", GameResult.class)
+                    .getResultList()) {
+                stats.computeIfAbsent(result.getPlayer(), player -> PlayerStats.builder().player(player).build())
+                        .record(result);
+            }
+            stats.values().forEach(entityManager::persist);
+            entityManager.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.clear();
+            throw e;
+        }
+        GameTelemetry.queried("PlayerStats", "rebuild", start);
+    }
+
+}
@@ -0,0 +1,41 @@
+package game.saves;
+
+import game.state.SokobanState;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Class representing an unfinished game saved by a player.
+ */
+@Value
+@Builder
+public class SaveGame {
+
+    /**
+     * The name of the player.
+     */
+    String player;
+
+    /**
+     * The state of the game.
+     */
+    SokobanState state;
+
+    /**
+     * The number of steps made by the player.
+     */
+    int steps;
+
+    /**
+     * The number of ball pushes made by the player.
+     */
+    int pushes;
+
+    /**
+     * The time elapsed since the beginning of the game.
+     */
+    Duration elapsed;
+
+}
@@ -0,0 +1,131 @@
+package game.saves;
+
+import game.state.SokobanState;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Encodes saved games in a compact binary form. The walls and the storages
+ * are not stored, since they are those of the initial level. The balls and
+ * the character are stored as cell indices of 7 bits each, packed back to
+ * back, and the counters and the elapsed time as variable length
+ * integers, so a game takes about twenty bytes plus the name of the player.
+ */
+public final class SaveGameCodec {
+
+    private static final int VERSION = 1;
+    private static final int SIZE = 9;
+    private static final int CELL_BITS = 7;
+    private static final int MAX_PLAYER_BYTES = 128;
+
+    private SaveGameCodec() {
+    }
+
+    /**
+     * Encodes a saved game.
+     *
+     * @param game the saved game
+     * @param buffer the buffer receiving the encoded game at its position
+     * @throws IllegalArgumentException if the name of the player is too long
+     */
+    public static void encode(SaveGame game, ByteBuffer buffer) {
+        byte[] player = game.getPlayer().getBytes(StandardCharsets.UTF_8);
+        if (player.length > MAX_PLAYER_BYTES) {
+            throw new IllegalArgumentException("Player name too long");
+        }
+        SokobanState state = game.getState();
+        int[][] balls = state.getBallPositions();
+        buffer.put((byte) VERSION);
+        buffer.put((byte) balls.length);
+        long bits = 0;
+        int used = 0;
+        for (int i = 0; i <= balls.length; i++) {
+            int cell = i < balls.length
+                    ? balls[i][0] * SIZE + balls[i][1]
+                    : state.getCharacterRow() * SIZE + state.getCharacterCol();
+            bits |= (long) cell << used;
+            used += CELL_BITS;
+            while (used >= 8) {
+                buffer.put((byte) bits);
+                bits >>>= 8;
+                used -= 8;
+            }
+        }
+        if (used > 0) {
+            buffer.put((byte) bits);
+        }
+        putVarLong(buffer, game.getSteps());
+        putVarLong(buffer, game.getPushes());
+        putVarLong(buffer, game.getElapsed().toMillis());
+        buffer.put((byte) player.length);
+        buffer.put(player);
+    }
+
+    /**
+     * Decodes a saved game.
+     *
+     * @param buffer the buffer holding the encoded game at its position
+     * @return the saved game
+     * @throws IllegalArgumentException if the data is not a valid saved game
+     */
+    public static SaveGame decode(ByteBuffer buffer) {
+        if (buffer.get() != VERSION) {
+            throw new IllegalArgumentException("Unknown save game version");
+        }
+        int[][] balls = new int[buffer.get() & 0xFF][];
+        long bits = 0;
+        int available = 0;
+        int character = 0;
+        for (int i = 0; i <= balls.length; i++) {
+            while (available < CELL_BITS) {
+                bits |= (long) (buffer.get() & 0xFF) << available;
+                available += 8;
+            }
+            int cell = (int) (bits & ((1 << CELL_BITS) - 1));
+            bits >>>= CELL_BITS;
+            available -= CELL_BITS;
+            if (i < balls.length) {
+                balls[i] = new int[] {cell / SIZE, cell % SIZE};
+            } else {
+                character = cell;
+            }
+        }
+        SokobanState state = new SokobanState();
+        state.restorePosition(balls, character / SIZE, character % SIZE);
+        int steps = (int) getVarLong(buffer);
+        int pushes = (int) getVarLong(buffer);
+        Duration elapsed = Duration.ofMillis(getVarLong(buffer));
+        byte[] player = new byte[buffer.get() & 0xFF];
+        buffer.get(player);
+        return SaveGame.builder()
+                .player(new String(player, StandardCharsets.UTF_8))
+                .state(state)
+                .steps(steps)
+                .pushes(pushes)
+                .elapsed(elapsed)
+                .build();
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+}
@@ -0,0 +1,190 @@
+package game.saves;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Save slots kept in a memory-mapped file. Every slot consists of two pages,
+ * and a save always overwrites the page not holding the latest save, writing
+ * the header with the sequence number and the checksum last. A save
+ * interrupted halfway leaves a page with an invalid checksum, and loading
+ * falls back to the other page, so a slot always holds a complete save.
+ * Saves only touch the mapped memory, which the operating system writes
+ * back to the file even if the application is killed; {@link #flush()}
+ * forces them to the disk as well.
+ */
+@Slf4j
+public class SaveSlots implements Closeable {
+
+    /**
+     * The slot used for saving the game of the player automatically after
+     * every move.
+     */
+    public static final int AUTOSAVE = 0;
+
+    private static final int PAGE_SIZE = 256;
+    private static final int HEADER_SIZE = 16;
+    private static final int DEFAULT_SLOTS = 4;
+
+    private static final Map<String, SaveSlots> instances = new HashMap<>();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int slots;
+    private final long[] sequences;
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens the save slots stored in a file, creating the file if it does
+     * not exist.
+     *
+     * @param path the path of the file
+     * @param slots the number of slots
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public SaveSlots(Path path, int slots) throws IOException {
+        this.slots = slots;
+        this.sequences = new long[slots * 2];
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slots * 2 * PAGE_SIZE);
+        for (int page = 0; page < sequences.length; page++) {
+            sequences[page] = isValid(page) ? map.getLong(page * PAGE_SIZE) : 0;
+        }
+    }
+
+    /**
+     * Returns the save slots of a player, stored in a file of the
+     * {@code .sokoban} directory of the home directory named after the
+     * player, so the players sharing an account never overwrite each
+     * other's saves.
+     *
+     * @param player the name of the player
+     * @return the save slots of the player
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static synchronized SaveSlots getInstance(String player) {
+        SaveSlots slots = instances.get(player);
+        if (slots == null) {
+            try {
+                Path directory = Paths.get(System.getProperty("user.home"), ".sokoban");
+                Files.createDirectories(directory);
+                UUID id = UUID.nameUUIDFromBytes(player.getBytes(StandardCharsets.UTF_8));
+                slots = new SaveSlots(directory.resolve("saves-" + id + ".bin"), DEFAULT_SLOTS);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            instances.put(player, slots);
+        }
+        return slots;
+    }
+
+    /**
+     * Saves a game to a slot.
+     *
+     * @param slot the index of the slot
+     * @param game the game to save
+     */
+    public synchronized void save(int slot, SaveGame game) {
+        int page = sequences[slot * 2] <= sequences[slot * 2 + 1] ? slot * 2 : slot * 2 + 1;
+        long sequence = Math.max(sequences[slot * 2], sequences[slot * 2 + 1]) + 1;
+        ByteBuffer payload = page(page).position(HEADER_SIZE);
+        SaveGameCodec.encode(game, payload);
+        int length = payload.position() - HEADER_SIZE;
+        map.putLong(page * PAGE_SIZE, sequence);
+        map.putInt(page * PAGE_SIZE + 8, length);
+        map.putInt(page * PAGE_SIZE + 12, checksum(page, sequence, length));
+        sequences[page] = sequence;
+    }
+
+    /**
+     * Loads the latest game saved to a slot.
+     *
+     * @param slot the index of the slot
+     * @return the saved game, or an empty {@link Optional} if the slot is
+     * empty
+     */
+    public synchronized Optional<SaveGame> load(int slot) {
+        int page = sequences[slot * 2] >= sequences[slot * 2 + 1] ? slot * 2 : slot * 2 + 1;
+        if (sequences[page] <= 0) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(SaveGameCodec.decode(page(page).position(HEADER_SIZE)));
+        } catch (RuntimeException e) {
+            log.warn("Cannot decode save slot {}", slot, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Empties a slot.
+     *
+     * @param slot the index of the slot
+     */
+    public synchronized void clear(int slot) {
+        for (int page = slot * 2; page < slot * 2 + 2; page++) {
+            map.putLong(page * PAGE_SIZE, 0);
+            map.putInt(page * PAGE_SIZE + 8, 0);
+            map.putInt(page * PAGE_SIZE + 12, 0);
+            sequences[page] = 0;
+        }
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the number of slots
+     */
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * Forces the saves to the disk.
+     */
+    public synchronized void flush() {
+        map.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    private ByteBuffer page(int page) {
+        return map.duplicate().position(page * PAGE_SIZE).limit((page + 1) * PAGE_SIZE).slice();
+    }
+
+    private boolean isValid(int page) {
+        long sequence = map.getLong(page * PAGE_SIZE);
+        int length = map.getInt(page * PAGE_SIZE + 8);
+        return sequence > 0 && length > 0 && length <= PAGE_SIZE - HEADER_SIZE
+                && map.getInt(page * PAGE_SIZE + 12) == checksum(page, sequence, length);
+    }
+
+    private int checksum(int page, long sequence, int length) {
+        crc.reset();
+        crc.update(ByteBuffer.allocate(12).putLong(sequence).putInt(length).flip());
+        crc.update(page(page).position(HEADER_SIZE).limit(HEADER_SIZE + length));
+        return (int) crc.getValue();
+    }
+
+}
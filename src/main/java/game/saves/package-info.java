@@ -0,0 +1,6 @@
+/**
+ * Provides classes for saving unfinished games to slots on disk and
+ * resuming them.
+ * @version 1.0
+ */
+package game.saves;
@@ -0,0 +1,213 @@
+package game.sessions;
+
+import game.results.GameResult;
+import game.state.Actor;
+import game.state.MoveKind;
+import game.state.SokobanState;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A game played without a user interface. The session owns its
+ * {@link SokobanState} and keeps the positions before the latest moves so
+ * they can be undone. Each snapshot holds the counters, the cell of the
+ * character and the cells of the balls in a small {@code int} array. A
+ * session is not thread-safe; {@link SessionManager} serializes the commands
+ * sent to the same session.
+ */
+public class GameSession {
+
+    /**
+     * The identifier of the session.
+     */
+    @Getter
+    private final long id;
+
+    /**
+     * The name of the player.
+     */
+    @Getter
+    private final String player;
+
+    /**
+     * The number of steps made by the player.
+     */
+    @Getter
+    private int steps;
+
+    /**
+     * The number of ball pushes made by the player.
+     */
+    @Getter
+    private int pushes;
+
+    /**
+     * Indicates whether the result of the game has been recorded.
+     */
+    @Getter
+    private boolean finished;
+
+    private final SokobanState state = new SokobanState();
+    private final long begin = System.nanoTime();
+    private final Deque<int[]> history = new ArrayDeque<>();
+    private final int historyLimit;
+
+    /**
+     * Creates a {@code GameSession} object with the initial level.
+     *
+     * @param id the identifier of the session
+     * @param player the name of the player
+     * @param historyLimit the maximum number of moves that can be undone
+     */
+    public GameSession(long id, String player, int historyLimit) {
+        this.id = id;
+        this.player = player;
+        this.historyLimit = historyLimit;
+    }
+
+    /**
+     * Returns whether every character of a string is a move in LURD
+     * notation.
+     *
+     * @param moves the string
+     * @return {@code true} if the string only contains {@code l}, {@code u},
+     * {@code r} and {@code d}, in either case, {@code false} otherwise
+     */
+    public static boolean isMoves(String moves) {
+        for (char move : moves.toCharArray()) {
+            if ("lurd".indexOf(Character.toLowerCase(move)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the character one space in the direction specified by a move in
+     * LURD notation, following the rules of the game.
+     *
+     * @param move one of {@code l}, {@code u}, {@code r} and {@code d}, in
+     * either case
+     * @return the kind of the move, or {@code null} if the move is not
+     * allowed
+     * @throws IllegalArgumentException if the character is not a move
+     */
+    public MoveKind move(char move) {
+        int row = state.getCharacterRow();
+        int col = state.getCharacterCol();
+        switch (Character.toLowerCase(move)) {
+            case 'l':
+                col--;
+                break;
+            case 'u':
+                row--;
+                break;
+            case 'r':
+                col++;
+                break;
+            case 'd':
+                row++;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid move " + move);
+        }
+        int[] snapshot = snapshot();
+        MoveKind kind = state.applyMove(row, col);
+        if (kind != null) {
+            if (historyLimit > 0) {
+                if (history.size() == historyLimit) {
+                    history.removeFirst();
+                }
+                history.addLast(snapshot);
+            }
+            steps++;
+            if (kind.isPush()) {
+                pushes++;
+            }
+        }
+        return kind;
+    }
+
+    /**
+     * Restores the position before the latest move.
+     *
+     * @return {@code true} if a move was undone, {@code false} if there is
+     * no move to undo
+     */
+    public boolean undo() {
+        int[] snapshot = history.pollLast();
+        if (snapshot == null) {
+            return false;
+        }
+        int cols = state.getTray()[0].length;
+        int[][] balls = new int[snapshot.length - 3][];
+        for (int i = 0; i < balls.length; i++) {
+            balls[i] = new int[] {snapshot[i + 3] / cols, snapshot[i + 3] % cols};
+        }
+        state.restorePosition(balls, snapshot[2] / cols, snapshot[2] % cols);
+        steps = snapshot[0];
+        pushes = snapshot[1];
+        return true;
+    }
+
+    /**
+     * Checks whether the level is completed.
+     *
+     * @return {@code true} if the level is completed, {@code false} otherwise
+     */
+    public boolean isSolved() {
+        return state.isSolved();
+    }
+
+    /**
+     * Returns the tray as the codes of the actors, row by row, with the rows
+     * separated by slashes.
+     *
+     * @return the tray
+     */
+    public String getTray() {
+        StringBuilder tray = new StringBuilder(90);
+        for (Actor[] row : state.getTray()) {
+            if (tray.length() > 0) {
+                tray.append('/');
+            }
+            for (Actor actor : row) {
+                tray.append(actor.getValue());
+            }
+        }
+        return tray.toString();
+    }
+
+    /**
+     * Marks the game as finished and returns its result.
+     *
+     * @return the result of the game
+     */
+    public GameResult finish() {
+        finished = true;
+        return GameResult.builder()
+                .player(player)
+                .solved(state.isSolved())
+                .steps(steps)
+                .pushes(pushes)
+                .duration(Duration.ofNanos(System.nanoTime() - begin))
+                .build();
+    }
+
+    private int[] snapshot() {
+        int cols = state.getTray()[0].length;
+        int[][] balls = state.getBallPositions();
+        int[] snapshot = new int[balls.length + 3];
+        snapshot[0] = steps;
+        snapshot[1] = pushes;
+        snapshot[2] = state.getCharacterRow() * cols + state.getCharacterCol();
+        for (int i = 0; i < balls.length; i++) {
+            snapshot[i + 3] = balls[i][0] * cols + balls[i][1];
+        }
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,128 @@
+package game.sessions;
+
+import game.results.GameResult;
+import game.results.GameResultDao;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Registry of the running game sessions. Sessions are kept in a concurrent
+ * map, so commands for different sessions run in parallel, while the
+ * commands for the same session are serialized by locking the session. The
+ * result of a game is handed to a sink when the level is completed or the
+ * session is closed after at least one move.
+ */
+@Slf4j
+public class SessionManager {
+
+    private static final int HISTORY_LIMIT = 1000;
+
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Consumer<GameResult> results;
+
+    /**
+     * Creates a {@code SessionManager} object.
+     *
+     * @param results the sink receiving the results of the finished games
+     */
+    public SessionManager(Consumer<GameResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Returns a sink persisting the results through {@link GameResultDao}.
+     * The entity manager of the DAO is not thread-safe, so the results are
+     * persisted one by one on a single background thread.
+     *
+     * @return the sink
+     */
+    public static Consumer<GameResult> persistingSink() {
+        ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-results");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return result -> writer.execute(() -> {
+            try {
+                GameResultDao.getInstance().persist(result);
+            } catch (RuntimeException e) {
+                log.error("Cannot save the result of {}", result.getPlayer(), e);
+            }
+        });
+    }
+
+    /**
+     * Creates a session with the initial level.
+     *
+     * @param player the name of the player
+     * @return the session
+     */
+    public GameSession create(String player) {
+        GameSession session = new GameSession(ids.incrementAndGet(), player, HISTORY_LIMIT);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Runs a command on a session while holding its lock. If the command
+     * completes the level, the result of the game is recorded.
+     *
+     * @param id the identifier of the session
+     * @param command the command
+     * @param <R> the type of the value returned by the command
+     * @return the value returned by the command, or an empty
+     * {@link Optional} if there is no such session
+     */
+    public <R> Optional<R> execute(long id, Function<GameSession, R> command) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            R value = command.apply(session);
+            if (!session.isFinished() && session.isSolved()) {
+                results.accept(session.finish());
+            }
+            return Optional.ofNullable(value);
+        }
+    }
+
+    /**
+     * Closes a session. The result of an unfinished game is recorded if the
+     * player made at least one move.
+     *
+     * @param id the identifier of the session
+     * @return {@code true} if the session was closed, {@code false} if there
+     * is no such session
+     */
+    public boolean close(long id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        synchronized (session) {
+            if (!session.isFinished() && session.getSteps() > 0) {
+                results.accept(session.finish());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return the number of open sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+}
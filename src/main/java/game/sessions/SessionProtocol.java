@@ -0,0 +1,166 @@
+package game.sessions;
+
+import game.state.MoveKind;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Line protocol of the session server. Every request is a single line of
+ * words separated by spaces, and every response is a single line starting
+ * with {@code OK} or {@code ERR}:
+ * <pre>
+ * CREATE &lt;player&gt;       OK &lt;id&gt;
+ * MOVE &lt;id&gt; &lt;lurd&gt;      OK &lt;steps&gt; &lt;pushes&gt; &lt;status&gt;
+ * UNDO &lt;id&gt; [count]     OK &lt;steps&gt; &lt;pushes&gt; &lt;status&gt;
+ * QUERY &lt;id&gt;            OK &lt;steps&gt; &lt;pushes&gt; &lt;status&gt; &lt;tray&gt;
+ * CLOSE &lt;id&gt;            OK
+ * </pre>
+ * The moves are given in LURD notation and applied one by one, the moves
+ * that are not allowed are skipped. A string containing any other character
+ * is rejected before a move is applied. The status is {@code SOLVED} or
+ * {@code PLAYING}, and the tray is formatted by {@link GameSession#getTray()}.
+ * Requests received over a {@link Connection} also tie the sessions created
+ * to it, and the sessions still open when the connection ends are closed.
+ */
+public class SessionProtocol {
+
+    private final SessionManager sessions;
+
+    /**
+     * Creates a {@code SessionProtocol} object.
+     *
+     * @param sessions the sessions served
+     */
+    public SessionProtocol(SessionManager sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * The requests of a single client connection. The sessions created over
+     * the connection and not closed yet are closed with it. Instances are not
+     * thread-safe.
+     */
+    public final class Connection {
+
+        private final Set<Long> created = new HashSet<>();
+
+        private Connection() {
+        }
+
+        /**
+         * Handles a request.
+         *
+         * @param line the request line
+         * @return the response line
+         */
+        public String handle(String line) {
+            return SessionProtocol.this.handle(line, created);
+        }
+
+        /**
+         * Closes the sessions created over the connection and not closed
+         * yet.
+         */
+        public void close() {
+            created.forEach(sessions::close);
+            created.clear();
+        }
+
+    }
+
+    /**
+     * Starts handling the requests of a client connection.
+     *
+     * @return the connection
+     */
+    public Connection connect() {
+        return new Connection();
+    }
+
+    /**
+     * Handles a request. The sessions created are not tied to a connection,
+     * so they stay open until they are closed explicitly.
+     *
+     * @param line the request line
+     * @return the response line
+     */
+    public String handle(String line) {
+        return handle(line, new HashSet<>());
+    }
+
+    private String handle(String line, Set<Long> created) {
+        String[] words = line.trim().split(" +");
+        try {
+            switch (words[0].toUpperCase(Locale.ROOT)) {
+                case "CREATE":
+                    if (words.length != 2) {
+                        return error("Usage: CREATE <player>");
+                    }
+                    long id = sessions.create(words[1]).getId();
+                    created.add(id);
+                    return "OK " + id;
+                case "MOVE":
+                    return words.length == 3 ? session(words[1], session -> {
+                        if (session.isFinished()) {
+                            return error("Game finished");
+                        }
+                        if (!GameSession.isMoves(words[2])) {
+                            return error("Invalid moves " + words[2]);
+                        }
+                        for (char move : words[2].toCharArray()) {
+                            MoveKind kind = session.move(move);
+                            if (kind != null && session.isSolved()) {
+                                break;
+                            }
+                        }
+                        return status(session);
+                    }) : error("Usage: MOVE <id> <moves>");
+                case "UNDO":
+                    if (words.length < 2 || words.length > 3) {
+                        return error("Usage: UNDO <id> [count]");
+                    }
+                    int count = words.length == 3 ? Integer.parseInt(words[2]) : 1;
+                    return session(words[1], session -> {
+                        if (session.isFinished()) {
+                            return error("Game finished");
+                        }
+                        int undone = 0;
+                        while (undone < count && session.undo()) {
+                            undone++;
+                        }
+                        return status(session);
+                    });
+                case "QUERY":
+                    return words.length == 2 ? session(words[1], session -> status(session) + " " + session.getTray())
+                            : error("Usage: QUERY <id>");
+                case "CLOSE":
+                    if (words.length != 2 || !sessions.close(Long.parseLong(words[1]))) {
+                        return error("No such session");
+                    }
+                    created.remove(Long.parseLong(words[1]));
+                    return "OK";
+                default:
+                    return error("Unknown command " + words[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            return error(e.getMessage());
+        }
+    }
+
+    private String session(String id, Function<GameSession, String> command) {
+        return sessions.execute(Long.parseLong(id), command).orElse(error("No such session"));
+    }
+
+    private static String status(GameSession session) {
+        return "OK " + session.getSteps() + " " + session.getPushes() + " "
+                + (session.isSolved() ? "SOLVED" : "PLAYING");
+    }
+
+    private static String error(String message) {
+        return "ERR " + message;
+    }
+
+}
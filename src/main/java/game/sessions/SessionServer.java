@@ -0,0 +1,204 @@
+package game.sessions;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link SessionProtocol} over TCP or, on runtimes that support
+ * them, Unix domain sockets. Every connection is handled by its own thread,
+ * a virtual thread where the runtime provides them and a pooled platform
+ * thread otherwise, and may drive any number of sessions. The sessions
+ * created over a connection and still open when it ends are closed, so
+ * clients that disconnect without closing them leak nothing. Responses are
+ * flushed only once the requests already received are answered, so clients
+ * can pipeline their requests.
+ */
+@Slf4j
+public class SessionServer implements Closeable {
+
+    private final SessionProtocol protocol;
+    private final SocketAddress address;
+    private final ServerSocketChannel server;
+    private final ExecutorService connections = newConnectionExecutor();
+    private final Thread acceptor;
+
+    /**
+     * Creates a {@code SessionServer} object bound to the address specified.
+     *
+     * @param protocol the protocol handling the requests
+     * @param address an {@link InetSocketAddress}, or an address created by
+     * {@link #unixAddress(Path)}
+     * @throws IOException if the address cannot be bound
+     */
+    public SessionServer(SessionProtocol protocol, SocketAddress address) throws IOException {
+        this.protocol = protocol;
+        this.server = open(address);
+        server.bind(address);
+        this.address = server.getLocalAddress();
+        this.acceptor = new Thread(this::accept, "session-acceptor");
+        acceptor.setDaemon(true);
+    }
+
+    /**
+     * Creates the address of a Unix domain socket.
+     *
+     * @param path the path of the socket file
+     * @return the address
+     * @throws UnsupportedOperationException if the runtime does not support
+     * Unix domain sockets
+     */
+    public static SocketAddress unixAddress(Path path) {
+        try {
+            return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                    .getMethod("of", Path.class)
+                    .invoke(null, path);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Unix domain sockets are not supported", e);
+        }
+    }
+
+    /**
+     * Starts accepting connections.
+     *
+     * @return this object
+     */
+    public SessionServer start() {
+        acceptor.start();
+        log.info("Serving game sessions on {}", address);
+        return this;
+    }
+
+    /**
+     * Returns the address the server is bound to.
+     *
+     * @return the local address
+     */
+    public SocketAddress getLocalAddress() {
+        return address;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+        if (!(address instanceof InetSocketAddress)) {
+            Files.deleteIfExists(Paths.get(address.toString()));
+        }
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                connections.execute(() -> serve(channel));
+            }
+        } catch (ClosedChannelException e) {
+            log.debug("Session server closed");
+        } catch (IOException e) {
+            log.error("Session server failed", e);
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        SessionProtocol.Connection requests = protocol.connect();
+        try (SocketChannel connection = channel;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection),
+                     StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(connection),
+                     StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().equalsIgnoreCase("QUIT")) {
+                    writer.write("BYE\n");
+                    break;
+                }
+                if (!line.trim().isEmpty()) {
+                    writer.write(requests.handle(line));
+                    writer.write('\n');
+                }
+                if (!reader.ready()) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Session connection closed", e);
+        } finally {
+            requests.close();
+        }
+    }
+
+    private static ServerSocketChannel open(SocketAddress address) throws IOException {
+        if (address instanceof InetSocketAddress) {
+            return ServerSocketChannel.open();
+        }
+        try {
+            ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            return (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                    .invoke(null, unix);
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new UnsupportedOperationException("Unix domain sockets are not supported", e);
+        }
+    }
+
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "session-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts a session server saving the finished games through the
+     * {@code GameResultDao}. The argument is the TCP port, or the path of a
+     * Unix domain socket.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the server cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: SessionServer <port|socket-path>");
+            System.exit(1);
+        }
+        SocketAddress address = args[0].matches("\\d+")
+                ? new InetSocketAddress(Integer.parseInt(args[0]))
+                : unixAddress(Paths.get(args[0]));
+        SessionServer server = new SessionServer(new SessionProtocol(new SessionManager(SessionManager.persistingSink())),
+                address).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                log.warn("Cannot close the session server", e);
+            }
+        }));
+        server.acceptor.join();
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Provides classes for hosting headless game sessions behind a line protocol.
+ * @version 1.0
+ */
+package game.sessions;
@@ -0,0 +1,228 @@
+package game.solutions;
+
+import game.solver.Level;
+import game.solver.Moves;
+import game.state.Direction;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Canonical fingerprint of a level. Levels that differ only in the spaces the
+ * character can never reach, in the margins around the tray, or by any of
+ * the eight rotations and reflections of the tray share the same
+ * fingerprint. Move sequences can be converted between the orientation of
+ * the level and the canonical orientation.
+ */
+public final class LevelFingerprint {
+
+    /*
+     * The linear parts of the eight symmetries of the square as
+     * {m00, m01, m10, m11}, mapping (row, col) to
+     * (m00 * row + m01 * col, m10 * row + m11 * col).
+     */
+    private static final int[][] SYMMETRIES = {
+            {1, 0, 0, 1},
+            {0, 1, -1, 0},
+            {-1, 0, 0, -1},
+            {0, -1, 1, 0},
+            {1, 0, 0, -1},
+            {-1, 0, 0, 1},
+            {0, 1, 1, 0},
+            {0, -1, -1, 0}
+    };
+
+    private final String fingerprint;
+    private final String canonical;
+    private final int[] toCanonical = new int[4];
+    private final int[] fromCanonical = new int[4];
+
+    private LevelFingerprint(String canonical, int[] symmetry) {
+        this.canonical = canonical;
+        this.fingerprint = sha256(canonical);
+        for (int d = 0; d < 4; d++) {
+            Direction direction = Level.DIRECTIONS[d];
+            int dr = symmetry[0] * direction.getDx() + symmetry[1] * direction.getDy();
+            int dc = symmetry[2] * direction.getDx() + symmetry[3] * direction.getDy();
+            int mapped = indexOf(Direction.of(dr, dc));
+            toCanonical[d] = mapped;
+            fromCanonical[mapped] = d;
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the level specified.
+     *
+     * @param level the level
+     * @return the fingerprint of the level
+     */
+    public static LevelFingerprint of(Level level) {
+        char[][] tray = normalize(level);
+        String best = null;
+        int[] bestSymmetry = null;
+        for (int[] symmetry : SYMMETRIES) {
+            String text = render(tray, symmetry);
+            if (best == null || text.compareTo(best) < 0) {
+                best = text;
+                bestSymmetry = symmetry;
+            }
+        }
+        return new LevelFingerprint(best, bestSymmetry);
+    }
+
+    /**
+     * Returns the fingerprint as a hexadecimal SHA-256 digest of the canonical
+     * representation.
+     *
+     * @return the fingerprint
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the canonical text representation of the level, using the
+     * symbols of the XSB format.
+     *
+     * @return the canonical text representation of the level
+     */
+    public String getCanonical() {
+        return canonical;
+    }
+
+    /**
+     * Converts a move sequence from the orientation of the level to the
+     * canonical orientation.
+     *
+     * @param moves the move sequence in LURD notation
+     * @return the move sequence in the canonical orientation
+     */
+    public String toCanonical(String moves) {
+        return map(moves, toCanonical);
+    }
+
+    /**
+     * Converts a move sequence from the canonical orientation to the
+     * orientation of the level.
+     *
+     * @param moves the move sequence in LURD notation
+     * @return the move sequence in the orientation of the level
+     */
+    public String fromCanonical(String moves) {
+        return map(moves, fromCanonical);
+    }
+
+    private static String map(String moves, int[] directions) {
+        char[] result = new char[moves.length()];
+        for (int i = 0; i < result.length; i++) {
+            char move = moves.charAt(i);
+            result[i] = Moves.toChar(directions[Moves.direction(move)], Moves.isPush(move));
+        }
+        return new String(result);
+    }
+
+    private static int indexOf(Direction direction) {
+        for (int d = 0; d < 4; d++) {
+            if (Level.DIRECTIONS[d] == direction) {
+                return d;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /*
+     * Turns the spaces the character can not reach into walls, and crops the
+     * tray to the reachable area surrounded by one layer of walls.
+     */
+    private static char[][] normalize(Level level) {
+        boolean[] region = new boolean[level.getSize()];
+        int[] queue = new int[level.getSize()];
+        int head = 0;
+        int tail = 0;
+        region[level.getCharacter()] = true;
+        queue[tail++] = level.getCharacter();
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int to = level.neighbor(cell, d);
+                if (to >= 0 && !region[to] && !level.isWall(to)) {
+                    region[to] = true;
+                    queue[tail++] = to;
+                }
+            }
+        }
+        boolean[] balls = new boolean[level.getSize()];
+        for (int ball : level.getBalls()) {
+            balls[ball] = true;
+        }
+        int top = Integer.MAX_VALUE;
+        int left = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        int right = Integer.MIN_VALUE;
+        for (int cell = 0; cell < level.getSize(); cell++) {
+            if (region[cell] || balls[cell] || level.isStorage(cell)) {
+                top = Math.min(top, level.row(cell));
+                bottom = Math.max(bottom, level.row(cell));
+                left = Math.min(left, level.col(cell));
+                right = Math.max(right, level.col(cell));
+            }
+        }
+        char[][] tray = new char[bottom - top + 3][right - left + 3];
+        for (int r = 0; r < tray.length; r++) {
+            for (int c = 0; c < tray[r].length; c++) {
+                int row = top + r - 1;
+                int col = left + c - 1;
+                if (row < 0 || row >= level.getHeight() || col < 0 || col >= level.getWidth()) {
+                    tray[r][c] = '#';
+                    continue;
+                }
+                int cell = level.cell(row, col);
+                boolean storage = level.isStorage(cell);
+                if (cell == level.getCharacter()) {
+                    tray[r][c] = storage ? '+' : '@';
+                } else if (balls[cell]) {
+                    tray[r][c] = storage ? '*' : '$';
+                } else if (storage) {
+                    tray[r][c] = '.';
+                } else {
+                    tray[r][c] = region[cell] ? ' ' : '#';
+                }
+            }
+        }
+        return tray;
+    }
+
+    private static String render(char[][] tray, int[] m) {
+        int height = tray.length;
+        int width = tray[0].length;
+        int newHeight = m[0] != 0 ? height : width;
+        int newWidth = m[0] != 0 ? width : height;
+        int rowOffset = -Math.min(0, m[0] * (height - 1)) - Math.min(0, m[1] * (width - 1));
+        int colOffset = -Math.min(0, m[2] * (height - 1)) - Math.min(0, m[3] * (width - 1));
+        StringBuilder sb = new StringBuilder(newHeight * (newWidth + 1));
+        for (int r = 0; r < newHeight; r++) {
+            for (int c = 0; c < newWidth; c++) {
+                int dr = r - rowOffset;
+                int dc = c - colOffset;
+                sb.append(tray[m[0] * dr + m[2] * dc][m[1] * dr + m[3] * dc]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+package game.solutions;
+
+import game.solver.Level;
+import game.solver.Solution;
+import game.solver.Solver;
+import game.solver.SolverResult;
+import lombok.extern.slf4j.Slf4j;
+import util.jpa.PersistenceBootstrap;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache of the best known solutions. An in-process LRU map keyed by
+ * the {@link LevelFingerprint} of the levels sits in front of the
+ * {@link StoredSolution} table, and every improvement is written behind to
+ * the database. The database is only accessed from a single background
+ * thread, outside the lock of the cache, so a caller that is interrupted
+ * never interrupts a transaction and never waits for a write. The entries of
+ * the map are replaced rather than modified, and the entities given to the
+ * database are copies. The methods are thread-safe.
+ */
+@Slf4j
+public class SolutionCache {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static SolutionCache instance;
+
+    private final Map<String, StoredSolution> lru;
+    private final Supplier<StoredSolutionDao> daoSupplier;
+    private final ExecutorService database = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "solution-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates an in-memory {@code SolutionCache} object that is not backed by
+     * the database.
+     *
+     * @param capacity the maximum number of levels kept in memory
+     */
+    public SolutionCache(int capacity) {
+        this(capacity, () -> null);
+    }
+
+    /**
+     * Creates a {@code SolutionCache} object.
+     *
+     * @param capacity the maximum number of levels kept in memory
+     * @param daoSupplier supplies the DAO of the database table, or
+     *                    {@code null} while the database is not available
+     */
+    public SolutionCache(int capacity, Supplier<StoredSolutionDao> daoSupplier) {
+        this.daoSupplier = daoSupplier;
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredSolution> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the application-wide {@code SolutionCache} instance. The
+     * instance uses the database once the persistence unit has been
+     * bootstrapped, and serves from memory only until then.
+     *
+     * @return the application-wide {@code SolutionCache} instance
+     */
+    public static synchronized SolutionCache getInstance() {
+        if (instance == null) {
+            instance = new SolutionCache(DEFAULT_CAPACITY,
+                    () -> PersistenceBootstrap.isReady() ? StoredSolutionDao.getInstance() : null);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the known solution of the level with the fewest steps.
+     *
+     * @param level the level
+     * @return the solution with the fewest steps, or an empty {@link Optional}
+     * if no solution is known
+     */
+    public Optional<Solution> getMoveSolution(Level level) {
+        LevelFingerprint fingerprint = LevelFingerprint.of(level);
+        return Optional.ofNullable(lookup(fingerprint))
+                .map(StoredSolution::getMoveSolution)
+                .map(moves -> new Solution(fingerprint.fromCanonical(moves)));
+    }
+
+    /**
+     * Returns the known solution of the level with the fewest pushes.
+     *
+     * @param level the level
+     * @return the solution with the fewest pushes, or an empty
+     * {@link Optional} if no solution is known
+     */
+    public Optional<Solution> getPushSolution(Level level) {
+        LevelFingerprint fingerprint = LevelFingerprint.of(level);
+        return Optional.ofNullable(lookup(fingerprint))
+                .map(StoredSolution::getPushSolution)
+                .map(moves -> new Solution(fingerprint.fromCanonical(moves)));
+    }
+
+    /**
+     * Records a solution of the level. The solution replaces the known
+     * solutions it improves on in steps or in pushes.
+     *
+     * @param level the level
+     * @param solution a solution of the level
+     * @throws IllegalArgumentException if the solution does not solve the
+     * level
+     */
+    public void offer(Level level, Solution solution) {
+        if (!solution.solves(level)) {
+            throw new IllegalArgumentException("Not a solution of the level");
+        }
+        LevelFingerprint fingerprint = LevelFingerprint.of(level);
+        String moves = fingerprint.toCanonical(solution.getMoves());
+        int steps = solution.getSteps();
+        int pushes = solution.getPushes();
+        StoredSolution known = lookup(fingerprint);
+        StoredSolution stored;
+        synchronized (this) {
+            StoredSolution current = lru.getOrDefault(fingerprint.getFingerprint(), known);
+            if (current != null) {
+                stored = current.toBuilder().build();
+            } else {
+                stored = StoredSolution.builder()
+                        .fingerprint(fingerprint.getFingerprint())
+                        .level(fingerprint.getCanonical())
+                        .build();
+            }
+            if (!improve(stored, moves, steps, pushes)) {
+                return;
+            }
+            lru.put(fingerprint.getFingerprint(), stored);
+        }
+        store(stored.toBuilder().build());
+    }
+
+    /**
+     * Returns a solution of the level, preferring the known solution with the
+     * fewest pushes and running the solver specified on a miss. Solutions
+     * found by the solver are recorded.
+     *
+     * @param level the level
+     * @param solver the solver to run on a miss
+     * @param timeout the maximum time of the solver run
+     * @return the solution, or an empty {@link Optional} if none is known and
+     * the solver did not find one
+     */
+    public Optional<Solution> solve(Level level, Solver solver, Duration timeout) {
+        Optional<Solution> cached = getPushSolution(level);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        SolverResult result = solver.solve(level, timeout);
+        if (result.isSolved()) {
+            offer(level, result.getSolution());
+        }
+        return Optional.ofNullable(result.getSolution());
+    }
+
+    /*
+     * Replaces the solutions that the solution specified improves on in steps
+     * or in pushes, and returns whether any was replaced.
+     */
+    private static boolean improve(StoredSolution stored, String moves, int steps, int pushes) {
+        boolean changed = false;
+        if (stored.getMoveSolution() == null || steps < stored.getMoveSolutionSteps()
+                || (steps == stored.getMoveSolutionSteps() && pushes < stored.getMoveSolutionPushes())) {
+            stored.setMoveSolution(moves);
+            stored.setMoveSolutionSteps(steps);
+            stored.setMoveSolutionPushes(pushes);
+            changed = true;
+        }
+        if (stored.getPushSolution() == null || pushes < stored.getPushSolutionPushes()
+                || (pushes == stored.getPushSolutionPushes() && steps < stored.getPushSolutionSteps())) {
+            stored.setPushSolution(moves);
+            stored.setPushSolutionSteps(steps);
+            stored.setPushSolutionPushes(pushes);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Waits until the improvements recorded so far have been written to the
+     * database.
+     *
+     * @throws InterruptedException if the current thread was interrupted
+     * while waiting
+     */
+    void flush() throws InterruptedException {
+        try {
+            database.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /*
+     * Returns the solutions of a level from the map, or from the database on
+     * a miss. The read runs on the database thread, and an interrupted caller
+     * stops waiting for it and gets a miss.
+     */
+    private StoredSolution lookup(LevelFingerprint fingerprint) {
+        String key = fingerprint.getFingerprint();
+        synchronized (this) {
+            StoredSolution stored = lru.get(key);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        StoredSolutionDao dao = daoSupplier.get();
+        if (dao == null) {
+            return null;
+        }
+        Future<StoredSolution> read = database.submit(() -> dao.find(key)
+                .map(found -> found.toBuilder().build())
+                .orElse(null));
+        StoredSolution found;
+        try {
+            found = read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Could not read the solutions of level {}", key, e.getCause());
+            return null;
+        }
+        if (found == null) {
+            return null;
+        }
+        synchronized (this) {
+            StoredSolution stored = lru.get(key);
+            if (stored != null) {
+                return stored;
+            }
+            lru.put(key, found);
+            return found;
+        }
+    }
+
+    /*
+     * Writes the solutions of a level behind. The solutions are merged with
+     * the stored ones, since the caller may have missed them when its read
+     * was interrupted.
+     */
+    private void store(StoredSolution stored) {
+        StoredSolutionDao dao = daoSupplier.get();
+        if (dao == null) {
+            return;
+        }
+        database.execute(() -> {
+            try {
+                Optional<StoredSolution> existing = dao.find(stored.getFingerprint());
+                if (!existing.isPresent()) {
+                    dao.persist(stored);
+                    return;
+                }
+                StoredSolution merged = existing.get().toBuilder().build();
+                boolean changed = improve(merged, stored.getMoveSolution(), stored.getMoveSolutionSteps(),
+                        stored.getMoveSolutionPushes());
+                changed |= improve(merged, stored.getPushSolution(), stored.getPushSolutionSteps(),
+                        stored.getPushSolutionPushes());
+                if (changed) {
+                    dao.update(merged);
+                }
+            } catch (RuntimeException e) {
+                if (dao.getEntityManager().getTransaction().isActive()) {
+                    dao.getEntityManager().getTransaction().rollback();
+                }
+                log.warn("Could not store the solutions of level {}", stored.getFingerprint(), e);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,81 @@
+package game.solutions;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.ZonedDateTime;
+
+/**
+ * Class representing the best known solutions of a level. The solutions are
+ * stored in the canonical orientation of the level, see
+ * {@link LevelFingerprint}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Entity
+public class StoredSolution {
+
+    /**
+     * The fingerprint of the level.
+     */
+    @Id
+    @Column(length = 64)
+    private String fingerprint;
+
+    /**
+     * The canonical text representation of the level.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String level;
+
+    /**
+     * The solution with the fewest steps known, in LURD notation.
+     */
+    @Lob
+    private String moveSolution;
+
+    /**
+     * The number of steps of the solution with the fewest steps known.
+     */
+    private int moveSolutionSteps;
+
+    /**
+     * The number of pushes of the solution with the fewest steps known.
+     */
+    private int moveSolutionPushes;
+
+    /**
+     * The solution with the fewest pushes known, in LURD notation.
+     */
+    @Lob
+    private String pushSolution;
+
+    /**
+     * The number of steps of the solution with the fewest pushes known.
+     */
+    private int pushSolutionSteps;
+
+    /**
+     * The number of pushes of the solution with the fewest pushes known.
+     */
+    private int pushSolutionPushes;
+
+    /**
+     * The timestamp when the solutions were last updated.
+     */
+    @Column(nullable = false)
+    private ZonedDateTime updated;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updated = ZonedDateTime.now();
+    }
+
+}
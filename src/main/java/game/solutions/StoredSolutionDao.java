@@ -0,0 +1,32 @@
+package game.solutions;
+
+import util.jpa.GenericJpaDao;
+import util.jpa.PersistenceBootstrap;
+
+/**
+ * DAO class for the {@link StoredSolution} entity.
+ */
+public class StoredSolutionDao extends GenericJpaDao<StoredSolution> {
+
+    private static StoredSolutionDao instance;
+
+    StoredSolutionDao() {
+        super(StoredSolution.class);
+    }
+
+    /**
+     * Returns the single {@code StoredSolutionDao} instance, waiting for the
+     * persistence unit to be bootstrapped if necessary.
+     *
+     * @return the single {@code StoredSolutionDao} instance
+     */
+    public static synchronized StoredSolutionDao getInstance() {
+        if (instance == null) {
+            StoredSolutionDao dao = new StoredSolutionDao();
+            dao.setEntityManager(PersistenceBootstrap.getEntityManagerFactory().createEntityManager());
+            instance = dao;
+        }
+        return instance;
+    }
+
+}
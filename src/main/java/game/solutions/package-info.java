@@ -0,0 +1,6 @@
+/**
+ * Provides classes for storing and looking up the best known solutions of
+ * the levels.
+ * @version 1.0
+ */
+package game.solutions;
@@ -0,0 +1,362 @@
+package game.solver;
+
+import game.solver.stats.SolverProbe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A* search over the pushes of the balls. The character's moves between
+ * pushes are not part of the search space, the positions are identified by
+ * the cells of the balls and the area reachable by the character. The
+ * heuristic is the sum of the push distances of the balls to their nearest
+ * storages, or optionally the minimum matching of {@link Matching}, and
+ * balls are never pushed onto dead spaces or into 2&#xd7;2 deadlocks. The
+ * positions are kept in a compact {@link NodeStore} and the open list is a
+ * heap of primitive entries. Unless disabled, pushes through tunnels and
+ * into the goal room are taken as single macro moves costing the number of
+ * pushes they stand for, and only the pushes into a PI-corral are generated
+ * when there is one, see {@link Corrals}.
+ */
+public class AStarSolver implements Solver {
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private final boolean macros;
+    private final boolean corrals;
+    private final double weight;
+    private final boolean matching;
+
+    /**
+     * Creates an {@code AStarSolver} object that uses the tunnel and goal
+     * room macro moves of {@link LevelAnalysis} and prunes the pushes
+     * outside of PI-corrals.
+     */
+    public AStarSolver() {
+        this(true, true);
+    }
+
+    /**
+     * Creates an {@code AStarSolver} object.
+     *
+     * @param macros whether to collapse the pushes through tunnels and into
+     * the goal room into macro moves
+     */
+    public AStarSolver(boolean macros) {
+        this(macros, true);
+    }
+
+    /**
+     * Creates an {@code AStarSolver} object.
+     *
+     * @param macros whether to collapse the pushes through tunnels and into
+     * the goal room into macro moves
+     * @param corrals whether to generate only the pushes into a PI-corral
+     * when there is one, and to prune the corrals that are deadlocks
+     */
+    public AStarSolver(boolean macros, boolean corrals) {
+        this(macros, corrals, 1);
+    }
+
+    /**
+     * Creates an {@code AStarSolver} object running weighted A*, which orders
+     * the positions by the number of pushes made plus the heuristic
+     * multiplied by the weight. Weights above 1 find solutions faster, with
+     * at most weight times the fewest pushes possible.
+     *
+     * @param macros whether to collapse the pushes through tunnels and into
+     * the goal room into macro moves
+     * @param corrals whether to generate only the pushes into a PI-corral
+     * when there is one, and to prune the corrals that are deadlocks
+     * @param weight the weight of the heuristic, at least 1
+     * @throws IllegalArgumentException if the weight is less than 1
+     */
+    public AStarSolver(boolean macros, boolean corrals, double weight) {
+        this(macros, corrals, weight, false);
+    }
+
+    /**
+     * Creates an {@code AStarSolver} object running weighted A* with the
+     * heuristic specified. The minimum matching heuristic costs more per
+     * position than the sum of the distances to the nearest storages, but
+     * estimates better when several balls are closest to the same storage.
+     *
+     * @param macros whether to collapse the pushes through tunnels and into
+     * the goal room into macro moves
+     * @param corrals whether to generate only the pushes into a PI-corral
+     * when there is one, and to prune the corrals that are deadlocks
+     * @param weight the weight of the heuristic, at least 1
+     * @param matching whether to use the minimum matching heuristic
+     * @throws IllegalArgumentException if the weight is less than 1
+     */
+    public AStarSolver(boolean macros, boolean corrals, double weight, boolean matching) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight must be at least 1");
+        }
+        this.macros = macros;
+        this.corrals = corrals;
+        this.weight = weight;
+        this.matching = matching;
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout) {
+        return solve(level, timeout, new SolverProbe());
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout, SolverProbe probe) {
+        return solve(level, timeout, probe, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Searches for a solution of fewer pushes than a bound. Positions that
+     * cannot lead to such a solution according to the heuristic are pruned.
+     *
+     * @param level the level to solve
+     * @param timeout the maximum wall-clock time of the search
+     * @param probe the probe receiving the counters
+     * @param bound the number of pushes every solution must stay below
+     * @return the outcome of the search, {@code UNSOLVABLE} if there is no
+     * solution below the bound
+     */
+    SolverResult solve(Level level, Duration timeout, SolverProbe probe, int bound) {
+        probe.attach();
+        try {
+            return search(level, timeout, probe, bound, null);
+        } finally {
+            probe.detach();
+        }
+    }
+
+    /**
+     * Searches for a solution, resuming from the latest matching checkpoint
+     * and writing checkpoints periodically and when the search times out or
+     * is cancelled.
+     *
+     * @param level the level to solve
+     * @param timeout the maximum wall-clock time of the search
+     * @param probe the probe receiving the counters
+     * @param checkpoints the checkpoints of the search
+     * @return the outcome of the search
+     */
+    SolverResult solve(Level level, Duration timeout, SolverProbe probe, Checkpoints checkpoints) {
+        probe.attach();
+        try {
+            return search(level, timeout, probe, Integer.MAX_VALUE, checkpoints);
+        } finally {
+            probe.detach();
+        }
+    }
+
+    /**
+     * Returns a description of the configuration of this solver, which a
+     * checkpoint must match to be resumed.
+     *
+     * @return the description of the configuration
+     */
+    String getConfiguration() {
+        return "macros=" + macros + ",corrals=" + corrals + ",weight=" + weight + ",matching=" + matching;
+    }
+
+    private SolverResult search(Level level, Duration timeout, SolverProbe probe, int bound,
+                                Checkpoints checkpoints) {
+        long begin = System.nanoTime();
+        long deadline = begin + timeout.toNanos();
+        Reachability reachability = new Reachability(level);
+        Reachability childReachability = new Reachability(level);
+        boolean[] occupied = new boolean[level.getSize()];
+        NodeStore store = new NodeStore(level);
+        LevelAnalysis analysis = macros ? new LevelAnalysis(level) : null;
+        Corrals pruning = corrals ? new Corrals(level) : null;
+        Matching matcher = matching ? new Matching(level) : null;
+        int[] balls = level.getBalls();
+        int[] child = new int[balls.length];
+        for (int ball : balls) {
+            if (level.isDead(ball)) {
+                return SolverResult.builder()
+                        .status(SolverResult.Status.UNSOLVABLE)
+                        .elapsedNanos(System.nanoTime() - begin)
+                        .build();
+            }
+            occupied[ball] = true;
+        }
+        Checkpoints.Restored restored = checkpoints == null ? null
+                : checkpoints.load(level, getConfiguration(), store);
+        LongHeap open;
+        long expanded;
+        long generated;
+        if (restored != null) {
+            open = restored.open;
+            expanded = restored.expanded;
+            generated = restored.generated;
+        } else {
+            int root = store.add(balls, reachability.compute(level.getCharacter(), occupied).getNormalized(),
+                    -1, NodeStore.NO_MOVE, 0);
+            open = new LongHeap();
+            open.add(NodeStore.entry(priority(0, heuristic(level, matcher, balls)), 0, root));
+            expanded = 0;
+            generated = 1;
+        }
+        Arrays.fill(occupied, false);
+        long polled = 0;
+        long lookups = 0;
+        long hits = 0;
+        long prunes = 0;
+        SolverResult.Status status = SolverResult.Status.UNSOLVABLE;
+        int solved = -1;
+        while (!open.isEmpty()) {
+            if (polled++ % CHECK_INTERVAL == 0) {
+                probe.publish(expanded, generated, open.size(), store.closedCount(), lookups, hits, prunes);
+                if (Thread.currentThread().isInterrupted()) {
+                    status = SolverResult.Status.CANCELLED;
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    status = SolverResult.Status.TIMEOUT;
+                    break;
+                }
+                if (checkpoints != null && checkpoints.isDue()) {
+                    checkpoints.save(store, open, expanded, generated, false);
+                }
+            }
+            long entry = open.poll();
+            int index = NodeStore.entryIndex(entry);
+            if (store.isClosed(index) || NodeStore.isStale(entry, store.getCost(index))) {
+                continue;
+            }
+            store.getBalls(index, balls);
+            if (level.isSolved(balls)) {
+                status = SolverResult.Status.SOLVED;
+                solved = index;
+                break;
+            }
+            store.close(index);
+            expanded++;
+            int g = store.getCost(index);
+            int packed = analysis == null ? -1 : analysis.packedCount(balls);
+            for (int ball : balls) {
+                occupied[ball] = true;
+            }
+            reachability.compute(store.getArea(index), occupied);
+            int corral = pruning == null ? Corrals.NONE
+                    : pruning.analyze(balls, occupied, reachability, store.getArea(index));
+            if (corral == Corrals.DEADLOCK) {
+                prunes++;
+            }
+            for (int i = 0; i < balls.length && corral != Corrals.DEADLOCK; i++) {
+                int from = balls[i];
+                if ((packed >= 0 && analysis.isInGoalRoom(from))
+                        || (corral == Corrals.RESTRICTED && !pruning.isSelected(from))) {
+                    continue;
+                }
+                for (int d = 0; d < 4; d++) {
+                    int to = level.neighbor(from, d);
+                    if (to < 0 || level.isWall(to) || occupied[to] || level.isDead(to)
+                            || !reachability.isReachable(level.neighbor(from, (d + 2) % 4))) {
+                        continue;
+                    }
+                    occupied[from] = false;
+                    int end = to;
+                    int character = from;
+                    int length = 1;
+                    int move = NodeStore.move(from, d);
+                    if (analysis != null) {
+                        int side = (d + 2) % 4;
+                        if (packed >= 0 && to == analysis.getEntrance() && analysis.hasRoomMove(packed, side)) {
+                            end = analysis.roomTarget(packed);
+                            character = analysis.roomCharacter(packed, side);
+                            length = analysis.roomLength(packed, side);
+                            move = LevelAnalysis.roomMove(packed, side);
+                        } else {
+                            length = analysis.tunnelLength(from, d, occupied);
+                            for (int step = 1; step < length; step++) {
+                                end = level.neighbor(end, d);
+                            }
+                            character = level.neighbor(end, side);
+                            move = LevelAnalysis.tunnelMove(from, d, length);
+                        }
+                    }
+                    occupied[end] = true;
+                    if (Deadlocks.isSquareDeadlock(level, occupied, end)) {
+                        prunes++;
+                    } else {
+                        System.arraycopy(balls, 0, child, 0, balls.length);
+                        child[i] = end;
+                        Arrays.sort(child);
+                        int cost = g + length;
+                        int h = heuristic(level, matcher, child);
+                        if (cost + h < bound) {
+                            int area = childReachability.compute(character, occupied).getNormalized();
+                            int added = store.add(child, area, index, move, cost);
+                            lookups++;
+                            if (added >= 0) {
+                                open.add(NodeStore.entry(priority(cost, h), cost, added));
+                                generated++;
+                            } else {
+                                hits++;
+                                if (!store.isClosed(-1 - added) && cost < store.getCost(-1 - added)) {
+                                    store.update(-1 - added, index, move, cost);
+                                    open.add(NodeStore.entry(priority(cost, h), cost, -1 - added));
+                                }
+                            }
+                        }
+                    }
+                    occupied[end] = false;
+                    occupied[from] = true;
+                }
+            }
+            for (int ball : balls) {
+                occupied[ball] = false;
+            }
+        }
+        if (checkpoints != null && (status == SolverResult.Status.TIMEOUT
+                || status == SolverResult.Status.CANCELLED)) {
+            checkpoints.save(store, open, expanded, generated, true);
+        }
+        probe.publish(expanded, generated, open.size(), store.closedCount(), lookups, hits, prunes);
+        return SolverResult.builder()
+                .status(status)
+                .solution(solved < 0 ? null : Solution.of(level, pushesTo(store, analysis, solved)))
+                .expandedNodes(expanded)
+                .generatedNodes(generated)
+                .elapsedNanos(System.nanoTime() - begin)
+                .build();
+    }
+
+    private int priority(int g, int h) {
+        return weight == 1 ? g + h : g + (int) Math.min(Integer.MAX_VALUE - g, Math.ceil(weight * h));
+    }
+
+    private static int heuristic(Level level, Matching matcher, int[] balls) {
+        if (matcher != null) {
+            return matcher.estimate(balls);
+        }
+        int h = 0;
+        for (int ball : balls) {
+            h += level.goalDistance(ball);
+        }
+        return h;
+    }
+
+    private static List<Push> pushesTo(NodeStore store, LevelAnalysis analysis, int index) {
+        List<Integer> moves = new ArrayList<>();
+        for (int n = index; store.getMove(n) != NodeStore.NO_MOVE; n = store.getParent(n)) {
+            moves.add(store.getMove(n));
+        }
+        Collections.reverse(moves);
+        List<Push> pushes = new ArrayList<>();
+        for (int move : moves) {
+            if (analysis == null) {
+                pushes.add(NodeStore.toPush(move));
+            } else {
+                analysis.toPushes(move, pushes);
+            }
+        }
+        return pushes;
+    }
+
+}
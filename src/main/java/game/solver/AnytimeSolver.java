@@ -0,0 +1,90 @@
+package game.solver;
+
+import game.solver.stats.SolverProbe;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Anytime search that finds a first solution quickly and improves it until
+ * the deadline. The level is solved by weighted A* under a decreasing
+ * sequence of weights, every run being bounded by the number of pushes of the
+ * best solution so far, so it either finds a shorter solution or proves there
+ * is none at that weight. Each improved solution is published to a callback
+ * as soon as it is found. The weighted runs use the macro moves and the
+ * PI-corral pruning, which find solutions faster but may miss the shortest
+ * one. The final run with weight 1 is plain A* without them, so when it
+ * completes the best solution has the fewest pushes possible and the search
+ * stops. If the deadline passes first, the best solution found so far is
+ * returned.
+ */
+public class AnytimeSolver implements Solver {
+
+    private static final double[] WEIGHTS = {10, 5, 3, 2, 1.5, 1.2, 1};
+
+    private final Consumer<Solution> callback;
+
+    /**
+     * Creates an {@code AnytimeSolver} object.
+     */
+    public AnytimeSolver() {
+        this(solution -> {
+        });
+    }
+
+    /**
+     * Creates an {@code AnytimeSolver} object.
+     *
+     * @param callback the callback receiving every improved solution, called
+     * on the thread running the search
+     */
+    public AnytimeSolver(Consumer<Solution> callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout) {
+        return solve(level, timeout, new SolverProbe());
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout, SolverProbe probe) {
+        long begin = System.nanoTime();
+        long deadline = begin + timeout.toNanos();
+        Solution best = null;
+        SolverResult.Status status = SolverResult.Status.UNSOLVABLE;
+        long expanded = 0;
+        long generated = 0;
+        for (double weight : WEIGHTS) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                status = SolverResult.Status.TIMEOUT;
+                break;
+            }
+            int bound = best == null ? Integer.MAX_VALUE : best.getPushes();
+            AStarSolver solver = weight == 1 ? new AStarSolver(false, false, 1)
+                    : new AStarSolver(true, true, weight);
+            SolverResult result = solver.solve(level, Duration.ofNanos(remaining), probe, bound);
+            expanded += result.getExpandedNodes();
+            generated += result.getGeneratedNodes();
+            status = result.getStatus();
+            if (result.isSolved()) {
+                best = result.getSolution();
+                callback.accept(best);
+            } else if (status != SolverResult.Status.UNSOLVABLE) {
+                break;
+            } else if (best == null) {
+                // Without a bound, weighted search is complete: no solution exists.
+                break;
+            }
+        }
+        return SolverResult.builder()
+                .status(best != null ? SolverResult.Status.SOLVED : status)
+                .solution(best)
+                .expandedNodes(expanded)
+                .generatedNodes(generated)
+                .elapsedNanos(System.nanoTime() - begin)
+                .build();
+    }
+
+}
@@ -0,0 +1,294 @@
+package game.solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bidirectional search over the pushes of the balls. A forward search pushes
+ * the balls from the initial configuration, a backward search pulls them
+ * from the goal configuration with every ball in a storage, and the two
+ * frontiers meet when a position generated by one side is found in the
+ * {@link NodeStore} of the other. The side with the smaller frontier is
+ * expanded next, so a long corridor is covered from both ends instead of
+ * being explored completely from one end. Levels with more storages than
+ * balls are delegated to {@link AStarSolver}, since they have no single goal
+ * configuration.
+ */
+public class BidirectionalSolver implements Solver {
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private static final class Side {
+        final boolean forward;
+        final NodeStore store;
+        final LongHeap open = new LongHeap();
+
+        Side(boolean forward, Level level) {
+            this.forward = forward;
+            this.store = new NodeStore(level);
+        }
+    }
+
+    private static final class Search {
+        final Level level;
+        final Side forward;
+        final Side backward;
+        final Reachability reachability;
+        final Reachability childReachability;
+        final boolean[] occupied;
+        final int[] balls;
+        final int[] child;
+        long generated;
+        int forwardMeeting = -1;
+        int backwardMeeting = -1;
+
+        Search(Level level) {
+            this.level = level;
+            this.forward = new Side(true, level);
+            this.backward = new Side(false, level);
+            this.reachability = new Reachability(level);
+            this.childReachability = new Reachability(level);
+            this.occupied = new boolean[level.getSize()];
+            this.balls = new int[level.getBallCount()];
+            this.child = new int[level.getBallCount()];
+        }
+
+        /*
+         * Adds a child position to a side and looks it up on the other side.
+         * Returns true if the frontiers have met.
+         */
+        boolean addChild(Side side, int parent, int move, int g, int area) {
+            NodeStore store = side.store;
+            int added = store.add(child, area, parent, move, g);
+            int index;
+            if (added >= 0) {
+                index = added;
+                generated++;
+            } else if (!store.isClosed(-1 - added) && g < store.getCost(-1 - added)) {
+                index = -1 - added;
+                store.update(index, parent, move, g);
+            } else {
+                return false;
+            }
+            side.open.add(NodeStore.entry(g + heuristic(level, child, side.forward), g, index));
+            Side other = side == forward ? backward : forward;
+            int met = other.store.indexOf(child, area);
+            if (met < 0) {
+                return false;
+            }
+            forwardMeeting = side.forward ? index : met;
+            backwardMeeting = side.forward ? met : index;
+            return true;
+        }
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout) {
+        if (level.getStorages().length != level.getBallCount()) {
+            return new AStarSolver().solve(level, timeout);
+        }
+        long begin = System.nanoTime();
+        long deadline = begin + timeout.toNanos();
+        for (int ball : level.getBalls()) {
+            if (level.isDead(ball)) {
+                return result(SolverResult.Status.UNSOLVABLE, null, 0, 0, begin);
+            }
+        }
+        for (int storage : level.getStorages()) {
+            if (level.startDistance(storage) == Level.UNREACHABLE) {
+                return result(SolverResult.Status.UNSOLVABLE, null, 0, 0, begin);
+            }
+        }
+        Search search = new Search(level);
+        System.arraycopy(level.getBalls(), 0, search.child, 0, level.getBallCount());
+        for (int ball : search.child) {
+            search.occupied[ball] = true;
+        }
+        int area = search.reachability.compute(level.getCharacter(), search.occupied).getNormalized();
+        Arrays.fill(search.occupied, false);
+        search.addChild(search.forward, -1, NodeStore.NO_MOVE, 0, area);
+        if (seedBackward(search)) {
+            return joined(search, 0, begin);
+        }
+        long polled = 0;
+        long expanded = 0;
+        while (!search.forward.open.isEmpty() && !search.backward.open.isEmpty()) {
+            if (polled++ % CHECK_INTERVAL == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return result(SolverResult.Status.CANCELLED, null, expanded, search.generated, begin);
+                }
+                if (System.nanoTime() > deadline) {
+                    return result(SolverResult.Status.TIMEOUT, null, expanded, search.generated, begin);
+                }
+            }
+            Side side = search.forward.open.size() <= search.backward.open.size() ? search.forward : search.backward;
+            long entry = side.open.poll();
+            int index = NodeStore.entryIndex(entry);
+            if (side.store.isClosed(index) || NodeStore.isStale(entry, side.store.getCost(index))) {
+                continue;
+            }
+            side.store.getBalls(index, search.balls);
+            if (side.forward && level.isSolved(search.balls)) {
+                search.forwardMeeting = index;
+                return joined(search, expanded, begin);
+            }
+            side.store.close(index);
+            expanded++;
+            boolean met = side.forward ? expandForward(search, index) : expandBackward(search, index);
+            if (met) {
+                return joined(search, expanded, begin);
+            }
+        }
+        return result(SolverResult.Status.UNSOLVABLE, null, expanded, search.generated, begin);
+    }
+
+    /*
+     * Seeds the backward search with the goal configuration and the character
+     * in every area next to a ball, since the last push may have been made
+     * from any of them.
+     */
+    private static boolean seedBackward(Search search) {
+        Level level = search.level;
+        int[] goal = level.getStorages();
+        System.arraycopy(goal, 0, search.child, 0, goal.length);
+        for (int ball : goal) {
+            search.occupied[ball] = true;
+        }
+        boolean met = false;
+        for (int ball : goal) {
+            for (int d = 0; d < 4 && !met; d++) {
+                int cell = level.neighbor(ball, d);
+                if (cell < 0 || level.isWall(cell) || search.occupied[cell]) {
+                    continue;
+                }
+                int area = search.reachability.compute(cell, search.occupied).getNormalized();
+                if (search.backward.store.indexOf(goal, area) < 0) {
+                    met = search.addChild(search.backward, -1, NodeStore.NO_MOVE, 0, area);
+                }
+            }
+        }
+        Arrays.fill(search.occupied, false);
+        return met;
+    }
+
+    private static boolean expandForward(Search search, int index) {
+        Level level = search.level;
+        NodeStore store = search.forward.store;
+        int[] balls = search.balls;
+        boolean[] occupied = search.occupied;
+        Reachability reachability = search.reachability;
+        int g = store.getCost(index) + 1;
+        for (int ball : balls) {
+            occupied[ball] = true;
+        }
+        reachability.compute(store.getArea(index), occupied);
+        boolean met = false;
+        for (int i = 0; i < balls.length && !met; i++) {
+            int from = balls[i];
+            for (int d = 0; d < 4 && !met; d++) {
+                int to = level.neighbor(from, d);
+                if (to < 0 || level.isWall(to) || occupied[to] || level.isDead(to)
+                        || !reachability.isReachable(level.neighbor(from, (d + 2) % 4))) {
+                    continue;
+                }
+                occupied[from] = false;
+                occupied[to] = true;
+                if (!Deadlocks.isSquareDeadlock(level, occupied, to)) {
+                    moveBall(balls, i, to, search.child);
+                    int area = search.childReachability.compute(from, occupied).getNormalized();
+                    met = search.addChild(search.forward, index, NodeStore.move(from, d), g, area);
+                }
+                occupied[to] = false;
+                occupied[from] = true;
+            }
+        }
+        Arrays.fill(occupied, false);
+        return met;
+    }
+
+    /*
+     * A pull in direction d moves the ball from its cell to the neighbor the
+     * character stands on, and the character steps back one more space. It
+     * is recorded as the push that undoes it.
+     */
+    private static boolean expandBackward(Search search, int index) {
+        Level level = search.level;
+        NodeStore store = search.backward.store;
+        int[] balls = search.balls;
+        boolean[] occupied = search.occupied;
+        Reachability reachability = search.reachability;
+        int g = store.getCost(index) + 1;
+        for (int ball : balls) {
+            occupied[ball] = true;
+        }
+        reachability.compute(store.getArea(index), occupied);
+        boolean met = false;
+        for (int i = 0; i < balls.length && !met; i++) {
+            int from = balls[i];
+            for (int d = 0; d < 4 && !met; d++) {
+                int stand = level.neighbor(from, d);
+                int back = stand < 0 ? -1 : level.neighbor(stand, d);
+                if (!reachability.isReachable(stand) || back < 0 || level.isWall(back) || occupied[back]
+                        || level.startDistance(stand) == Level.UNREACHABLE) {
+                    continue;
+                }
+                occupied[from] = false;
+                occupied[stand] = true;
+                moveBall(balls, i, stand, search.child);
+                int area = search.childReachability.compute(back, occupied).getNormalized();
+                met = search.addChild(search.backward, index, NodeStore.move(stand, (d + 2) % 4), g, area);
+                occupied[stand] = false;
+                occupied[from] = true;
+            }
+        }
+        Arrays.fill(occupied, false);
+        return met;
+    }
+
+    private static void moveBall(int[] balls, int index, int to, int[] result) {
+        System.arraycopy(balls, 0, result, 0, balls.length);
+        result[index] = to;
+        Arrays.sort(result);
+    }
+
+    private static int heuristic(Level level, int[] balls, boolean forward) {
+        int h = 0;
+        for (int ball : balls) {
+            h += forward ? level.goalDistance(ball) : level.startDistance(ball);
+        }
+        return h;
+    }
+
+    /*
+     * Joins the pushes leading from the initial configuration to the forward
+     * meeting node with the pushes undoing the pulls leading from the goal
+     * configuration to the backward meeting node.
+     */
+    private static SolverResult joined(Search search, long expanded, long begin) {
+        List<Push> pushes = new ArrayList<>();
+        NodeStore forward = search.forward.store;
+        for (int n = search.forwardMeeting; forward.getMove(n) != NodeStore.NO_MOVE; n = forward.getParent(n)) {
+            pushes.add(NodeStore.toPush(forward.getMove(n)));
+        }
+        Collections.reverse(pushes);
+        NodeStore backward = search.backward.store;
+        for (int n = search.backwardMeeting; n >= 0 && backward.getMove(n) != NodeStore.NO_MOVE; n = backward.getParent(n)) {
+            pushes.add(NodeStore.toPush(backward.getMove(n)));
+        }
+        return result(SolverResult.Status.SOLVED, Solution.of(search.level, pushes), expanded, search.generated, begin);
+    }
+
+    private static SolverResult result(SolverResult.Status status, Solution solution, long expanded, long generated, long begin) {
+        return SolverResult.builder()
+                .status(status)
+                .solution(solution)
+                .expandedNodes(expanded)
+                .generatedNodes(generated)
+                .elapsedNanos(System.nanoTime() - begin)
+                .build();
+    }
+
+}
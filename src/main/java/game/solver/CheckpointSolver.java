@@ -0,0 +1,59 @@
+package game.solver;
+
+import game.solver.stats.SolverProbe;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Runs an {@link AStarSolver} that writes checkpoints of its search to a
+ * directory, so a long solve can be resumed after the process was stopped.
+ * A checkpoint is written at a fixed interval and when the search times out
+ * or is cancelled. A later solve of the same level with the same solver
+ * configuration resumes from the latest checkpoint instead of starting over,
+ * without expanding again the positions already expanded. Checkpoints of
+ * another level or configuration are ignored and replaced.
+ */
+public class CheckpointSolver implements Solver {
+
+    private final Path directory;
+    private final Duration interval;
+    private final AStarSolver solver;
+
+    /**
+     * Creates a {@code CheckpointSolver} object running the default
+     * {@link AStarSolver}.
+     *
+     * @param directory the directory of the checkpoint files
+     * @param interval the time between two checkpoints
+     */
+    public CheckpointSolver(Path directory, Duration interval) {
+        this(directory, interval, new AStarSolver());
+    }
+
+    /**
+     * Creates a {@code CheckpointSolver} object.
+     *
+     * @param directory the directory of the checkpoint files
+     * @param interval the time between two checkpoints
+     * @param solver the solver whose search is checkpointed
+     */
+    public CheckpointSolver(Path directory, Duration interval, AStarSolver solver) {
+        this.directory = directory;
+        this.interval = interval;
+        this.solver = solver;
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout) {
+        return solve(level, timeout, new SolverProbe());
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout, SolverProbe probe) {
+        try (Checkpoints checkpoints = new Checkpoints(directory, interval)) {
+            return solver.solve(level, timeout, probe, checkpoints);
+        }
+    }
+
+}
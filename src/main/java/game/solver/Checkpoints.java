@@ -0,0 +1,338 @@
+package game.solver;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Periodic checkpoints of an A* search in a directory. The nodes are saved
+ * by slabs at fixed offsets of a node file, and only the slabs changed since
+ * the file was last written are written again, so a checkpoint costs little
+ * more than the positions added and expanded since the previous one. The
+ * checkpoints alternate between two node files and two open list files,
+ * and a checkpoint is committed by atomically replacing the header naming
+ * the file it was written to, so a process killed while writing leaves the
+ * previous checkpoint intact. The search thread only copies the changed
+ * slabs and the open list; the files are written with {@link FileChannel}
+ * positional writes on a background thread. Instances are not thread-safe.
+ */
+@Slf4j
+final class Checkpoints implements Closeable {
+
+    private static final int MAGIC = 0x534B4350;
+    private static final int VERSION = 1;
+    private static final String HEADER = "checkpoint";
+
+    private final Path directory;
+    private final long interval;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "solver-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Level level;
+    private String configuration;
+    private int words;
+    private int file;
+    private long due;
+    private Future<?> pending;
+    private volatile int failed = -1;
+
+    /**
+     * The state of a search read from a checkpoint.
+     */
+    static final class Restored {
+
+        final LongHeap open;
+        final long expanded;
+        final long generated;
+
+        Restored(LongHeap open, long expanded, long generated) {
+            this.open = open;
+            this.expanded = expanded;
+            this.generated = generated;
+        }
+
+    }
+
+    /**
+     * Creates a {@code Checkpoints} object.
+     *
+     * @param directory the directory of the checkpoint files
+     * @param interval the time between two checkpoints
+     */
+    Checkpoints(Path directory, Duration interval) {
+        this.directory = directory;
+        this.interval = interval.toNanos();
+    }
+
+    /**
+     * Reads the latest checkpoint into a node store if it was written by a
+     * search of the same level and configuration.
+     *
+     * @param level the level searched
+     * @param configuration the description of the solver configuration
+     * @param store the empty node store of the search
+     * @return the rest of the state of the search, or {@code null} if there
+     * is no matching checkpoint
+     */
+    Restored load(Level level, String configuration, NodeStore store) {
+        this.level = level;
+        this.configuration = configuration;
+        this.words = store.getWords();
+        this.due = System.nanoTime() + interval;
+        Path header = directory.resolve(HEADER);
+        if (!Files.exists(header)) {
+            return null;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(header));
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                log.warn("Ignoring checkpoint of unknown format in {}", directory);
+                return null;
+            }
+            int saved = in.getInt();
+            if (!readLevel(in).equals(level) || !readString(in).equals(configuration) || in.getInt() != words) {
+                log.info("Ignoring checkpoint of another level or configuration in {}", directory);
+                return null;
+            }
+            int size = in.getInt();
+            int slabCount = in.getInt();
+            long expanded = in.getLong();
+            long generated = in.getLong();
+            int openSize = in.getInt();
+            List<NodeStore.Slab> slabs = new ArrayList<>();
+            try (FileChannel nodes = FileChannel.open(directory.resolve("nodes-" + saved))) {
+                ByteBuffer buffer = ByteBuffer.allocate(slabBytes());
+                for (int slab = 0; slab < slabCount; slab++) {
+                    buffer.clear();
+                    readFully(nodes, buffer, (long) slab * slabBytes());
+                    slabs.add(readSlab(slab, buffer));
+                }
+            }
+            ByteBuffer open = ByteBuffer.allocate(openSize * Long.BYTES);
+            try (FileChannel channel = FileChannel.open(directory.resolve("open-" + saved))) {
+                readFully(channel, open, 0);
+            }
+            long[] entries = new long[openSize];
+            open.asLongBuffer().get(entries);
+            store.restore(slabs, size, saved);
+            file = 1 - saved;
+            log.info("Resumed search from checkpoint in {}: {} nodes, {} open", directory, size, openSize);
+            return new Restored(LongHeap.of(entries), expanded, generated);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot read checkpoint in {}, starting over", directory, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the next periodic checkpoint is due.
+     *
+     * @return {@code true} if the interval has elapsed since the previous
+     * checkpoint, {@code false} otherwise
+     */
+    boolean isDue() {
+        return System.nanoTime() >= due;
+    }
+
+    /**
+     * Starts writing a checkpoint of the search. A periodic checkpoint is
+     * skipped if the previous one is still being written.
+     *
+     * @param store the node store of the search
+     * @param open the open list of the search
+     * @param expanded the number of nodes expanded
+     * @param generated the number of nodes generated
+     * @param wait whether to wait for the previous checkpoint and for this
+     * one to be written
+     */
+    void save(NodeStore store, LongHeap open, long expanded, long generated, boolean wait) {
+        due = System.nanoTime() + interval;
+        if (pending != null && !pending.isDone()) {
+            if (!wait) {
+                return;
+            }
+            await();
+        }
+        if (failed >= 0) {
+            file = failed;
+            store.markAllDirty(file);
+            failed = -1;
+        }
+        int target = file;
+        List<NodeStore.Slab> slabs = store.takeDirtySlabs(target);
+        long[] entries = open.toArray();
+        int size = store.size();
+        int slabCount = store.slabCount();
+        file = 1 - target;
+        pending = writer.submit(() -> {
+            try {
+                write(target, slabs, entries, size, slabCount, expanded, generated);
+            } catch (IOException e) {
+                failed = target;
+                log.warn("Cannot write checkpoint in {}", directory, e);
+            }
+        });
+        if (wait) {
+            await();
+        }
+    }
+
+    /**
+     * Waits for the checkpoint being written and stops the background
+     * thread.
+     */
+    @Override
+    public void close() {
+        await();
+        writer.shutdown();
+    }
+
+    private void write(int target, List<NodeStore.Slab> slabs, long[] entries, int size, int slabCount,
+                       long expanded, long generated) throws IOException {
+        Files.createDirectories(directory);
+        try (FileChannel nodes = FileChannel.open(directory.resolve("nodes-" + target),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(slabBytes());
+            for (NodeStore.Slab slab : slabs) {
+                buffer.clear();
+                buffer.asLongBuffer().put(slab.keys);
+                buffer.position(slab.keys.length * Long.BYTES);
+                buffer.asIntBuffer().put(slab.parents).put(slab.costs).put(slab.moves);
+                buffer.clear();
+                writeFully(nodes, buffer, (long) slab.index * slabBytes());
+            }
+            nodes.force(false);
+        }
+        ByteBuffer open = ByteBuffer.allocate(entries.length * Long.BYTES);
+        open.asLongBuffer().put(entries);
+        try (FileChannel channel = FileChannel.open(directory.resolve("open-" + target),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, open, 0);
+            channel.force(false);
+        }
+        byte[] config = configuration.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(64 + config.length + level.getSize() + 4 * level.getBallCount());
+        header.putInt(MAGIC).putInt(VERSION).putInt(target);
+        writeLevel(header);
+        header.putInt(config.length).put(config);
+        header.putInt(words).putInt(size).putInt(slabCount).putLong(expanded).putLong(generated)
+                .putInt(entries.length);
+        header.flip();
+        Path temporary = directory.resolve(HEADER + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(HEADER), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Checkpoint of {} nodes written to {}, {} slabs changed", size, directory, slabs.size());
+    }
+
+    private void await() {
+        if (pending == null) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pending.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                throw new UncheckedIOException(new IOException("Checkpoint failed", e.getCause()));
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int slabBytes() {
+        return NodeStore.slabSize() * (words * Long.BYTES + 3 * Integer.BYTES);
+    }
+
+    private NodeStore.Slab readSlab(int index, ByteBuffer buffer) {
+        int slabSize = NodeStore.slabSize();
+        long[] keys = new long[slabSize * words];
+        int[] parents = new int[slabSize];
+        int[] costs = new int[slabSize];
+        int[] moves = new int[slabSize];
+        buffer.clear();
+        buffer.asLongBuffer().get(keys);
+        buffer.position(keys.length * Long.BYTES);
+        buffer.asIntBuffer().get(parents).get(costs).get(moves);
+        return new NodeStore.Slab(index, keys, parents, costs, moves);
+    }
+
+    private void writeLevel(ByteBuffer out) {
+        out.putInt(level.getWidth()).putInt(level.getHeight());
+        for (int cell = 0; cell < level.getSize(); cell++) {
+            out.put((byte) ((level.isWall(cell) ? 1 : 0) | (level.isStorage(cell) ? 2 : 0)));
+        }
+        int[] balls = level.getBalls();
+        out.putInt(balls.length);
+        for (int ball : balls) {
+            out.putInt(ball);
+        }
+        out.putInt(level.getCharacter());
+    }
+
+    private static Level readLevel(ByteBuffer in) {
+        int width = in.getInt();
+        int height = in.getInt();
+        boolean[] walls = new boolean[width * height];
+        boolean[] storages = new boolean[width * height];
+        for (int cell = 0; cell < walls.length; cell++) {
+            byte flags = in.get();
+            walls[cell] = (flags & 1) != 0;
+            storages[cell] = (flags & 2) != 0;
+        }
+        int[] balls = new int[in.getInt()];
+        for (int i = 0; i < balls.length; i++) {
+            balls[i] = in.getInt();
+        }
+        return new Level(width, height, walls, storages, balls, in.getInt());
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated checkpoint file");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+}
@@ -0,0 +1,333 @@
+package game.solver;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Detection of player-inaccessible corrals. A corral is an area the
+ * character cannot reach, enclosed by balls. It is a PI-corral if every push
+ * of the balls on its border the character can make now goes into the corral
+ * and the corral is not solved yet. The balls of a PI-corral must be pushed
+ * at some point, and pushes elsewhere cannot change that, so the search only
+ * needs to consider the pushes into one of the PI-corrals. Each PI-corral is
+ * also tested for a deadlock by a small search moving its balls with all
+ * other balls removed. The results of these searches are cached by the hash
+ * of the configuration of the corral balls and the area of the character, so
+ * a corral is never analyzed twice. The arrays are allocated once and reused,
+ * so an instance must not be shared between threads.
+ */
+final class Corrals {
+
+    /**
+     * No PI-corral restricts the pushes.
+     */
+    static final int NONE = 0;
+
+    /**
+     * Only the pushes of the balls selected may be generated.
+     */
+    static final int RESTRICTED = 1;
+
+    /**
+     * The position contains a corral that can never be solved.
+     */
+    static final int DEADLOCK = 2;
+
+    private static final int SEARCH_LIMIT = 1 << 10;
+
+    private final Level level;
+    private final long[] ballKeys;
+    private final long[] areaKeys;
+    private final int[] seen;
+    private final int[] members;
+    private final int[] queue;
+    private final int[] corralBalls;
+    private final boolean[] selected;
+    private final int[] selection;
+    private final boolean[] subOccupied;
+    private final Reachability subReachability;
+    private final Reachability childReachability;
+    private final Map<Long, Boolean> deadlocks = new HashMap<>();
+    private int selectionSize;
+    private int epoch;
+    private int stamp;
+
+    /**
+     * Creates a {@code Corrals} object for the level specified.
+     *
+     * @param level the level
+     */
+    Corrals(Level level) {
+        this.level = level;
+        int size = level.getSize();
+        Random random = new Random(size);
+        this.ballKeys = random.longs(size).toArray();
+        this.areaKeys = random.longs(size).toArray();
+        this.seen = new int[size];
+        this.members = new int[size];
+        this.queue = new int[size];
+        this.corralBalls = new int[level.getBallCount()];
+        this.selected = new boolean[size];
+        this.selection = new int[level.getBallCount()];
+        this.subOccupied = new boolean[size];
+        this.subReachability = new Reachability(level);
+        this.childReachability = new Reachability(level);
+    }
+
+    /**
+     * Analyzes the corrals of a position. If a PI-corral is found, the
+     * balls on the border of the one with the fewest pushes are selected.
+     *
+     * @param balls the cells of the balls
+     * @param occupied the cells occupied by the balls, indexed by cell
+     * @param reachability the area of the character, computed for the
+     * position
+     * @param character a cell of the area of the character
+     * @return {@link #NONE}, {@link #RESTRICTED} or {@link #DEADLOCK}
+     */
+    int analyze(int[] balls, boolean[] occupied, Reachability reachability, int character) {
+        for (int i = 0; i < selectionSize; i++) {
+            selected[selection[i]] = false;
+        }
+        selectionSize = 0;
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            epoch = 1;
+        }
+        int fewest = Integer.MAX_VALUE;
+        for (int ball : balls) {
+            for (int d = 0; d < 4; d++) {
+                int start = level.neighbor(ball, d);
+                if (start < 0 || level.isWall(start) || occupied[start] || seen[start] == epoch
+                        || reachability.isReachable(start)) {
+                    continue;
+                }
+                int count = flood(start, occupied, reachability);
+                int pushes = countPushes(count, occupied, reachability);
+                if (pushes < 0) {
+                    continue;
+                }
+                if (isDeadlock(count, character)) {
+                    return DEADLOCK;
+                }
+                if (pushes > 0 && pushes < fewest) {
+                    fewest = pushes;
+                    for (int i = 0; i < selectionSize; i++) {
+                        selected[selection[i]] = false;
+                    }
+                    selectionSize = 0;
+                    for (int i = 0; i < count; i++) {
+                        if (touchesArea(corralBalls[i], reachability)) {
+                            selected[corralBalls[i]] = true;
+                            selection[selectionSize++] = corralBalls[i];
+                        }
+                    }
+                }
+            }
+        }
+        return selectionSize > 0 ? RESTRICTED : NONE;
+    }
+
+    /**
+     * Returns whether the pushes of the ball specified may be generated
+     * after {@link #analyze} returned {@link #RESTRICTED}.
+     *
+     * @param ball the cell of the ball
+     * @return {@code true} if the ball is on the border of the PI-corral
+     * selected, {@code false} otherwise
+     */
+    boolean isSelected(int ball) {
+        return selected[ball];
+    }
+
+    /**
+     * Returns the number of corrals whose deadlock status is cached.
+     *
+     * @return the size of the cache
+     */
+    int getCacheSize() {
+        return deadlocks.size();
+    }
+
+    /*
+     * Floods the corral from a free cell, passing through the balls that do
+     * not touch the area of the character. Marks the cells of the corral
+     * with a new stamp and returns the number of its balls.
+     */
+    private int flood(int start, boolean[] occupied, Reachability reachability) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(members, 0);
+            stamp = 1;
+        }
+        int count = 0;
+        int tail = 0;
+        members[start] = stamp;
+        seen[start] = epoch;
+        queue[tail++] = start;
+        for (int head = 0; head < tail; head++) {
+            for (int d = 0; d < 4; d++) {
+                int next = level.neighbor(queue[head], d);
+                if (next < 0 || level.isWall(next) || members[next] == stamp) {
+                    continue;
+                }
+                members[next] = stamp;
+                if (!occupied[next]) {
+                    seen[next] = epoch;
+                    queue[tail++] = next;
+                } else {
+                    corralBalls[count++] = next;
+                    if (!touchesArea(next, reachability)) {
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Counts the pushes into the corral the character can make now, or
+     * returns -1 if the corral is not a PI-corral.
+     */
+    private int countPushes(int count, boolean[] occupied, Reachability reachability) {
+        boolean solved = true;
+        int pushes = 0;
+        for (int i = 0; i < count; i++) {
+            int ball = corralBalls[i];
+            solved &= level.isStorage(ball);
+            for (int d = 0; d < 4; d++) {
+                int to = level.neighbor(ball, d);
+                if (to < 0 || level.isWall(to) || occupied[to] || level.isDead(to)
+                        || !reachability.isReachable(level.neighbor(ball, (d + 2) % 4))) {
+                    continue;
+                }
+                if (members[to] != stamp) {
+                    return -1;
+                }
+                pushes++;
+            }
+        }
+        if (solved) {
+            for (int storage : level.getStorages()) {
+                if (members[storage] == stamp && !occupied[storage]) {
+                    solved = false;
+                }
+            }
+        }
+        return solved ? -1 : pushes;
+    }
+
+    /*
+     * Searches the pushes of the corral balls with the other balls removed,
+     * looking for a position in which a ball left the corral or every ball
+     * is on a storage. The corral is a deadlock if there is none.
+     */
+    private boolean isDeadlock(int count, int character) {
+        int[] start = Arrays.copyOf(corralBalls, count);
+        Arrays.sort(start);
+        for (int ball : start) {
+            subOccupied[ball] = true;
+        }
+        int area = subReachability.compute(character, subOccupied).getNormalized();
+        for (int ball : start) {
+            subOccupied[ball] = false;
+        }
+        long key = hash(start, area);
+        Boolean cached = deadlocks.get(key);
+        if (cached == null) {
+            cached = search(start, area, key);
+            deadlocks.put(key, cached);
+        }
+        return cached;
+    }
+
+    private boolean search(int[] start, int startArea, long startKey) {
+        Set<Long> visited = new HashSet<>();
+        ArrayDeque<int[]> open = new ArrayDeque<>();
+        visited.add(startKey);
+        open.add(withArea(start, startArea));
+        int[] child = new int[start.length];
+        while (!open.isEmpty()) {
+            int[] position = open.poll();
+            for (int i = 0; i < start.length; i++) {
+                subOccupied[position[i]] = true;
+            }
+            subReachability.compute(position[start.length], subOccupied);
+            try {
+                for (int i = 0; i < start.length; i++) {
+                    int from = position[i];
+                    for (int d = 0; d < 4; d++) {
+                        int to = level.neighbor(from, d);
+                        if (to < 0 || level.isWall(to) || subOccupied[to] || level.isDead(to)
+                                || !subReachability.isReachable(level.neighbor(from, (d + 2) % 4))) {
+                            continue;
+                        }
+                        if (members[to] != stamp) {
+                            return false;
+                        }
+                        subOccupied[from] = false;
+                        subOccupied[to] = true;
+                        if (!Deadlocks.isSquareDeadlock(level, subOccupied, to)) {
+                            System.arraycopy(position, 0, child, 0, start.length);
+                            child[i] = to;
+                            Arrays.sort(child);
+                            if (isPlaced(child)) {
+                                return false;
+                            }
+                            int area = childReachability.compute(from, subOccupied).getNormalized();
+                            if (visited.add(hash(child, area))) {
+                                if (visited.size() > SEARCH_LIMIT) {
+                                    return false;
+                                }
+                                open.add(withArea(child, area));
+                            }
+                        }
+                        subOccupied[to] = false;
+                        subOccupied[from] = true;
+                    }
+                }
+            } finally {
+                Arrays.fill(subOccupied, false);
+            }
+        }
+        return true;
+    }
+
+    private boolean isPlaced(int[] balls) {
+        for (int ball : balls) {
+            if (!level.isStorage(ball)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean touchesArea(int ball, Reachability reachability) {
+        for (int d = 0; d < 4; d++) {
+            if (reachability.isReachable(level.neighbor(ball, d))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long hash(int[] balls, int area) {
+        long hash = areaKeys[area];
+        for (int ball : balls) {
+            hash ^= ballKeys[ball];
+        }
+        return hash;
+    }
+
+    private static int[] withArea(int[] balls, int area) {
+        int[] position = Arrays.copyOf(balls, balls.length + 1);
+        position[balls.length] = area;
+        return position;
+    }
+
+}
@@ -0,0 +1,143 @@
+package game.solver;
+
+/**
+ * Detection of the positions from which a level can no longer be solved,
+ * checked after every push of a game. The dead spaces are precomputed once
+ * by the {@link Level}, and each check only tests the balls moved since the
+ * previous check for a freeze deadlock, followed by the PI-corral deadlock
+ * test of {@link Corrals}, whose results are cached between checks. The
+ * detection is sound but not complete: a position reported as deadlocked
+ * can never be solved, but some unsolvable positions are not detected. The
+ * arrays are allocated once and reused, so an instance must not be shared
+ * between threads.
+ */
+public final class DeadlockDetector {
+
+    private final Level level;
+    private final Corrals corrals;
+    private final Reachability reachability;
+    private final boolean[] occupied;
+    private final boolean[] previous;
+    private final boolean[] visited;
+    private final int[] frozen;
+    private int frozenCount;
+    private boolean checked;
+
+    /**
+     * Creates a {@code DeadlockDetector} object for the level specified.
+     *
+     * @param level the level played, only its walls and storages are used
+     */
+    public DeadlockDetector(Level level) {
+        this.level = level;
+        this.corrals = new Corrals(level);
+        this.reachability = new Reachability(level);
+        this.occupied = new boolean[level.getSize()];
+        this.previous = new boolean[level.getSize()];
+        this.visited = new boolean[level.getSize()];
+        this.frozen = new int[level.getSize()];
+    }
+
+    /**
+     * Returns whether a position of the level is deadlocked. Only the balls
+     * that are not at a cell occupied by a ball in the latest position found
+     * not deadlocked are tested for a freeze deadlock, since a group of
+     * frozen balls at cells all occupied in that position would have been
+     * found there. The positions checked should follow the game to keep the
+     * tests few, but any position can be checked, also after an undo.
+     *
+     * @param balls the cells of the balls
+     * @param character the cell of the character
+     * @return {@code true} if the position can no longer be solved,
+     * {@code false} if no deadlock was found
+     */
+    public boolean isDeadlocked(int[] balls, int character) {
+        for (int ball : balls) {
+            occupied[ball] = true;
+        }
+        boolean deadlocked = true;
+        try {
+            deadlocked = isDeadlocked(balls, character, checked);
+        } finally {
+            if (!deadlocked) {
+                System.arraycopy(occupied, 0, previous, 0, occupied.length);
+                checked = true;
+            }
+            for (int ball : balls) {
+                occupied[ball] = false;
+            }
+        }
+        return deadlocked;
+    }
+
+    private boolean isDeadlocked(int[] balls, int character, boolean incremental) {
+        for (int ball : balls) {
+            if (level.isDead(ball)) {
+                return true;
+            }
+            if ((!incremental || !previous[ball]) && isFreezeDeadlock(ball)) {
+                return true;
+            }
+        }
+        reachability.compute(character, occupied);
+        return corrals.analyze(balls, occupied, reachability, character) == Corrals.DEADLOCK;
+    }
+
+    /*
+     * Returns whether the ball is frozen, that is blocked along both axes by
+     * walls, dead spaces on both sides or other frozen balls, in a group of
+     * frozen balls not all in storages.
+     */
+    private boolean isFreezeDeadlock(int ball) {
+        frozenCount = 0;
+        boolean result = isFrozen(ball);
+        for (int cell = 0; cell < visited.length; cell++) {
+            visited[cell] = false;
+        }
+        if (result) {
+            for (int i = 0; i < frozenCount; i++) {
+                if (!level.isStorage(frozen[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Tests a ball, treating the balls being tested and the balls found
+     * frozen as walls. The balls found frozen are recorded, and the records
+     * are discarded when a ball they depend on turns out not to be frozen.
+     */
+    private boolean isFrozen(int ball) {
+        visited[ball] = true;
+        int mark = frozenCount;
+        if (isBlocked(ball, 1) && isBlocked(ball, 0)) {
+            frozen[frozenCount++] = ball;
+            return true;
+        }
+        while (frozenCount > mark) {
+            visited[frozen[--frozenCount]] = false;
+        }
+        visited[ball] = false;
+        return false;
+    }
+
+    private boolean isBlocked(int ball, int axis) {
+        int a = level.neighbor(ball, axis);
+        int b = level.neighbor(ball, axis + 2);
+        if (isWall(a) || isWall(b) || (level.isDead(a) && level.isDead(b))) {
+            return true;
+        }
+        return isFrozenBall(a) || isFrozenBall(b);
+    }
+
+    private boolean isWall(int cell) {
+        return cell < 0 || level.isWall(cell) || visited[cell];
+    }
+
+    private boolean isFrozenBall(int cell) {
+        return occupied[cell] && isFrozen(cell);
+    }
+
+}
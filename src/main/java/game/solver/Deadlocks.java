@@ -0,0 +1,48 @@
+package game.solver;
+
+/**
+ * Utility methods detecting positions from which the level can no longer
+ * be solved.
+ */
+public final class Deadlocks {
+
+    private static final int[][] SQUARES = {{0, 1}, {1, 2}, {2, 3}, {3, 0}};
+
+    private Deadlocks() {
+    }
+
+    /**
+     * Returns whether the ball just pushed to the cell specified is frozen in
+     * a 2&#xd7;2 block of walls and balls that contains a ball outside of the
+     * storages. Such balls can never be moved again.
+     *
+     * @param level the level
+     * @param occupied the cells occupied by balls after the push, indexed by
+     *                 cell
+     * @param ball the cell the ball was pushed to
+     * @return {@code true} if the push created a 2&#xd7;2 deadlock,
+     * {@code false} otherwise
+     */
+    public static boolean isSquareDeadlock(Level level, boolean[] occupied, int ball) {
+        for (int[] square : SQUARES) {
+            int a = level.neighbor(ball, square[0]);
+            int b = level.neighbor(ball, square[1]);
+            int c = a < 0 ? -1 : level.neighbor(a, square[1]);
+            if (isBlocked(level, occupied, a) && isBlocked(level, occupied, b) && isBlocked(level, occupied, c)
+                    && (isMisplaced(level, occupied, ball) || isMisplaced(level, occupied, a)
+                    || isMisplaced(level, occupied, b) || isMisplaced(level, occupied, c))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlocked(Level level, boolean[] occupied, int cell) {
+        return cell < 0 || level.isWall(cell) || occupied[cell];
+    }
+
+    private static boolean isMisplaced(Level level, boolean[] occupied, int cell) {
+        return cell >= 0 && occupied[cell] && !level.isStorage(cell);
+    }
+
+}
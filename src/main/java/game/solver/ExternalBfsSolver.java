@@ -0,0 +1,396 @@
+package game.solver;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Breadth-first search over the pushes of the balls that keeps its layers on
+ * disk instead of in memory. The children of a layer are collected in a
+ * fixed size buffer, which is sorted and spilled to a compressed run file
+ * whenever it fills up. The runs are then merged into the next layer, and
+ * positions already present in any earlier layer are dropped by scanning the
+ * memory-mapped layer files side by side with the merge. Only the buffer and
+ * the cursors of the files are held in memory, so the number of positions
+ * is limited by the local disk. The solution is reconstructed by scanning
+ * the layers backwards for a parent of each position on the path. Positions
+ * must fit in a single 63-bit word, which holds up to eight balls on a tray
+ * of at most 128 cells; larger levels are delegated to {@link AStarSolver}.
+ */
+@Slf4j
+public class ExternalBfsSolver implements Solver {
+
+    private static final int CHECK_INTERVAL = 256;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 22;
+
+    private final Path directory;
+    private final int bufferSize;
+
+    private interface ChildSink {
+        boolean accept(int[] balls, long key, int move) throws IOException;
+    }
+
+    /**
+     * Creates an {@code ExternalBfsSolver} object that keeps its files in the
+     * default temporary directory and buffers 4M positions in memory.
+     */
+    public ExternalBfsSolver() {
+        this(null, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an {@code ExternalBfsSolver} object.
+     *
+     * @param directory the directory of the working files, or {@code null}
+     * for the default temporary directory
+     * @param bufferSize the number of positions buffered in memory before
+     * they are spilled to a run file
+     */
+    public ExternalBfsSolver(Path directory, int bufferSize) {
+        this.directory = directory;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public SolverResult solve(Level level, Duration timeout) {
+        PositionCodec codec = new PositionCodec(level);
+        if (codec.getWords() != 1 || codec.getBits() > 63) {
+            log.warn("Level too large for single word positions, falling back to A*");
+            return new AStarSolver().solve(level, timeout);
+        }
+        Path work = null;
+        try {
+            work = directory == null
+                    ? Files.createTempDirectory("sokoban-bfs")
+                    : Files.createTempDirectory(directory, "sokoban-bfs");
+            return new Search(level, codec, work, timeout).run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (work != null) {
+                delete(work);
+            }
+        }
+    }
+
+    private final class Search {
+        final Level level;
+        final PositionCodec codec;
+        final Path work;
+        final long begin = System.nanoTime();
+        final long deadline;
+        final Reachability reachability;
+        final Reachability childReachability;
+        final boolean[] occupied;
+        final int[] balls;
+        final int[] child;
+        final long[] scratch = new long[1];
+        final List<Path> layers = new ArrayList<>();
+        long polled;
+        long expanded;
+        long generated;
+        SolverResult.Status stopped;
+
+        Search(Level level, PositionCodec codec, Path work, Duration timeout) {
+            this.level = level;
+            this.codec = codec;
+            this.work = work;
+            this.deadline = begin + timeout.toNanos();
+            this.reachability = new Reachability(level);
+            this.childReachability = new Reachability(level);
+            this.occupied = new boolean[level.getSize()];
+            this.balls = new int[level.getBallCount()];
+            this.child = new int[level.getBallCount()];
+        }
+
+        SolverResult run() throws IOException {
+            int[] initial = level.getBalls();
+            for (int ball : initial) {
+                if (level.isDead(ball)) {
+                    return result(SolverResult.Status.UNSOLVABLE, null);
+                }
+            }
+            if (level.isSolved(initial)) {
+                return result(SolverResult.Status.SOLVED, Solution.of(level, Collections.emptyList()));
+            }
+            for (int ball : initial) {
+                occupied[ball] = true;
+            }
+            long root = key(initial, reachability.compute(level.getCharacter(), occupied).getNormalized());
+            Arrays.fill(occupied, false);
+            Path first = work.resolve("layer-0");
+            try (RunWriter writer = new RunWriter(first)) {
+                writer.write(root);
+            }
+            layers.add(first);
+            long[] buffer = new long[bufferSize];
+            for (int depth = 0; ; depth++) {
+                int next = depth + 1;
+                List<Path> runs = new ArrayList<>();
+                int[] count = {0};
+                long[] goal = {0, NodeStore.NO_MOVE};
+                try (RunReader reader = new RunReader(layers.get(depth))) {
+                    while (goal[1] == NodeStore.NO_MOVE && reader.advance()) {
+                        if (isStopped()) {
+                            return result(stopped, null);
+                        }
+                        long parent = reader.value();
+                        expanded++;
+                        expand(parent, (childBalls, key, move) -> {
+                            if (level.isSolved(childBalls)) {
+                                goal[0] = parent;
+                                goal[1] = move;
+                                return true;
+                            }
+                            buffer[count[0]++] = key;
+                            generated++;
+                            if (count[0] == buffer.length) {
+                                runs.add(spill(buffer, count[0], next, runs.size()));
+                                count[0] = 0;
+                            }
+                            return false;
+                        });
+                    }
+                }
+                if (goal[1] != NodeStore.NO_MOVE) {
+                    List<Push> pushes = reconstruct(depth, goal[0], (int) goal[1]);
+                    return pushes == null ? result(stopped, null)
+                            : result(SolverResult.Status.SOLVED, Solution.of(level, pushes));
+                }
+                if (count[0] > 0) {
+                    runs.add(spill(buffer, count[0], next, runs.size()));
+                }
+                long size = merge(runs, next);
+                log.debug("Layer {} has {} positions", next, size);
+                if (size == 0) {
+                    return result(SolverResult.Status.UNSOLVABLE, null);
+                }
+            }
+        }
+
+        /*
+         * Generates the children of a position and passes them to the sink
+         * until it returns true.
+         */
+        boolean expand(long key, ChildSink sink) throws IOException {
+            scratch[0] = key;
+            codec.decodeBalls(scratch, 0, balls);
+            int area = codec.decodeArea(scratch, 0);
+            for (int ball : balls) {
+                occupied[ball] = true;
+            }
+            reachability.compute(area, occupied);
+            try {
+                for (int i = 0; i < balls.length; i++) {
+                    int from = balls[i];
+                    for (int d = 0; d < 4; d++) {
+                        int to = level.neighbor(from, d);
+                        if (to < 0 || level.isWall(to) || occupied[to] || level.isDead(to)
+                                || !reachability.isReachable(level.neighbor(from, (d + 2) % 4))) {
+                            continue;
+                        }
+                        occupied[from] = false;
+                        occupied[to] = true;
+                        try {
+                            if (!Deadlocks.isSquareDeadlock(level, occupied, to)) {
+                                System.arraycopy(balls, 0, child, 0, balls.length);
+                                child[i] = to;
+                                Arrays.sort(child);
+                                long childKey = key(child, childReachability.compute(from, occupied).getNormalized());
+                                if (sink.accept(child, childKey, NodeStore.move(from, d))) {
+                                    return true;
+                                }
+                            }
+                        } finally {
+                            occupied[to] = false;
+                            occupied[from] = true;
+                        }
+                    }
+                }
+                return false;
+            } finally {
+                for (int ball : balls) {
+                    occupied[ball] = false;
+                }
+            }
+        }
+
+        Path spill(long[] buffer, int count, int depth, int run) throws IOException {
+            Arrays.sort(buffer, 0, count);
+            Path path = work.resolve("layer-" + depth + "-run-" + run);
+            try (RunWriter writer = new RunWriter(path)) {
+                for (int i = 0; i < count; i++) {
+                    if (i == 0 || buffer[i] != buffer[i - 1]) {
+                        writer.write(buffer[i]);
+                    }
+                }
+            }
+            return path;
+        }
+
+        /*
+         * Merges the runs of a layer into the layer file, dropping the
+         * positions of the earlier layers, and deletes the runs.
+         */
+        long merge(List<Path> runs, int depth) throws IOException {
+            Path path = work.resolve("layer-" + depth);
+            List<RunReader> earlier = new ArrayList<>();
+            PriorityQueue<RunReader> queue = new PriorityQueue<>(Comparator.comparingLong(RunReader::value));
+            try (RunWriter writer = new RunWriter(path)) {
+                for (Path layer : layers) {
+                    RunReader reader = new RunReader(layer);
+                    earlier.add(reader);
+                    if (!reader.advance()) {
+                        reader.close();
+                        earlier.remove(reader);
+                    }
+                }
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+                long last = -1;
+                while (!queue.isEmpty()) {
+                    RunReader reader = queue.poll();
+                    long value = reader.value();
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                    if (value != last && !contains(earlier, value)) {
+                        writer.write(value);
+                    }
+                    last = value;
+                }
+                layers.add(path);
+                return writer.getCount();
+            } finally {
+                for (RunReader reader : queue) {
+                    reader.close();
+                }
+                for (RunReader reader : earlier) {
+                    reader.close();
+                }
+                for (Path run : runs) {
+                    Files.deleteIfExists(run);
+                }
+            }
+        }
+
+        /*
+         * Advances the cursors of the earlier layers up to the value, closing
+         * the cursors that run out.
+         */
+        boolean contains(List<RunReader> earlier, long value) throws IOException {
+            boolean found = false;
+            for (int i = earlier.size() - 1; i >= 0; i--) {
+                RunReader reader = earlier.get(i);
+                boolean live = true;
+                while (live && reader.value() < value) {
+                    live = reader.advance();
+                }
+                if (!live) {
+                    reader.close();
+                    earlier.remove(i);
+                } else if (reader.value() == value) {
+                    found = true;
+                }
+            }
+            return found;
+        }
+
+        /*
+         * Walks back from the parent of the goal by scanning every earlier
+         * layer for a position with the current one among its children.
+         */
+        List<Push> reconstruct(int depth, long parent, int move) throws IOException {
+            List<Push> pushes = new ArrayList<>();
+            pushes.add(NodeStore.toPush(move));
+            long[] target = {parent};
+            int[] found = {NodeStore.NO_MOVE};
+            for (int layer = depth - 1; layer >= 0; layer--) {
+                found[0] = NodeStore.NO_MOVE;
+                try (RunReader reader = new RunReader(layers.get(layer))) {
+                    while (found[0] == NodeStore.NO_MOVE && reader.advance()) {
+                        if (isStopped()) {
+                            return null;
+                        }
+                        long candidate = reader.value();
+                        if (expand(candidate, (childBalls, key, childMove) -> {
+                            if (key == target[0]) {
+                                found[0] = childMove;
+                                return true;
+                            }
+                            return false;
+                        })) {
+                            target[0] = candidate;
+                        }
+                    }
+                }
+                if (found[0] == NodeStore.NO_MOVE) {
+                    throw new IllegalStateException("No parent found in layer " + layer);
+                }
+                pushes.add(NodeStore.toPush(found[0]));
+            }
+            Collections.reverse(pushes);
+            return pushes;
+        }
+
+        long key(int[] cells, int area) {
+            codec.encode(cells, area, scratch, 0);
+            return scratch[0];
+        }
+
+        boolean isStopped() {
+            if (polled++ % CHECK_INTERVAL == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    stopped = SolverResult.Status.CANCELLED;
+                } else if (System.nanoTime() > deadline) {
+                    stopped = SolverResult.Status.TIMEOUT;
+                }
+            }
+            return stopped != null;
+        }
+
+        SolverResult result(SolverResult.Status status, Solution solution) {
+            return SolverResult.builder()
+                    .status(status)
+                    .solution(solution)
+                    .expandedNodes(expanded)
+                    .generatedNodes(generated)
+                    .elapsedNanos(System.nanoTime() - begin)
+                    .build();
+        }
+    }
+
+    private static void delete(Path work) {
+        try (Stream<Path> paths = Files.walk(work)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Cannot delete {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Cannot delete {}", work, e);
+        }
+    }
+
+}
@@ -0,0 +1,495 @@
+package game.solver;
+
+import game.state.Actor;
+import game.state.Direction;
+import game.state.SokobanState;
+
+import java.util.Arrays;
+
+/**
+ * Immutable representation of a sokoban level used by the solvers. The
+ * spaces of the tray are identified by cell indices
+ * {@code row * width + col}. Besides the walls, storages, balls and the
+ * character, the level precomputes the push distances of every space to the
+ * nearest storage, and the dead spaces from which a ball can never be pushed
+ * into any storage.
+ */
+public final class Level {
+
+    /**
+     * The directions in which the character and the balls can be moved, in the
+     * order used for indexing.
+     */
+    public static final Direction[] DIRECTIONS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    /**
+     * The distance of the spaces from which no storage can be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+    private final boolean[] walls;
+    private final boolean[] storages;
+    private final int[] balls;
+    private final int character;
+    private final int[] neighbors;
+    private final int[] goalDistances;
+    private final int[] startDistances;
+
+    /**
+     * Creates a {@code Level} object.
+     *
+     * @param width the number of columns of the tray
+     * @param height the number of rows of the tray
+     * @param walls the cells occupied by walls
+     * @param storages the cells occupied by storages
+     * @param balls the cells occupied by balls
+     * @param character the cell occupied by the character
+     * @throws IllegalArgumentException if the arguments do not describe a
+     * level
+     */
+    public Level(int width, int height, boolean[] walls, boolean[] storages, int[] balls, int character) {
+        if (width <= 0 || height <= 0 || walls.length != width * height || storages.length != width * height
+                || character < 0 || character >= width * height || walls[character]) {
+            throw new IllegalArgumentException();
+        }
+        this.width = width;
+        this.height = height;
+        this.walls = walls.clone();
+        this.storages = storages.clone();
+        this.balls = balls.clone();
+        Arrays.sort(this.balls);
+        for (int i = 0; i < this.balls.length; i++) {
+            if (this.balls[i] < 0 || this.balls[i] >= width * height || walls[this.balls[i]]
+                    || this.balls[i] == character || (i > 0 && this.balls[i] == this.balls[i - 1])) {
+                throw new IllegalArgumentException();
+            }
+        }
+        this.character = character;
+        this.neighbors = computeNeighbors();
+        this.goalDistances = computeGoalDistances();
+        this.startDistances = computeStartDistances();
+    }
+
+    /**
+     * Creates a {@code Level} object from an array using the encoding of
+     * {@link Actor}.
+     *
+     * @param a a rectangular array representing the tray
+     * @return the level represented by the array
+     * @throws IllegalArgumentException if the array does not represent a
+     * level with exactly one character
+     */
+    public static Level of(int[][] a) {
+        if (a == null || a.length == 0 || a[0] == null || a[0].length == 0) {
+            throw new IllegalArgumentException();
+        }
+        int height = a.length;
+        int width = a[0].length;
+        boolean[] walls = new boolean[width * height];
+        boolean[] storages = new boolean[width * height];
+        int[] balls = new int[width * height];
+        int ballCount = 0;
+        int character = -1;
+        for (int row = 0; row < height; row++) {
+            if (a[row] == null || a[row].length != width) {
+                throw new IllegalArgumentException();
+            }
+            for (int col = 0; col < width; col++) {
+                int cell = row * width + col;
+                switch (Actor.of(a[row][col])) {
+                    case WALL:
+                        walls[cell] = true;
+                        break;
+                    case CHARACTER:
+                        if (character >= 0) {
+                            throw new IllegalArgumentException();
+                        }
+                        character = cell;
+                        break;
+                    case BALL:
+                        balls[ballCount++] = cell;
+                        break;
+                    case STORAGE0:
+                        storages[cell] = true;
+                        break;
+                    case STORAGE1:
+                        storages[cell] = true;
+                        balls[ballCount++] = cell;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        if (character < 0) {
+            throw new IllegalArgumentException();
+        }
+        return new Level(width, height, walls, storages, Arrays.copyOf(balls, ballCount), character);
+    }
+
+    /**
+     * Creates a {@code Level} object from a snapshot of the game state
+     * specified.
+     *
+     * @param state the state of the game
+     * @return the level starting from the current configuration of the state
+     */
+    public static Level of(SokobanState state) {
+        Actor[][] tray = state.getTray();
+        int height = tray.length;
+        int width = tray[0].length;
+        boolean[] walls = new boolean[width * height];
+        boolean[] storages = new boolean[width * height];
+        int[] balls = new int[width * height];
+        int ballCount = 0;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int cell = row * width + col;
+                walls[cell] = tray[row][col] == Actor.WALL;
+                storages[cell] = state.isStorage(row, col);
+                if (tray[row][col] == Actor.BALL || tray[row][col] == Actor.STORAGE1) {
+                    balls[ballCount++] = cell;
+                }
+            }
+        }
+        int character = state.getCharacterRow() * width + state.getCharacterCol();
+        return new Level(width, height, walls, storages, Arrays.copyOf(balls, ballCount), character);
+    }
+
+    /**
+     * Returns the number of columns of the tray.
+     *
+     * @return the number of columns of the tray
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows of the tray.
+     *
+     * @return the number of rows of the tray
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of cells of the tray.
+     *
+     * @return the number of cells of the tray
+     */
+    public int getSize() {
+        return width * height;
+    }
+
+    /**
+     * Returns the cell index of the position specified.
+     *
+     * @param row the row of the position
+     * @param col the column of the position
+     * @return the cell index of the position specified
+     */
+    public int cell(int row, int col) {
+        return row * width + col;
+    }
+
+    /**
+     * Returns the row of the cell specified.
+     *
+     * @param cell the cell index
+     * @return the row of the cell specified
+     */
+    public int row(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Returns the column of the cell specified.
+     *
+     * @param cell the cell index
+     * @return the column of the cell specified
+     */
+    public int col(int cell) {
+        return cell % width;
+    }
+
+    /**
+     * Returns the neighbor of the cell specified in the direction specified.
+     *
+     * @param cell the cell index
+     * @param direction the index of the direction in {@link #DIRECTIONS}
+     * @return the cell index of the neighbor, or {@code -1} if the neighbor
+     * would be outside of the tray
+     */
+    public int neighbor(int cell, int direction) {
+        return neighbors[cell * 4 + direction];
+    }
+
+    /**
+     * Returns whether the cell specified is a wall.
+     *
+     * @param cell the cell index
+     * @return {@code true} if the cell is a wall, {@code false} otherwise
+     */
+    public boolean isWall(int cell) {
+        return walls[cell];
+    }
+
+    /**
+     * Returns whether the cell specified is a storage.
+     *
+     * @param cell the cell index
+     * @return {@code true} if the cell is a storage, {@code false} otherwise
+     */
+    public boolean isStorage(int cell) {
+        return storages[cell];
+    }
+
+    /**
+     * Returns whether a ball on the cell specified can never be pushed into
+     * any storage.
+     *
+     * @param cell the cell index
+     * @return {@code true} if the cell is dead, {@code false} otherwise
+     */
+    public boolean isDead(int cell) {
+        return goalDistances[cell] == UNREACHABLE;
+    }
+
+    /**
+     * Returns the minimum number of pushes needed to move a ball from the cell
+     * specified into the nearest storage, disregarding the other balls.
+     *
+     * @param cell the cell index
+     * @return the minimum number of pushes, or {@link #UNREACHABLE}
+     */
+    public int goalDistance(int cell) {
+        return goalDistances[cell];
+    }
+
+    /**
+     * Returns the minimum number of pushes needed to move any of the balls of
+     * the initial configuration to the cell specified, disregarding the other
+     * balls.
+     *
+     * @param cell the cell index
+     * @return the minimum number of pushes, or {@link #UNREACHABLE}
+     */
+    public int startDistance(int cell) {
+        return startDistances[cell];
+    }
+
+    /**
+     * Returns the cells occupied by the balls in the initial configuration,
+     * in ascending order.
+     *
+     * @return the cells occupied by the balls
+     */
+    public int[] getBalls() {
+        return balls.clone();
+    }
+
+    /**
+     * Returns the number of balls.
+     *
+     * @return the number of balls
+     */
+    public int getBallCount() {
+        return balls.length;
+    }
+
+    /**
+     * Returns the cell occupied by the character in the initial configuration.
+     *
+     * @return the cell occupied by the character
+     */
+    public int getCharacter() {
+        return character;
+    }
+
+    /**
+     * Returns the cells occupied by the storages, in ascending order.
+     *
+     * @return the cells occupied by the storages
+     */
+    public int[] getStorages() {
+        int count = 0;
+        for (boolean storage : storages) {
+            if (storage) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        for (int cell = 0, i = 0; cell < storages.length; cell++) {
+            if (storages[cell]) {
+                result[i++] = cell;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether all balls specified are in storages.
+     *
+     * @param balls the cells occupied by the balls
+     * @return {@code true} if every ball is in a storage, {@code false}
+     * otherwise
+     */
+    public boolean isSolved(int[] balls) {
+        for (int ball : balls) {
+            if (!storages[ball]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the level with the same walls and storages, but with the balls
+     * and the character specified.
+     *
+     * @param balls the cells occupied by the balls
+     * @param character the cell occupied by the character
+     * @return the level with the balls and the character specified
+     */
+    public Level withPosition(int[] balls, int character) {
+        return new Level(width, height, walls, storages, balls, character);
+    }
+
+    /**
+     * Returns the array representing the initial configuration of the tray
+     * using the encoding of {@link Actor}. A character standing on a storage
+     * is represented by {@link Actor#CHARACTER}.
+     *
+     * @return the array representing the initial configuration of the tray
+     */
+    public int[][] toArray() {
+        int[][] a = new int[height][width];
+        for (int cell = 0; cell < getSize(); cell++) {
+            Actor actor = walls[cell] ? Actor.WALL : storages[cell] ? Actor.STORAGE0 : Actor.EMPTY;
+            a[row(cell)][col(cell)] = actor.getValue();
+        }
+        for (int ball : balls) {
+            a[row(ball)][col(ball)] = (storages[ball] ? Actor.STORAGE1 : Actor.BALL).getValue();
+        }
+        a[row(character)][col(character)] = Actor.CHARACTER.getValue();
+        return a;
+    }
+
+    private int[] computeNeighbors() {
+        int[] result = new int[width * height * 4];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                for (int d = 0; d < 4; d++) {
+                    int r = row + DIRECTIONS[d].getDx();
+                    int c = col + DIRECTIONS[d].getDy();
+                    result[(row * width + col) * 4 + d] = r < 0 || r >= height || c < 0 || c >= width ? -1 : r * width + c;
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isFloor(int cell) {
+        return cell >= 0 && !walls[cell];
+    }
+
+    /*
+     * Multi-source breadth-first search pulling a ball away from every storage.
+     * A ball can be pulled from a cell to its neighbor if the character has
+     * room to step back behind the neighbor.
+     */
+    private int[] computeGoalDistances() {
+        int[] distances = new int[width * height];
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[width * height];
+        int head = 0;
+        int tail = 0;
+        for (int cell = 0; cell < distances.length; cell++) {
+            if (storages[cell] && !walls[cell]) {
+                distances[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int to = neighbor(cell, d);
+                if (!isFloor(to) || distances[to] != UNREACHABLE || !isFloor(neighbor(to, d))) {
+                    continue;
+                }
+                distances[to] = distances[cell] + 1;
+                queue[tail++] = to;
+            }
+        }
+        return distances;
+    }
+
+    /*
+     * Multi-source breadth-first search pushing a ball away from every initial
+     * ball position. A ball can be pushed to its neighbor if the character
+     * has room to stand behind it.
+     */
+    private int[] computeStartDistances() {
+        int[] distances = new int[width * height];
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[width * height];
+        int head = 0;
+        int tail = 0;
+        for (int ball : balls) {
+            distances[ball] = 0;
+            queue[tail++] = ball;
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int to = neighbor(cell, d);
+                if (!isFloor(to) || distances[to] != UNREACHABLE || !isFloor(neighbor(cell, (d + 2) % 4))) {
+                    continue;
+                }
+                distances[to] = distances[cell] + 1;
+                queue[tail++] = to;
+            }
+        }
+        return distances;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Level)) {
+            return false;
+        }
+        Level level = (Level) o;
+        return width == level.width && height == level.height && character == level.character
+                && Arrays.equals(walls, level.walls) && Arrays.equals(storages, level.storages)
+                && Arrays.equals(balls, level.balls);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * width + height;
+        result = 31 * result + character;
+        result = 31 * result + Arrays.hashCode(walls);
+        result = 31 * result + Arrays.hashCode(storages);
+        return 31 * result + Arrays.hashCode(balls);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int[] row : toArray()) {
+            for (int value : row) {
+                sb.append(value).append(' ');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+}
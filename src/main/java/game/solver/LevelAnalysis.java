@@ -0,0 +1,495 @@
+package game.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analysis of a level computed once before a search, providing macro moves
+ * that replace sequences of pushes by a single transition.
+ *
+ * <p>A tunnel is a space between two walls entered from a space that is
+ * also between two walls in the same direction. A ball pushed into a
+ * tunnel cannot be pushed sideways, and leaving it there would only block
+ * the tunnel, so it is pushed on until it leaves the tunnel.
+ *
+ * <p>A goal room is an area holding all the storages, and no balls at the
+ * start, that can only be entered through a single space, the entrance. The
+ * analysis finds an order in which the storages can be filled one ball at a
+ * time through the entrance, together with the pushes moving each ball from
+ * the entrance to its storage. A ball pushed onto the entrance is then moved
+ * to the next storage of the order in a single transition, and the balls
+ * already packed are never pushed again.
+ */
+public final class LevelAnalysis {
+
+    private static final int LENGTH_SHIFT = 22;
+    private static final int MAX_LENGTH = 255;
+    private static final int ROOM_MOVE = 1 << 30;
+    private static final int MAX_ATTEMPTS = 10_000;
+
+    private final Level level;
+    private final boolean[] tunnels;
+    private int entrance = -1;
+    private boolean[] room;
+    private int[] order;
+    private int[][][] plans;
+    private int[][] players;
+    private int attempts;
+
+    /**
+     * Creates a {@code LevelAnalysis} object.
+     *
+     * @param level the level to analyze
+     */
+    public LevelAnalysis(Level level) {
+        this.level = level;
+        this.tunnels = new boolean[level.getSize() * 4];
+        for (int cell = 0; cell < level.getSize(); cell++) {
+            for (int d = 0; d < 4; d++) {
+                int behind = level.neighbor(cell, (d + 2) % 4);
+                tunnels[cell * 4 + d] = isFloor(cell) && !level.isStorage(cell) && isFloor(behind)
+                        && isBetweenWalls(cell, d) && isBetweenWalls(behind, d);
+            }
+        }
+        findGoalRoom();
+    }
+
+    /**
+     * Returns whether a ball pushed onto the cell specified in the direction
+     * specified is in a tunnel.
+     *
+     * @param cell the cell index
+     * @param direction the index of the direction in {@link Level#DIRECTIONS}
+     * @return {@code true} if the cell is a tunnel in the direction,
+     * {@code false} otherwise
+     */
+    public boolean isTunnel(int cell, int direction) {
+        return tunnels[cell * 4 + direction];
+    }
+
+    /**
+     * Returns the number of pushes of the tunnel macro starting with the
+     * push of a ball in the direction specified.
+     *
+     * @param ball the cell of the ball before the first push
+     * @param direction the index of the direction in {@link Level#DIRECTIONS}
+     * @param occupied the cells occupied by the other balls, indexed by cell
+     * @return the number of pushes, at least 1
+     */
+    public int tunnelLength(int ball, int direction, boolean[] occupied) {
+        int length = 1;
+        int to = level.neighbor(ball, direction);
+        while (length < MAX_LENGTH && isTunnel(to, direction)) {
+            int next = level.neighbor(to, direction);
+            if (!isFloor(next) || occupied[next] || level.isDead(next)) {
+                break;
+            }
+            to = next;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns whether the level has a goal room with a packing order.
+     *
+     * @return {@code true} if the level has a goal room, {@code false}
+     * otherwise
+     */
+    public boolean hasGoalRoom() {
+        return order != null;
+    }
+
+    /**
+     * Returns the entrance of the goal room.
+     *
+     * @return the cell index of the entrance, or -1 if there is no goal room
+     */
+    public int getEntrance() {
+        return order == null ? -1 : entrance;
+    }
+
+    /**
+     * Returns whether the cell specified is inside the goal room.
+     *
+     * @param cell the cell index
+     * @return {@code true} if the cell is inside the goal room, {@code false}
+     * otherwise
+     */
+    public boolean isInGoalRoom(int cell) {
+        return order != null && room[cell];
+    }
+
+    /**
+     * Returns the order in which the storages of the goal room are filled.
+     *
+     * @return the cells of the storages in packing order, or an empty array
+     * if there is no goal room
+     */
+    public int[] getPackingOrder() {
+        return order == null ? new int[0] : order.clone();
+    }
+
+    /**
+     * Returns the number of balls packed into the goal room, provided that
+     * the balls inside the room fill the first storages of the packing order.
+     *
+     * @param balls the cells of the balls
+     * @return the number of balls packed, or -1 if there is no goal room or
+     * the balls inside the room are not packed in order
+     */
+    public int packedCount(int[] balls) {
+        if (order == null) {
+            return -1;
+        }
+        int inside = 0;
+        for (int ball : balls) {
+            if (room[ball]) {
+                inside++;
+            }
+        }
+        for (int k = 0; k < inside; k++) {
+            if (Arrays.binarySearch(balls, order[k]) < 0) {
+                return -1;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Returns whether a ball pushed onto the entrance of the goal room from
+     * the side specified can be packed with a single macro move.
+     *
+     * @param packed the number of balls already packed
+     * @param side the index of the direction in {@link Level#DIRECTIONS}
+     * pointing from the entrance to the cell the ball came from
+     * @return {@code true} if there is a macro move, {@code false} otherwise
+     */
+    public boolean hasRoomMove(int packed, int side) {
+        return order != null && packed < order.length && plans[packed][side] != null;
+    }
+
+    /**
+     * Returns the storage the next ball pushed into the goal room is packed
+     * into.
+     *
+     * @param packed the number of balls already packed
+     * @return the cell index of the storage
+     */
+    public int roomTarget(int packed) {
+        return order[packed];
+    }
+
+    /**
+     * Returns the number of pushes of a goal room macro move, including the
+     * push onto the entrance.
+     *
+     * @param packed the number of balls already packed
+     * @param side the side of the entrance the ball came from
+     * @return the number of pushes
+     */
+    public int roomLength(int packed, int side) {
+        return plans[packed][side].length + 1;
+    }
+
+    /**
+     * Returns the cell the character stands on after a goal room macro move.
+     *
+     * @param packed the number of balls already packed
+     * @param side the side of the entrance the ball came from
+     * @return the cell index of the character
+     */
+    public int roomCharacter(int packed, int side) {
+        return players[packed][side];
+    }
+
+    /**
+     * Encodes a tunnel macro move, or a single push if the length is 1.
+     *
+     * @param ball the cell of the ball before the first push
+     * @param direction the index of the direction in {@link Level#DIRECTIONS}
+     * @param length the number of pushes
+     * @return the encoded move, equal to {@link NodeStore#move(int, int)} for
+     * a single push
+     */
+    public static int tunnelMove(int ball, int direction, int length) {
+        return (length - 1) << LENGTH_SHIFT | NodeStore.move(ball, direction);
+    }
+
+    /**
+     * Encodes a goal room macro move.
+     *
+     * @param packed the number of balls already packed
+     * @param side the side of the entrance the ball came from
+     * @return the encoded move
+     */
+    public static int roomMove(int packed, int side) {
+        return ROOM_MOVE | packed << 2 | side;
+    }
+
+    /**
+     * Appends the pushes of an encoded move to a list.
+     *
+     * @param move the move encoded by {@link #tunnelMove(int, int, int)},
+     * {@link #roomMove(int, int)} or {@link NodeStore#move(int, int)}
+     * @param pushes the list receiving the pushes
+     */
+    public void toPushes(int move, List<Push> pushes) {
+        if ((move & ROOM_MOVE) != 0) {
+            int packed = (move & ~ROOM_MOVE) >>> 2;
+            int side = move & 3;
+            pushes.add(new Push(level.neighbor(entrance, side), (side + 2) % 4));
+            for (int push : plans[packed][side]) {
+                pushes.add(NodeStore.toPush(push));
+            }
+            return;
+        }
+        int length = (move >>> LENGTH_SHIFT) + 1;
+        Push push = NodeStore.toPush(move & ((1 << LENGTH_SHIFT) - 1));
+        int ball = push.getBall();
+        for (int i = 0; i < length; i++) {
+            pushes.add(new Push(ball, push.getDirection()));
+            ball = level.neighbor(ball, push.getDirection());
+        }
+    }
+
+    /*
+     * Tries every space as the entrance and keeps the smallest room holding
+     * all the storages, then searches for a packing order.
+     */
+    private void findGoalRoom() {
+        int[] storages = level.getStorages();
+        if (storages.length == 0 || storages.length != level.getBallCount()) {
+            return;
+        }
+        int bestSize = Integer.MAX_VALUE;
+        for (int cell = 0; cell < level.getSize(); cell++) {
+            if (!isFloor(cell) || level.isStorage(cell) || cell == level.getCharacter()) {
+                continue;
+            }
+            boolean[] area = component(storages[0], cell);
+            int size = 0;
+            for (boolean inside : area) {
+                size += inside ? 1 : 0;
+            }
+            if (size < bestSize && isGoalRoom(area, cell, storages)) {
+                bestSize = size;
+                entrance = cell;
+                room = area;
+            }
+        }
+        if (room == null) {
+            return;
+        }
+        int[] candidate = new int[storages.length];
+        int[][][] candidatePlans = new int[storages.length][4][];
+        int[][] candidatePlayers = new int[storages.length][4];
+        if (pack(0, candidate, candidatePlans, candidatePlayers, new boolean[level.getSize()])) {
+            order = candidate;
+            plans = candidatePlans;
+            players = candidatePlayers;
+        }
+    }
+
+    private boolean isGoalRoom(boolean[] area, int door, int[] storages) {
+        if (area[level.getCharacter()]) {
+            return false;
+        }
+        for (int storage : storages) {
+            if (!area[storage]) {
+                return false;
+            }
+        }
+        for (int ball : level.getBalls()) {
+            if (area[ball] || ball == door) {
+                return false;
+            }
+        }
+        boolean entered = false;
+        for (int d = 0; d < 4; d++) {
+            int cell = level.neighbor(door, d);
+            entered |= cell >= 0 && area[cell];
+        }
+        return entered;
+    }
+
+    /*
+     * Depth-first search for a packing order. The storages farthest from the
+     * entrance are tried first, since filling them last is rarely possible.
+     */
+    private boolean pack(int k, int[] candidate, int[][][] candidatePlans, int[][] candidatePlayers,
+                         boolean[] filled) {
+        if (k == candidate.length) {
+            return true;
+        }
+        if (++attempts > MAX_ATTEMPTS) {
+            return false;
+        }
+        int[] distances = roomDistances(filled);
+        List<Integer> storages = new ArrayList<>();
+        for (int storage : level.getStorages()) {
+            if (!filled[storage] && distances[storage] != Level.UNREACHABLE) {
+                storages.add(storage);
+            }
+        }
+        storages.sort((a, b) -> Integer.compare(distances[b], distances[a]));
+        for (int storage : storages) {
+            boolean usable = false;
+            for (int side = 0; side < 4; side++) {
+                candidatePlans[k][side] = null;
+                int from = level.neighbor(entrance, side);
+                int behind = from < 0 ? -1 : level.neighbor(from, side);
+                if (!isFloor(from) || room[from] || !isFloor(behind)) {
+                    continue;
+                }
+                int[] plan = plan(from, storage, filled);
+                if (plan != null) {
+                    usable = true;
+                    candidatePlans[k][side] = Arrays.copyOf(plan, plan.length - 1);
+                    candidatePlayers[k][side] = plan[plan.length - 1];
+                }
+            }
+            if (usable) {
+                candidate[k] = storage;
+                filled[storage] = true;
+                if (pack(k + 1, candidate, candidatePlans, candidatePlayers, filled)) {
+                    return true;
+                }
+                filled[storage] = false;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Plans the pushes of a ball from the entrance to a storage with the
+     * character standing outside the entrance. Returns the encoded pushes
+     * followed by the final cell of the character, provided the character
+     * can walk back to the entrance afterwards, or null.
+     */
+    private int[] plan(int outside, int storage, boolean[] filled) {
+        int size = level.getSize();
+        int[] parents = new int[size * 4];
+        Arrays.fill(parents, -2);
+        int[] queue = new int[size * 4];
+        int tail = 0;
+        boolean[] reach = walk(outside, entrance, outside, filled);
+        for (int side = 0; side < 4; side++) {
+            int cell = level.neighbor(entrance, side);
+            if (cell >= 0 && reach[cell]) {
+                parents[entrance * 4 + side] = -1;
+                queue[tail++] = entrance * 4 + side;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            int ball = current / 4;
+            int side = current % 4;
+            int to = level.neighbor(ball, (side + 2) % 4);
+            if (to < 0 || !room[to] || filled[to] || parents[to * 4 + side] != -2) {
+                continue;
+            }
+            parents[to * 4 + side] = current;
+            if (to == storage) {
+                if (!walk(ball, to, outside, filled)[entrance]) {
+                    continue;
+                }
+                List<Integer> pushes = new ArrayList<>();
+                for (int state = to * 4 + side; parents[state] != -1; state = parents[state]) {
+                    int parent = parents[state];
+                    if (parent / 4 != state / 4) {
+                        pushes.add(NodeStore.move(parent / 4, (state % 4 + 2) % 4));
+                    }
+                }
+                int[] plan = new int[pushes.size() + 1];
+                for (int i = 0; i < pushes.size(); i++) {
+                    plan[i] = pushes.get(pushes.size() - 1 - i);
+                }
+                plan[pushes.size()] = ball;
+                return plan;
+            }
+            queue[tail++] = to * 4 + side;
+            boolean[] area = walk(ball, to, outside, filled);
+            for (int s = 0; s < 4; s++) {
+                int cell = level.neighbor(to, s);
+                if (cell >= 0 && area[cell] && parents[to * 4 + s] == -2) {
+                    parents[to * 4 + s] = to * 4 + side;
+                    queue[tail++] = to * 4 + s;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Spaces the character can walk to inside the goal room, the entrance and
+     * the space outside it, with the ball and the packed balls as obstacles.
+     */
+    private boolean[] walk(int character, int ball, int outside, boolean[] filled) {
+        boolean[] reach = new boolean[level.getSize()];
+        int[] queue = new int[level.getSize()];
+        int tail = 0;
+        reach[character] = true;
+        queue[tail++] = character;
+        for (int head = 0; head < tail; head++) {
+            for (int d = 0; d < 4; d++) {
+                int next = level.neighbor(queue[head], d);
+                if (next >= 0 && !reach[next] && next != ball && !filled[next] && isFloor(next)
+                        && (room[next] || next == entrance || next == outside)) {
+                    reach[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return reach;
+    }
+
+    private int[] roomDistances(boolean[] filled) {
+        int[] distances = new int[level.getSize()];
+        Arrays.fill(distances, Level.UNREACHABLE);
+        int[] queue = new int[level.getSize()];
+        int tail = 0;
+        distances[entrance] = 0;
+        queue[tail++] = entrance;
+        for (int head = 0; head < tail; head++) {
+            for (int d = 0; d < 4; d++) {
+                int next = level.neighbor(queue[head], d);
+                if (next >= 0 && room[next] && !filled[next] && distances[next] == Level.UNREACHABLE) {
+                    distances[next] = distances[queue[head]] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return distances;
+    }
+
+    private boolean[] component(int start, int excluded) {
+        boolean[] area = new boolean[level.getSize()];
+        int[] queue = new int[level.getSize()];
+        int tail = 0;
+        area[start] = true;
+        queue[tail++] = start;
+        for (int head = 0; head < tail; head++) {
+            for (int d = 0; d < 4; d++) {
+                int next = level.neighbor(queue[head], d);
+                if (isFloor(next) && next != excluded && !area[next]) {
+                    area[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return area;
+    }
+
+    private boolean isBetweenWalls(int cell, int direction) {
+        int left = level.neighbor(cell, (direction + 1) % 4);
+        int right = level.neighbor(cell, (direction + 3) % 4);
+        return !isFloor(left) && !isFloor(right);
+    }
+
+    private boolean isFloor(int cell) {
+        return cell >= 0 && !level.isWall(cell);
+    }
+
+}
@@ -0,0 +1,108 @@
+package game.solver;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of {@code long} values backed by a single array, used as
+ * the open list of the searches without boxing the entries. Instances are
+ * not thread-safe.
+ */
+final class LongHeap {
+
+    private long[] heap = new long[1 << 10];
+    private int size;
+
+    /**
+     * Adds a value to the heap.
+     *
+     * @param value the value to add
+     */
+    void add(long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    /**
+     * Removes and returns the smallest value of the heap.
+     *
+     * @return the smallest value
+     * @throws NoSuchElementException if the heap is empty
+     */
+    long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        long result = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return result;
+    }
+
+    /**
+     * Returns whether the heap is empty.
+     *
+     * @return {@code true} if the heap is empty, {@code false} otherwise
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of values in the heap.
+     *
+     * @return the number of values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values of the heap in heap order, from which
+     * {@link #of(long[])} restores the heap.
+     *
+     * @return a copy of the values
+     */
+    long[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    /**
+     * Creates a heap from values in heap order, as returned by
+     * {@link #toArray()}.
+     *
+     * @param values the values in heap order
+     * @return the heap
+     */
+    static LongHeap of(long[] values) {
+        LongHeap result = new LongHeap();
+        result.heap = Arrays.copyOf(values, Math.max(1 << 10, values.length));
+        result.size = values.length;
+        return result;
+    }
+
+}
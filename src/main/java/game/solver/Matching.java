@@ -0,0 +1,137 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * The minimum matching heuristic. Every ball is assigned to a different
+ * storage, and the estimate is the lowest sum of the push distances of the
+ * balls to their storages over all such assignments, computed by the
+ * Hungarian method. The estimate is never below the sum of the distances to
+ * the nearest storages and never above the pushes still needed, so A*
+ * guided by it still finds the fewest pushes. The arrays are allocated once
+ * and reused, so an instance must not be shared between threads.
+ */
+final class Matching {
+
+    /*
+     * The cost of assigning a ball to a storage it cannot be pushed to, high
+     * enough that any assignment using it is worse than every other one.
+     */
+    private static final int UNREACHABLE = 1 << 20;
+
+    private final int[] storages;
+    private final int[][] distances;
+    private final int[] u;
+    private final int[] v;
+    private final int[] assigned;
+    private final int[] way;
+    private final int[] slack;
+    private final boolean[] used;
+
+    /**
+     * Creates a {@code Matching} object for the level specified.
+     *
+     * @param level the level
+     */
+    Matching(Level level) {
+        this.storages = level.getStorages();
+        this.distances = new int[storages.length][];
+        for (int s = 0; s < storages.length; s++) {
+            distances[s] = distancesTo(level, storages[s]);
+        }
+        int columns = storages.length + 1;
+        this.u = new int[level.getBallCount() + 1];
+        this.v = new int[columns];
+        this.assigned = new int[columns];
+        this.way = new int[columns];
+        this.slack = new int[columns];
+        this.used = new boolean[columns];
+    }
+
+    /**
+     * Returns the lowest sum of the push distances of the balls to distinct
+     * storages.
+     *
+     * @param balls the cells of the balls, at most as many as the storages
+     * @return the estimate of the pushes needed
+     */
+    int estimate(int[] balls) {
+        int n = balls.length;
+        int m = storages.length;
+        Arrays.fill(u, 0, n + 1, 0);
+        Arrays.fill(v, 0);
+        Arrays.fill(assigned, 0);
+        for (int i = 1; i <= n; i++) {
+            assigned[0] = i;
+            int j0 = 0;
+            Arrays.fill(slack, Integer.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = assigned[j0];
+                int delta = Integer.MAX_VALUE;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        int cur = distances[j - 1][balls[i0 - 1]] - u[i0] - v[j];
+                        if (cur < slack[j]) {
+                            slack[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (slack[j] < delta) {
+                            delta = slack[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[assigned[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        slack[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (assigned[j0] != 0);
+            do {
+                int j1 = way[j0];
+                assigned[j0] = assigned[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        return -v[0];
+    }
+
+    /*
+     * Breadth-first search pulling a ball away from a storage. A ball can be
+     * pulled to its neighbor if the character has room to stand behind that
+     * neighbor.
+     */
+    private static int[] distancesTo(Level level, int storage) {
+        int[] distances = new int[level.getSize()];
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[level.getSize()];
+        int head = 0;
+        int tail = 0;
+        distances[storage] = 0;
+        queue[tail++] = storage;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int to = level.neighbor(cell, d);
+                if (!isFloor(level, to) || distances[to] != UNREACHABLE || !isFloor(level, level.neighbor(to, d))) {
+                    continue;
+                }
+                distances[to] = distances[cell] + 1;
+                queue[tail++] = to;
+            }
+        }
+        return distances;
+    }
+
+    private static boolean isFloor(Level level, int cell) {
+        return cell >= 0 && !level.isWall(cell);
+    }
+
+}
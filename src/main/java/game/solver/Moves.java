@@ -0,0 +1,76 @@
+package game.solver;
+
+/**
+ * Utility methods for move sequences in LURD notation, where the letters
+ * {@code l}, {@code u}, {@code r} and {@code d} denote the steps of the
+ * character, and their uppercase variants denote pushes.
+ */
+public final class Moves {
+
+    private static final char[] STEPS = {'u', 'r', 'd', 'l'};
+
+    private Moves() {
+    }
+
+    /**
+     * Returns the LURD letter of the direction specified.
+     *
+     * @param direction the index of the direction in {@link Level#DIRECTIONS}
+     * @param push whether the move pushes a ball
+     * @return the LURD letter of the move
+     */
+    public static char toChar(int direction, boolean push) {
+        return push ? Character.toUpperCase(STEPS[direction]) : STEPS[direction];
+    }
+
+    /**
+     * Returns the index of the direction denoted by the LURD letter
+     * specified.
+     *
+     * @param move the LURD letter
+     * @return the index of the direction in {@link Level#DIRECTIONS}
+     * @throws IllegalArgumentException if the letter is not a LURD letter
+     */
+    public static int direction(char move) {
+        switch (Character.toLowerCase(move)) {
+            case 'u':
+                return 0;
+            case 'r':
+                return 1;
+            case 'd':
+                return 2;
+            case 'l':
+                return 3;
+            default:
+                throw new IllegalArgumentException("Invalid move: " + move);
+        }
+    }
+
+    /**
+     * Returns whether the LURD letter specified denotes a push.
+     *
+     * @param move the LURD letter
+     * @return {@code true} if the letter denotes a push, {@code false}
+     * otherwise
+     */
+    public static boolean isPush(char move) {
+        return Character.isUpperCase(move);
+    }
+
+    /**
+     * Returns the number of pushes in the move sequence specified.
+     *
+     * @param moves the move sequence in LURD notation
+     * @return the number of pushes
+     */
+    public static int countPushes(String moves) {
+        int pushes = 0;
+        for (int i = 0; i < moves.length(); i++) {
+            if (isPush(moves.charAt(i))) {
+                pushes++;
+            }
+        }
+        return pushes;
+    }
+
+}
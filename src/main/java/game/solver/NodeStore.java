@@ -0,0 +1,477 @@
+package game.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact storage of the positions generated by a search. A position is
+ * packed by a {@link PositionCodec} into as few {@code long} words as the
+ * size of the tray allows. The keys, the parent indices, the costs and the
+ * pushes leading to the positions are kept in primitive slabs, and the
+ * positions are indexed by an open addressing hash table of node indices,
+ * doubled whenever it becomes three quarters full. For a tray of at most
+ * 128 cells and up to eight balls a position takes a single word, so a
+ * stored node costs 8 bytes of key, 12 bytes of parent, cost and push, and
+ * 5.3 to 10.7 bytes of hash table, for 25.3 to 30.7 bytes in total once the
+ * slabs are full, within the budget of 32 bytes per position. The nodes of
+ * the frontier also have an 8-byte entry in the open list of the search.
+ * The open list entries hold the costs and the priorities in 16 bits, so
+ * they are clamped to 65535, far above the pushes of any level the game can
+ * hold. Instances are not thread-safe.
+ */
+final class NodeStore {
+
+    /**
+     * The move recorded for root positions.
+     */
+    static final int NO_MOVE = -1;
+
+    private static final int SLAB_BITS = 14;
+    private static final int SLAB_SIZE = 1 << SLAB_BITS;
+    private static final int SLAB_MASK = SLAB_SIZE - 1;
+    private static final int CLOSED = 1 << 31;
+    private static final int MAX_PRIORITY = 0xFFFF;
+
+    private final PositionCodec codec;
+    private final int words;
+    private final long[] scratch;
+    private long[][] keys = new long[0][];
+    private int[][] parents = new int[0][];
+    private int[][] costs = new int[0][];
+    private int[][] moves = new int[0][];
+    private int[] table = new int[1 << 10];
+    private boolean[][] dirty = new boolean[2][0];
+    private int size;
+    private int closed;
+
+    /**
+     * Creates a {@code NodeStore} object for the positions of the level
+     * specified.
+     *
+     * @param level the level searched
+     */
+    NodeStore(Level level) {
+        this.codec = new PositionCodec(level);
+        this.words = codec.getWords();
+        this.scratch = new long[words];
+    }
+
+    /**
+     * Returns the number of {@code long} words of a position key.
+     *
+     * @return the number of words of a key
+     */
+    int getWords() {
+        return words;
+    }
+
+    /**
+     * Returns the number of positions stored.
+     *
+     * @return the number of positions stored
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of nodes marked as expanded.
+     *
+     * @return the number of nodes closed
+     */
+    int closedCount() {
+        return closed;
+    }
+
+    /**
+     * Adds a position unless it is already stored.
+     *
+     * @param balls the cells of the balls in ascending order
+     * @param area the normalized cell of the character area
+     * @param parent the index of the parent node, or -1 for a root
+     * @param move the push leading to the position encoded by
+     * {@link #move(int, int)}, or {@link #NO_MOVE}
+     * @param cost the number of pushes leading to the position
+     * @return the index of the new node, or {@code -1 - index} if the
+     * position is already stored at {@code index}
+     */
+    int add(int[] balls, int area, int parent, int move, int cost) {
+        codec.encode(balls, area, scratch, 0);
+        int slot = find(scratch);
+        if (table[slot] != 0) {
+            return -table[slot];
+        }
+        int index = size;
+        if ((index >>> SLAB_BITS) == keys.length) {
+            grow();
+        }
+        int slab = index >>> SLAB_BITS;
+        int offset = index & SLAB_MASK;
+        System.arraycopy(scratch, 0, keys[slab], offset * words, words);
+        parents[slab][offset] = parent;
+        costs[slab][offset] = cost;
+        moves[slab][offset] = move;
+        markDirty(slab);
+        table[slot] = index + 1;
+        size++;
+        if (size > table.length - (table.length >>> 2)) {
+            rehash();
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of a stored position.
+     *
+     * @param balls the cells of the balls in ascending order
+     * @param area the normalized cell of the character area
+     * @return the index of the node, or -1 if the position is not stored
+     */
+    int indexOf(int[] balls, int area) {
+        codec.encode(balls, area, scratch, 0);
+        return table[find(scratch)] - 1;
+    }
+
+    /**
+     * Replaces the path leading to a node by a cheaper one.
+     *
+     * @param index the index of the node
+     * @param parent the index of the new parent node
+     * @param move the push leading to the position
+     * @param cost the number of pushes leading to the position
+     */
+    void update(int index, int parent, int move, int cost) {
+        int slab = index >>> SLAB_BITS;
+        int offset = index & SLAB_MASK;
+        parents[slab][offset] = parent;
+        costs[slab][offset] = cost | (costs[slab][offset] & CLOSED);
+        moves[slab][offset] = move;
+        markDirty(slab);
+    }
+
+    /**
+     * Decodes the cells of the balls of a node.
+     *
+     * @param index the index of the node
+     * @param balls the array receiving the cells of the balls in ascending
+     * order
+     */
+    void getBalls(int index, int[] balls) {
+        codec.decodeBalls(keys[index >>> SLAB_BITS], (index & SLAB_MASK) * words, balls);
+    }
+
+    /**
+     * Returns the normalized cell of the character area of a node. It is a
+     * cell the character can stand on in the position.
+     *
+     * @param index the index of the node
+     * @return the normalized cell of the character area
+     */
+    int getArea(int index) {
+        return codec.decodeArea(keys[index >>> SLAB_BITS], (index & SLAB_MASK) * words);
+    }
+
+    /**
+     * Returns the index of the parent of a node.
+     *
+     * @param index the index of the node
+     * @return the index of the parent node, or -1 for a root
+     */
+    int getParent(int index) {
+        return parents[index >>> SLAB_BITS][index & SLAB_MASK];
+    }
+
+    /**
+     * Returns the push leading to a node.
+     *
+     * @param index the index of the node
+     * @return the push encoded by {@link #move(int, int)}, or
+     * {@link #NO_MOVE} for a root
+     */
+    int getMove(int index) {
+        return moves[index >>> SLAB_BITS][index & SLAB_MASK];
+    }
+
+    /**
+     * Returns the number of pushes leading to a node.
+     *
+     * @param index the index of the node
+     * @return the number of pushes
+     */
+    int getCost(int index) {
+        return costs[index >>> SLAB_BITS][index & SLAB_MASK] & ~CLOSED;
+    }
+
+    /**
+     * Returns whether a node has been expanded.
+     *
+     * @param index the index of the node
+     * @return {@code true} if the node has been expanded, {@code false}
+     * otherwise
+     */
+    boolean isClosed(int index) {
+        return (costs[index >>> SLAB_BITS][index & SLAB_MASK] & CLOSED) != 0;
+    }
+
+    /**
+     * Marks a node as expanded.
+     *
+     * @param index the index of the node
+     */
+    void close(int index) {
+        int[] slab = costs[index >>> SLAB_BITS];
+        if ((slab[index & SLAB_MASK] & CLOSED) == 0) {
+            slab[index & SLAB_MASK] |= CLOSED;
+            closed++;
+            markDirty(index >>> SLAB_BITS);
+        }
+    }
+
+    /**
+     * Returns the number of nodes of a slab, the unit in which the nodes are
+     * saved by a checkpoint.
+     *
+     * @return the number of nodes of a slab
+     */
+    static int slabSize() {
+        return SLAB_SIZE;
+    }
+
+    /**
+     * Returns the number of bytes allocated for the slabs and the hash
+     * table, without the object headers.
+     *
+     * @return the number of bytes allocated
+     */
+    long allocatedBytes() {
+        return (long) keys.length * SLAB_SIZE * (words * Long.BYTES + 3 * Integer.BYTES)
+                + (long) table.length * Integer.BYTES;
+    }
+
+    /**
+     * Returns the number of slabs allocated.
+     *
+     * @return the number of slabs
+     */
+    int slabCount() {
+        return keys.length;
+    }
+
+    /**
+     * Copies the slabs changed since they were last copied for a checkpoint
+     * file, and marks them as unchanged for that file. Stores keep track of
+     * the changes for two files, so checkpoints can alternate between them.
+     *
+     * @param file the checkpoint file, 0 or 1
+     * @return the copies of the slabs changed
+     */
+    List<Slab> takeDirtySlabs(int file) {
+        List<Slab> slabs = new ArrayList<>();
+        for (int slab = 0; slab < keys.length; slab++) {
+            if (dirty[file][slab]) {
+                dirty[file][slab] = false;
+                slabs.add(new Slab(slab, keys[slab].clone(), parents[slab].clone(), costs[slab].clone(),
+                        moves[slab].clone()));
+            }
+        }
+        return slabs;
+    }
+
+    /**
+     * Marks every slab as changed for a checkpoint file, so the next
+     * checkpoint written to it copies all of them.
+     *
+     * @param file the checkpoint file, 0 or 1
+     */
+    void markAllDirty(int file) {
+        Arrays.fill(dirty[file], true);
+    }
+
+    /**
+     * Replaces the contents of this store with slabs read from a
+     * checkpoint. The slabs are marked as unchanged for the file they were
+     * read from and as changed for the other one.
+     *
+     * @param slabs the slabs in ascending order of index, without gaps
+     * @param size the number of nodes
+     * @param file the checkpoint file the slabs were read from
+     */
+    void restore(List<Slab> slabs, int size, int file) {
+        int count = slabs.size();
+        keys = new long[count][];
+        parents = new int[count][];
+        costs = new int[count][];
+        moves = new int[count][];
+        for (Slab slab : slabs) {
+            keys[slab.index] = slab.keys;
+            parents[slab.index] = slab.parents;
+            costs[slab.index] = slab.costs;
+            moves[slab.index] = slab.moves;
+        }
+        dirty = new boolean[2][count];
+        Arrays.fill(dirty[1 - file], true);
+        this.size = size;
+        closed = 0;
+        for (int index = 0; index < size; index++) {
+            if (isClosed(index)) {
+                closed++;
+            }
+        }
+        table = new int[Integer.highestOneBit(Math.max(1 << 9, size)) << 1];
+        rehash();
+    }
+
+    /**
+     * A copy of a slab of nodes.
+     */
+    static final class Slab {
+
+        final int index;
+        final long[] keys;
+        final int[] parents;
+        final int[] costs;
+        final int[] moves;
+
+        Slab(int index, long[] keys, int[] parents, int[] costs, int[] moves) {
+            this.index = index;
+            this.keys = keys;
+            this.parents = parents;
+            this.costs = costs;
+            this.moves = moves;
+        }
+
+    }
+
+    /**
+     * Encodes a push as an {@code int}.
+     *
+     * @param ball the cell of the ball before the push
+     * @param direction the index of the direction in {@link Level#DIRECTIONS}
+     * @return the encoded push
+     */
+    static int move(int ball, int direction) {
+        return ball << 2 | direction;
+    }
+
+    /**
+     * Decodes a push encoded by {@link #move(int, int)}.
+     *
+     * @param move the encoded push
+     * @return the push
+     */
+    static Push toPush(int move) {
+        return new Push(move >>> 2, move & 3);
+    }
+
+    /**
+     * Encodes an entry of the open list as a {@code long}, so that entries
+     * with lower estimated total cost, and among them those with higher cost
+     * so far, come first in ascending order. The costs and the priorities
+     * are clamped to 65535.
+     *
+     * @param f the estimated total cost
+     * @param g the cost so far
+     * @param index the index of the node
+     * @return the encoded entry
+     */
+    static long entry(int f, int g, int index) {
+        return (long) Math.min(f, MAX_PRIORITY) << 48
+                | (long) (MAX_PRIORITY - Math.min(g, MAX_PRIORITY)) << 32
+                | index;
+    }
+
+    /**
+     * Returns the node index of an open list entry.
+     *
+     * @param entry the entry encoded by {@link #entry(int, int, int)}
+     * @return the index of the node
+     */
+    static int entryIndex(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Returns the cost so far of an open list entry.
+     *
+     * @param entry the entry encoded by {@link #entry(int, int, int)}
+     * @return the cost so far
+     */
+    static int entryCost(long entry) {
+        return MAX_PRIORITY - (int) ((entry >>> 32) & MAX_PRIORITY);
+    }
+
+    /**
+     * Returns whether an open list entry is stale, that is whether a lower
+     * cost has been found for its node since it was added.
+     *
+     * @param entry the entry encoded by {@link #entry(int, int, int)}
+     * @param cost the current cost of the node of the entry
+     * @return {@code true} if the entry does not hold the current cost,
+     * {@code false} otherwise
+     */
+    static boolean isStale(long entry, int cost) {
+        return entryCost(entry) != Math.min(cost, MAX_PRIORITY);
+    }
+
+    private int find(long[] key) {
+        int mask = table.length - 1;
+        int slot = hash(key, 0) & mask;
+        while (table[slot] != 0 && !keyEquals(table[slot] - 1, key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(int index, long[] key) {
+        long[] slab = keys[index >>> SLAB_BITS];
+        int base = (index & SLAB_MASK) * words;
+        for (int w = 0; w < words; w++) {
+            if (slab[base + w] != key[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(long[] key, int base) {
+        long h = 0;
+        for (int w = 0; w < words; w++) {
+            h = (h ^ key[base + w]) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 29) ^ (h >>> 47));
+    }
+
+    private void markDirty(int slab) {
+        dirty[0][slab] = true;
+        dirty[1][slab] = true;
+    }
+
+    private void grow() {
+        int slabs = keys.length + 1;
+        dirty[0] = Arrays.copyOf(dirty[0], slabs);
+        dirty[1] = Arrays.copyOf(dirty[1], slabs);
+        keys = Arrays.copyOf(keys, slabs);
+        parents = Arrays.copyOf(parents, slabs);
+        costs = Arrays.copyOf(costs, slabs);
+        moves = Arrays.copyOf(moves, slabs);
+        keys[slabs - 1] = new long[SLAB_SIZE * words];
+        parents[slabs - 1] = new int[SLAB_SIZE];
+        costs[slabs - 1] = new int[SLAB_SIZE];
+        moves[slabs - 1] = new int[SLAB_SIZE];
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[table.length * 2];
+        int mask = rehashed.length - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hash(keys[index >>> SLAB_BITS], (index & SLAB_MASK) * words) & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = index + 1;
+        }
+        table = rehashed;
+    }
+
+}
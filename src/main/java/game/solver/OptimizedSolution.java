@@ -0,0 +1,29 @@
+package game.solver;
+
+import lombok.Value;
+
+/**
+ * Class representing the outcome of optimizing a solution, see
+ * {@link SolutionOptimizer}.
+ */
+@Value
+public class OptimizedSolution {
+
+    /**
+     * The solution optimized.
+     */
+    Solution original;
+
+    /**
+     * The solution with the fewest pushes found, ties broken by the number
+     * of steps.
+     */
+    Solution fewestPushes;
+
+    /**
+     * The solution with the fewest steps found, ties broken by the number of
+     * pushes.
+     */
+    Solution fewestSteps;
+
+}
@@ -0,0 +1,194 @@
+package game.solver;
+
+import game.state.SokobanState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Races several solver configurations on the same level, each on its own
+ * thread. The first configuration that solves the level or proves it
+ * unsolvable wins, and the others are cancelled by interrupting their
+ * threads. The status and the node counts of every configuration are
+ * logged, so the strategies winning on each kind of level can be tracked
+ * over time.
+ */
+@Slf4j
+public class PortfolioSolver implements Solver {
+
+    private static final long JOIN_MILLIS = 1000;
+
+    private final Map<String, Supplier<Solver>> strategies;
+
+    /**
+     * Creates a {@code PortfolioSolver} object racing A* with and without
+     * macro moves and corral pruning, A* and weighted A* with weight 3 on the
+     * minimum matching heuristic, weighted A* with weights 3 and 50, the
+     * latter being close to a greedy search on the heuristic, and the
+     * bidirectional search.
+     */
+    public PortfolioSolver() {
+        this(defaultStrategies());
+    }
+
+    /**
+     * Creates a {@code PortfolioSolver} object.
+     *
+     * @param strategies the factories of the solvers raced, by name
+     * @throws IllegalArgumentException if there are no strategies
+     */
+    public PortfolioSolver(Map<String, Supplier<Solver>> strategies) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("No strategies");
+        }
+        this.strategies = Collections.unmodifiableMap(new LinkedHashMap<>(strategies));
+    }
+
+    private static Map<String, Supplier<Solver>> defaultStrategies() {
+        Map<String, Supplier<Solver>> strategies = new LinkedHashMap<>();
+        strategies.put("astar", AStarSolver::new);
+        strategies.put("astar-plain", () -> new AStarSolver(false, false));
+        strategies.put("astar-matching", () -> new AStarSolver(true, true, 1, true));
+        strategies.put("weighted-3", () -> new AStarSolver(true, true, 3));
+        strategies.put("weighted-3-matching", () -> new AStarSolver(true, true, 3, true));
+        strategies.put("greedy", () -> new AStarSolver(true, true, 50));
+        strategies.put("bidirectional", BidirectionalSolver::new);
+        return strategies;
+    }
+
+    /**
+     * Returns the names of the strategies raced.
+     *
+     * @return the names of the strategies in the order they are started
+     */
+    public List<String> getStrategies() {
+        return new ArrayList<>(strategies.keySet());
+    }
+
+    /**
+     * Searches for a solution of the current configuration of a game.
+     *
+     * @param state the state of the game
+     * @param timeout the maximum wall-clock time of the search
+     * @return the outcome of the winning strategy
+     */
+    public SolverResult solve(SokobanState state, Duration timeout) {
+        return solve(Level.of(state), timeout);
+    }
+
+    /**
+     * {@inheritDoc} The node counts of the result are those of the winning
+     * strategy.
+     */
+    @Override
+    public SolverResult solve(Level level, Duration timeout) {
+        long begin = System.nanoTime();
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (Map.Entry<String, Supplier<Solver>> strategy : strategies.entrySet()) {
+            Thread thread = new Thread(() -> outcomes.add(new Outcome(strategy.getKey(),
+                    run(strategy.getKey(), strategy.getValue(), level, timeout))),
+                    "portfolio-" + strategy.getKey());
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        List<Outcome> finished = new ArrayList<>();
+        Outcome winner = null;
+        try {
+            while (winner == null && finished.size() < threads.size()) {
+                Outcome outcome = outcomes.take();
+                finished.add(outcome);
+                if (outcome.result.isSolved() || outcome.result.getStatus() == SolverResult.Status.UNSOLVABLE) {
+                    winner = outcome;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            threads.forEach(Thread::interrupt);
+        }
+        awaitLosers(threads);
+        outcomes.drainTo(finished);
+        report(level, winner, finished);
+        SolverResult.Status status = winner != null ? winner.result.getStatus()
+                : Thread.currentThread().isInterrupted() ? SolverResult.Status.CANCELLED
+                : SolverResult.Status.TIMEOUT;
+        return SolverResult.builder()
+                .status(status)
+                .solution(winner == null ? null : winner.result.getSolution())
+                .expandedNodes(winner == null ? 0 : winner.result.getExpandedNodes())
+                .generatedNodes(winner == null ? 0 : winner.result.getGeneratedNodes())
+                .elapsedNanos(System.nanoTime() - begin)
+                .build();
+    }
+
+    /*
+     * Runs a strategy, reporting any failure as a cancellation. Errors are
+     * caught too, as an OutOfMemoryError of one strategy is likely with
+     * several searches sharing the heap, and every strategy must report an
+     * outcome for the race to end.
+     */
+    private static SolverResult run(String name, Supplier<Solver> factory, Level level, Duration timeout) {
+        try {
+            return factory.get().solve(level, timeout);
+        } catch (Throwable e) {
+            log.warn("Portfolio strategy {} failed", name, e);
+            return SolverResult.builder().status(SolverResult.Status.CANCELLED).build();
+        }
+    }
+
+    /*
+     * Waits a moment for the cancelled strategies to return their node
+     * counts. They check for interruption regularly, so they stop quickly.
+     */
+    private static void awaitLosers(List<Thread> threads) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(JOIN_MILLIS);
+        try {
+            for (Thread thread : threads) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    break;
+                }
+                thread.join(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(Level level, Outcome winner, List<Outcome> outcomes) {
+        String id = Integer.toHexString(level.hashCode());
+        for (Outcome outcome : outcomes) {
+            log.info("Portfolio level {} strategy {}: {}{} in {} ms, {} expanded, {} generated", id, outcome.name,
+                    outcome.result.getStatus(), outcome == winner ? " (winner)" : "",
+                    TimeUnit.NANOSECONDS.toMillis(outcome.result.getElapsedNanos()),
+                    outcome.result.getExpandedNodes(), outcome.result.getGeneratedNodes());
+        }
+    }
+
+    private static final class Outcome {
+
+        private final String name;
+        private final SolverResult result;
+
+        Outcome(String name, SolverResult result) {
+            this.name = name;
+            this.result = result;
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * Packs a search position, the sorted cells of the balls followed by the
+ * normalized cell of the character area, into {@code long} words. Every
+ * field takes just enough bits to hold a cell index of the tray, and fields
+ * do not straddle word boundaries.
+ */
+public final class PositionCodec {
+
+    private final int ballCount;
+    private final int bits;
+    private final int fieldsPerWord;
+    private final int words;
+    private final long fieldMask;
+
+    /**
+     * Creates a {@code PositionCodec} object for the positions of the level
+     * specified.
+     *
+     * @param level the level searched
+     */
+    public PositionCodec(Level level) {
+        this.ballCount = level.getBallCount();
+        this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(level.getSize() - 1));
+        this.fieldsPerWord = 64 / bits;
+        this.words = (ballCount + 1 + fieldsPerWord - 1) / fieldsPerWord;
+        this.fieldMask = (1L << bits) - 1;
+    }
+
+    /**
+     * Returns the number of {@code long} words of an encoded position.
+     *
+     * @return the number of words
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Returns the number of bits actually used by an encoded position.
+     *
+     * @return the number of bits used
+     */
+    int getBits() {
+        return bits * (ballCount + 1);
+    }
+
+    /**
+     * Encodes a position.
+     *
+     * @param balls the cells of the balls in ascending order
+     * @param area the normalized cell of the character area
+     * @param dest the array receiving the words of the position
+     * @param offset the index of the first word in {@code dest}
+     */
+    public void encode(int[] balls, int area, long[] dest, int offset) {
+        Arrays.fill(dest, offset, offset + words, 0L);
+        for (int i = 0; i < ballCount; i++) {
+            dest[offset + i / fieldsPerWord] |= (long) balls[i] << (bits * (i % fieldsPerWord));
+        }
+        dest[offset + ballCount / fieldsPerWord] |= (long) area << (bits * (ballCount % fieldsPerWord));
+    }
+
+    /**
+     * Decodes the cells of the balls of a position.
+     *
+     * @param src the array holding the words of the position
+     * @param offset the index of the first word in {@code src}
+     * @param balls the array receiving the cells of the balls in ascending
+     * order
+     */
+    public void decodeBalls(long[] src, int offset, int[] balls) {
+        for (int i = 0; i < ballCount; i++) {
+            balls[i] = field(src, offset, i);
+        }
+    }
+
+    /**
+     * Decodes the normalized cell of the character area of a position.
+     *
+     * @param src the array holding the words of the position
+     * @param offset the index of the first word in {@code src}
+     * @return the normalized cell of the character area
+     */
+    public int decodeArea(long[] src, int offset) {
+        return field(src, offset, ballCount);
+    }
+
+    private int field(long[] src, int offset, int i) {
+        return (int) ((src[offset + i / fieldsPerWord] >>> (bits * (i % fieldsPerWord))) & fieldMask);
+    }
+
+}
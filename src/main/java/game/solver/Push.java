@@ -0,0 +1,21 @@
+package game.solver;
+
+import lombok.Value;
+
+/**
+ * Class representing a push of a ball by one space.
+ */
+@Value
+public class Push {
+
+    /**
+     * The cell occupied by the ball before the push.
+     */
+    int ball;
+
+    /**
+     * The index of the direction of the push in {@link Level#DIRECTIONS}.
+     */
+    int direction;
+
+}
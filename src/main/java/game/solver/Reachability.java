@@ -0,0 +1,145 @@
+package game.solver;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search of the spaces the character can walk to without
+ * pushing any ball. The arrays are allocated once and reused by every
+ * search, so an instance must not be shared between threads.
+ */
+public final class Reachability {
+
+    private final Level level;
+    private final int[] stamps;
+    private final int[] parents;
+    private final int[] queue;
+    private int stamp;
+    private int start;
+    private int normalized;
+    private int count;
+
+    /**
+     * Creates a {@code Reachability} object for the level specified.
+     *
+     * @param level the level to search
+     */
+    public Reachability(Level level) {
+        this.level = level;
+        this.stamps = new int[level.getSize()];
+        this.parents = new int[level.getSize()];
+        this.queue = new int[level.getSize()];
+    }
+
+    /**
+     * Computes the spaces reachable from the position of the character.
+     *
+     * @param character the cell occupied by the character
+     * @param occupied the cells occupied by balls, indexed by cell
+     * @return this object
+     */
+    public Reachability compute(int character, boolean[] occupied) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        start = character;
+        normalized = character;
+        int head = 0;
+        int tail = 0;
+        stamps[character] = stamp;
+        parents[character] = -1;
+        queue[tail++] = character;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int to = level.neighbor(cell, d);
+                if (to < 0 || stamps[to] == stamp || level.isWall(to) || occupied[to]) {
+                    continue;
+                }
+                stamps[to] = stamp;
+                parents[to] = cell;
+                queue[tail++] = to;
+                if (to < normalized) {
+                    normalized = to;
+                }
+            }
+        }
+        count = tail;
+        return this;
+    }
+
+    /**
+     * Returns whether the cell specified is reachable.
+     *
+     * @param cell the cell index
+     * @return {@code true} if the character can walk to the cell,
+     * {@code false} otherwise
+     */
+    public boolean isReachable(int cell) {
+        return cell >= 0 && stamps[cell] == stamp;
+    }
+
+    /**
+     * Returns the smallest reachable cell index, which identifies the area
+     * of the character regardless of where it stands within the area.
+     *
+     * @return the smallest reachable cell index
+     */
+    public int getNormalized() {
+        return normalized;
+    }
+
+    /**
+     * Returns the number of reachable cells.
+     *
+     * @return the number of reachable cells
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the length of the shortest walk to the cell specified.
+     *
+     * @param cell the target cell index
+     * @return the number of steps, or {@code -1} if the cell is not reachable
+     */
+    public int distanceTo(int cell) {
+        if (!isReachable(cell)) {
+            return -1;
+        }
+        int steps = 0;
+        for (int c = cell; c != start; c = parents[c]) {
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Returns the shortest walk to the cell specified in LURD notation.
+     *
+     * @param cell the target cell index
+     * @return the lowercase moves of the walk, or {@code null} if the cell is
+     * not reachable
+     */
+    public String pathTo(int cell) {
+        if (!isReachable(cell)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int c = cell; c != start; c = parents[c]) {
+            sb.append(Moves.toChar(directionBetween(parents[c], c), false));
+        }
+        return sb.reverse().toString();
+    }
+
+    private int directionBetween(int from, int to) {
+        for (int d = 0; d < 4; d++) {
+            if (level.neighbor(from, d) == to) {
+                return d;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+}
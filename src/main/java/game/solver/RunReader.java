@@ -0,0 +1,84 @@
+package game.solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads back a run file written by {@link RunWriter} with a sequential scan
+ * of memory-mapped windows of the file, so files larger than the address
+ * range of a single mapping can be read as well. Usage follows the cursor
+ * style of {@link #advance()} and {@link #value()}.
+ */
+final class RunReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 1L << 26;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long value;
+
+    /**
+     * Creates a {@code RunReader} object positioned before the first value.
+     *
+     * @param path the path of the run file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    RunReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        map(0);
+    }
+
+    /**
+     * Moves to the next value of the run.
+     *
+     * @return {@code true} if there is a next value, {@code false} if the end
+     * of the run has been reached
+     * @throws IOException if the file cannot be mapped
+     */
+    boolean advance() throws IOException {
+        long position = windowStart + window.position();
+        if (position == size) {
+            return false;
+        }
+        if (window.remaining() < 10 && windowStart + window.limit() < size) {
+            map(position);
+        }
+        long delta = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = window.get();
+            delta |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        value += delta;
+        return true;
+    }
+
+    /**
+     * Returns the current value of the run.
+     *
+     * @return the value read by the last successful {@link #advance()}
+     */
+    long value() {
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+    }
+
+}
@@ -0,0 +1,88 @@
+package game.solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a strictly ascending sequence of non-negative {@code long} values to
+ * a run file. Each value is stored as the difference from the previous one in
+ * a variable length encoding of 7 bits per byte, so the densely packed
+ * positions of a search layer take a few bytes each. The file is written
+ * through a {@link FileChannel} and read back by {@link RunReader}.
+ */
+final class RunWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long previous;
+    private long count;
+
+    /**
+     * Creates a {@code RunWriter} object, replacing the file if it exists.
+     *
+     * @param path the path of the run file
+     * @throws IOException if the file cannot be opened
+     */
+    RunWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Appends a value to the run.
+     *
+     * @param value the value, greater than the previous value written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the value is not greater than the
+     * previous value
+     */
+    void write(long value) throws IOException {
+        if ((count > 0 && value <= previous) || value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative and strictly ascending");
+        }
+        if (buffer.remaining() < 10) {
+            flush();
+        }
+        long delta = value - previous;
+        while ((delta & ~0x7FL) != 0) {
+            buffer.put((byte) (delta & 0x7F | 0x80));
+            delta >>>= 7;
+        }
+        buffer.put((byte) delta);
+        previous = value;
+        count++;
+    }
+
+    /**
+     * Returns the number of values written.
+     *
+     * @return the number of values written
+     */
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
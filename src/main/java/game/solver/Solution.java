@@ -0,0 +1,130 @@
+package game.solver;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class representing a solution of a level as a move sequence in LURD
+ * notation.
+ */
+@Value
+public class Solution {
+
+    /**
+     * The move sequence in LURD notation.
+     */
+    String moves;
+
+    /**
+     * Returns the number of steps made by the character, including pushes.
+     *
+     * @return the number of steps
+     */
+    public int getSteps() {
+        return moves.length();
+    }
+
+    /**
+     * Returns the number of ball pushes.
+     *
+     * @return the number of ball pushes
+     */
+    public int getPushes() {
+        return Moves.countPushes(moves);
+    }
+
+    /**
+     * Creates a solution from a sequence of pushes by inserting the shortest
+     * walks of the character between them.
+     *
+     * @param level the level solved
+     * @param pushes the pushes solving the level
+     * @return the solution consisting of the pushes and the walks between them
+     * @throws IllegalArgumentException if the pushes are not feasible
+     */
+    public static Solution of(Level level, List<Push> pushes) {
+        Reachability reachability = new Reachability(level);
+        boolean[] occupied = new boolean[level.getSize()];
+        for (int ball : level.getBalls()) {
+            occupied[ball] = true;
+        }
+        int character = level.getCharacter();
+        StringBuilder sb = new StringBuilder();
+        for (Push push : pushes) {
+            int from = push.getBall();
+            int behind = level.neighbor(from, (push.getDirection() + 2) % 4);
+            int to = level.neighbor(from, push.getDirection());
+            String walk = reachability.compute(character, occupied).pathTo(behind);
+            if (!occupied[from] || walk == null || to < 0 || level.isWall(to) || occupied[to]) {
+                throw new IllegalArgumentException("Infeasible push " + push);
+            }
+            sb.append(walk).append(Moves.toChar(push.getDirection(), true));
+            occupied[from] = false;
+            occupied[to] = true;
+            character = from;
+        }
+        return new Solution(sb.toString());
+    }
+
+    /**
+     * Returns the pushes of this solution.
+     *
+     * @param level the level solved
+     * @return the pushes of this solution in order
+     * @throws IllegalArgumentException if the moves are not feasible in the
+     * level
+     */
+    public List<Push> toPushes(Level level) {
+        boolean[] occupied = new boolean[level.getSize()];
+        for (int ball : level.getBalls()) {
+            occupied[ball] = true;
+        }
+        int character = level.getCharacter();
+        List<Push> pushes = new ArrayList<>();
+        for (int i = 0; i < moves.length(); i++) {
+            int d = Moves.direction(moves.charAt(i));
+            int next = level.neighbor(character, d);
+            if (next < 0 || level.isWall(next)) {
+                throw new IllegalArgumentException("Infeasible move at " + i);
+            }
+            if (occupied[next]) {
+                int to = level.neighbor(next, d);
+                if (!Moves.isPush(moves.charAt(i)) || to < 0 || level.isWall(to) || occupied[to]) {
+                    throw new IllegalArgumentException("Infeasible push at " + i);
+                }
+                pushes.add(new Push(next, d));
+                occupied[next] = false;
+                occupied[to] = true;
+            } else if (Moves.isPush(moves.charAt(i))) {
+                throw new IllegalArgumentException("No ball to push at " + i);
+            }
+            character = next;
+        }
+        return pushes;
+    }
+
+    /**
+     * Returns whether this solution solves the level specified.
+     *
+     * @param level the level
+     * @return {@code true} if the moves are feasible and leave every ball in
+     * a storage, {@code false} otherwise
+     */
+    public boolean solves(Level level) {
+        try {
+            int[] balls = level.getBalls();
+            for (Push push : toPushes(level)) {
+                int i = Arrays.binarySearch(balls, push.getBall());
+                balls[i] = level.neighbor(push.getBall(), push.getDirection());
+                Arrays.sort(balls);
+            }
+            return level.isSolved(balls);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+}
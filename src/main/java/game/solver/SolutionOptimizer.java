@@ -0,0 +1,423 @@
+package game.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Improves solutions found by players or solvers. The walks of the character
+ * between the pushes are replaced by the shortest walks, then every window
+ * of consecutive pushes up to the window size is searched again for a
+ * replacement leading to the same position with fewer pushes, or with fewer
+ * steps when the steps are minimized. The searches are breadth-first and
+ * bounded by a node limit, so the optimizer finds local improvements quickly
+ * but does not guarantee optimal solutions.
+ */
+public class SolutionOptimizer {
+
+    private static final int NODE_LIMIT = 1 << 14;
+
+    private static final Comparator<Solution> BY_PUSHES = Comparator.comparingInt(Solution::getPushes)
+            .thenComparingInt(Solution::getSteps);
+
+    private static final Comparator<Solution> BY_STEPS = Comparator.comparingInt(Solution::getSteps)
+            .thenComparingInt(Solution::getPushes);
+
+    private final int window;
+    private final int threads;
+
+    /**
+     * Creates a {@code SolutionOptimizer} object searching windows of up to
+     * 6 pushes and using all available processors.
+     */
+    public SolutionOptimizer() {
+        this(6, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@code SolutionOptimizer} object.
+     *
+     * @param window the largest number of consecutive pushes searched again
+     * @param threads the number of worker threads of {@link #optimizeAll}
+     * @throws IllegalArgumentException if the window is less than 2 or the
+     * number of threads is less than 1
+     */
+    public SolutionOptimizer(int window, int threads) {
+        if (window < 2 || threads < 1) {
+            throw new IllegalArgumentException("Invalid window or number of threads");
+        }
+        this.window = window;
+        this.threads = threads;
+    }
+
+    /**
+     * Optimizes a solution for both the number of pushes and the number of
+     * steps.
+     *
+     * @param level the level solved
+     * @param moves the moves solving the level in LURD notation
+     * @return the solutions with the fewest pushes and with the fewest steps
+     * found
+     * @throws IllegalArgumentException if the moves do not solve the level
+     */
+    public OptimizedSolution optimize(Level level, String moves) {
+        Solution original = new Solution(moves);
+        if (!original.solves(level)) {
+            throw new IllegalArgumentException("The moves do not solve the level");
+        }
+        Search search = new Search(level);
+        List<Push> pushes = original.toPushes(level);
+        Solution walked = Solution.of(level, pushes);
+        Solution pushOptimized = search.shortenSteps(Solution.of(level, search.shortenPushes(pushes)), false);
+        Solution stepOptimized = search.shortenSteps(walked, true);
+        List<Solution> candidates = new ArrayList<>();
+        Stream.of(original, walked, pushOptimized, stepOptimized)
+                .filter(solution -> solution.solves(level))
+                .forEach(candidates::add);
+        return new OptimizedSolution(original, candidates.stream().min(BY_PUSHES).get(),
+                candidates.stream().min(BY_STEPS).get());
+    }
+
+    /**
+     * Optimizes solutions in parallel.
+     *
+     * @param levels the levels solved
+     * @param solutions the moves solving the level of the same index in LURD
+     * notation
+     * @return the optimized solutions in the order of the arguments, with
+     * {@code null} for the moves that do not solve their level
+     * @throws IllegalArgumentException if the numbers of levels and
+     * solutions differ
+     * @throws InterruptedException if the calling thread is interrupted while
+     * waiting for the workers
+     */
+    public List<OptimizedSolution> optimizeAll(List<Level> levels, List<String> solutions)
+            throws InterruptedException {
+        if (levels.size() != solutions.size()) {
+            throw new IllegalArgumentException("The numbers of levels and solutions differ");
+        }
+        List<Callable<OptimizedSolution>> tasks = new ArrayList<>();
+        for (int i = 0; i < levels.size(); i++) {
+            Level level = levels.get(i);
+            String moves = solutions.get(i);
+            tasks.add(() -> optimize(level, moves));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<OptimizedSolution> results = new ArrayList<>();
+            for (Future<OptimizedSolution> future : executor.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof IllegalArgumentException)) {
+                        throw new IllegalStateException("Optimization failed", e.getCause());
+                    }
+                    results.add(null);
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * The searches of one level. The arrays are allocated once and reused,
+     * so an instance must not be shared between threads.
+     */
+    private final class Search {
+
+        private final Level level;
+        private final long[] ballKeys;
+        private final long[] cellKeys;
+        private final boolean[] occupied;
+        private final Reachability reachability;
+        private final Reachability childReachability;
+
+        Search(Level level) {
+            this.level = level;
+            int size = level.getSize();
+            Random random = new Random(size);
+            this.ballKeys = random.longs(size).toArray();
+            this.cellKeys = random.longs(size).toArray();
+            this.occupied = new boolean[size];
+            this.reachability = new Reachability(level);
+            this.childReachability = new Reachability(level);
+        }
+
+        List<Push> shortenPushes(List<Push> pushes) {
+            List<Push> current = pushes;
+            for (int size = 2; size <= window; size++) {
+                for (int i = 0; i + size <= current.size(); i++) {
+                    int[] start = replay(current, i);
+                    int[] end = replay(current, i + size);
+                    int need = i + size < current.size() ? behind(current.get(i + size)) : -1;
+                    List<Push> replacement = searchPushes(start, end, need, size - 1);
+                    if (replacement != null) {
+                        List<Push> next = new ArrayList<>(current.subList(0, i));
+                        next.addAll(replacement);
+                        next.addAll(current.subList(i + size, current.size()));
+                        current = next;
+                    }
+                }
+            }
+            return current;
+        }
+
+        Solution shortenSteps(Solution solution, boolean morePushes) {
+            String current = solution.getMoves();
+            for (int size = 2; size <= window; size++) {
+                for (int i = 0; ; i++) {
+                    int[] indexes = pushIndexes(current);
+                    if (i + size > indexes.length) {
+                        break;
+                    }
+                    int from = i == 0 ? 0 : indexes[i - 1] + 1;
+                    int to = i + size < indexes.length ? indexes[i + size] : current.length();
+                    int[] start = replay(current, from);
+                    int[] end = replay(current, to);
+                    int need = to < current.length() ? end[end.length - 1] : -1;
+                    String replacement = searchSteps(start, end, need, to - from - 1,
+                            morePushes ? Integer.MAX_VALUE : size);
+                    if (replacement != null) {
+                        current = current.substring(0, from) + replacement + current.substring(to);
+                    }
+                }
+            }
+            return new Solution(current);
+        }
+
+        /*
+         * Searches the pushes leading from one position to the balls of
+         * another with the character able to reach a cell, in at most the
+         * number of pushes specified.
+         */
+        private List<Push> searchPushes(int[] start, int[] end, int need, int limit) {
+            int count = start.length - 1;
+            int[] target = Arrays.copyOf(end, count);
+            List<int[]> nodes = new ArrayList<>();
+            List<Push> moves = new ArrayList<>();
+            List<Integer> parents = new ArrayList<>();
+            Set<Long> visited = new HashSet<>();
+            nodes.add(start);
+            moves.add(null);
+            parents.add(-1);
+            visited.add(hash(start, count) ^ cellKeys[areaOf(start, count)]);
+            int[] depths = new int[NODE_LIMIT + 1];
+            for (int head = 0; head < nodes.size() && depths[head] < limit; head++) {
+                int[] node = nodes.get(head);
+                try {
+                    for (int i = 0; i < count; i++) {
+                        occupied[node[i]] = true;
+                    }
+                    reachability.compute(node[count], occupied);
+                    for (int i = 0; i < count; i++) {
+                        int from = node[i];
+                        for (int d = 0; d < 4; d++) {
+                            int to = level.neighbor(from, d);
+                            if (to < 0 || level.isWall(to) || occupied[to] || level.isDead(to)
+                                    || !reachability.isReachable(level.neighbor(from, (d + 2) % 4))) {
+                                continue;
+                            }
+                            occupied[from] = false;
+                            occupied[to] = true;
+                            if (!Deadlocks.isSquareDeadlock(level, occupied, to)) {
+                                int[] child = Arrays.copyOf(node, count + 1);
+                                child[i] = to;
+                                Arrays.sort(child, 0, count);
+                                child[count] = from;
+                                childReachability.compute(from, occupied);
+                                if (Arrays.equals(child, 0, count, target, 0, count)
+                                        && (need < 0 || childReachability.isReachable(need))) {
+                                    List<Push> path = new ArrayList<>();
+                                    path.add(new Push(from, d));
+                                    for (int n = head; parents.get(n) >= 0; n = parents.get(n)) {
+                                        path.add(moves.get(n));
+                                    }
+                                    Collections.reverse(path);
+                                    return path;
+                                }
+                                if (visited.add(hash(child, count) ^ cellKeys[childReachability.getNormalized()])) {
+                                    if (nodes.size() == NODE_LIMIT) {
+                                        return null;
+                                    }
+                                    depths[nodes.size()] = depths[head] + 1;
+                                    nodes.add(child);
+                                    moves.add(new Push(from, d));
+                                    parents.add(head);
+                                }
+                            }
+                            occupied[to] = false;
+                            occupied[from] = true;
+                        }
+                    }
+                } finally {
+                    Arrays.fill(occupied, false);
+                }
+            }
+            return null;
+        }
+
+        /*
+         * Searches the moves leading from one position to the balls of
+         * another with the character on a cell, in at most the number of
+         * steps and pushes specified.
+         */
+        private String searchSteps(int[] start, int[] end, int need, int limit, int pushLimit) {
+            int count = start.length - 1;
+            List<int[]> nodes = new ArrayList<>();
+            StringBuilder moves = new StringBuilder();
+            List<Integer> parents = new ArrayList<>();
+            Set<Long> visited = new HashSet<>();
+            nodes.add(start);
+            moves.append(' ');
+            parents.add(-1);
+            visited.add(hash(start, count) ^ cellKeys[start[count]]);
+            int[] depths = new int[NODE_LIMIT + 1];
+            int[] pushes = new int[NODE_LIMIT + 1];
+            for (int head = 0; head < nodes.size() && depths[head] < limit; head++) {
+                int[] node = nodes.get(head);
+                int character = node[count];
+                try {
+                    for (int i = 0; i < count; i++) {
+                        occupied[node[i]] = true;
+                    }
+                    for (int d = 0; d < 4; d++) {
+                        int next = level.neighbor(character, d);
+                        if (next < 0 || level.isWall(next)) {
+                            continue;
+                        }
+                        int[] child;
+                        boolean push = occupied[next];
+                        if (push) {
+                            int to = level.neighbor(next, d);
+                            if (to < 0 || level.isWall(to) || occupied[to] || level.isDead(to)
+                                    || pushes[head] == pushLimit) {
+                                continue;
+                            }
+                            occupied[next] = false;
+                            occupied[to] = true;
+                            boolean deadlock = Deadlocks.isSquareDeadlock(level, occupied, to);
+                            occupied[to] = false;
+                            occupied[next] = true;
+                            if (deadlock) {
+                                continue;
+                            }
+                            child = Arrays.copyOf(node, count + 1);
+                            child[Arrays.binarySearch(child, 0, count, next)] = to;
+                            Arrays.sort(child, 0, count);
+                        } else {
+                            child = Arrays.copyOf(node, count + 1);
+                        }
+                        child[count] = next;
+                        char move = Moves.toChar(d, push);
+                        if (Arrays.equals(child, 0, count, end, 0, count) && (need < 0 || next == need)) {
+                            StringBuilder path = new StringBuilder().append(move);
+                            for (int n = head; parents.get(n) >= 0; n = parents.get(n)) {
+                                path.append(moves.charAt(n));
+                            }
+                            return path.reverse().toString();
+                        }
+                        if (visited.add(hash(child, count) ^ cellKeys[next])) {
+                            if (nodes.size() == NODE_LIMIT) {
+                                return null;
+                            }
+                            depths[nodes.size()] = depths[head] + 1;
+                            pushes[nodes.size()] = pushes[head] + (push ? 1 : 0);
+                            nodes.add(child);
+                            moves.append(move);
+                            parents.add(head);
+                        }
+                    }
+                } finally {
+                    Arrays.fill(occupied, false);
+                }
+            }
+            return null;
+        }
+
+        /*
+         * Returns the sorted balls followed by the character after the
+         * number of pushes specified.
+         */
+        private int[] replay(List<Push> pushes, int count) {
+            int[] balls = level.getBalls();
+            int character = level.getCharacter();
+            for (int i = 0; i < count; i++) {
+                Push push = pushes.get(i);
+                balls[Arrays.binarySearch(balls, push.getBall())] = level.neighbor(push.getBall(),
+                        push.getDirection());
+                Arrays.sort(balls);
+                character = push.getBall();
+            }
+            int[] position = Arrays.copyOf(balls, balls.length + 1);
+            position[balls.length] = character;
+            return position;
+        }
+
+        /*
+         * Returns the sorted balls followed by the character after the
+         * number of moves specified.
+         */
+        private int[] replay(String moves, int count) {
+            int[] balls = level.getBalls();
+            int character = level.getCharacter();
+            for (int i = 0; i < count; i++) {
+                int d = Moves.direction(moves.charAt(i));
+                character = level.neighbor(character, d);
+                int ball = Arrays.binarySearch(balls, character);
+                if (ball >= 0) {
+                    balls[ball] = level.neighbor(character, d);
+                    Arrays.sort(balls);
+                }
+            }
+            int[] position = Arrays.copyOf(balls, balls.length + 1);
+            position[balls.length] = character;
+            return position;
+        }
+
+        private int[] pushIndexes(String moves) {
+            int[] indexes = new int[Moves.countPushes(moves)];
+            for (int i = 0, n = 0; i < moves.length(); i++) {
+                if (Moves.isPush(moves.charAt(i))) {
+                    indexes[n++] = i;
+                }
+            }
+            return indexes;
+        }
+
+        private int behind(Push push) {
+            return level.neighbor(push.getBall(), (push.getDirection() + 2) % 4);
+        }
+
+        private int areaOf(int[] position, int count) {
+            for (int i = 0; i < count; i++) {
+                occupied[position[i]] = true;
+            }
+            int area = reachability.compute(position[count], occupied).getNormalized();
+            Arrays.fill(occupied, false);
+            return area;
+        }
+
+        private long hash(int[] position, int count) {
+            long hash = 0;
+            for (int i = 0; i < count; i++) {
+                hash ^= ballKeys[position[i]];
+            }
+            return hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package game.solver;
+
+import game.solver.stats.SolverProbe;
+
+import java.time.Duration;
+
+/**
+ * Interface of the algorithms that solve sokoban levels. The running solve
+ * can be cancelled by interrupting the thread executing it.
+ */
+public interface Solver {
+
+    /**
+     * Searches for a solution of the level specified.
+     *
+     * @param level the level to solve
+     * @param timeout the maximum wall-clock time of the search
+     * @return the outcome of the search
+     */
+    SolverResult solve(Level level, Duration timeout);
+
+    /**
+     * Searches for a solution of the level specified, publishing the
+     * counters of the search to a probe. Solvers that do not publish their
+     * counters during the search publish them once at the end.
+     *
+     * @param level the level to solve
+     * @param timeout the maximum wall-clock time of the search
+     * @param probe the probe receiving the counters
+     * @return the outcome of the search
+     */
+    default SolverResult solve(Level level, Duration timeout, SolverProbe probe) {
+        probe.attach();
+        try {
+            SolverResult result = solve(level, timeout);
+            probe.publish(result.getExpandedNodes(), result.getGeneratedNodes(), 0, result.getExpandedNodes(),
+                    0, 0, 0);
+            return result;
+        } finally {
+            probe.detach();
+        }
+    }
+
+}
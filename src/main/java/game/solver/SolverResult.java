@@ -0,0 +1,57 @@
+package game.solver;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Class representing the outcome of a solver run.
+ */
+@Value
+@Builder
+public class SolverResult {
+
+    /**
+     * Enum representing how a solver run ended.
+     */
+    public enum Status {
+        SOLVED,
+        UNSOLVABLE,
+        TIMEOUT,
+        CANCELLED
+    }
+
+    /**
+     * How the solver run ended.
+     */
+    Status status;
+
+    /**
+     * The solution found, or {@code null} if the level was not solved.
+     */
+    Solution solution;
+
+    /**
+     * The number of positions expanded by the search.
+     */
+    long expandedNodes;
+
+    /**
+     * The number of positions generated by the search.
+     */
+    long generatedNodes;
+
+    /**
+     * The wall-clock time of the run in nanoseconds.
+     */
+    long elapsedNanos;
+
+    /**
+     * Returns whether a solution was found.
+     *
+     * @return {@code true} if a solution was found, {@code false} otherwise
+     */
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+
+}
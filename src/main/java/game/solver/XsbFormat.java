@@ -0,0 +1,176 @@
+package game.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes levels in the XSB text format used by most sokoban level
+ * collections. The symbols are {@code #} for walls, space, {@code -} or
+ * {@code _} for floor, {@code .} for storages, {@code $} for balls,
+ * {@code *} for balls in storages, {@code @} for the character and
+ * {@code +} for the character standing in a storage. In a level pack, the
+ * levels are separated by lines that are not part of a tray, such as blank
+ * lines, titles and comments starting with {@code ;}.
+ */
+public final class XsbFormat {
+
+    private static final String TRAY_SYMBOLS = "#-_ .$*@+";
+
+    private XsbFormat() {
+    }
+
+    /**
+     * Parses a single level.
+     *
+     * @param text the level in XSB format
+     * @return the level
+     * @throws IllegalArgumentException if the text does not contain exactly
+     * one valid level
+     */
+    public static Level parse(String text) {
+        List<Level> levels = parsePack(text);
+        if (levels.size() != 1) {
+            throw new IllegalArgumentException("Expected one level, found " + levels.size());
+        }
+        return levels.get(0);
+    }
+
+    /**
+     * Parses a level pack.
+     *
+     * @param text the levels in XSB format
+     * @return the levels of the pack in order
+     * @throws IllegalArgumentException if any of the trays is not a valid
+     * level
+     */
+    public static List<Level> parsePack(String text) {
+        List<Level> levels = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        for (String line : text.split("\r?\n", -1)) {
+            if (isTrayLine(line)) {
+                rows.add(line);
+            } else if (!rows.isEmpty()) {
+                levels.add(toLevel(rows));
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            levels.add(toLevel(rows));
+        }
+        return levels;
+    }
+
+    /**
+     * Formats a level.
+     *
+     * @param level the level
+     * @return the level in XSB format, each row terminated by a newline
+     */
+    public static String format(Level level) {
+        StringBuilder sb = new StringBuilder();
+        boolean[] balls = new boolean[level.getSize()];
+        for (int ball : level.getBalls()) {
+            balls[ball] = true;
+        }
+        for (int row = 0; row < level.getHeight(); row++) {
+            StringBuilder line = new StringBuilder();
+            for (int col = 0; col < level.getWidth(); col++) {
+                int cell = level.cell(row, col);
+                boolean storage = level.isStorage(cell);
+                if (level.isWall(cell)) {
+                    line.append('#');
+                } else if (cell == level.getCharacter()) {
+                    line.append(storage ? '+' : '@');
+                } else if (balls[cell]) {
+                    line.append(storage ? '*' : '$');
+                } else {
+                    line.append(storage ? '.' : ' ');
+                }
+            }
+            sb.append(line.toString().replaceAll("\\s+$", "")).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a level pack. Every level is preceded by its title and
+     * followed by a blank line.
+     *
+     * @param levels the levels
+     * @param titles the titles of the levels, in the same order
+     * @return the level pack in XSB format
+     */
+    public static String formatPack(List<Level> levels, List<String> titles) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < levels.size(); i++) {
+            sb.append("; ").append(titles.get(i)).append("\n\n");
+            sb.append(format(levels.get(i))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static boolean isTrayLine(String line) {
+        if (line.trim().isEmpty() || line.indexOf('#') < 0) {
+            return false;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            if (TRAY_SYMBOLS.indexOf(line.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Level toLevel(List<String> rows) {
+        int height = rows.size();
+        int width = rows.stream().mapToInt(String::length).max().orElse(0);
+        boolean[] walls = new boolean[width * height];
+        boolean[] storages = new boolean[width * height];
+        int[] balls = new int[width * height];
+        int ballCount = 0;
+        int character = -1;
+        for (int row = 0; row < height; row++) {
+            String line = rows.get(row);
+            for (int col = 0; col < line.length(); col++) {
+                int cell = row * width + col;
+                switch (line.charAt(col)) {
+                    case '#':
+                        walls[cell] = true;
+                        break;
+                    case '.':
+                        storages[cell] = true;
+                        break;
+                    case '$':
+                        balls[ballCount++] = cell;
+                        break;
+                    case '*':
+                        storages[cell] = true;
+                        balls[ballCount++] = cell;
+                        break;
+                    case '+':
+                        storages[cell] = true;
+                        character = setCharacter(character, cell);
+                        break;
+                    case '@':
+                        character = setCharacter(character, cell);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        if (character < 0) {
+            throw new IllegalArgumentException("No character in level");
+        }
+        return new Level(width, height, walls, storages, Arrays.copyOf(balls, ballCount), character);
+    }
+
+    private static int setCharacter(int character, int cell) {
+        if (character >= 0) {
+            throw new IllegalArgumentException("More than one character in level");
+        }
+        return cell;
+    }
+
+}
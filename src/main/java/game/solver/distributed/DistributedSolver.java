@@ -0,0 +1,358 @@
+package game.solver.distributed;
+
+import game.solver.Level;
+import game.solver.PositionCodec;
+import game.solver.Push;
+import game.solver.Solution;
+import game.solver.Solver;
+import game.solver.SolverResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breadth-first search over the pushes of the balls, distributed over
+ * several worker processes on the same host. The state space is split into
+ * partitions by the hash of the positions, and every {@link SolverWorker}
+ * JVM keeps the positions of its partition, packed into {@code long}
+ * words, so the positions held are limited by the heaps of all workers
+ * together. The workers expand their part of a layer in parallel and send
+ * the children in batched, length-prefixed binary frames directly to the
+ * workers owning them, over loopback sockets between every pair of workers.
+ * This process acts as the coordinator: it only starts the layers, waits
+ * for the workers at the end of each, and receives a handful of small
+ * frames per layer, so it holds no positions. The search proceeds layer by
+ * layer, so the solution has the fewest pushes possible. The solution is
+ * traced back by asking the owners of the positions for their parents. The
+ * worker processes are started on the first search and reused until the
+ * solver is closed, or a search is cancelled or times out.
+ */
+@Slf4j
+public class DistributedSolver implements Solver, Closeable {
+
+    private static final long CONNECT_MILLIS = 30_000;
+
+    private final int workers;
+    private final List<String> jvmOptions;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<DataOutputStream> outputs = new ArrayList<>();
+    private final List<Socket> sockets = new ArrayList<>();
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private int generation;
+
+    /**
+     * Creates a {@code DistributedSolver} object.
+     *
+     * @param workers the number of worker processes
+     * @param jvmOptions the options of the worker JVMs, for example the
+     * maximum heap size
+     * @throws IllegalArgumentException if the number of workers is less than
+     * 1
+     */
+    public DistributedSolver(int workers, List<String> jvmOptions) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Invalid number of workers");
+        }
+        this.workers = workers;
+        this.jvmOptions = new ArrayList<>(jvmOptions);
+    }
+
+    /**
+     * Creates a {@code DistributedSolver} object whose workers run with the
+     * default JVM options.
+     *
+     * @param workers the number of worker processes
+     */
+    public DistributedSolver(int workers) {
+        this(workers, Collections.emptyList());
+    }
+
+    @Override
+    public synchronized SolverResult solve(Level level, Duration timeout) {
+        long begin = System.nanoTime();
+        long deadline = begin + timeout.toNanos();
+        for (int ball : level.getBalls()) {
+            if (level.isDead(ball)) {
+                return result(SolverResult.Status.UNSOLVABLE, null, 0, 0, begin);
+            }
+        }
+        long expanded = 0;
+        long generated = 0;
+        int words = new PositionCodec(level).getWords();
+        try {
+            start();
+            for (int id = 0; id < workers; id++) {
+                int worker = id;
+                send(id, Frame.of(Frame.INIT, out -> writeLevel(out, worker, level)));
+            }
+            Layer layer = flush(deadline, words);
+            while (layer.goal == null && layer.size > 0) {
+                broadcast(Frame.of(Frame.EXPAND));
+                for (int pending = workers; pending > 0; pending--) {
+                    Event event = next(deadline);
+                    if (event.frame.getType() != Frame.EXPANDED) {
+                        throw new IOException("Unexpected frame type " + event.frame.getType());
+                    }
+                    DataInputStream counts = event.frame.payload();
+                    expanded += counts.readLong();
+                    generated += counts.readLong();
+                }
+                layer = flush(deadline, words);
+                log.debug("Distributed layer of {} positions, {} expanded", layer.size, expanded);
+            }
+            if (layer.goal == null) {
+                return result(SolverResult.Status.UNSOLVABLE, null, expanded, generated, begin);
+            }
+            return result(SolverResult.Status.SOLVED, Solution.of(level, trace(layer.goal, words, deadline)),
+                    expanded, generated, begin);
+        } catch (Stopped e) {
+            stop();
+            return result(e.status, null, expanded, generated, begin);
+        } catch (IOException e) {
+            stop();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops the worker processes.
+     */
+    @Override
+    public synchronized void close() {
+        stop();
+    }
+
+    private void start() throws IOException {
+        if (!processes.isEmpty()) {
+            return;
+        }
+        events.clear();
+        int started = ++generation;
+        try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout((int) CONNECT_MILLIS);
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            for (int id = 0; id < workers; id++) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.addAll(jvmOptions);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(SolverWorker.class.getName());
+                command.add(Integer.toString(server.getLocalPort()));
+                command.add(Integer.toString(id));
+                processes.add(new ProcessBuilder(command).inheritIO().start());
+            }
+            Socket[] connected = new Socket[workers];
+            int[] ports = new int[workers];
+            for (int i = 0; i < workers; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                DataInputStream input = new DataInputStream(
+                        new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                Frame hello = Frame.read(input);
+                DataInputStream greeting = hello.payload();
+                int id = greeting.readInt();
+                if (hello.getType() != Frame.HELLO || id < 0 || id >= workers || connected[id] != null) {
+                    throw new IOException("Invalid worker greeting");
+                }
+                connected[id] = socket;
+                ports[id] = greeting.readInt();
+                Thread reader = new Thread(() -> read(started, id, input), "distributed-reader-" + id);
+                reader.setDaemon(true);
+                reader.start();
+            }
+            sockets.clear();
+            for (Socket socket : connected) {
+                sockets.add(socket);
+                outputs.add(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16)));
+            }
+            broadcast(Frame.of(Frame.PEERS, out -> {
+                out.writeInt(workers);
+                for (int port : ports) {
+                    out.writeInt(port);
+                }
+            }));
+        } catch (IOException e) {
+            stop();
+            throw e;
+        }
+        log.info("Started {} solver workers", workers);
+    }
+
+    private void read(int started, int id, DataInputStream input) {
+        try {
+            while (true) {
+                events.add(new Event(started, id, Frame.read(input)));
+            }
+        } catch (IOException e) {
+            events.add(new Event(started, id, null));
+        }
+    }
+
+    private void stop() {
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Cannot close worker socket", e);
+            }
+        }
+        for (Process process : processes) {
+            process.destroy();
+        }
+        sockets.clear();
+        outputs.clear();
+        processes.clear();
+    }
+
+    private Layer flush(long deadline, int words) throws IOException, Stopped {
+        broadcast(Frame.of(Frame.FLUSH));
+        Layer layer = new Layer();
+        for (int i = 0; i < workers; i++) {
+            Event event = next(deadline);
+            if (event.frame.getType() != Frame.FLUSHED) {
+                throw new IOException("Unexpected frame type " + event.frame.getType());
+            }
+            DataInputStream in = event.frame.payload();
+            layer.size += in.readInt();
+            if (in.readBoolean() && layer.goal == null) {
+                layer.goal = new long[words];
+                Frame.readKey(in, layer.goal, 0, words);
+            }
+        }
+        return layer;
+    }
+
+    private List<Push> trace(long[] goal, int words, long deadline) throws IOException, Stopped {
+        List<Push> pushes = new ArrayList<>();
+        long[] key = goal;
+        while (true) {
+            long[] traced = key;
+            send(SolverWorker.owner(key, 0, words, workers),
+                    Frame.of(Frame.TRACE, out -> Frame.writeKey(out, traced, 0, words)));
+            Event event = next(deadline);
+            DataInputStream in = event.frame.payload();
+            if (event.frame.getType() != Frame.PARENT) {
+                throw new IOException("Unexpected frame type " + event.frame.getType());
+            }
+            if (in.readBoolean()) {
+                break;
+            }
+            key = new long[words];
+            Frame.readKey(in, key, 0, words);
+            int move = in.readInt();
+            pushes.add(new Push(move >>> 2, move & 3));
+        }
+        Collections.reverse(pushes);
+        return pushes;
+    }
+
+    private Event next(long deadline) throws IOException, Stopped {
+        Event event;
+        try {
+            do {
+                event = events.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } while (event != null && event.generation != generation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Stopped(SolverResult.Status.CANCELLED);
+        }
+        if (event == null) {
+            throw new Stopped(SolverResult.Status.TIMEOUT);
+        }
+        if (event.frame == null) {
+            throw new IOException("Worker " + event.worker + " disconnected");
+        }
+        return event;
+    }
+
+    private void send(int worker, Frame frame) throws IOException {
+        frame.write(outputs.get(worker));
+    }
+
+    private void broadcast(Frame frame) throws IOException {
+        for (int id = 0; id < workers; id++) {
+            send(id, frame);
+        }
+    }
+
+    private void writeLevel(DataOutputStream out, int worker, Level level) throws IOException {
+        out.writeInt(worker);
+        out.writeInt(workers);
+        out.writeInt(level.getWidth());
+        out.writeInt(level.getHeight());
+        for (int cell = 0; cell < level.getSize(); cell++) {
+            out.writeByte((level.isWall(cell) ? 1 : 0) | (level.isStorage(cell) ? 2 : 0));
+        }
+        int[] balls = level.getBalls();
+        out.writeInt(balls.length);
+        for (int ball : balls) {
+            out.writeInt(ball);
+        }
+        out.writeInt(level.getCharacter());
+    }
+
+    private static SolverResult result(SolverResult.Status status, Solution solution, long expanded,
+                                       long generated, long begin) {
+        return SolverResult.builder()
+                .status(status)
+                .solution(solution)
+                .expandedNodes(expanded)
+                .generatedNodes(generated)
+                .elapsedNanos(System.nanoTime() - begin)
+                .build();
+    }
+
+    private static final class Event {
+
+        private final int generation;
+        private final int worker;
+        private final Frame frame;
+
+        Event(int generation, int worker, Frame frame) {
+            this.generation = generation;
+            this.worker = worker;
+            this.frame = frame;
+        }
+
+    }
+
+    private static final class Layer {
+
+        private int size;
+        private long[] goal;
+
+    }
+
+    private static final class Stopped extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SolverResult.Status status;
+
+        Stopped(SolverResult.Status status) {
+            super(null, null, false, false);
+            this.status = status;
+        }
+
+    }
+
+}
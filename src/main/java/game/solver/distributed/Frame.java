@@ -0,0 +1,205 @@
+package game.solver.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A message exchanged between the coordinator and the workers, or between
+ * two workers. On the wire a frame is the length of the rest of the frame as
+ * a 4-byte integer, the type as a byte, and the payload. The keys of the
+ * states are written as their packed {@code long} words.
+ */
+final class Frame {
+
+    /**
+     * Sent by a worker once connected to the coordinator: its id and the port
+     * accepting the connections of the other workers. Sent by a worker once
+     * connected to another worker: its id.
+     */
+    static final byte HELLO = 1;
+
+    /**
+     * Starts a search: the id of the worker, the number of workers and the
+     * level.
+     */
+    static final byte INIT = 2;
+
+    /**
+     * Asks the workers to expand their current layer.
+     */
+    static final byte EXPAND = 3;
+
+    /**
+     * A batch of states sent by a worker to the owner of the states: for
+     * every state its key, the key of its parent and the push leading to it.
+     */
+    static final byte STATES = 4;
+
+    /**
+     * Sent by a worker when its layer is expanded: the numbers of expanded
+     * and generated states.
+     */
+    static final byte EXPANDED = 5;
+
+    /**
+     * Asks the workers to make the states received their next layer, once
+     * every other worker has sent its {@link #END}.
+     */
+    static final byte FLUSH = 6;
+
+    /**
+     * The reply to {@link #FLUSH}: the size of the new layer, and the key of
+     * a solved state if the layer contains one.
+     */
+    static final byte FLUSHED = 7;
+
+    /**
+     * Asks the owner of a state for its parent: the key of the state.
+     */
+    static final byte TRACE = 8;
+
+    /**
+     * The reply to {@link #TRACE}: whether the state is the root, otherwise
+     * the key of the parent and the push leading to the state.
+     */
+    static final byte PARENT = 9;
+
+    /**
+     * Sent to the workers once all of them are connected: the number of
+     * workers and the port of every worker, to which the others connect.
+     */
+    static final byte PEERS = 10;
+
+    /**
+     * Sent by a worker to every other worker after its last batch of states
+     * of a layer.
+     */
+    static final byte END = 11;
+
+    private final byte type;
+    private final byte[] payload;
+
+    Frame(byte type, byte[] payload) {
+        this.type = type;
+        this.payload = payload;
+    }
+
+    byte getType() {
+        return type;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns a reader of the payload.
+     *
+     * @return a stream reading the payload
+     */
+    DataInputStream payload() {
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    /**
+     * Reads a frame.
+     *
+     * @param in the stream
+     * @return the frame read
+     * @throws IOException if the stream fails or ends
+     */
+    static Frame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 1) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte type = in.readByte();
+        byte[] payload = new byte[length - 1];
+        in.readFully(payload);
+        return new Frame(type, payload);
+    }
+
+    /**
+     * Writes and flushes a frame.
+     *
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(payload.length + 1);
+        out.writeByte(type);
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * Interface of the code writing a payload.
+     */
+    interface PayloadWriter {
+
+        void write(DataOutputStream out) throws IOException;
+
+    }
+
+    /**
+     * Creates a frame whose payload is written by the code specified.
+     *
+     * @param type the type of the frame
+     * @param writer the code writing the payload
+     * @return the frame
+     */
+    static Frame of(byte type, PayloadWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Frame(type, bytes.toByteArray());
+    }
+
+    /**
+     * Creates a frame without payload.
+     *
+     * @param type the type of the frame
+     * @return the frame
+     */
+    static Frame of(byte type) {
+        return new Frame(type, new byte[0]);
+    }
+
+    /**
+     * Writes the key of a state.
+     *
+     * @param out the stream
+     * @param key the array holding the key
+     * @param offset the index of the first word of the key
+     * @param words the number of words of the key
+     * @throws IOException if the stream fails
+     */
+    static void writeKey(DataOutputStream out, long[] key, int offset, int words) throws IOException {
+        for (int w = 0; w < words; w++) {
+            out.writeLong(key[offset + w]);
+        }
+    }
+
+    /**
+     * Reads the key of a state.
+     *
+     * @param in the stream
+     * @param key the array receiving the key
+     * @param offset the index of the first word of the key
+     * @param words the number of words of the key
+     * @throws IOException if the stream fails
+     */
+    static void readKey(DataInputStream in, long[] key, int offset, int words) throws IOException {
+        for (int w = 0; w < words; w++) {
+            key[offset + w] = in.readLong();
+        }
+    }
+
+}
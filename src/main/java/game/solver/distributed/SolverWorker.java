@@ -0,0 +1,441 @@
+package game.solver.distributed;
+
+import game.solver.Deadlocks;
+import game.solver.Level;
+import game.solver.PositionCodec;
+import game.solver.Reachability;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * A worker process of the {@link DistributedSolver}. The worker owns the
+ * partition of the states whose key hashes to its id, remembers the parent
+ * of every state of its partition in a {@link StateTable}, and expands its
+ * part of the current breadth-first layer on request. The children
+ * belonging to other partitions are sent in batches directly to the workers
+ * owning them, over connections between the workers, and are added to the
+ * table by a reader thread per connection. The coordinator only receives
+ * the counts of the layers.
+ */
+@Slf4j
+public class SolverWorker {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final int CONNECT_MILLIS = 30_000;
+
+    private final int id;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final ServerSocket peerServer;
+    private DataOutputStream[] peers = new DataOutputStream[0];
+    private volatile Search search;
+
+    private SolverWorker(int id, Socket socket, ServerSocket peerServer) throws IOException {
+        this.id = id;
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        this.peerServer = peerServer;
+    }
+
+    /**
+     * Returns the partition owning a state.
+     *
+     * @param key the array holding the key of the state
+     * @param offset the index of the first word of the key
+     * @param words the number of words of the key
+     * @param workers the number of partitions
+     * @return the id of the partition
+     */
+    static int owner(long[] key, int offset, int words, int workers) {
+        return Math.floorMod(StateTable.hash(key, offset, words) * 0x9E3779B9, workers);
+    }
+
+    private void run() throws IOException {
+        Frame.of(Frame.HELLO, out -> {
+            out.writeInt(id);
+            out.writeInt(peerServer.getLocalPort());
+        }).write(output);
+        try {
+            while (true) {
+                Frame frame = Frame.read(input);
+                switch (frame.getType()) {
+                    case Frame.PEERS:
+                        connect(frame.payload());
+                        break;
+                    case Frame.INIT:
+                        search = new Search(frame.payload());
+                        break;
+                    case Frame.EXPAND:
+                        search.expand();
+                        break;
+                    case Frame.FLUSH:
+                        search.flush();
+                        break;
+                    case Frame.TRACE:
+                        search.trace(frame.payload());
+                        break;
+                    default:
+                        throw new IOException("Unexpected frame type " + frame.getType());
+                }
+            }
+        } catch (EOFException e) {
+            log.debug("Coordinator closed the connection of worker {}", id);
+        }
+    }
+
+    /*
+     * Connects to every other worker, then accepts the connections of the
+     * others. The connections are accepted by the backlog of the server
+     * socket before they are taken, so the workers cannot wait for each
+     * other.
+     */
+    private void connect(DataInputStream ports) throws IOException {
+        int workers = ports.readInt();
+        peers = new DataOutputStream[workers];
+        for (int peer = 0; peer < workers; peer++) {
+            int port = ports.readInt();
+            if (peer == id) {
+                continue;
+            }
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            peers[peer] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            Frame.of(Frame.HELLO, out -> out.writeInt(id)).write(peers[peer]);
+        }
+        peerServer.setSoTimeout(CONNECT_MILLIS);
+        for (int i = 1; i < workers; i++) {
+            Socket socket = peerServer.accept();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            Frame hello = Frame.read(in);
+            int peer = hello.payload().readInt();
+            if (hello.getType() != Frame.HELLO || peer < 0 || peer >= workers || peer == id) {
+                throw new IOException("Invalid worker greeting");
+            }
+            Thread reader = new Thread(() -> receive(peer, in), "solver-peer-" + peer);
+            reader.setDaemon(true);
+            reader.start();
+        }
+        peerServer.close();
+    }
+
+    private void receive(int peer, DataInputStream in) {
+        try {
+            while (true) {
+                Frame frame = Frame.read(in);
+                if (frame.getType() == Frame.STATES) {
+                    search.receive(frame.payload());
+                } else if (frame.getType() == Frame.END) {
+                    search.ended();
+                } else {
+                    throw new IOException("Unexpected frame type " + frame.getType());
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Connection of worker {} to worker {} closed", peer, id, e);
+            Search current = search;
+            if (current != null) {
+                current.disconnected();
+            }
+        }
+    }
+
+    /*
+     * The states are added both by the worker thread and by the readers of
+     * the other workers, so the table and the next layer are guarded by the
+     * lock of the search. The lock is never held while writing to a socket.
+     */
+    private final class Search {
+
+        private final int workers;
+        private final Level level;
+        private final PositionCodec codec;
+        private final int words;
+        private final StateTable states;
+        private final Reachability reachability;
+        private final Reachability childReachability;
+        private final boolean[] occupied;
+        private final int[] goalBalls;
+        private final ByteArrayOutputStream[] batches;
+        private final DataOutputStream[] batchOuts;
+        private final int[] batchSizes;
+        private int[] layer = new int[0];
+        private int layerSize;
+        private int[] next = new int[1 << 10];
+        private int nextSize;
+        private int goal = -1;
+        private int ends;
+        private int expectedEnds;
+        private boolean disconnected;
+
+        Search(DataInputStream init) throws IOException {
+            init.readInt();
+            this.workers = init.readInt();
+            int width = init.readInt();
+            int height = init.readInt();
+            boolean[] walls = new boolean[width * height];
+            boolean[] storages = new boolean[width * height];
+            for (int cell = 0; cell < walls.length; cell++) {
+                byte flags = init.readByte();
+                walls[cell] = (flags & 1) != 0;
+                storages[cell] = (flags & 2) != 0;
+            }
+            int[] balls = new int[init.readInt()];
+            for (int i = 0; i < balls.length; i++) {
+                balls[i] = init.readInt();
+            }
+            this.level = new Level(width, height, walls, storages, balls, init.readInt());
+            this.codec = new PositionCodec(level);
+            this.words = codec.getWords();
+            this.states = new StateTable(words);
+            this.reachability = new Reachability(level);
+            this.childReachability = new Reachability(level);
+            this.occupied = new boolean[level.getSize()];
+            this.goalBalls = new int[balls.length];
+            this.batches = new ByteArrayOutputStream[workers];
+            this.batchOuts = new DataOutputStream[workers];
+            this.batchSizes = new int[workers];
+            for (int i = 0; i < workers; i++) {
+                batches[i] = new ByteArrayOutputStream();
+                batchOuts[i] = new DataOutputStream(batches[i]);
+            }
+            balls = level.getBalls();
+            for (int ball : balls) {
+                occupied[ball] = true;
+            }
+            long[] root = new long[words];
+            codec.encode(balls, reachability.compute(level.getCharacter(), occupied).getNormalized(), root, 0);
+            Arrays.fill(occupied, false);
+            if (owner(root, 0, words, workers) == id) {
+                synchronized (this) {
+                    insert(root, 0, null, 0, StateTable.NO_MOVE);
+                }
+            }
+        }
+
+        void receive(DataInputStream batch) throws IOException {
+            int count = batch.available() / (words * 2 * Long.BYTES + Integer.BYTES);
+            long[] keys = new long[count * words * 2];
+            int[] moves = new int[count];
+            for (int i = 0; i < count; i++) {
+                Frame.readKey(batch, keys, 2 * i * words, words);
+                Frame.readKey(batch, keys, (2 * i + 1) * words, words);
+                moves[i] = batch.readInt();
+            }
+            synchronized (this) {
+                for (int i = 0; i < count; i++) {
+                    insert(keys, 2 * i * words, keys, (2 * i + 1) * words, moves[i]);
+                }
+            }
+        }
+
+        synchronized void ended() {
+            ends++;
+            notifyAll();
+        }
+
+        synchronized void disconnected() {
+            disconnected = true;
+            notifyAll();
+        }
+
+        void expand() throws IOException {
+            int[] balls = new int[level.getBallCount()];
+            int[] childBalls = new int[balls.length];
+            long[] key = new long[words];
+            long[] child = new long[words];
+            long expanded = 0;
+            long generated = 0;
+            for (int n = 0; n < layerSize; n++) {
+                synchronized (this) {
+                    states.getKey(layer[n], key, 0);
+                }
+                codec.decodeBalls(key, 0, balls);
+                int area = codec.decodeArea(key, 0);
+                for (int ball : balls) {
+                    occupied[ball] = true;
+                }
+                reachability.compute(area, occupied);
+                for (int i = 0; i < balls.length; i++) {
+                    int from = balls[i];
+                    for (int d = 0; d < 4; d++) {
+                        int to = level.neighbor(from, d);
+                        if (to < 0 || level.isWall(to) || occupied[to] || level.isDead(to)
+                                || !reachability.isReachable(level.neighbor(from, (d + 2) % 4))) {
+                            continue;
+                        }
+                        occupied[from] = false;
+                        occupied[to] = true;
+                        if (!Deadlocks.isSquareDeadlock(level, occupied, to)) {
+                            System.arraycopy(balls, 0, childBalls, 0, balls.length);
+                            childBalls[i] = to;
+                            Arrays.sort(childBalls);
+                            codec.encode(childBalls, childReachability.compute(from, occupied).getNormalized(),
+                                    child, 0);
+                            emit(child, key, from << 2 | d);
+                            generated++;
+                        }
+                        occupied[to] = false;
+                        occupied[from] = true;
+                    }
+                }
+                for (int ball : balls) {
+                    occupied[ball] = false;
+                }
+                expanded++;
+            }
+            synchronized (this) {
+                expectedEnds += workers - 1;
+            }
+            for (int owner = 0; owner < workers; owner++) {
+                if (owner != id) {
+                    send(owner);
+                    Frame.of(Frame.END).write(peers[owner]);
+                }
+            }
+            long expandedCount = expanded;
+            long generatedCount = generated;
+            Frame.of(Frame.EXPANDED, out -> {
+                out.writeLong(expandedCount);
+                out.writeLong(generatedCount);
+            }).write(output);
+        }
+
+        void flush() throws IOException {
+            int size;
+            long[] solved = null;
+            synchronized (this) {
+                try {
+                    while (ends < expectedEnds && !disconnected) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the other workers");
+                }
+                if (ends < expectedEnds) {
+                    throw new IOException("Worker disconnected during a layer");
+                }
+                layer = Arrays.copyOf(next, nextSize);
+                layerSize = nextSize;
+                nextSize = 0;
+                size = layerSize;
+                if (goal >= 0) {
+                    solved = new long[words];
+                    states.getKey(goal, solved, 0);
+                }
+            }
+            long[] goalKey = solved;
+            Frame.of(Frame.FLUSHED, out -> {
+                out.writeInt(size);
+                out.writeBoolean(goalKey != null);
+                if (goalKey != null) {
+                    Frame.writeKey(out, goalKey, 0, words);
+                }
+            }).write(output);
+        }
+
+        void trace(DataInputStream request) throws IOException {
+            long[] key = new long[words];
+            Frame.readKey(request, key, 0, words);
+            long[] parent = new long[words];
+            int move;
+            synchronized (this) {
+                int index = states.indexOf(key, 0);
+                if (index < 0) {
+                    throw new IOException("Unknown state traced");
+                }
+                states.getParent(index, parent, 0);
+                move = states.getMove(index);
+            }
+            Frame.of(Frame.PARENT, out -> {
+                out.writeBoolean(move == StateTable.NO_MOVE);
+                if (move != StateTable.NO_MOVE) {
+                    Frame.writeKey(out, parent, 0, words);
+                    out.writeInt(move);
+                }
+            }).write(output);
+        }
+
+        private void emit(long[] state, long[] parent, int move) throws IOException {
+            int owner = owner(state, 0, words, workers);
+            if (owner == id) {
+                synchronized (this) {
+                    insert(state, 0, parent, 0, move);
+                }
+                return;
+            }
+            Frame.writeKey(batchOuts[owner], state, 0, words);
+            Frame.writeKey(batchOuts[owner], parent, 0, words);
+            batchOuts[owner].writeInt(move);
+            if (++batchSizes[owner] == BATCH_SIZE) {
+                send(owner);
+            }
+        }
+
+        private void send(int owner) throws IOException {
+            if (batchSizes[owner] == 0) {
+                return;
+            }
+            new Frame(Frame.STATES, batches[owner].toByteArray()).write(peers[owner]);
+            batches[owner].reset();
+            batchSizes[owner] = 0;
+        }
+
+        /*
+         * Must be called while holding the lock of the search.
+         */
+        private void insert(long[] state, int offset, long[] parent, int parentOffset, int move) {
+            int index = states.add(state, offset, parent, parentOffset, move);
+            if (index < 0) {
+                return;
+            }
+            if (nextSize == next.length) {
+                next = Arrays.copyOf(next, next.length * 2);
+            }
+            next[nextSize++] = index;
+            if (goal < 0) {
+                codec.decodeBalls(state, offset, goalBalls);
+                for (int ball : goalBalls) {
+                    if (!level.isStorage(ball)) {
+                        return;
+                    }
+                }
+                goal = index;
+            }
+        }
+
+    }
+
+    /**
+     * Connects to a coordinator and serves it until the connection is
+     * closed. The arguments are the port of the coordinator on the loopback
+     * interface and the id of the worker.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: SolverWorker <port> <id>");
+            System.exit(1);
+        }
+        int id = Integer.parseInt(args[1]);
+        try (ServerSocket peerServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            socket.setTcpNoDelay(true);
+            new SolverWorker(id, socket, peerServer).run();
+        }
+    }
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides classes for solving sokoban levels with several worker processes
+ * on one host.
+ * @version 1.0
+ */
+package game.solver.distributed;
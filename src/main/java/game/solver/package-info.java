@@ -0,0 +1,5 @@
+/**
+ * Provides classes for solving sokoban levels automatically.
+ * @version 1.0
+ */
+package game.solver;
@@ -0,0 +1,30 @@
+package game.solver.service;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when the {@link SolverService} sheds a request instead of
+ * solving it.
+ */
+@Getter
+public class RejectedRequestException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The HTTP status code reported to the client.
+     */
+    private final int statusCode;
+
+    /**
+     * Creates a {@code RejectedRequestException} object.
+     *
+     * @param statusCode the HTTP status code reported to the client
+     * @param message the reason of the rejection
+     */
+    public RejectedRequestException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+}
@@ -0,0 +1,464 @@
+package game.solver.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import game.solver.Level;
+import game.solver.SolverResult;
+import game.solver.XsbFormat;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded HTTP service solving levels for local tools. A level is posted
+ * to {@code /solve} in XSB or in the {@code int[][]} encoding of the game,
+ * with the optional query parameters {@code priority}, {@code timeout} and
+ * {@code cpu}, the budgets in milliseconds. Requests wait in a bounded
+ * priority queue for one of a fixed number of workers, and a request for a
+ * level that is already queued or being solved is attached to the running
+ * request instead of being solved twice. A watchdog interrupts the solves
+ * exceeding their CPU time budget, reported as a timeout, while the
+ * wall-clock budget counts from the arrival of the request.
+ *
+ * <p>Load is shed with explicit status codes instead of letting the clients
+ * time out: {@code 429} when the queue is full of requests of at least the
+ * same priority, or when a queued request is displaced by one of higher
+ * priority, and {@code 503} when the budget of a request expires before a
+ * worker picks it up or the service is shutting down. Malformed levels are
+ * answered with {@code 400}.
+ */
+@Slf4j
+public class SolverService implements Closeable {
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final long WATCHDOG_PERIOD_MILLIS = 10;
+
+    private final SolverServiceConfig config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final PriorityQueue<Job> queue = new PriorityQueue<>(Comparator
+            .comparingInt((Job job) -> -job.priority)
+            .thenComparingLong(job -> job.sequence));
+    private final Map<Level, Job> inFlight = new HashMap<>();
+    private final Set<Job> running = ConcurrentHashMap.newKeySet();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService watchdog;
+    private HttpServer server;
+    private long sequence;
+    private boolean closed;
+
+    private static final class Job {
+        final Level level;
+        final long sequence;
+        final CompletableFuture<SolverResult> result = new CompletableFuture<>();
+        int priority;
+        long deadline;
+        long cpuBudget;
+        Thread worker;
+        long cpuStart;
+        volatile boolean cpuExceeded;
+
+        Job(Level level, long sequence, int priority, long deadline, long cpuBudget) {
+            this.level = level;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.cpuBudget = cpuBudget;
+        }
+    }
+
+    /**
+     * Creates a {@code SolverService} object and starts its workers.
+     *
+     * @param config the configuration of the service
+     */
+    public SolverService(SolverServiceConfig config) {
+        this.config = config;
+        for (int i = 0; i < config.getWorkers(); i++) {
+            Thread worker = new Thread(this::work, "solver-service-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solver-service-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleAtFixedRate(this::enforceCpuBudgets, WATCHDOG_PERIOD_MILLIS, WATCHDOG_PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts serving HTTP requests on the address specified.
+     *
+     * @param address the address to bind, port 0 for any free port
+     * @return this object
+     * @throws IOException if the address cannot be bound
+     */
+    public SolverService bind(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/solve", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "solver-service-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        log.info("Solver service listening on {}", server.getAddress());
+        return this;
+    }
+
+    /**
+     * Returns the address the HTTP server is bound to.
+     *
+     * @return the address, or {@code null} if the service is not bound
+     */
+    public InetSocketAddress getAddress() {
+        return server == null ? null : server.getAddress();
+    }
+
+    /**
+     * Submits a level to be solved.
+     *
+     * @param level the level to solve
+     * @param priority the priority of the request, higher priorities are
+     * served first
+     * @param timeout the wall-clock budget counted from now, capped by the
+     * configuration
+     * @param cpuTime the CPU time budget of the solve, capped by the
+     * configuration
+     * @return a future completed with the outcome of the solve, or
+     * completed exceptionally with a {@link RejectedRequestException} if the
+     * request is shed while queued
+     * @throws RejectedRequestException if the request is not admitted
+     * @throws IllegalArgumentException if a budget is negative
+     */
+    public CompletableFuture<SolverResult> submit(Level level, int priority, Duration timeout, Duration cpuTime) {
+        if (timeout.isNegative() || cpuTime.isNegative()) {
+            throw new IllegalArgumentException("Negative budget");
+        }
+        long deadline = System.nanoTime() + min(timeout, config.getMaxTimeout()).toNanos();
+        long cpuBudget = min(cpuTime, config.getMaxCpuTime()).toNanos();
+        Job displaced = null;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new RejectedRequestException(503, "Service is shutting down");
+            }
+            Job job = inFlight.get(level);
+            if (job != null) {
+                if (job.worker == null) {
+                    if (priority > job.priority) {
+                        queue.remove(job);
+                        job.priority = priority;
+                        queue.add(job);
+                    }
+                    job.deadline = Math.max(job.deadline, deadline);
+                    job.cpuBudget = Math.max(job.cpuBudget, cpuBudget);
+                }
+                return job.result;
+            }
+            if (queue.size() >= config.getQueueCapacity()) {
+                Job lowest = null;
+                for (Job queued : queue) {
+                    if (lowest == null || queue.comparator().compare(queued, lowest) > 0) {
+                        lowest = queued;
+                    }
+                }
+                if (lowest == null || lowest.priority >= priority) {
+                    throw new RejectedRequestException(429, "Solver queue is full");
+                }
+                queue.remove(lowest);
+                inFlight.remove(lowest.level);
+                displaced = lowest;
+            }
+            job = new Job(level, sequence++, priority, deadline, cpuBudget);
+            queue.add(job);
+            inFlight.put(level, job);
+            available.signal();
+            return job.result;
+        } finally {
+            lock.unlock();
+            if (displaced != null) {
+                displaced.result.completeExceptionally(
+                        new RejectedRequestException(429, "Displaced by a request of higher priority"));
+            }
+        }
+    }
+
+    /**
+     * Parses a level in XSB or in the {@code int[][]} encoding of the game,
+     * written either as nested brackets or as one row per line.
+     *
+     * @param text the text of the level
+     * @return the level
+     * @throws IllegalArgumentException if the text is not a valid level
+     */
+    public static Level parseLevel(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Empty level");
+        }
+        if (!Character.isDigit(trimmed.charAt(0)) && trimmed.charAt(0) != '[') {
+            return XsbFormat.parse(text);
+        }
+        List<int[]> rows = new ArrayList<>();
+        for (String line : trimmed.replace("[[", "[").split("]|\\R")) {
+            Matcher matcher = NUMBER.matcher(line);
+            List<Integer> cells = new ArrayList<>();
+            while (matcher.find()) {
+                cells.add(Integer.parseInt(matcher.group()));
+            }
+            if (!cells.isEmpty()) {
+                rows.add(cells.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        return Level.of(rows.toArray(new int[0][]));
+    }
+
+    @Override
+    public void close() {
+        List<Job> pending;
+        lock.lock();
+        try {
+            closed = true;
+            pending = new ArrayList<>(queue);
+            queue.clear();
+            inFlight.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Job job : pending) {
+            job.result.completeExceptionally(new RejectedRequestException(503, "Service is shutting down"));
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+        watchdog.shutdownNow();
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        while (true) {
+            Job job;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    available.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                job = queue.poll();
+                job.worker = Thread.currentThread();
+            } finally {
+                lock.unlock();
+            }
+            long remaining = job.deadline - System.nanoTime();
+            if (remaining <= 0) {
+                finish(job);
+                job.result.completeExceptionally(new RejectedRequestException(503,
+                        "Budget expired before a worker was available"));
+                continue;
+            }
+            job.cpuStart = cpuTime(job.worker);
+            running.add(job);
+            try {
+                SolverResult result = config.getSolver().get().solve(job.level, Duration.ofNanos(remaining));
+                finish(job);
+                if (job.cpuExceeded && result.getStatus() == SolverResult.Status.CANCELLED) {
+                    result = SolverResult.builder()
+                            .status(SolverResult.Status.TIMEOUT)
+                            .expandedNodes(result.getExpandedNodes())
+                            .generatedNodes(result.getGeneratedNodes())
+                            .elapsedNanos(result.getElapsedNanos())
+                            .build();
+                }
+                job.result.complete(result);
+            } catch (Throwable e) {
+                finish(job);
+                job.result.completeExceptionally(e);
+                if (e instanceof Error) {
+                    log.error("Solver worker recovered from an error", e);
+                }
+            }
+        }
+    }
+
+    private void finish(Job job) {
+        synchronized (job) {
+            running.remove(job);
+            Thread.interrupted();
+        }
+        lock.lock();
+        try {
+            inFlight.remove(job.level, job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enforceCpuBudgets() {
+        for (Job job : running) {
+            synchronized (job) {
+                if (running.contains(job) && cpuTime(job.worker) - job.cpuStart > job.cpuBudget) {
+                    job.cpuExceeded = true;
+                    job.worker.interrupt();
+                }
+            }
+        }
+    }
+
+    private long cpuTime(Thread thread) {
+        return threads.isThreadCpuTimeSupported() ? threads.getThreadCpuTime(thread.getId()) : 0;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Use POST"));
+            return;
+        }
+        Level level;
+        int priority;
+        Duration timeout;
+        Duration cpuTime;
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            priority = Integer.parseInt(query.getOrDefault("priority", "0"));
+            timeout = parseMillis(query, "timeout", config.getDefaultTimeout());
+            cpuTime = parseMillis(query, "cpu", config.getMaxCpuTime());
+            level = parseLevel(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error("Invalid request: " + e.getMessage()));
+            return;
+        }
+        CompletableFuture<SolverResult> future;
+        try {
+            future = submit(level, priority, timeout, cpuTime);
+        } catch (RejectedRequestException e) {
+            reject(exchange, e);
+            return;
+        }
+        future.whenComplete((result, error) -> {
+            try {
+                if (error instanceof RejectedRequestException) {
+                    reject(exchange, (RejectedRequestException) error);
+                } else if (error != null) {
+                    log.error("Solve failed", error);
+                    respond(exchange, 500, error("Solve failed"));
+                } else {
+                    respond(exchange, 200, toJson(result, level));
+                }
+            } catch (IOException e) {
+                log.debug("Cannot send the response", e);
+            }
+        });
+    }
+
+    private void reject(HttpExchange exchange, RejectedRequestException e) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        respond(exchange, e.getStatusCode(), error(e.getMessage()));
+    }
+
+    private static String toJson(SolverResult result, Level level) {
+        StringBuilder json = new StringBuilder("{\"status\":\"").append(result.getStatus()).append('"');
+        if (result.isSolved()) {
+            json.append(",\"moves\":\"").append(result.getSolution().getMoves()).append('"')
+                    .append(",\"pushes\":").append(result.getSolution().getPushes())
+                    .append(",\"steps\":").append(result.getSolution().getSteps());
+        }
+        return json.append(",\"expandedNodes\":").append(result.getExpandedNodes())
+                .append(",\"elapsedMillis\":").append(result.getElapsedNanos() / 1_000_000)
+                .append('}')
+                .toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static Duration parseMillis(Map<String, String> query, String name, Duration defaultValue) {
+        if (!query.containsKey(name)) {
+            return defaultValue;
+        }
+        long millis = Long.parseLong(query.get(name));
+        if (millis < 0) {
+            throw new IllegalArgumentException("Negative " + name);
+        }
+        return Duration.ofMillis(millis);
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * Starts a solver service on the loopback interface with the default
+     * configuration. The argument is the TCP port.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the service cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: SolverService <port>");
+            System.exit(1);
+        }
+        SolverService service = new SolverService(SolverServiceConfig.builder().build())
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0])));
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+        Thread.currentThread().join();
+    }
+
+}
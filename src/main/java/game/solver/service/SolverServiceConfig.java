@@ -0,0 +1,55 @@
+package game.solver.service;
+
+import game.solver.AStarSolver;
+import game.solver.Solver;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Class representing the configuration of a {@link SolverService}.
+ */
+@Value
+@Builder
+public class SolverServiceConfig {
+
+    /**
+     * The number of solves running at the same time.
+     */
+    @Builder.Default
+    int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /**
+     * The maximum number of requests waiting for a worker.
+     */
+    @Builder.Default
+    int queueCapacity = 64;
+
+    /**
+     * The wall-clock budget of a solve if the request does not specify one.
+     */
+    @Builder.Default
+    Duration defaultTimeout = Duration.ofSeconds(10);
+
+    /**
+     * The largest wall-clock budget a request may ask for.
+     */
+    @Builder.Default
+    Duration maxTimeout = Duration.ofSeconds(60);
+
+    /**
+     * The largest CPU time budget a request may ask for, also used if the
+     * request does not specify one.
+     */
+    @Builder.Default
+    Duration maxCpuTime = Duration.ofSeconds(60);
+
+    /**
+     * The factory of the solvers, called once per solve.
+     */
+    @Builder.Default
+    Supplier<Solver> solver = AStarSolver::new;
+
+}
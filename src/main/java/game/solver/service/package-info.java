@@ -0,0 +1,5 @@
+/**
+ * Provides an embedded HTTP service solving levels for local tools.
+ * @version 1.0
+ */
+package game.solver.service;
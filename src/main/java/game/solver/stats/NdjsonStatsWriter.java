@@ -0,0 +1,44 @@
+package game.solver.stats;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Listener streaming the statistics as newline-delimited JSON, one object
+ * per sample. Every line is flushed as soon as it is written, so the stream
+ * can be followed while the search runs.
+ */
+@Slf4j
+public class NdjsonStatsWriter implements SolverStatsListener, Closeable {
+
+    private final Writer writer;
+
+    /**
+     * Creates a {@code NdjsonStatsWriter} object.
+     *
+     * @param writer the writer receiving the lines
+     */
+    public NdjsonStatsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void onStats(SolverStats stats) {
+        try {
+            writer.write(stats.toJson());
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("Cannot write solver statistics", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+}
@@ -0,0 +1,58 @@
+package game.solver.stats;
+
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.solver.SolverResult;
+import game.solver.XsbFormat;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Command line tool solving every level of a pack while streaming the
+ * statistics of the search as newline-delimited JSON every second. The
+ * statistics are also available in JMX while the tool runs.
+ */
+@Slf4j
+public class SolvePack {
+
+    /**
+     * Solves a level pack. The arguments are the pack file, and optionally
+     * the time limit per level in seconds and the output file of the
+     * statistics, which defaults to the standard output.
+     *
+     * @param args the command line arguments
+     * @throws Exception if the files cannot be read or written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SolvePack <pack.xsb> [seconds] [stats.ndjson]");
+            System.exit(1);
+        }
+        List<Level> levels = XsbFormat.parsePack(new String(Files.readAllBytes(Paths.get(args[0])),
+                StandardCharsets.UTF_8));
+        Duration timeout = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 60);
+        Writer out = args.length > 2
+                ? Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        SolverProbe probe = new SolverProbe();
+        try (NdjsonStatsWriter writer = new NdjsonStatsWriter(out);
+             SolverMonitor monitor = new SolverMonitor(Paths.get(args[0]).getFileName().toString(), probe,
+                     Duration.ofSeconds(1))) {
+            monitor.addListener(writer).start();
+            for (int i = 0; i < levels.size(); i++) {
+                SolverResult result = new AStarSolver().solve(levels.get(i), timeout, probe);
+                log.info("Level {}: {} after {} expansions in {} ms", i + 1, result.getStatus(),
+                        result.getExpandedNodes(), result.getElapsedNanos() / 1_000_000);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+package game.solver.stats;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the counters of a {@link SolverProbe} at a fixed interval on a
+ * daemon thread, derives the rates from the difference to the previous
+ * sample, and publishes the statistics to the listeners and to JMX under the
+ * name {@code game.solver:type=SolverStats,name=<name>}. Closing the monitor
+ * takes a final sample and unregisters the bean.
+ */
+@Slf4j
+public class SolverMonitor implements Closeable {
+
+    private final String name;
+    private final SolverProbe probe;
+    private final Duration interval;
+    private final List<SolverStatsListener> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Map<Long, Long> cpuTimes = new HashMap<>();
+    private final long begin = System.nanoTime();
+    private ScheduledExecutorService scheduler;
+    private ObjectName objectName;
+    private long lastSample = begin;
+    private long lastExpanded;
+    private volatile SolverStats latest;
+
+    /**
+     * Creates a {@code SolverMonitor} object.
+     *
+     * @param name the name of the monitor in JMX
+     * @param probe the probe of the search
+     * @param interval the time between two samples
+     */
+    public SolverMonitor(String name, SolverProbe probe, Duration interval) {
+        this.name = name;
+        this.probe = probe;
+        this.interval = interval;
+    }
+
+    /**
+     * Adds a listener receiving every sample.
+     *
+     * @param listener the listener
+     * @return this object
+     */
+    public SolverMonitor addListener(SolverStatsListener listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Starts sampling and registers the statistics in JMX.
+     *
+     * @return this object
+     */
+    public synchronized SolverMonitor start() {
+        if (scheduler != null) {
+            return this;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = ObjectName.getInstance("game.solver:type=SolverStats,name=" + ObjectName.quote(name));
+            server.registerMBean(new Bean(), objectName);
+        } catch (JMException e) {
+            log.warn("Cannot register solver statistics {} in JMX", name, e);
+            objectName = null;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solver-monitor-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toNanos();
+        scheduler.scheduleAtFixedRate(this::sample, period, period, TimeUnit.NANOSECONDS);
+        return this;
+    }
+
+    /**
+     * Takes a sample of the statistics and publishes it to the listeners.
+     *
+     * @return the sample
+     */
+    public synchronized SolverStats sample() {
+        long now = System.nanoTime();
+        long wall = Math.max(1, now - lastSample);
+        long expanded = probe.getExpandedNodes();
+        long generated = probe.getGeneratedNodes();
+        long lookups = probe.getLookups();
+        long delta = expanded >= lastExpanded ? expanded - lastExpanded : expanded;
+        Map<String, Double> utilization = new LinkedHashMap<>();
+        Map<Long, Long> seen = new HashMap<>();
+        for (Map.Entry<Long, String> thread : probe.getThreads().entrySet()) {
+            long cpu = threads.isThreadCpuTimeSupported() ? threads.getThreadCpuTime(thread.getKey()) : -1;
+            if (cpu >= 0) {
+                long previous = cpuTimes.getOrDefault(thread.getKey(), cpu);
+                utilization.put(thread.getValue(), (double) (cpu - previous) / wall);
+                seen.put(thread.getKey(), cpu);
+            }
+        }
+        cpuTimes.clear();
+        cpuTimes.putAll(seen);
+        Runtime runtime = Runtime.getRuntime();
+        SolverStats stats = SolverStats.builder()
+                .timestamp(Instant.now())
+                .elapsedNanos(now - begin)
+                .expandedNodes(expanded)
+                .generatedNodes(generated)
+                .nodesPerSecond(delta * 1e9 / wall)
+                .branchingFactor(expanded == 0 ? 0 : (double) generated / expanded)
+                .openSize(probe.getOpenSize())
+                .closedSize(probe.getClosedSize())
+                .transpositionHitRate(lookups == 0 ? 0 : (double) probe.getHits() / lookups)
+                .deadlockPrunes(probe.getDeadlockPrunes())
+                .threadUtilization(Collections.unmodifiableMap(utilization))
+                .usedMemory(runtime.totalMemory() - runtime.freeMemory())
+                .maxMemory(runtime.maxMemory())
+                .build();
+        lastSample = now;
+        lastExpanded = expanded;
+        latest = stats;
+        for (SolverStatsListener listener : listeners) {
+            try {
+                listener.onStats(stats);
+            } catch (RuntimeException e) {
+                log.warn("Solver statistics listener failed", e);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the latest sample.
+     *
+     * @return the latest sample, or {@code null} if no sample was taken yet
+     */
+    public SolverStats getLatest() {
+        return latest;
+    }
+
+    /**
+     * Stops sampling, takes a final sample and unregisters the statistics
+     * from JMX.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        sample();
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                log.warn("Cannot unregister solver statistics {}", name, e);
+            }
+            objectName = null;
+        }
+    }
+
+    private final class Bean implements SolverStatsMXBean {
+
+        private SolverStats stats() {
+            SolverStats stats = latest;
+            return stats != null ? stats : sample();
+        }
+
+        @Override
+        public long getExpandedNodes() {
+            return stats().getExpandedNodes();
+        }
+
+        @Override
+        public long getGeneratedNodes() {
+            return stats().getGeneratedNodes();
+        }
+
+        @Override
+        public double getNodesPerSecond() {
+            return stats().getNodesPerSecond();
+        }
+
+        @Override
+        public double getBranchingFactor() {
+            return stats().getBranchingFactor();
+        }
+
+        @Override
+        public long getOpenSize() {
+            return stats().getOpenSize();
+        }
+
+        @Override
+        public long getClosedSize() {
+            return stats().getClosedSize();
+        }
+
+        @Override
+        public double getTranspositionHitRate() {
+            return stats().getTranspositionHitRate();
+        }
+
+        @Override
+        public long getDeadlockPrunes() {
+            return stats().getDeadlockPrunes();
+        }
+
+        @Override
+        public Map<String, Double> getThreadUtilization() {
+            return stats().getThreadUtilization();
+        }
+
+        @Override
+        public long getUsedMemory() {
+            return stats().getUsedMemory();
+        }
+
+        @Override
+        public long getMemoryHeadroom() {
+            return stats().getMemoryHeadroom();
+        }
+
+    }
+
+}
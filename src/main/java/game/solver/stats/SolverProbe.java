@@ -0,0 +1,95 @@
+package game.solver.stats;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live counters of a running search. The solver publishes its counters at
+ * a fixed number of expansions, and a {@link SolverMonitor} reads them from
+ * another thread, so the search itself never waits for the monitoring. The
+ * counters of a probe describe one search at a time; they are reset by the
+ * next search published to the same probe.
+ */
+@Getter
+public final class SolverProbe {
+
+    /**
+     * The names of the threads doing the search, indexed by thread id.
+     */
+    private final Map<Long, String> threads = new ConcurrentHashMap<>();
+
+    /**
+     * The number of positions expanded.
+     */
+    private volatile long expandedNodes;
+
+    /**
+     * The number of positions generated.
+     */
+    private volatile long generatedNodes;
+
+    /**
+     * The number of entries of the open list.
+     */
+    private volatile long openSize;
+
+    /**
+     * The number of positions closed.
+     */
+    private volatile long closedSize;
+
+    /**
+     * The number of children looked up in the transposition table.
+     */
+    private volatile long lookups;
+
+    /**
+     * The number of children found in the transposition table.
+     */
+    private volatile long hits;
+
+    /**
+     * The number of positions pruned as deadlocks.
+     */
+    private volatile long deadlockPrunes;
+
+    /**
+     * Registers the current thread as a thread doing the search.
+     */
+    public void attach() {
+        threads.put(Thread.currentThread().getId(), Thread.currentThread().getName());
+    }
+
+    /**
+     * Unregisters the current thread.
+     */
+    public void detach() {
+        threads.remove(Thread.currentThread().getId());
+    }
+
+    /**
+     * Publishes the counters of the search.
+     *
+     * @param expandedNodes the number of positions expanded
+     * @param generatedNodes the number of positions generated
+     * @param openSize the number of entries of the open list
+     * @param closedSize the number of positions closed
+     * @param lookups the number of children looked up in the transposition
+     * table
+     * @param hits the number of children found in the transposition table
+     * @param deadlockPrunes the number of positions pruned as deadlocks
+     */
+    public void publish(long expandedNodes, long generatedNodes, long openSize, long closedSize,
+                        long lookups, long hits, long deadlockPrunes) {
+        this.expandedNodes = expandedNodes;
+        this.generatedNodes = generatedNodes;
+        this.openSize = openSize;
+        this.closedSize = closedSize;
+        this.lookups = lookups;
+        this.hits = hits;
+        this.deadlockPrunes = deadlockPrunes;
+    }
+
+}
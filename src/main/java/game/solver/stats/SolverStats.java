@@ -0,0 +1,142 @@
+package game.solver.stats;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class representing a sample of the statistics of a running search.
+ */
+@Value
+@Builder
+public class SolverStats {
+
+    /**
+     * The time the sample was taken.
+     */
+    Instant timestamp;
+
+    /**
+     * The wall-clock time since the monitor started in nanoseconds.
+     */
+    long elapsedNanos;
+
+    /**
+     * The number of positions expanded.
+     */
+    long expandedNodes;
+
+    /**
+     * The number of positions generated.
+     */
+    long generatedNodes;
+
+    /**
+     * The number of positions expanded per second since the previous sample.
+     */
+    double nodesPerSecond;
+
+    /**
+     * The average number of positions generated per expansion.
+     */
+    double branchingFactor;
+
+    /**
+     * The number of entries of the open list.
+     */
+    long openSize;
+
+    /**
+     * The number of positions closed.
+     */
+    long closedSize;
+
+    /**
+     * The ratio of the children looked up that were already present in the
+     * transposition table.
+     */
+    double transpositionHitRate;
+
+    /**
+     * The number of positions pruned as deadlocks.
+     */
+    long deadlockPrunes;
+
+    /**
+     * The share of the time since the previous sample each search thread
+     * spent on the CPU, indexed by thread name.
+     */
+    Map<String, Double> threadUtilization;
+
+    /**
+     * The number of bytes of heap in use.
+     */
+    long usedMemory;
+
+    /**
+     * The maximum number of bytes of heap.
+     */
+    long maxMemory;
+
+    /**
+     * Returns the number of bytes the heap can still grow by.
+     *
+     * @return the memory headroom
+     */
+    public long getMemoryHeadroom() {
+        return maxMemory - usedMemory;
+    }
+
+    /**
+     * Returns the statistics as a single line JSON object.
+     *
+     * @return the JSON representation
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(320)
+                .append("{\"timestamp\":\"").append(timestamp).append('"')
+                .append(",\"elapsedMillis\":").append(elapsedNanos / 1_000_000)
+                .append(",\"expandedNodes\":").append(expandedNodes)
+                .append(",\"generatedNodes\":").append(generatedNodes)
+                .append(",\"nodesPerSecond\":").append(number(nodesPerSecond))
+                .append(",\"branchingFactor\":").append(number(branchingFactor))
+                .append(",\"openSize\":").append(openSize)
+                .append(",\"closedSize\":").append(closedSize)
+                .append(",\"transpositionHitRate\":").append(number(transpositionHitRate))
+                .append(",\"deadlockPrunes\":").append(deadlockPrunes)
+                .append(",\"threadUtilization\":{");
+        String separator = "";
+        for (Map.Entry<String, Double> entry : threadUtilization.entrySet()) {
+            json.append(separator).append('"').append(escape(entry.getKey())).append("\":")
+                    .append(number(entry.getValue()));
+            separator = ",";
+        }
+        return json.append("},\"usedMemory\":").append(usedMemory)
+                .append(",\"maxMemory\":").append(maxMemory)
+                .append(",\"memoryHeadroom\":").append(getMemoryHeadroom())
+                .append('}')
+                .toString();
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.3f", value) : "null";
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+}
@@ -0,0 +1,17 @@
+package game.solver.stats;
+
+/**
+ * Interface of the receivers of the statistics sampled by a
+ * {@link SolverMonitor}. Listeners are called on the thread of the monitor.
+ */
+@FunctionalInterface
+public interface SolverStatsListener {
+
+    /**
+     * Receives a sample of the statistics.
+     *
+     * @param stats the statistics
+     */
+    void onStats(SolverStats stats);
+
+}
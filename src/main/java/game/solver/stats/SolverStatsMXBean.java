@@ -0,0 +1,88 @@
+package game.solver.stats;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the latest statistics of a
+ * {@link SolverMonitor} through JMX.
+ */
+public interface SolverStatsMXBean {
+
+    /**
+     * Returns the number of positions expanded.
+     *
+     * @return the number of positions expanded
+     */
+    long getExpandedNodes();
+
+    /**
+     * Returns the number of positions generated.
+     *
+     * @return the number of positions generated
+     */
+    long getGeneratedNodes();
+
+    /**
+     * Returns the positions expanded per second in the last interval.
+     *
+     * @return the positions expanded per second in the last interval
+     */
+    double getNodesPerSecond();
+
+    /**
+     * Returns the positions generated per expansion.
+     *
+     * @return the positions generated per expansion
+     */
+    double getBranchingFactor();
+
+    /**
+     * Returns the number of entries of the open list.
+     *
+     * @return the number of entries of the open list
+     */
+    long getOpenSize();
+
+    /**
+     * Returns the number of positions closed.
+     *
+     * @return the number of positions closed
+     */
+    long getClosedSize();
+
+    /**
+     * Returns the ratio of children found in the transposition table.
+     *
+     * @return the ratio of children found in the transposition table
+     */
+    double getTranspositionHitRate();
+
+    /**
+     * Returns the number of positions pruned as deadlocks.
+     *
+     * @return the number of positions pruned as deadlocks
+     */
+    long getDeadlockPrunes();
+
+    /**
+     * Returns the CPU utilization of the search threads by name.
+     *
+     * @return the CPU utilization of the search threads by name
+     */
+    Map<String, Double> getThreadUtilization();
+
+    /**
+     * Returns the number of bytes of heap in use.
+     *
+     * @return the number of bytes of heap in use
+     */
+    long getUsedMemory();
+
+    /**
+     * Returns the number of bytes the heap can still grow by.
+     *
+     * @return the number of bytes the heap can still grow by
+     */
+    long getMemoryHeadroom();
+
+}
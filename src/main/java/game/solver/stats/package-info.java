@@ -0,0 +1,5 @@
+/**
+ * Provides classes for monitoring running solver searches.
+ * @version 1.0
+ */
+package game.solver.stats;
@@ -0,0 +1,52 @@
+package game.state;
+
+/**
+ * Enum representing the outcome of a single move of the character.
+ */
+public enum MoveKind {
+
+    /**
+     * The character stepped onto an empty space.
+     */
+    STEP("step"),
+
+    /**
+     * The character tried to push a ball that cannot move.
+     */
+    BLOCKED("blocked"),
+
+    /**
+     * The character pushed a ball onto an empty space.
+     */
+    PUSH("push"),
+
+    /**
+     * The character pushed a ball into a storage.
+     */
+    FILL("fill");
+
+    private final String name;
+
+    MoveKind(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the kind used in telemetry and protocols.
+     *
+     * @return the lower-case name of the kind
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns whether a ball was moved.
+     *
+     * @return {@code true} if a ball was moved, {@code false} otherwise
+     */
+    public boolean isPush() {
+        return this == PUSH || this == FILL;
+    }
+
+}
@@ -0,0 +1,192 @@
+package game.state;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans the moves of the character that push a ball to a target position.
+ * The search runs over the positions of the ball together with the side of
+ * the ball the character stands on, treating the walls and the other balls
+ * as fixed obstacles. The sides the character can walk to without pushing
+ * are explored together, so the plan found uses the fewest pushes possible.
+ */
+public final class PushPlanner {
+
+    private static final Direction[] STEPS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+    private static final int ROOT = -1;
+    private static final int UNVISITED = -2;
+
+    private final SokobanState state;
+    private final int rows;
+    private final int cols;
+    private final boolean[] blocked;
+    private final int[] parents;
+    private final int[] queue;
+    private final int[] cellParents;
+    private final int[] cellQueue;
+
+    /**
+     * Creates a {@code PushPlanner} object for the current configuration of
+     * a game.
+     *
+     * @param state the state of the game
+     */
+    public PushPlanner(SokobanState state) {
+        this.state = state;
+        this.rows = state.getTray().length;
+        this.cols = state.getTray()[0].length;
+        this.blocked = new boolean[rows * cols];
+        this.parents = new int[rows * cols * 4];
+        this.queue = new int[rows * cols * 4];
+        this.cellParents = new int[rows * cols];
+        this.cellQueue = new int[rows * cols];
+    }
+
+    /**
+     * Plans the moves that push the ball at the specified position to the
+     * target position. The plan is a sequence of positions adjacent to the
+     * character at the time, as if the player clicked them one by one, so
+     * it can be applied with the usual move rules.
+     *
+     * @param ballRow the row of the ball
+     * @param ballCol the column of the ball
+     * @param targetRow the row of the target position
+     * @param targetCol the column of the target position
+     * @return the positions to move to in order as {@code {row, col}} pairs,
+     * or {@code null} if there is no ball at the position or it cannot be
+     * pushed to the target
+     */
+    public int[][] plan(int ballRow, int ballCol, int targetRow, int targetCol) {
+        if (!inside(ballRow, ballCol) || !inside(targetRow, targetCol)
+                || !state.checkBallCollision(ballRow, ballCol)) {
+            return null;
+        }
+        if (ballRow == targetRow && ballCol == targetCol) {
+            return new int[0][];
+        }
+        Actor[][] tray = state.getTray();
+        for (int cell = 0; cell < blocked.length; cell++) {
+            Actor actor = tray[cell / cols][cell % cols];
+            blocked[cell] = actor == Actor.WALL || actor == Actor.BALL || actor == Actor.STORAGE1;
+        }
+        int ball = ballRow * cols + ballCol;
+        int target = targetRow * cols + targetCol;
+        int character = state.getCharacterRow() * cols + state.getCharacterCol();
+        blocked[ball] = false;
+        if (blocked[target]) {
+            return null;
+        }
+        int goal = search(ball, character, target);
+        return goal < 0 ? null : toMoves(goal, character);
+    }
+
+    /*
+     * Breadth-first search over states ball * 4 + side, where the character
+     * stands next to the ball on the given side. Returns the state in which
+     * the ball has been pushed onto the target, or -1.
+     */
+    private int search(int ball, int character, int target) {
+        Arrays.fill(parents, UNVISITED);
+        int tail = addArea(ball, character, ROOT, 0);
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            int from = current / 4;
+            int side = current % 4;
+            int to = neighbor(from, (side + 2) % 4);
+            if (to < 0 || blocked[to] || parents[to * 4 + side] != UNVISITED) {
+                continue;
+            }
+            parents[to * 4 + side] = current;
+            if (to == target) {
+                return to * 4 + side;
+            }
+            queue[tail++] = to * 4 + side;
+            tail = addArea(to, from, to * 4 + side, tail);
+        }
+        return -1;
+    }
+
+    /*
+     * Adds the unvisited sides of the ball the character can walk to, with
+     * the parent specified, and returns the new tail of the queue.
+     */
+    private int addArea(int ball, int character, int parent, int tail) {
+        walk(character, ball, -1);
+        for (int side = 0; side < 4; side++) {
+            int cell = neighbor(ball, side);
+            if (cell >= 0 && cellParents[cell] != UNVISITED && parents[ball * 4 + side] == UNVISITED) {
+                parents[ball * 4 + side] = parent;
+                queue[tail++] = ball * 4 + side;
+            }
+        }
+        return tail;
+    }
+
+    /*
+     * Replays the pushes leading to the goal state, walking the character to
+     * the side of the ball before every push.
+     */
+    private int[][] toMoves(int goal, int character) {
+        List<int[]> pushes = new ArrayList<>();
+        for (int current = goal; parents[current] != ROOT; current = parents[current]) {
+            int parent = parents[current];
+            if (parent / 4 != current / 4) {
+                pushes.add(new int[] {parent / 4, (current % 4 + 2) % 4});
+            }
+        }
+        List<int[]> moves = new ArrayList<>();
+        int position = character;
+        for (int i = pushes.size() - 1; i >= 0; i--) {
+            int from = pushes.get(i)[0];
+            int direction = pushes.get(i)[1];
+            int stand = neighbor(from, (direction + 2) % 4);
+            walk(position, from, stand);
+            int length = 0;
+            for (int cell = stand; cell != position; cell = cellParents[cell]) {
+                length++;
+            }
+            int[][] path = new int[length][];
+            for (int cell = stand, j = length - 1; cell != position; cell = cellParents[cell], j--) {
+                path[j] = new int[] {cell / cols, cell % cols};
+            }
+            moves.addAll(Arrays.asList(path));
+            moves.add(new int[] {from / cols, from % cols});
+            position = from;
+        }
+        return moves.toArray(new int[0][]);
+    }
+
+    /*
+     * Breadth-first search of the cells the character can walk to, with the
+     * ball as an extra obstacle, stopping early once the target is found.
+     */
+    private void walk(int character, int ball, int target) {
+        Arrays.fill(cellParents, UNVISITED);
+        int head = 0;
+        int tail = 0;
+        cellParents[character] = ROOT;
+        cellQueue[tail++] = character;
+        while (head < tail && (target < 0 || cellParents[target] == UNVISITED)) {
+            int cell = cellQueue[head++];
+            for (int d = 0; d < 4; d++) {
+                int next = neighbor(cell, d);
+                if (next >= 0 && next != ball && !blocked[next] && cellParents[next] == UNVISITED) {
+                    cellParents[next] = cell;
+                    cellQueue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    private int neighbor(int cell, int d) {
+        int row = cell / cols + STEPS[d].getDx();
+        int col = cell % cols + STEPS[d].getDy();
+        return inside(row, col) ? row * cols + col : -1;
+    }
+
+    private boolean inside(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+}
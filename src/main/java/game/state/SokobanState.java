@@ -2,9 +2,11 @@ package game.state;
 
 import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.boot.model.naming.DatabaseIdentifier;
+
+import java.util.Arrays;
 
 /**
  * Class representing the state of the game.
@@ -43,6 +45,8 @@ public class SokobanState implements Cloneable {
             {0, 1, 1, 1, 1, 1, 0, 0, 0}
     };
 
+    private static final Direction[] STEPS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
     /**
      * The array storing the current configuration of the tray.
      */
@@ -61,6 +65,13 @@ public class SokobanState implements Cloneable {
     @Setter(AccessLevel.NONE)
     private int characterCol;
 
+    /**
+     * The array indicating the spaces where the storages are located.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean[][] storages;
+
     /**
      * The constructor of the class, initializes the level.
      */
@@ -108,26 +119,45 @@ public class SokobanState implements Cloneable {
 
     private void initLevel(int[][] a) {
         this.tray = new Actor[9][9];
+        this.storages = new boolean[9][9];
         for (int i = 0; i < 9; ++i) {
             for (int j = 0; j < 9; ++j) {
                 if ((this.tray[i][j] = Actor.of(a[i][j])) == Actor.CHARACTER) {
                     characterRow = i;
                     characterCol = j;
                 }
+                storages[i][j] = tray[i][j] == Actor.STORAGE0 || tray[i][j] == Actor.STORAGE1;
             }
         }
     }
 
+    /**
+     * Returns whether there is a storage at the specified position,
+     * regardless of whether it is filled or the character is standing on it.
+     *
+     * @param row the row of the position
+     * @param col the column of the position
+     * @return {@code true} if there is a storage at the specified position,
+     * {@code false} otherwise
+     */
+    public boolean isStorage(int row, int col) {
+        return storages[row][col];
+    }
+
     /**
      * Checks whether the level is completed.
      *
      * @return {@code true} if the level is completed, {@code false} otherwise
      */
     public boolean isSolved() {
-        if (tray[3][7] == Actor.STORAGE1 && tray[4][7] == Actor.STORAGE1 && tray[5][7] == Actor.STORAGE1) {
-            return true;
+        for (int i = 0; i < 9; ++i) {
+            for (int j = 0; j < 9; ++j) {
+                if (storages[i][j] && tray[i][j] != Actor.STORAGE1) {
+                    return false;
+                }
+            }
         }
-        return false;
+        return true;
     }
 
     /**
@@ -186,7 +216,7 @@ public class SokobanState implements Cloneable {
      */
     public void moveToEmptySpace(int row, int col) {
         Direction direction = getMoveDirection(row, col);
-        log.info("Player moved to ({},{}) from {}", row, col, direction);
+        log.debug("Player moved to ({},{}) from {}", row, col, direction);
         tray[characterRow][characterCol] = tray[row][col].moveTo(direction);
         tray[row][col] = Actor.CHARACTER;
         characterRow = row;
@@ -314,7 +344,7 @@ public class SokobanState implements Cloneable {
     public void pushBall(int row, int col) {
         Direction direction = getMoveDirection(row, col);
         moveToEmptySpace(row, col);
-        log.info("Player pushed a ball");
+        log.debug("Player pushed a ball");
         if (direction == Direction.UP) {
             if (!checkWallCollision(row+1, col)) {
                 tray[row+1][col] = Actor.BALL;
@@ -379,7 +409,7 @@ public class SokobanState implements Cloneable {
     public void fillStorage(int row, int col) {
         Direction direction = getMoveDirection(row, col);
         moveToEmptySpace(row, col);
-        log.info("Player filled a storage");
+        log.debug("Player filled a storage");
         if (direction == Direction.UP) {
             if (!checkWallCollision(row+1, col)) {
                 tray[row+1][col] = Actor.STORAGE1;
@@ -408,15 +438,202 @@ public class SokobanState implements Cloneable {
      * in their original position.
      */
     public void placeEmptyStorage() {
-        if (!(tray[3][7] == Actor.STORAGE1 || tray[3][7] == Actor.CHARACTER)) {
-            tray[3][7] = Actor.STORAGE0;
+        for (int i = 0; i < 9; ++i) {
+            for (int j = 0; j < 9; ++j) {
+                if (storages[i][j] && !(tray[i][j] == Actor.STORAGE1 || tray[i][j] == Actor.CHARACTER)) {
+                    tray[i][j] = Actor.STORAGE0;
+                }
+            }
         }
-        if (!(tray[4][7] == Actor.STORAGE1 || tray[4][7] == Actor.CHARACTER)) {
-            tray[4][7] = Actor.STORAGE0;
+    }
+
+    /**
+     * Moves the character to the adjacent position specified following the
+     * rules of the game, pushing the ball in the way if there is one.
+     *
+     * @param row the row where the character would be moved to
+     * @param col the column where the character would be moved to
+     * @return the kind of the move, or {@code null} if the move is not
+     * allowed or the level is already completed
+     */
+    public MoveKind applyMove(int row, int col) {
+        if (row < 0 || row >= tray.length || col < 0 || col >= tray[row].length
+                || !isMoveDirectionCorrect(row, col) || isSolved()
+                || checkWallCollision(row, col) || !canMove(row, col)) {
+            return null;
+        }
+        MoveKind kind;
+        if (!checkBallCollision(row, col)) {
+            moveToEmptySpace(row, col);
+            kind = MoveKind.STEP;
+        } else if (checksBallDisappearance(row, col)) {
+            avoidBallDisappearance(row, col);
+            kind = MoveKind.BLOCKED;
+        } else if (!isBallPlaced(row, col)) {
+            pushBall(row, col);
+            kind = MoveKind.PUSH;
+        } else {
+            fillStorage(row, col);
+            kind = MoveKind.FILL;
+        }
+        placeEmptyStorage();
+        return kind;
+    }
+
+    /**
+     * Returns whether the character could walk onto the specified position
+     * without pushing a ball.
+     *
+     * @param row the row of the position
+     * @param col the column of the position
+     * @return {@code true} if the position is inside the tray and is an empty
+     * space or an empty storage, {@code false} otherwise
+     */
+    public boolean isWalkable(int row, int col) {
+        return row >= 0 && row < tray.length && col >= 0 && col < tray[row].length
+                && (tray[row][col] == Actor.EMPTY || tray[row][col] == Actor.STORAGE0);
+    }
+
+    /**
+     * Finds the shortest walk of the character to the specified position
+     * with a breadth-first search, without pushing any ball.
+     *
+     * @param row the row of the destination
+     * @param col the column of the destination
+     * @return the positions of the walk in order as {@code {row, col}}
+     * pairs, excluding the position of the character and including the
+     * destination, or {@code null} if the destination cannot be reached
+     */
+    public int[][] findWalk(int row, int col) {
+        if (row == characterRow && col == characterCol) {
+            return new int[0][];
+        }
+        if (!isWalkable(row, col)) {
+            return null;
+        }
+        int cols = tray[0].length;
+        int start = characterRow * cols + characterCol;
+        int target = row * cols + col;
+        int[] parents = new int[tray.length * cols];
+        Arrays.fill(parents, -1);
+        int[] queue = new int[parents.length];
+        int head = 0;
+        int tail = 0;
+        parents[start] = start;
+        queue[tail++] = start;
+        while (head < tail && parents[target] < 0) {
+            int cell = queue[head++];
+            for (Direction direction : STEPS) {
+                int r = cell / cols + direction.getDx();
+                int c = cell % cols + direction.getDy();
+                if (isWalkable(r, c) && parents[r * cols + c] < 0) {
+                    parents[r * cols + c] = cell;
+                    queue[tail++] = r * cols + c;
+                }
+            }
+        }
+        if (parents[target] < 0) {
+            return null;
+        }
+        int length = 0;
+        for (int cell = target; cell != start; cell = parents[cell]) {
+            length++;
+        }
+        int[][] walk = new int[length][];
+        for (int cell = target, i = length - 1; cell != start; cell = parents[cell], i--) {
+            walk[i] = new int[] {cell / cols, cell % cols};
         }
-        if (!(tray[5][7] == Actor.STORAGE1 || tray[5][7] == Actor.CHARACTER)) {
-            tray[5][7] = Actor.STORAGE0;
+        return walk;
+    }
+
+    /**
+     * Walks the character to the specified position along the shortest
+     * walk in a single transition, without pushing any ball.
+     *
+     * @param row the row of the destination
+     * @param col the column of the destination
+     * @return the number of steps taken, or -1 if the destination cannot be
+     * reached
+     */
+    public int walkTo(int row, int col) {
+        int[][] walk = findWalk(row, col);
+        if (walk == null) {
+            return -1;
+        }
+        if (walk.length > 0) {
+            log.debug("Player walked to ({},{}) in {} steps", row, col, walk.length);
+            tray[characterRow][characterCol] = storages[characterRow][characterCol] ? Actor.STORAGE0 : Actor.EMPTY;
+            tray[row][col] = Actor.CHARACTER;
+            characterRow = row;
+            characterCol = col;
+        }
+        return walk.length;
+    }
+
+    /**
+     * Returns the positions of the balls, including the balls in storages,
+     * in row-major order.
+     *
+     * @return the positions of the balls as {@code {row, col}} pairs
+     */
+    public int[][] getBallPositions() {
+        int count = 0;
+        for (Actor[] row : tray) {
+            for (Actor actor : row) {
+                if (actor == Actor.BALL || actor == Actor.STORAGE1) {
+                    count++;
+                }
+            }
         }
+        int[][] balls = new int[count][];
+        count = 0;
+        for (int i = 0; i < tray.length; ++i) {
+            for (int j = 0; j < tray[i].length; ++j) {
+                if (tray[i][j] == Actor.BALL || tray[i][j] == Actor.STORAGE1) {
+                    balls[count++] = new int[] {i, j};
+                }
+            }
+        }
+        return balls;
+    }
+
+    /**
+     * Moves the balls and the character to the positions specified, keeping
+     * the walls and the storages of the tray.
+     *
+     * @param balls the positions of the balls as {@code {row, col}} pairs
+     * @param row the row of the character's position
+     * @param col the column of the character's position
+     * @throws IllegalArgumentException if any of the positions is outside
+     * the tray, is a wall or is occupied more than once
+     */
+    public void restorePosition(int[][] balls, int row, int col) {
+        Actor[][] restored = new Actor[tray.length][];
+        for (int i = 0; i < tray.length; ++i) {
+            restored[i] = new Actor[tray[i].length];
+            for (int j = 0; j < tray[i].length; ++j) {
+                restored[i][j] = tray[i][j] == Actor.WALL ? Actor.WALL
+                        : storages[i][j] ? Actor.STORAGE0 : Actor.EMPTY;
+            }
+        }
+        for (int[] ball : balls) {
+            if (!isFreeSpace(restored, ball[0], ball[1])) {
+                throw new IllegalArgumentException();
+            }
+            restored[ball[0]][ball[1]] = storages[ball[0]][ball[1]] ? Actor.STORAGE1 : Actor.BALL;
+        }
+        if (!isFreeSpace(restored, row, col)) {
+            throw new IllegalArgumentException();
+        }
+        restored[row][col] = Actor.CHARACTER;
+        tray = restored;
+        characterRow = row;
+        characterCol = col;
+    }
+
+    private static boolean isFreeSpace(Actor[][] a, int row, int col) {
+        return row >= 0 && row < a.length && col >= 0 && col < a[row].length
+                && (a[row][col] == Actor.EMPTY || a[row][col] == Actor.STORAGE0);
     }
 
     public SokobanState clone() {
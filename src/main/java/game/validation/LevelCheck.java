@@ -0,0 +1,29 @@
+package game.validation;
+
+import game.solver.Level;
+
+import java.util.Optional;
+
+/**
+ * Interface of the checks a level must pass to be valid. The checks must be
+ * stateless, since a pack is validated by several threads at once.
+ */
+public interface LevelCheck {
+
+    /**
+     * Returns the name of the check, reported when a level fails it.
+     *
+     * @return the name of the check
+     */
+    String getName();
+
+    /**
+     * Checks the level specified.
+     *
+     * @param level the level to check
+     * @return the reason the level fails the check, or an empty optional if
+     * it passes
+     */
+    Optional<String> check(Level level);
+
+}
@@ -0,0 +1,157 @@
+package game.validation;
+
+import game.solver.Deadlocks;
+import game.solver.Level;
+import game.solver.Solver;
+import game.solver.SolverResult;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The checks of the validation pipeline, from the cheapest to the most
+ * expensive.
+ */
+public final class LevelChecks {
+
+    private LevelChecks() {
+    }
+
+    /**
+     * Returns the check that the level has at least one ball and as many
+     * balls as storages.
+     *
+     * @return the check of the counts
+     */
+    public static LevelCheck counts() {
+        return new NamedCheck("counts", level -> {
+            int storages = level.getStorages().length;
+            if (level.getBallCount() == 0) {
+                return Optional.of("The level has no balls");
+            }
+            if (level.getBallCount() != storages) {
+                return Optional.of(String.format("The level has %d balls and %d storages",
+                        level.getBallCount(), storages));
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Returns the check that the character can walk to every ball and every
+     * storage, disregarding the balls in the way.
+     *
+     * @return the check of the reachability
+     */
+    public static LevelCheck reachability() {
+        return new NamedCheck("reachability", level -> {
+            boolean[] reached = new boolean[level.getSize()];
+            int[] queue = new int[level.getSize()];
+            int tail = 0;
+            reached[level.getCharacter()] = true;
+            queue[tail++] = level.getCharacter();
+            for (int head = 0; head < tail; head++) {
+                for (int d = 0; d < 4; d++) {
+                    int next = level.neighbor(queue[head], d);
+                    if (next >= 0 && !level.isWall(next) && !reached[next]) {
+                        reached[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            for (int ball : level.getBalls()) {
+                if (!reached[ball]) {
+                    return Optional.of("The ball at " + position(level, ball) + " cannot be reached");
+                }
+            }
+            for (int storage : level.getStorages()) {
+                if (!reached[storage]) {
+                    return Optional.of("The storage at " + position(level, storage) + " cannot be reached");
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Returns the check that no ball starts on a dead space or frozen in a
+     * 2&#xd7;2 block, and that a ball can be pushed into every storage,
+     * disregarding the other balls.
+     *
+     * @return the check of the dead spaces
+     */
+    public static LevelCheck deadSquares() {
+        return new NamedCheck("dead squares", level -> {
+            boolean[] occupied = new boolean[level.getSize()];
+            for (int ball : level.getBalls()) {
+                occupied[ball] = true;
+            }
+            for (int ball : level.getBalls()) {
+                if (level.isDead(ball)) {
+                    return Optional.of("The ball at " + position(level, ball) + " is on a dead space");
+                }
+                if (Deadlocks.isSquareDeadlock(level, occupied, ball)) {
+                    return Optional.of("The ball at " + position(level, ball) + " is frozen");
+                }
+            }
+            for (int storage : level.getStorages()) {
+                if (level.startDistance(storage) == Level.UNREACHABLE) {
+                    return Optional.of("No ball can be pushed into the storage at " + position(level, storage));
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Returns the check that a solver finds a solution within a time limit.
+     * Levels the solver proves unsolvable and levels it cannot solve in time
+     * both fail the check.
+     *
+     * @param solver the factory of the solver, called for every level
+     * @param timeout the time limit of the search
+     * @return the check of the solvability
+     */
+    public static LevelCheck solvable(Supplier<Solver> solver, Duration timeout) {
+        return new NamedCheck("solvable", level -> {
+            SolverResult result = solver.get().solve(level, timeout);
+            switch (result.getStatus()) {
+                case SOLVED:
+                    return Optional.empty();
+                case UNSOLVABLE:
+                    return Optional.of("The level cannot be solved");
+                default:
+                    return Optional.of("The level was not solved within " + timeout.toMillis() + " ms");
+            }
+        });
+    }
+
+    private static String position(Level level, int cell) {
+        return "(" + level.row(cell) + ", " + level.col(cell) + ")";
+    }
+
+    private static final class NamedCheck implements LevelCheck {
+
+        private final String name;
+        private final Function<Level, Optional<String>> check;
+
+        NamedCheck(String name, Function<Level, Optional<String>> check) {
+            this.name = name;
+            this.check = check;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Optional<String> check(Level level) {
+            return check.apply(level);
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package game.validation;
+
+import game.solver.AStarSolver;
+import game.solver.Level;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Validates levels by running a chain of checks ordered from the cheapest to
+ * the most expensive. A level is rejected by the first check it fails, the
+ * remaining checks are not run. The levels of a pack are validated in
+ * parallel.
+ */
+@Slf4j
+public class LevelValidator {
+
+    private final List<LevelCheck> checks;
+    private final int threads;
+
+    /**
+     * Creates a {@code LevelValidator} object checking the counts, the
+     * reachability and the dead spaces, then attempting to solve the level
+     * within 2 seconds, using all available processors.
+     */
+    public LevelValidator() {
+        this(Arrays.asList(LevelChecks.counts(), LevelChecks.reachability(), LevelChecks.deadSquares(),
+                LevelChecks.solvable(AStarSolver::new, Duration.ofSeconds(2))),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@code LevelValidator} object.
+     *
+     * @param checks the checks in the order they are run
+     * @param threads the number of worker threads of {@link #validateAll}
+     * @throws IllegalArgumentException if the number of threads is less than
+     * 1
+     */
+    public LevelValidator(List<LevelCheck> checks, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads");
+        }
+        this.checks = new ArrayList<>(checks);
+        this.threads = threads;
+    }
+
+    /**
+     * Validates a level.
+     *
+     * @param level the level
+     * @return the outcome of the validation
+     */
+    public ValidationResult validate(Level level) {
+        for (LevelCheck check : checks) {
+            Optional<String> reason = check.check(level);
+            if (reason.isPresent()) {
+                return ValidationResult.failed(check.getName(), reason.get());
+            }
+        }
+        return ValidationResult.valid();
+    }
+
+    /**
+     * Validates a level represented by an array using the encoding of
+     * {@link game.state.Actor}. Arrays that do not represent a level with
+     * exactly one character fail the {@code layout} check.
+     *
+     * @param a the array representing the tray
+     * @return the outcome of the validation
+     */
+    public ValidationResult validate(int[][] a) {
+        Level level;
+        try {
+            level = Level.of(a);
+        } catch (IllegalArgumentException e) {
+            return ValidationResult.failed("layout", "The array does not represent a level with one character");
+        }
+        return validate(level);
+    }
+
+    /**
+     * Validates the levels of a pack in parallel.
+     *
+     * @param levels the levels
+     * @return the outcomes of the validation in the order of the levels
+     * @throws InterruptedException if the calling thread is interrupted while
+     * waiting for the workers
+     */
+    public List<ValidationResult> validateAll(List<Level> levels) throws InterruptedException {
+        List<Callable<ValidationResult>> tasks = new ArrayList<>();
+        for (Level level : levels) {
+            tasks.add(() -> validate(level));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<ValidationResult> results = new ArrayList<>();
+            for (Future<ValidationResult> future : executor.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Validation failed", e.getCause());
+                }
+            }
+            log.info("{} of {} levels are valid", results.stream().filter(ValidationResult::isValid).count(),
+                    results.size());
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
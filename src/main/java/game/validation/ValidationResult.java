@@ -0,0 +1,54 @@
+package game.validation;
+
+import lombok.Value;
+
+/**
+ * Class representing the outcome of validating a level.
+ */
+@Value
+public class ValidationResult {
+
+    private static final ValidationResult VALID = new ValidationResult(null, null);
+
+    /**
+     * The name of the first check the level failed, or {@code null} if the
+     * level is valid.
+     */
+    String failedCheck;
+
+    /**
+     * The reason the level failed the check, or {@code null} if the level is
+     * valid.
+     */
+    String reason;
+
+    /**
+     * Returns the result of a level that passed every check.
+     *
+     * @return the result of a valid level
+     */
+    public static ValidationResult valid() {
+        return VALID;
+    }
+
+    /**
+     * Returns the result of a level that failed a check.
+     *
+     * @param check the name of the check failed
+     * @param reason the reason the level failed the check
+     * @return the result of an invalid level
+     */
+    public static ValidationResult failed(String check, String reason) {
+        return new ValidationResult(check, reason);
+    }
+
+    /**
+     * Returns whether the level passed every check.
+     *
+     * @return {@code true} if the level is valid, {@code false} otherwise
+     */
+    public boolean isValid() {
+        return failedCheck == null;
+    }
+
+}
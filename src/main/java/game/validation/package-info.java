@@ -0,0 +1,5 @@
+/**
+ * Provides classes for validating sokoban levels before they are played.
+ * @version 1.0
+ */
+package game.validation;
@@ -5,6 +5,7 @@ import javafx.application.Application;
 public class Main {
 
     public static void main(String[] args) {
+        StartupTimings.mark("main entered");
         Application.launch(MyApplication.class, args);
     }
 
@@ -1,20 +1,34 @@
 package main;
 
+import controller.SceneCache;
+import game.results.GameResultDao;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
+import java.util.concurrent.CompletableFuture;
+
 public class MyApplication extends Application {
 
     @Override
     public void start(Stage primaryStage) throws Exception{
-        Parent root = FXMLLoader.load(getClass().getResource("/fxml/launch.fxml"));
+        StartupTimings.mark("JavaFX toolkit started");
+        CompletableFuture<GameResultDao> persistenceReady = GameResultDao.warmUp().whenComplete((dao, e) ->
+                StartupTimings.mark(e == null ? "persistence ready" : "persistence failed"));
+
         primaryStage.setTitle("Sokoban");
         primaryStage.setResizable(false);
-        primaryStage.setScene(new Scene(root));
+        primaryStage.setScene(SceneCache.getScene(SceneCache.LAUNCH));
+        StartupTimings.mark("launch scene loaded");
         primaryStage.show();
+        StartupTimings.mark("launch scene shown");
+
+        Platform.runLater(() -> {
+            SceneCache.preload(SceneCache.GAME, SceneCache.TOPTEN);
+            StartupTimings.mark("game and Top Ten scenes preloaded");
+        });
+
+        persistenceReady.whenComplete((dao, e) -> StartupTimings.report());
     }
 
 }
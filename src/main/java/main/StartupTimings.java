@@ -0,0 +1,53 @@
+package main;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the milestones of the application startup and logs a report
+ * of where the launch time was spent.
+ */
+@Slf4j
+public final class StartupTimings {
+
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> uptimes = new ArrayList<>();
+    private static boolean reported;
+
+    private StartupTimings() {
+    }
+
+    /**
+     * Records that the phase specified has been reached. The time is measured
+     * from the start of the JVM.
+     *
+     * @param phase the name of the phase reached
+     */
+    public static synchronized void mark(String phase) {
+        phases.add(phase);
+        uptimes.add(ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    /**
+     * Logs the startup timing report. The report is logged only once,
+     * subsequent invocations have no effect.
+     */
+    public static synchronized void report() {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        StringBuilder sb = new StringBuilder("Startup timings (ms since JVM start / since previous phase):");
+        long previous = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            long uptime = uptimes.get(i);
+            sb.append(String.format("%n  %6d  %+6d  %s", uptime, uptime - previous, phases.get(i)));
+            previous = uptime;
+        }
+        log.info(sb.toString());
+    }
+
+}
@@ -1,5 +1,7 @@
 package util.jpa;
 
+import util.telemetry.GameTelemetry;
+
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import java.util.List;
@@ -50,9 +52,11 @@ public abstract class GenericJpaDao<T> {
      * @param entity the entity instance to be persisted in the database
      */
     public void persist(T entity) {
+        long start = GameTelemetry.start();
         entityManager.getTransaction().begin();
         entityManager.persist(entity);
         entityManager.getTransaction().commit();
+        GameTelemetry.persisted(entityClass.getSimpleName(), start);
     }
 
     /**
@@ -65,7 +69,10 @@ public abstract class GenericJpaDao<T> {
      * the specified primary key
      */
     public Optional<T> find(Object primaryKey) {
-        return Optional.ofNullable(entityManager.find(entityClass, primaryKey));
+        long start = GameTelemetry.start();
+        T entity = entityManager.find(entityClass, primaryKey);
+        GameTelemetry.queried(entityClass.getSimpleName(), "find", start);
+        return Optional.ofNullable(entity);
     }
 
     /**
@@ -74,8 +81,11 @@ public abstract class GenericJpaDao<T> {
      * @return the list of all instances of the entity class from the database
      */
     public List<T> findAll() {
+        long start = GameTelemetry.start();
         TypedQuery<T> typedQuery = entityManager.createQuery("FROM " + entityClass.getSimpleName(), entityClass);
-        return typedQuery.getResultList();
+        List<T> result = typedQuery.getResultList();
+        GameTelemetry.queried(entityClass.getSimpleName(), "findAll", start);
+        return result;
     }
 
     /**
@@ -0,0 +1,102 @@
+package util.jpa;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the application-wide {@link EntityManagerFactory} on a background
+ * thread, so the expensive Hibernate bootstrap and schema generation do not
+ * block the JavaFX application thread.
+ */
+@Slf4j
+public final class PersistenceBootstrap {
+
+    /**
+     * The name of the persistence unit defined in {@code persistence.xml}.
+     */
+    public static final String PERSISTENCE_UNIT = "jpa-persistence-unit-1";
+
+    private static CompletableFuture<EntityManagerFactory> future;
+
+    private PersistenceBootstrap() {
+    }
+
+    /**
+     * Starts building the {@link EntityManagerFactory} on a background thread
+     * unless it has already been started. The method returns immediately.
+     *
+     * @return a future that is completed with the {@link EntityManagerFactory}
+     * once the persistence unit is ready
+     */
+    public static synchronized CompletableFuture<EntityManagerFactory> start() {
+        if (future == null) {
+            future = bootstrap(() -> Persistence.createEntityManagerFactory(PERSISTENCE_UNIT));
+        }
+        return future;
+    }
+
+    /**
+     * Returns the {@link EntityManagerFactory}, waiting for the background
+     * bootstrap to finish if necessary. The bootstrap is started when it has
+     * not been started yet.
+     *
+     * @return the application-wide {@link EntityManagerFactory}
+     * @throws javax.persistence.PersistenceException if the persistence unit
+     * could not be created
+     */
+    public static EntityManagerFactory getEntityManagerFactory() {
+        try {
+            return start().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether the {@link EntityManagerFactory} is ready to use.
+     *
+     * @return {@code true} if the bootstrap has completed successfully,
+     * {@code false} otherwise
+     */
+    public static synchronized boolean isReady() {
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Creates an {@link EntityManagerFactory} on a new background thread.
+     *
+     * @param factory the function creating the {@link EntityManagerFactory}
+     * @return a future that is completed with the {@link EntityManagerFactory}
+     * created, or with the exception or error thrown by {@code factory}
+     */
+    static CompletableFuture<EntityManagerFactory> bootstrap(Supplier<EntityManagerFactory> factory) {
+        CompletableFuture<EntityManagerFactory> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            long begin = System.nanoTime();
+            try {
+                EntityManagerFactory emf = factory.get();
+                log.info("Persistence unit {} ready in {} ms", PERSISTENCE_UNIT,
+                        (System.nanoTime() - begin) / 1_000_000);
+                result.complete(emf);
+            } catch (Throwable e) {
+                log.error("Failed to bootstrap persistence unit {}", PERSISTENCE_UNIT, e);
+                result.completeExceptionally(e);
+            }
+        }, "persistence-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+}
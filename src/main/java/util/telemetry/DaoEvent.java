@@ -0,0 +1,31 @@
+package util.telemetry;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted when a DAO operation has completed.
+ */
+@Name("sokoban.DaoOperation")
+@Label("DAO Operation")
+@Category("Sokoban")
+@Description("A DAO operation has completed")
+@StackTrace(false)
+class DaoEvent extends Event {
+
+    @Label("Entity")
+    String entity;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+}
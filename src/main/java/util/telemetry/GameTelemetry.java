@@ -0,0 +1,249 @@
+package util.telemetry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records gameplay telemetry as JFR events and JMX counters. The recording
+ * methods never log and never block. JFR events are only created when a
+ * recording with the event enabled is running, and the JMX counters can be
+ * switched off with the {@code sokoban.telemetry} system property or through
+ * the {@code Enabled} attribute of the MBean, so the cost is a few
+ * nanoseconds per call when both are disabled. The move rate is sampled
+ * once per {@link #SAMPLE_INTERVAL_SECONDS} on a daemon thread, so reading
+ * it through JMX has no side effect.
+ */
+@Slf4j
+public final class GameTelemetry implements GameTelemetryMBean {
+
+    /**
+     * The name under which the MBean is registered.
+     */
+    public static final String OBJECT_NAME = "sokoban:type=GameTelemetry";
+
+    /**
+     * The time between two samples of the move rate in seconds.
+     */
+    public static final long SAMPLE_INTERVAL_SECONDS = 1;
+
+    private static final GameTelemetry instance = new GameTelemetry();
+
+    private final LatencyStats moves = new LatencyStats();
+    private final LatencyStats renders = new LatencyStats();
+    private final LatencyStats persists = new LatencyStats();
+    private final LatencyStats queries = new LatencyStats();
+
+    private volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("sokoban.telemetry"));
+    private volatile double movesPerSecond;
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.warn("Could not register MBean {}", OBJECT_NAME, e);
+        }
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(instance::sample, SAMPLE_INTERVAL_SECONDS, SAMPLE_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    private GameTelemetry() {
+    }
+
+    /**
+     * Returns the single {@code GameTelemetry} instance.
+     *
+     * @return the single {@code GameTelemetry} instance
+     */
+    public static GameTelemetry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the current value of the timer used to measure latencies. The
+     * value should be passed to one of the recording methods once the
+     * measured operation has completed.
+     *
+     * @return the current value of the timer in nanoseconds
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records that a move of the player has been applied.
+     *
+     * @param kind the kind of the move, e.g. {@code "step"} or {@code "push"}
+     * @param startNanos the value returned by {@link #start()} before the move
+     *                   was applied
+     */
+    public static void moveApplied(String kind, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        if (instance.enabled) {
+            instance.moves.record(nanos);
+        }
+        MoveEvent event = new MoveEvent();
+        if (event.isEnabled()) {
+            event.kind = kind;
+            event.applyTime = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records that the game board has been rendered.
+     *
+     * @param startNanos the value returned by {@link #start()} before the
+     *                   board was rendered
+     */
+    public static void rendered(long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        if (instance.enabled) {
+            instance.renders.record(nanos);
+        }
+        RenderEvent event = new RenderEvent();
+        if (event.isEnabled()) {
+            event.renderTime = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records that an entity has been persisted.
+     *
+     * @param entity the name of the entity class
+     * @param startNanos the value returned by {@link #start()} before the
+     *                   entity was persisted
+     */
+    public static void persisted(String entity, long startNanos) {
+        daoOperation(instance.persists, entity, "persist", startNanos);
+    }
+
+    /**
+     * Records that a query has been executed.
+     *
+     * @param entity the name of the entity class queried
+     * @param query the name of the query
+     * @param startNanos the value returned by {@link #start()} before the
+     *                   query was executed
+     */
+    public static void queried(String entity, String query, long startNanos) {
+        daoOperation(instance.queries, entity, query, startNanos);
+    }
+
+    private static void daoOperation(LatencyStats stats, String entity, String operation, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        if (instance.enabled) {
+            stats.record(nanos);
+        }
+        DaoEvent event = new DaoEvent();
+        if (event.isEnabled()) {
+            event.entity = entity;
+            event.operation = operation;
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getMoveCount() {
+        return moves.getCount();
+    }
+
+    @Override
+    public double getMovesPerSecond() {
+        return movesPerSecond;
+    }
+
+    @Override
+    public double getAverageMoveMicros() {
+        return moves.getAverageMicros();
+    }
+
+    @Override
+    public double getMaxMoveMicros() {
+        return moves.getMaxMicros();
+    }
+
+    @Override
+    public long getRenderCount() {
+        return renders.getCount();
+    }
+
+    @Override
+    public double getAverageRenderMicros() {
+        return renders.getAverageMicros();
+    }
+
+    @Override
+    public double getMaxRenderMicros() {
+        return renders.getMaxMicros();
+    }
+
+    @Override
+    public long getPersistCount() {
+        return persists.getCount();
+    }
+
+    @Override
+    public double getAveragePersistMicros() {
+        return persists.getAverageMicros();
+    }
+
+    @Override
+    public double getMaxPersistMicros() {
+        return persists.getMaxMicros();
+    }
+
+    @Override
+    public long getQueryCount() {
+        return queries.getCount();
+    }
+
+    @Override
+    public double getAverageQueryMicros() {
+        return queries.getAverageMicros();
+    }
+
+    @Override
+    public double getMaxQueryMicros() {
+        return queries.getMaxMicros();
+    }
+
+    @Override
+    public void reset() {
+        moves.reset();
+        renders.reset();
+        persists.reset();
+        queries.reset();
+        movesPerSecond = 0;
+    }
+
+    /*
+     * Derives the move rate from the moves applied since the previous sample.
+     */
+    void sample() {
+        movesPerSecond = moves.sampleRate(System.nanoTime());
+    }
+
+}
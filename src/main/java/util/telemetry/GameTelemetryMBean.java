@@ -0,0 +1,120 @@
+package util.telemetry;
+
+/**
+ * JMX management interface of the gameplay telemetry.
+ */
+public interface GameTelemetryMBean {
+
+    /**
+     * Returns whether the JMX counters are being updated.
+     *
+     * @return {@code true} if the counters are being updated,
+     * {@code false} otherwise
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables or disables the update of the JMX counters.
+     *
+     * @param enabled whether the counters should be updated
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the number of moves applied.
+     *
+     * @return the number of moves applied
+     */
+    long getMoveCount();
+
+    /**
+     * Returns the number of moves applied per second during the latest
+     * sampling interval.
+     *
+     * @return the number of moves applied per second
+     */
+    double getMovesPerSecond();
+
+    /**
+     * Returns the average time of applying a move in microseconds.
+     *
+     * @return the average time of applying a move in microseconds
+     */
+    double getAverageMoveMicros();
+
+    /**
+     * Returns the longest time of applying a move in microseconds.
+     *
+     * @return the longest time of applying a move in microseconds
+     */
+    double getMaxMoveMicros();
+
+    /**
+     * Returns the number of times the board was rendered.
+     *
+     * @return the number of times the board was rendered
+     */
+    long getRenderCount();
+
+    /**
+     * Returns the average render time in microseconds.
+     *
+     * @return the average render time in microseconds
+     */
+    double getAverageRenderMicros();
+
+    /**
+     * Returns the longest render time in microseconds.
+     *
+     * @return the longest render time in microseconds
+     */
+    double getMaxRenderMicros();
+
+    /**
+     * Returns the number of entities persisted.
+     *
+     * @return the number of entities persisted
+     */
+    long getPersistCount();
+
+    /**
+     * Returns the average latency of persisting an entity in microseconds.
+     *
+     * @return the average latency of persisting an entity in microseconds
+     */
+    double getAveragePersistMicros();
+
+    /**
+     * Returns the longest latency of persisting an entity in microseconds.
+     *
+     * @return the longest latency of persisting an entity in microseconds
+     */
+    double getMaxPersistMicros();
+
+    /**
+     * Returns the number of queries executed.
+     *
+     * @return the number of queries executed
+     */
+    long getQueryCount();
+
+    /**
+     * Returns the average latency of the queries in microseconds.
+     *
+     * @return the average latency of the queries in microseconds
+     */
+    double getAverageQueryMicros();
+
+    /**
+     * Returns the longest latency of the queries in microseconds.
+     *
+     * @return the longest latency of the queries in microseconds
+     */
+    double getMaxQueryMicros();
+
+    /**
+     * Resets all counters.
+     */
+    void reset();
+
+}
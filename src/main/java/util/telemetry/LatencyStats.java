@@ -0,0 +1,61 @@
+package util.telemetry;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free accumulator of latency samples. The rate of the samples is only
+ * derived when {@link #sampleRate} is called, so recording never locks.
+ */
+class LatencyStats {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private long lastSampleNanos = System.nanoTime();
+    private long lastSampleCount;
+
+    void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    double getAverageMicros() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / 1000.0 / n;
+    }
+
+    double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+
+    /**
+     * Returns the number of samples recorded per second since the previous
+     * invocation of this method or of {@link #reset}.
+     *
+     * @param now the current value of {@link System#nanoTime()}
+     * @return the number of samples recorded per second
+     */
+    synchronized double sampleRate(long now) {
+        long n = count.sum();
+        long delta = n >= lastSampleCount ? n - lastSampleCount : n;
+        double rate = delta * 1e9 / Math.max(1L, now - lastSampleNanos);
+        lastSampleNanos = now;
+        lastSampleCount = n;
+        return rate;
+    }
+
+    synchronized void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        lastSampleNanos = System.nanoTime();
+        lastSampleCount = 0;
+    }
+
+}
@@ -0,0 +1,29 @@
+package util.telemetry;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted when a move of the player has been applied to the game
+ * state.
+ */
+@Name("sokoban.MoveApplied")
+@Label("Move Applied")
+@Category("Sokoban")
+@Description("A move of the player has been applied to the game state")
+@StackTrace(false)
+class MoveEvent extends Event {
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Apply Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long applyTime;
+
+}
@@ -0,0 +1,25 @@
+package util.telemetry;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted when the game board has been rendered.
+ */
+@Name("sokoban.Render")
+@Label("Board Rendered")
+@Category("Sokoban")
+@Description("The game board has been redrawn")
+@StackTrace(false)
+class RenderEvent extends Event {
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderTime;
+
+}
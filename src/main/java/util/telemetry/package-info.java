@@ -0,0 +1,5 @@
+/**
+ * Provides low-overhead gameplay telemetry through JFR events and JMX.
+ * @version 1.0
+ */
+package util.telemetry;
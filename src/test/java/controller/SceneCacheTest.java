@@ -0,0 +1,21 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SceneCacheTest {
+
+    @Test
+    void testMissingFxml() {
+        assertThrows(FileNotFoundException.class, () -> SceneCache.getScene("/fxml/missing.fxml"));
+        assertThrows(FileNotFoundException.class, () -> SceneCache.getController("/fxml/missing.fxml"));
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> SceneCache.preload("/fxml/missing.fxml"));
+        assertTrue(e.getCause() instanceof FileNotFoundException);
+    }
+
+}
@@ -0,0 +1,56 @@
+package controller;
+
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileAtlasTest {
+
+    @Test
+    void testSameInstancePerSize() {
+        AtomicInteger decoded = new AtomicInteger();
+        List<Image> tiles = TileAtlas.getTiles(1001, size -> {
+            decoded.incrementAndGet();
+            return new ArrayList<>();
+        });
+        assertSame(tiles, TileAtlas.getTiles(1001, size -> fail("decoded twice")));
+        assertNotSame(tiles, TileAtlas.getTiles(1002, size -> new ArrayList<>()));
+        assertEquals(1, decoded.get());
+    }
+
+    @Test
+    void testConcurrentRequests() throws Exception {
+        AtomicInteger decoded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Image>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return TileAtlas.getTiles(1003, size -> {
+                        decoded.incrementAndGet();
+                        return new ArrayList<>();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<List<Image>> result : results) {
+                assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, decoded.get());
+    }
+
+}
@@ -0,0 +1,60 @@
+package game.generator;
+
+import game.solver.Level;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelGeneratorTest {
+
+    @Test
+    void testBuildCandidate() {
+        GeneratorConfig config = GeneratorConfig.builder().balls(2).build();
+        LevelGenerator generator = new LevelGenerator(config);
+        SplittableRandom random = new SplittableRandom(42);
+        int built = 0;
+        for (int i = 0; i < 50; i++) {
+            Optional<Level> candidate = generator.buildCandidate(random);
+            if (candidate.isPresent()) {
+                built++;
+                Level level = candidate.get();
+                assertEquals(9, level.getWidth());
+                assertEquals(2, level.getBallCount());
+                assertEquals(2, level.getStorages().length);
+                for (int ball : level.getBalls()) {
+                    assertFalse(level.isStorage(ball));
+                }
+            }
+        }
+        assertTrue(built > 0);
+    }
+
+    @Test
+    void testGenerateIsSolvable() {
+        LevelGenerator generator = new LevelGenerator(GeneratorConfig.builder().minPushes(1).build());
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 20; i++) {
+            generator.generate(random).ifPresent(level -> {
+                assertTrue(level.getSolution().solves(level.getLevel()));
+                assertTrue(level.getDifficulty() > 0);
+            });
+        }
+    }
+
+    @Test
+    void testPackGenerator() throws InterruptedException {
+        List<GeneratedLevel> levels = new PackGenerator(GeneratorConfig.builder().minPushes(4).build(), 2)
+                .generate(5, Duration.ofSeconds(30), 1);
+        assertEquals(5, levels.size());
+        for (int i = 1; i < levels.size(); i++) {
+            assertTrue(levels.get(i - 1).getDifficulty() <= levels.get(i).getDifficulty());
+        }
+        assertEquals(5, game.solver.XsbFormat.parsePack(PackGenerator.toXsb(levels)).size());
+    }
+
+}
@@ -0,0 +1,113 @@
+package game.results;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameResultDaoTest {
+
+    private static int databases;
+
+    private EntityManagerFactory emf;
+    private GameResultDao resultDao;
+    private PlayerStatsDao statsDao;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:results" + databases++ + ";DB_CLOSE_DELAY=-1");
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+        properties.put("javax.persistence.schema-generation.scripts.action", "none");
+        emf = Persistence.createEntityManagerFactory("jpa-persistence-unit-1", properties);
+        EntityManager entityManager = emf.createEntityManager();
+        resultDao = new GameResultDao();
+        resultDao.setEntityManager(entityManager);
+        statsDao = new PlayerStatsDao();
+        statsDao.setEntityManager(entityManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resultDao.getEntityManager().close();
+        emf.close();
+    }
+
+    @Test
+    void testPersistUpdatesStats() {
+        resultDao.persist(result("alice", true, Duration.ofSeconds(90), 40, 12));
+        resultDao.persist(result("alice", false, Duration.ofSeconds(10), 5, 1));
+        resultDao.persist(result("bob", true, Duration.ofSeconds(60), 50, 10));
+        resultDao.getEntityManager().clear();
+        PlayerStats alice = statsDao.findByPlayer("alice").orElseThrow();
+        assertEquals(2, alice.getGamesPlayed());
+        assertEquals(1, alice.getGamesSolved());
+        assertEquals(Duration.ofSeconds(90), alice.getBestDuration());
+        assertEquals(12, alice.getFewestPushes());
+        assertEquals(List.of("bob", "alice"), players(statsDao.findFastest(5)));
+        assertEquals(List.of("alice", "bob"), players(statsDao.findMostActive(5)));
+    }
+
+    @Test
+    void testFailedPersistLeavesStatsUnchanged() {
+        resultDao.persist(result("alice", true, Duration.ofSeconds(90), 40, 12));
+        EntityManager entityManager = resultDao.getEntityManager();
+        entityManager.getTransaction().begin();
+        entityManager.createNativeQuery("ALTER TABLE GameResult ADD CONSTRAINT steps CHECK (steps >= 0)")
+                .executeUpdate();
+        entityManager.getTransaction().commit();
+        // The result is only inserted on commit, after the statistics were updated
+        assertThrows(RuntimeException.class,
+                () -> resultDao.persist(result("alice", true, Duration.ofSeconds(30), -1, 8)));
+        resultDao.persist(result("alice", false, Duration.ofSeconds(10), 5, 1));
+        resultDao.getEntityManager().clear();
+        PlayerStats alice = statsDao.findByPlayer("alice").orElseThrow();
+        assertEquals(2, alice.getGamesPlayed());
+        assertEquals(1, alice.getGamesSolved());
+        assertEquals(12, alice.getFewestPushes());
+        assertEquals(2, resultDao.findAll().size());
+    }
+
+    @Test
+    void testRebuild() {
+        resultDao.persist(result("alice", true, Duration.ofSeconds(90), 40, 12));
+        resultDao.persist(result("bob", true, Duration.ofSeconds(60), 50, 10));
+        resultDao.persist(result("alice", true, Duration.ofSeconds(30), 20, 6));
+        List<PlayerStats> expected = statsDao.findMostActive(5);
+        statsDao.rebuild();
+        List<PlayerStats> actual = statsDao.findMostActive(5);
+        assertEquals(players(expected), players(actual));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getGamesPlayed(), actual.get(i).getGamesPlayed());
+            assertEquals(expected.get(i).getTotalPushes(), actual.get(i).getTotalPushes());
+            assertEquals(expected.get(i).getBestDuration(), actual.get(i).getBestDuration());
+        }
+    }
+
+    private static List<String> players(List<PlayerStats> stats) {
+        return stats.stream().map(PlayerStats::getPlayer).collect(Collectors.toList());
+    }
+
+    private static GameResult result(String player, boolean solved, Duration duration, int steps, int pushes) {
+        return GameResult.builder()
+                .player(player)
+                .solved(solved)
+                .duration(duration)
+                .steps(steps)
+                .pushes(pushes)
+                .build();
+    }
+
+}
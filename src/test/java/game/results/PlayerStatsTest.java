@@ -0,0 +1,52 @@
+package game.results;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStatsTest {
+
+    @Test
+    void testRecord() {
+        PlayerStats stats = PlayerStats.builder().player("alice").build();
+        stats.record(result("alice", true, Duration.ofSeconds(90), 40, 12));
+        stats.record(result("alice", false, Duration.ofSeconds(10), 5, 1));
+        stats.record(result("alice", true, Duration.ofSeconds(60), 50, 10));
+        assertEquals(3, stats.getGamesPlayed());
+        assertEquals(2, stats.getGamesSolved());
+        assertEquals(Duration.ofSeconds(60), stats.getBestDuration());
+        assertEquals(10, stats.getFewestPushes());
+        assertEquals(45.0, stats.getAverageSteps());
+        assertEquals(11.0, stats.getAveragePushes());
+    }
+
+    @Test
+    void testRecordUnsolved() {
+        PlayerStats stats = PlayerStats.builder().player("bob").build();
+        stats.record(result("bob", false, Duration.ofSeconds(30), 20, 3));
+        assertEquals(1, stats.getGamesPlayed());
+        assertNull(stats.getBestDuration());
+        assertNull(stats.getFewestPushes());
+        assertEquals(0.0, stats.getAveragePushes());
+    }
+
+    @Test
+    void testRecordOtherPlayer() {
+        PlayerStats stats = PlayerStats.builder().player("alice").build();
+        assertThrows(IllegalArgumentException.class,
+                () -> stats.record(result("bob", true, Duration.ofSeconds(30), 20, 3)));
+    }
+
+    private static GameResult result(String player, boolean solved, Duration duration, int steps, int pushes) {
+        return GameResult.builder()
+                .player(player)
+                .solved(solved)
+                .duration(duration)
+                .steps(steps)
+                .pushes(pushes)
+                .build();
+    }
+
+}
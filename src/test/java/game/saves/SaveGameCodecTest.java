@@ -0,0 +1,44 @@
+package game.saves;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveGameCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        SokobanState state = new SokobanState();
+        state.walkTo(1, 3);
+        state.pushBall(2, 3);
+        SaveGame game = SaveGame.builder()
+                .player("Alice")
+                .state(state)
+                .steps(1234)
+                .pushes(56)
+                .elapsed(Duration.ofMinutes(12).plusMillis(345))
+                .build();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        SaveGameCodec.encode(game, buffer);
+        assertTrue(buffer.position() <= 20);
+        buffer.flip();
+        SaveGame decoded = SaveGameCodec.decode(buffer);
+        assertEquals(game.getPlayer(), decoded.getPlayer());
+        assertEquals(game.getSteps(), decoded.getSteps());
+        assertEquals(game.getPushes(), decoded.getPushes());
+        assertEquals(game.getElapsed(), decoded.getElapsed());
+        assertEquals(state.toString(), decoded.getState().toString());
+        assertEquals(2, decoded.getState().getCharacterRow());
+        assertEquals(3, decoded.getState().getCharacterCol());
+    }
+
+    @Test
+    void testInvalidVersion() {
+        assertThrows(IllegalArgumentException.class, () -> SaveGameCodec.decode(ByteBuffer.wrap(new byte[] {9, 0})));
+    }
+
+}
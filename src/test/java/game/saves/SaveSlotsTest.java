@@ -0,0 +1,66 @@
+package game.saves;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveSlotsTest {
+
+    @TempDir
+    Path directory;
+
+    private SaveGame game(int steps) {
+        return SaveGame.builder()
+                .player("Bob")
+                .state(new SokobanState())
+                .steps(steps)
+                .pushes(0)
+                .elapsed(Duration.ofSeconds(steps))
+                .build();
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        Path path = directory.resolve("saves.bin");
+        try (SaveSlots slots = new SaveSlots(path, 2)) {
+            assertFalse(slots.load(0).isPresent());
+            slots.save(0, game(1));
+            slots.save(0, game(2));
+            slots.save(1, game(7));
+            assertEquals(2, slots.load(0).get().getSteps());
+            assertEquals(7, slots.load(1).get().getSteps());
+        }
+        try (SaveSlots slots = new SaveSlots(path, 2)) {
+            assertEquals(2, slots.load(0).get().getSteps());
+            slots.clear(0);
+            assertFalse(slots.load(0).isPresent());
+            assertTrue(slots.load(1).isPresent());
+        }
+    }
+
+    @Test
+    void testTornWriteFallsBack() throws IOException {
+        Path path = directory.resolve("saves.bin");
+        try (SaveSlots slots = new SaveSlots(path, 1)) {
+            slots.save(0, game(1));
+            slots.save(0, game(2));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(256 + 20);
+            file.write(0x55);
+        }
+        try (SaveSlots slots = new SaveSlots(path, 1)) {
+            assertEquals(1, slots.load(0).get().getSteps());
+            slots.save(0, game(3));
+            assertEquals(3, slots.load(0).get().getSteps());
+        }
+    }
+
+}
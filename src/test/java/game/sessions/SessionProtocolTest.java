@@ -0,0 +1,78 @@
+package game.sessions;
+
+import game.results.GameResult;
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionProtocolTest {
+
+    private final List<GameResult> results = new ArrayList<>();
+    private final SessionManager sessions = new SessionManager(results::add);
+    private final SessionProtocol protocol = new SessionProtocol(sessions);
+
+    @Test
+    void testMoveAndUndo() {
+        assertEquals("OK 1", protocol.handle("CREATE alice"));
+        String query = protocol.handle("QUERY 1");
+        assertTrue(query.startsWith("OK 0 0 PLAYING "));
+        assertEquals(9, query.substring("OK 0 0 PLAYING ".length()).split("/").length);
+        String moved = protocol.handle("MOVE 1 lurd");
+        assertTrue(moved.startsWith("OK "));
+        int steps = Integer.parseInt(moved.split(" ")[1]);
+        assertTrue(steps > 0);
+        assertEquals("OK 0 0 PLAYING", protocol.handle("UNDO 1 " + steps));
+        assertEquals(query, protocol.handle("QUERY 1"));
+        assertEquals("OK 0 0 PLAYING", protocol.handle("undo 1"));
+    }
+
+    @Test
+    void testSolvedGameIsRecorded() {
+        String moves = new AStarSolver().solve(Level.of(SokobanState.INITIAL), Duration.ofSeconds(10))
+                .getSolution().getMoves();
+        protocol.handle("CREATE bob");
+        String solved = protocol.handle("MOVE 1 " + moves);
+        assertTrue(solved.endsWith(" SOLVED"), solved);
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isSolved());
+        assertEquals("bob", results.get(0).getPlayer());
+        assertEquals(moves.length(), results.get(0).getSteps());
+        assertEquals("ERR Game finished", protocol.handle("MOVE 1 l"));
+        assertEquals("OK", protocol.handle("CLOSE 1"));
+        assertEquals(1, results.size());
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    void testClosedGameIsRecorded() {
+        protocol.handle("CREATE carol");
+        protocol.handle("CREATE dave");
+        protocol.handle("MOVE 2 lurd");
+        assertEquals("OK", protocol.handle("CLOSE 1"));
+        assertTrue(results.isEmpty());
+        assertEquals("OK", protocol.handle("CLOSE 2"));
+        assertEquals(1, results.size());
+        assertFalse(results.get(0).isSolved());
+    }
+
+    @Test
+    void testErrors() {
+        assertEquals("ERR No such session", protocol.handle("MOVE 7 l"));
+        assertEquals("ERR No such session", protocol.handle("CLOSE 7"));
+        assertTrue(protocol.handle("JUMP 1").startsWith("ERR "));
+        assertTrue(protocol.handle("MOVE x l").startsWith("ERR "));
+        protocol.handle("CREATE erin");
+        assertEquals("ERR Invalid moves x", protocol.handle("MOVE 1 x"));
+        String query = protocol.handle("QUERY 1");
+        assertEquals("ERR Invalid moves lx", protocol.handle("MOVE 1 lx"));
+        assertEquals(query, protocol.handle("QUERY 1"));
+    }
+
+}
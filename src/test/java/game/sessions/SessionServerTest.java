@@ -0,0 +1,67 @@
+package game.sessions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionServerTest {
+
+    @Test
+    void testPipelinedRequests() throws Exception {
+        List<Object> results = new ArrayList<>();
+        SessionProtocol protocol = new SessionProtocol(new SessionManager(results::add));
+        try (SessionServer server = new SessionServer(protocol,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).start();
+             Socket socket = new Socket()) {
+            socket.connect(server.getLocalAddress());
+            OutputStream out = socket.getOutputStream();
+            out.write("CREATE alice\nMOVE 1 l\nUNDO 1\nCLOSE 1\nQUIT\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            assertEquals("OK 1", in.readLine());
+            assertTrue(in.readLine().startsWith("OK "));
+            assertEquals("OK 0 0 PLAYING", in.readLine());
+            assertEquals("OK", in.readLine());
+            assertEquals("BYE", in.readLine());
+            assertNull(in.readLine());
+        }
+    }
+
+    @Test
+    void testDisconnectClosesSessions() throws Exception {
+        SessionManager sessions = new SessionManager(result -> { });
+        try (SessionServer server = new SessionServer(new SessionProtocol(sessions),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).start()) {
+            try (Socket socket = new Socket()) {
+                socket.connect(server.getLocalAddress());
+                OutputStream out = socket.getOutputStream();
+                out.write("CREATE alice\nCREATE bob\nCLOSE 1\nMOVE 2 l\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                assertEquals("OK 1", in.readLine());
+                assertEquals("OK 2", in.readLine());
+                assertEquals("OK", in.readLine());
+                assertTrue(in.readLine().startsWith("OK "));
+                assertEquals(1, sessions.size());
+            }
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (sessions.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, sessions.size());
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package game.solutions;
+
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.solver.Solution;
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelFingerprintTest {
+
+    private static int[][] rotate(int[][] a) {
+        int[][] b = new int[a[0].length][a.length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[0].length; j++) {
+                b[j][a.length - 1 - i] = a[i][j];
+            }
+        }
+        return b;
+    }
+
+    private static int[][] mirror(int[][] a) {
+        int[][] b = new int[a.length][a[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[0].length; j++) {
+                b[i][a[0].length - 1 - j] = a[i][j];
+            }
+        }
+        return b;
+    }
+
+    @Test
+    void testSymmetricLevelsShareFingerprint() {
+        LevelFingerprint fingerprint = LevelFingerprint.of(Level.of(SokobanState.INITIAL));
+        int[][] a = SokobanState.INITIAL;
+        for (int i = 0; i < 4; i++) {
+            a = rotate(a);
+            assertEquals(fingerprint.getFingerprint(), LevelFingerprint.of(Level.of(a)).getFingerprint());
+            assertEquals(fingerprint.getFingerprint(), LevelFingerprint.of(Level.of(mirror(a))).getFingerprint());
+        }
+        assertNotEquals(fingerprint.getFingerprint(), LevelFingerprint.of(Level.of(SokobanState.GOAL)).getFingerprint());
+    }
+
+    @Test
+    void testUnreachableMarginsIgnored() {
+        int[][] padded = new int[11][11];
+        for (int i = 0; i < 9; i++) {
+            System.arraycopy(SokobanState.INITIAL[i], 0, padded[i + 2], 2, 9);
+        }
+        assertEquals(LevelFingerprint.of(Level.of(SokobanState.INITIAL)).getFingerprint(),
+                LevelFingerprint.of(Level.of(padded)).getFingerprint());
+    }
+
+    @Test
+    void testMovesRoundTrip() {
+        Level level = Level.of(rotate(mirror(SokobanState.INITIAL)));
+        Solution solution = new AStarSolver().solve(level, Duration.ofSeconds(10)).getSolution();
+        LevelFingerprint fingerprint = LevelFingerprint.of(level);
+        String canonical = fingerprint.toCanonical(solution.getMoves());
+        assertEquals(solution.getMoves(), fingerprint.fromCanonical(canonical));
+        Level original = Level.of(SokobanState.INITIAL);
+        String moves = LevelFingerprint.of(original).fromCanonical(canonical);
+        assertTrue(new Solution(moves).solves(original));
+    }
+
+}
@@ -0,0 +1,92 @@
+package game.solutions;
+
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.solver.Solution;
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCacheTest {
+
+    @Test
+    void testOffer() {
+        SolutionCache cache = new SolutionCache(4);
+        Level level = Level.of(new int[][] {
+                {1, 1, 1, 1, 1, 1},
+                {1, 2, 0, 3, 4, 1},
+                {1, 0, 0, 0, 0, 1},
+                {1, 1, 1, 1, 1, 1}});
+        assertFalse(cache.getMoveSolution(level).isPresent());
+        assertThrows(IllegalArgumentException.class, () -> cache.offer(level, new Solution("r")));
+        cache.offer(level, new Solution("druR"));
+        assertEquals("druR", cache.getMoveSolution(level).get().getMoves());
+        cache.offer(level, new Solution("rR"));
+        assertEquals("rR", cache.getMoveSolution(level).get().getMoves());
+        assertEquals("rR", cache.getPushSolution(level).get().getMoves());
+        cache.offer(level, new Solution("druR"));
+        assertEquals("rR", cache.getMoveSolution(level).get().getMoves());
+    }
+
+    @Test
+    void testSolve() {
+        SolutionCache cache = new SolutionCache(4);
+        Level level = Level.of(SokobanState.INITIAL);
+        Solution solution = cache.solve(level, new AStarSolver(), Duration.ofSeconds(10)).get();
+        assertTrue(solution.solves(level));
+        assertEquals(solution, cache.solve(level, (l, t) -> fail("cache miss"), Duration.ZERO).get());
+    }
+
+    @Test
+    void testWriteBehind() throws InterruptedException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:solutions;DB_CLOSE_DELAY=-1");
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+        properties.put("javax.persistence.schema-generation.scripts.action", "none");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("jpa-persistence-unit-1", properties);
+        try {
+            StoredSolutionDao dao = new StoredSolutionDao();
+            dao.setEntityManager(emf.createEntityManager());
+            SolutionCache cache = new SolutionCache(4, () -> dao);
+            Level level = Level.of(new int[][] {
+                    {1, 1, 1, 1, 1, 1},
+                    {1, 2, 0, 3, 4, 1},
+                    {1, 0, 0, 0, 0, 1},
+                    {1, 1, 1, 1, 1, 1}});
+            cache.offer(level, new Solution("rR"));
+            cache.flush();
+            SolutionCache reloaded = new SolutionCache(4, () -> dao);
+            assertEquals("rR", reloaded.getPushSolution(level).get().getMoves());
+            SolutionCache interrupted = new SolutionCache(4, () -> dao);
+            Thread.currentThread().interrupt();
+            interrupted.offer(level, new Solution("druR"));
+            assertTrue(Thread.interrupted());
+            interrupted.flush();
+            assertEquals(1, dao.findAll().size());
+            assertEquals("rR", new SolutionCache(4, () -> dao).getMoveSolution(level).get().getMoves());
+        } finally {
+            emf.close();
+        }
+    }
+
+    @Test
+    void testEviction() {
+        SolutionCache cache = new SolutionCache(1);
+        Level first = Level.of(new int[][] {{1, 1, 1, 1, 1}, {1, 2, 3, 4, 1}, {1, 1, 1, 1, 1}});
+        Level second = Level.of(new int[][] {{1, 1, 1, 1, 1, 1}, {1, 2, 3, 0, 4, 1}, {1, 1, 1, 1, 1, 1}});
+        cache.offer(first, new Solution("R"));
+        cache.offer(second, new Solution("RR"));
+        assertFalse(cache.getMoveSolution(first).isPresent());
+        assertTrue(cache.getMoveSolution(second).isPresent());
+    }
+
+}
@@ -0,0 +1,82 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AStarSolverTest {
+
+    @Test
+    void testSolveInitial() {
+        Level level = Level.of(SokobanState.INITIAL);
+        SolverResult result = new AStarSolver().solve(level, Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.getSolution().solves(level));
+    }
+
+    @Test
+    void testSolveGoal() {
+        SolverResult result = new AStarSolver().solve(Level.of(SokobanState.GOAL), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertEquals("", result.getSolution().getMoves());
+    }
+
+    @Test
+    void testSolveUnsolvable() {
+        SolverResult result = new AStarSolver().solve(Level.of(new int[][] {
+                {1, 1, 1, 1, 1},
+                {1, 3, 0, 4, 1},
+                {1, 2, 0, 0, 1},
+                {1, 1, 1, 1, 1}}), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.UNSOLVABLE, result.getStatus());
+        assertNull(result.getSolution());
+    }
+
+    @Test
+    void testSolveCancelled() {
+        Thread.currentThread().interrupt();
+        SolverResult result = new AStarSolver().solve(Level.of(SokobanState.INITIAL), Duration.ofSeconds(10));
+        assertTrue(Thread.interrupted());
+        assertEquals(SolverResult.Status.CANCELLED, result.getStatus());
+    }
+
+    @Test
+    void testSolveWithMatching() {
+        Level level = XsbFormat.parse(String.join("\n",
+                "##########",
+                "#@   #   #",
+                "# $$   $ #",
+                "#  #  #  #",
+                "# $  ..  #",
+                "#   #..$ #",
+                "#  .     #",
+                "##########"));
+        SolverResult nearest = new AStarSolver(false, false).solve(level, Duration.ofSeconds(30));
+        SolverResult matching = new AStarSolver(false, false, 1, true).solve(level, Duration.ofSeconds(30));
+        assertEquals(SolverResult.Status.SOLVED, matching.getStatus());
+        assertTrue(matching.getSolution().solves(level));
+        assertEquals(nearest.getSolution().getPushes(), matching.getSolution().getPushes());
+        assertTrue(matching.getExpandedNodes() <= nearest.getExpandedNodes());
+    }
+
+    @Test
+    void testMatchingEstimate() {
+        Level level = XsbFormat.parse(String.join("\n",
+                "########",
+                "#      #",
+                "# $$ . #",
+                "#    . #",
+                "#  @   #",
+                "########"));
+        int nearest = 0;
+        for (int ball : level.getBalls()) {
+            nearest += level.goalDistance(ball);
+        }
+        assertEquals(5, nearest);
+        assertEquals(6, new Matching(level).estimate(level.getBalls()));
+    }
+
+}
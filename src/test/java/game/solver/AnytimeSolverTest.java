@@ -0,0 +1,62 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnytimeSolverTest {
+
+    @Test
+    void testSolveImproves() {
+        Level level = XsbFormat.parse(String.join("\n",
+                "##########",
+                "#@   #   #",
+                "# $$   $ #",
+                "#  #  #  #",
+                "# $  ..  #",
+                "#   #..$ #",
+                "#  .     #",
+                "##########"));
+        List<Integer> pushes = new ArrayList<>();
+        SolverResult result = new AnytimeSolver(solution -> {
+            assertTrue(solution.solves(level));
+            pushes.add(solution.getPushes());
+        }).solve(level, Duration.ofSeconds(30));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertFalse(pushes.isEmpty());
+        for (int i = 1; i < pushes.size(); i++) {
+            assertTrue(pushes.get(i) < pushes.get(i - 1));
+        }
+        assertEquals(pushes.get(pushes.size() - 1), result.getSolution().getPushes());
+        assertEquals(new AStarSolver(false, false).solve(level, Duration.ofSeconds(30)).getSolution().getPushes(),
+                result.getSolution().getPushes());
+    }
+
+    @Test
+    void testSolveWeighted() {
+        Level level = Level.of(SokobanState.INITIAL);
+        SolverResult optimal = new AStarSolver().solve(level, Duration.ofSeconds(10));
+        SolverResult weighted = new AStarSolver(true, true, 5).solve(level, Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, weighted.getStatus());
+        assertTrue(weighted.getSolution().solves(level));
+        assertTrue(weighted.getSolution().getPushes() <= 5 * optimal.getSolution().getPushes());
+        assertThrows(IllegalArgumentException.class, () -> new AStarSolver(true, true, 0.5));
+    }
+
+    @Test
+    void testSolveUnsolvable() {
+        SolverResult result = new AnytimeSolver().solve(Level.of(new int[][] {
+                {1, 1, 1, 1, 1},
+                {1, 3, 0, 4, 1},
+                {1, 2, 0, 0, 1},
+                {1, 1, 1, 1, 1}}), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.UNSOLVABLE, result.getStatus());
+        assertNull(result.getSolution());
+    }
+
+}
@@ -0,0 +1,60 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalSolverTest {
+
+    @Test
+    void testSolveInitial() {
+        Level level = Level.of(SokobanState.INITIAL);
+        SolverResult result = new BidirectionalSolver().solve(level, Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.getSolution().solves(level));
+    }
+
+    @Test
+    void testSolveGoal() {
+        Level level = Level.of(SokobanState.GOAL);
+        SolverResult result = new BidirectionalSolver().solve(level, Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.getSolution().solves(level));
+    }
+
+    @Test
+    void testSolveCorridor() {
+        Level level = XsbFormat.parse(String.join("\n",
+                "##############",
+                "#@$         .#",
+                "# $         .#",
+                "#            #",
+                "##############"));
+        SolverResult result = new BidirectionalSolver().solve(level, Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.getSolution().solves(level));
+    }
+
+    @Test
+    void testSolveUnsolvable() {
+        SolverResult result = new BidirectionalSolver().solve(Level.of(new int[][] {
+                {1, 1, 1, 1, 1},
+                {1, 3, 0, 4, 1},
+                {1, 2, 0, 0, 1},
+                {1, 1, 1, 1, 1}}), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.UNSOLVABLE, result.getStatus());
+        assertNull(result.getSolution());
+    }
+
+    @Test
+    void testSolveCancelled() {
+        Thread.currentThread().interrupt();
+        SolverResult result = new BidirectionalSolver().solve(Level.of(SokobanState.INITIAL), Duration.ofSeconds(10));
+        assertTrue(Thread.interrupted());
+        assertEquals(SolverResult.Status.CANCELLED, result.getStatus());
+    }
+
+}
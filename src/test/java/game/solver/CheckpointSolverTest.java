@@ -0,0 +1,62 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointSolverTest {
+
+    private static final Level LEVEL = XsbFormat.parse(String.join("\n",
+            "##########",
+            "#@   #   #",
+            "# $$   $ #",
+            "#  #  #  #",
+            "# $  ..  #",
+            "#   #..$ #",
+            "#  .     #",
+            "##########"));
+
+    @Test
+    void testResumeWithoutRepeatingWork(@TempDir Path directory) {
+        SolverResult fresh = new AStarSolver(false, false).solve(LEVEL, Duration.ofSeconds(30));
+        CheckpointSolver solver = new CheckpointSolver(directory, Duration.ofMillis(1), new AStarSolver(false, false));
+        SolverResult result;
+        int runs = 0;
+        do {
+            result = solver.solve(LEVEL, Duration.ofMillis(2));
+            runs++;
+        } while (result.getStatus() == SolverResult.Status.TIMEOUT && runs < 10_000);
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(Files.exists(directory.resolve("checkpoint")));
+        assertEquals(fresh.getSolution(), result.getSolution());
+        assertEquals(fresh.getExpandedNodes(), result.getExpandedNodes());
+        assertEquals(fresh.getGeneratedNodes(), result.getGeneratedNodes());
+    }
+
+    @Test
+    void testResumeAfterTimeout(@TempDir Path directory) {
+        CheckpointSolver solver = new CheckpointSolver(directory, Duration.ofHours(1));
+        assertEquals(SolverResult.Status.TIMEOUT, solver.solve(LEVEL, Duration.ZERO).getStatus());
+        SolverResult resumed = solver.solve(LEVEL, Duration.ofSeconds(30));
+        assertEquals(SolverResult.Status.SOLVED, resumed.getStatus());
+        assertTrue(resumed.getSolution().solves(LEVEL));
+    }
+
+    @Test
+    void testIgnoreOtherLevel(@TempDir Path directory) {
+        CheckpointSolver solver = new CheckpointSolver(directory, Duration.ZERO);
+        solver.solve(LEVEL, Duration.ofSeconds(30));
+        Level level = Level.of(SokobanState.INITIAL);
+        SolverResult result = solver.solve(level, Duration.ofSeconds(30));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertEquals(new AStarSolver().solve(level, Duration.ofSeconds(30)).getExpandedNodes(),
+                result.getExpandedNodes());
+    }
+
+}
@@ -0,0 +1,68 @@
+package game.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorralsTest {
+
+    private static final Level POCKET = XsbFormat.parse(String.join("\n",
+            "#######",
+            "#@ $ .#",
+            "#. $  #",
+            "#######"));
+
+    private static final Level TRAP = XsbFormat.parse(String.join("\n",
+            "#######",
+            "#@.$.$#",
+            "#######"));
+
+    @Test
+    void testAnalyzeRestricted() {
+        Corrals corrals = new Corrals(POCKET);
+        assertEquals(Corrals.RESTRICTED, analyze(corrals, POCKET));
+        assertTrue(corrals.isSelected(POCKET.cell(1, 3)));
+        assertTrue(corrals.isSelected(POCKET.cell(2, 3)));
+        assertFalse(corrals.isSelected(POCKET.cell(1, 1)));
+    }
+
+    @Test
+    void testAnalyzeDeadlock() {
+        Corrals corrals = new Corrals(TRAP);
+        assertEquals(Corrals.DEADLOCK, analyze(corrals, TRAP));
+        assertEquals(1, corrals.getCacheSize());
+        assertEquals(Corrals.DEADLOCK, analyze(corrals, TRAP));
+        assertEquals(1, corrals.getCacheSize());
+    }
+
+    @Test
+    void testAnalyzeNone() {
+        Level level = XsbFormat.parse(String.join("\n",
+                "######",
+                "#@$ .#",
+                "#    #",
+                "######"));
+        assertEquals(Corrals.NONE, analyze(new Corrals(level), level));
+    }
+
+    @Test
+    void testSolveWithCorrals() {
+        SolverResult result = new AStarSolver(false, true).solve(POCKET, Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.getSolution().solves(POCKET));
+        assertEquals(new AStarSolver(false, false).solve(POCKET, Duration.ofSeconds(10)).getSolution().getPushes(),
+                result.getSolution().getPushes());
+    }
+
+    private static int analyze(Corrals corrals, Level level) {
+        boolean[] occupied = new boolean[level.getSize()];
+        for (int ball : level.getBalls()) {
+            occupied[ball] = true;
+        }
+        Reachability reachability = new Reachability(level).compute(level.getCharacter(), occupied);
+        return corrals.analyze(level.getBalls(), occupied, reachability, level.getCharacter());
+    }
+
+}
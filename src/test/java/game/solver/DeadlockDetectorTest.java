@@ -0,0 +1,54 @@
+package game.solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlockDetectorTest {
+
+    private static final Level LEVEL = XsbFormat.parse(String.join("\n",
+            "########",
+            "#. $ $.#",
+            "#  @   #",
+            "########"));
+
+    @Test
+    void testNotDeadlocked() {
+        DeadlockDetector detector = new DeadlockDetector(LEVEL);
+        assertFalse(detector.isDeadlocked(LEVEL.getBalls(), LEVEL.getCharacter()));
+    }
+
+    @Test
+    void testDeadSpace() {
+        DeadlockDetector detector = new DeadlockDetector(LEVEL);
+        int[] balls = {LEVEL.cell(1, 3), LEVEL.cell(2, 1)};
+        assertTrue(detector.isDeadlocked(balls, LEVEL.cell(2, 2)));
+    }
+
+    @Test
+    void testFreezeDeadlockAfterPush() {
+        DeadlockDetector detector = new DeadlockDetector(LEVEL);
+        assertFalse(detector.isDeadlocked(LEVEL.getBalls(), LEVEL.getCharacter()));
+        int[] balls = {LEVEL.cell(1, 3), LEVEL.cell(1, 4)};
+        assertTrue(detector.isDeadlocked(balls, LEVEL.cell(1, 5)));
+    }
+
+    @Test
+    void testSameDeadlockTwice() {
+        DeadlockDetector detector = new DeadlockDetector(LEVEL);
+        int[] balls = {LEVEL.cell(1, 3), LEVEL.cell(1, 4)};
+        assertTrue(detector.isDeadlocked(balls, LEVEL.cell(1, 5)));
+        assertTrue(detector.isDeadlocked(balls, LEVEL.cell(1, 5)));
+    }
+
+    @Test
+    void testFrozenInStorages() {
+        Level level = XsbFormat.parse(String.join("\n",
+                "########",
+                "#  **  #",
+                "#  @   #",
+                "########"));
+        assertFalse(new DeadlockDetector(level).isDeadlocked(level.getBalls(), level.getCharacter()));
+    }
+
+}
@@ -0,0 +1,50 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalBfsSolverTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSolveInitial() throws IOException {
+        Level level = Level.of(SokobanState.INITIAL);
+        SolverResult result = new ExternalBfsSolver(directory, 64).solve(level, Duration.ofSeconds(30));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.getSolution().solves(level));
+        assertEquals(new AStarSolver().solve(level, Duration.ofSeconds(10)).getSolution().getPushes(),
+                result.getSolution().getPushes());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testSolveGoal() {
+        SolverResult result = new ExternalBfsSolver(directory, 64).solve(Level.of(SokobanState.GOAL), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertEquals("", result.getSolution().getMoves());
+    }
+
+    @Test
+    void testSolveUnsolvable() {
+        SolverResult result = new ExternalBfsSolver(directory, 64).solve(XsbFormat.parse(String.join("\n",
+                "#######",
+                "#@$$..#",
+                "#######")), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.UNSOLVABLE, result.getStatus());
+        assertNull(result.getSolution());
+    }
+
+}
@@ -0,0 +1,81 @@
+package game.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelAnalysisTest {
+
+    private static final Level CORRIDOR = XsbFormat.parse(String.join("\n",
+            "########",
+            "#@$   .#",
+            "########"));
+
+    private static final Level ROOM = XsbFormat.parse(String.join("\n",
+            "########",
+            "#@     #",
+            "#  $ $ #",
+            "### ####",
+            "#      #",
+            "#.    .#",
+            "########"));
+
+    @Test
+    void testIsTunnel() {
+        LevelAnalysis analysis = new LevelAnalysis(CORRIDOR);
+        assertTrue(analysis.isTunnel(CORRIDOR.cell(1, 3), 1));
+        assertTrue(analysis.isTunnel(CORRIDOR.cell(1, 5), 1));
+        assertFalse(analysis.isTunnel(CORRIDOR.cell(1, 6), 1));
+        assertFalse(analysis.isTunnel(CORRIDOR.cell(1, 3), 0));
+        assertFalse(new LevelAnalysis(ROOM).isTunnel(ROOM.cell(2, 3), 1));
+    }
+
+    @Test
+    void testTunnelLength() {
+        LevelAnalysis analysis = new LevelAnalysis(CORRIDOR);
+        boolean[] occupied = new boolean[CORRIDOR.getSize()];
+        assertEquals(4, analysis.tunnelLength(CORRIDOR.cell(1, 2), 1, occupied));
+        occupied[CORRIDOR.cell(1, 5)] = true;
+        assertEquals(2, analysis.tunnelLength(CORRIDOR.cell(1, 2), 1, occupied));
+    }
+
+    @Test
+    void testToPushes() {
+        LevelAnalysis analysis = new LevelAnalysis(CORRIDOR);
+        List<Push> pushes = new ArrayList<>();
+        analysis.toPushes(LevelAnalysis.tunnelMove(CORRIDOR.cell(1, 2), 1, 3), pushes);
+        assertEquals(3, pushes.size());
+        assertEquals(CORRIDOR.cell(1, 4), pushes.get(2).getBall());
+        assertEquals(1, pushes.get(2).getDirection());
+    }
+
+    @Test
+    void testGoalRoom() {
+        LevelAnalysis analysis = new LevelAnalysis(ROOM);
+        assertTrue(analysis.hasGoalRoom());
+        assertEquals(ROOM.cell(4, 3), analysis.getEntrance());
+        assertTrue(analysis.isInGoalRoom(ROOM.cell(4, 1)));
+        assertFalse(analysis.isInGoalRoom(ROOM.cell(4, 3)));
+        assertEquals(2, analysis.getPackingOrder().length);
+        assertEquals(0, analysis.packedCount(ROOM.getBalls()));
+        assertTrue(analysis.hasRoomMove(0, 0));
+        assertFalse(analysis.hasRoomMove(0, 2));
+        assertEquals(CORRIDOR.cell(1, 5), new LevelAnalysis(CORRIDOR).getEntrance());
+    }
+
+    @Test
+    void testSolveWithMacros() {
+        for (Level level : new Level[] {CORRIDOR, ROOM}) {
+            SolverResult result = new AStarSolver().solve(level, Duration.ofSeconds(10));
+            SolverResult plain = new AStarSolver(false).solve(level, Duration.ofSeconds(10));
+            assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+            assertTrue(result.getSolution().solves(level));
+            assertTrue(result.getExpandedNodes() < plain.getExpandedNodes());
+        }
+    }
+
+}
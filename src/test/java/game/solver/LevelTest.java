@@ -0,0 +1,60 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelTest {
+
+    @Test
+    void testOfInvalidArgument() {
+        assertThrows(IllegalArgumentException.class, () -> Level.of((int[][]) null));
+        assertThrows(IllegalArgumentException.class, () -> Level.of(new int[][] {
+                {1, 1},
+                {1, 0}})
+        );
+        assertThrows(IllegalArgumentException.class, () -> Level.of(new int[][] {
+                {1, 2, 1},
+                {1, 2, 1}})
+        );
+        assertThrows(IllegalArgumentException.class, () -> Level.of(new int[][] {
+                {1, 2},
+                {1, 0, 1}})
+        );
+    }
+
+    @Test
+    void testOf() {
+        Level level = Level.of(SokobanState.INITIAL);
+        assertEquals(9, level.getWidth());
+        assertEquals(9, level.getHeight());
+        assertEquals(level.cell(1, 1), level.getCharacter());
+        assertArrayEquals(new int[] {level.cell(2, 2), level.cell(2, 3), level.cell(3, 2)}, level.getBalls());
+        assertArrayEquals(new int[] {level.cell(3, 7), level.cell(4, 7), level.cell(5, 7)}, level.getStorages());
+        assertTrue(level.isWall(level.cell(0, 0)));
+        assertArrayEquals(SokobanState.INITIAL, level.toArray());
+        assertEquals(level, Level.of(new SokobanState()));
+    }
+
+    @Test
+    void testNeighbor() {
+        Level level = Level.of(SokobanState.INITIAL);
+        assertEquals(-1, level.neighbor(level.cell(0, 0), 0));
+        assertEquals(-1, level.neighbor(level.cell(0, 0), 3));
+        assertEquals(level.cell(0, 1), level.neighbor(level.cell(0, 0), 1));
+        assertEquals(level.cell(1, 0), level.neighbor(level.cell(0, 0), 2));
+    }
+
+    @Test
+    void testDeadSpaces() {
+        Level level = Level.of(SokobanState.INITIAL);
+        assertTrue(level.isDead(level.cell(1, 1)));
+        assertTrue(level.isDead(level.cell(6, 7)));
+        assertFalse(level.isDead(level.cell(2, 2)));
+        assertFalse(level.isDead(level.cell(5, 7)));
+        assertEquals(0, level.goalDistance(level.cell(4, 7)));
+        assertEquals(1, level.goalDistance(level.cell(5, 6)));
+    }
+
+}
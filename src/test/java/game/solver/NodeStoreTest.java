@@ -0,0 +1,117 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeStoreTest {
+
+    @Test
+    void testAddAndDecode() {
+        NodeStore store = new NodeStore(Level.of(SokobanState.INITIAL));
+        assertEquals(1, store.getWords());
+        int root = store.add(new int[] {20, 30, 40}, 10, -1, NodeStore.NO_MOVE, 0);
+        int child = store.add(new int[] {20, 31, 40}, 11, root, NodeStore.move(30, 1), 1);
+        assertEquals(0, root);
+        assertEquals(1, child);
+        int[] balls = new int[3];
+        store.getBalls(child, balls);
+        assertArrayEquals(new int[] {20, 31, 40}, balls);
+        assertEquals(11, store.getArea(child));
+        assertEquals(root, store.getParent(child));
+        assertEquals(new Push(30, 1), NodeStore.toPush(store.getMove(child)));
+        assertEquals(1, store.getCost(child));
+    }
+
+    @Test
+    void testDuplicates() {
+        NodeStore store = new NodeStore(Level.of(SokobanState.INITIAL));
+        int index = store.add(new int[] {20, 30, 40}, 10, -1, NodeStore.NO_MOVE, 5);
+        assertEquals(-1 - index, store.add(new int[] {20, 30, 40}, 10, -1, NodeStore.NO_MOVE, 3));
+        assertEquals(index, store.indexOf(new int[] {20, 30, 40}, 10));
+        assertEquals(-1, store.indexOf(new int[] {20, 30, 40}, 11));
+        assertEquals(0, store.closedCount());
+        store.close(index);
+        store.close(index);
+        assertEquals(1, store.closedCount());
+        store.update(index, 7, NodeStore.move(20, 2), 3);
+        assertTrue(store.isClosed(index));
+        assertEquals(3, store.getCost(index));
+        assertEquals(7, store.getParent(index));
+    }
+
+    @Test
+    void testRestoreCountsClosed() {
+        NodeStore store = new NodeStore(Level.of(SokobanState.INITIAL));
+        int root = store.add(new int[] {20, 30, 40}, 10, -1, NodeStore.NO_MOVE, 0);
+        store.add(new int[] {20, 31, 40}, 11, root, NodeStore.move(30, 1), 1);
+        store.close(root);
+        NodeStore restored = new NodeStore(Level.of(SokobanState.INITIAL));
+        restored.restore(store.takeDirtySlabs(0), store.size(), 0);
+        assertEquals(1, restored.closedCount());
+        assertTrue(restored.isClosed(root));
+    }
+
+    @Test
+    void testGrowth() {
+        int size = 64 * 64;
+        int[] balls = new int[9];
+        for (int b = 0; b < balls.length; b++) {
+            balls[b] = b * 450;
+        }
+        NodeStore store = new NodeStore(new Level(64, 64, new boolean[size], new boolean[size], balls, size - 1));
+        assertEquals(2, store.getWords());
+        for (int i = 0; i < 40_000; i++) {
+            for (int b = 0; b < balls.length; b++) {
+                balls[b] = b * 450 + i % 450;
+            }
+            assertEquals(i, store.add(balls, i / 450, i - 1, NodeStore.NO_MOVE, i));
+        }
+        assertEquals(40_000, store.size());
+        for (int i = 0; i < 40_000; i += 997) {
+            store.getBalls(i, balls);
+            assertEquals(8 * 450 + i % 450, balls[8]);
+            assertEquals(i / 450, store.getArea(i));
+            assertEquals(i, store.getCost(i));
+            assertEquals(i - 1, store.getParent(i));
+        }
+    }
+
+    @Test
+    void testBytesPerNode() {
+        int size = 11 * 11;
+        NodeStore store = new NodeStore(new Level(11, 11, new boolean[size], new boolean[size], new int[] {1, 2, 3}, 0));
+        assertEquals(1, store.getWords());
+        int[] balls = new int[3];
+        int count = 0;
+        for (balls[0] = 0; balls[0] < size && count < 4 * NodeStore.slabSize(); balls[0]++) {
+            for (balls[1] = balls[0] + 1; balls[1] < size && count < 4 * NodeStore.slabSize(); balls[1]++) {
+                for (balls[2] = balls[1] + 1; balls[2] < size && count < 4 * NodeStore.slabSize(); balls[2]++) {
+                    assertEquals(count, store.add(balls, 0, -1, NodeStore.NO_MOVE, 0));
+                    count++;
+                    if (count % NodeStore.slabSize() == 0) {
+                        assertEquals(count / NodeStore.slabSize(), store.slabCount());
+                        assertTrue(store.allocatedBytes() < 32L * count, store.allocatedBytes() / count + " bytes");
+                    }
+                }
+            }
+        }
+        assertEquals(4 * NodeStore.slabSize(), store.size());
+    }
+
+    @Test
+    void testEntries() {
+        long entry = NodeStore.entry(12, 5, 42);
+        assertEquals(42, NodeStore.entryIndex(entry));
+        assertEquals(5, NodeStore.entryCost(entry));
+        assertFalse(NodeStore.isStale(entry, 5));
+        assertTrue(NodeStore.isStale(entry, 4));
+        assertTrue(NodeStore.entry(11, 5, 1) < entry);
+        assertTrue(NodeStore.entry(12, 6, 1) < entry);
+        long clamped = NodeStore.entry(100_000, 70_000, 7);
+        assertFalse(NodeStore.isStale(clamped, 70_000));
+        assertTrue(NodeStore.isStale(clamped, 60_000));
+    }
+
+}
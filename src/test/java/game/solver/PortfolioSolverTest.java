@@ -0,0 +1,68 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioSolverTest {
+
+    @Test
+    void testSolve() {
+        SolverResult result = new PortfolioSolver().solve(new SokobanState(SokobanState.INITIAL), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.getSolution().solves(Level.of(SokobanState.INITIAL)));
+    }
+
+    @Test
+    void testSolveCancelsLosers() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Map<String, Supplier<Solver>> strategies = new LinkedHashMap<>();
+        strategies.put("stuck", () -> (level, timeout) -> {
+            try {
+                Thread.sleep(timeout.toMillis());
+                return SolverResult.builder().status(SolverResult.Status.TIMEOUT).build();
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+                return SolverResult.builder().status(SolverResult.Status.CANCELLED).build();
+            }
+        });
+        strategies.put("astar", AStarSolver::new);
+        long begin = System.nanoTime();
+        SolverResult result = new PortfolioSolver(strategies).solve(Level.of(SokobanState.INITIAL),
+                Duration.ofSeconds(30));
+        assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    void testSolveWithFailingStrategy() {
+        Map<String, Supplier<Solver>> strategies = new LinkedHashMap<>();
+        strategies.put("failing", () -> (level, timeout) -> {
+            throw new OutOfMemoryError("Simulated");
+        });
+        SolverResult result = new PortfolioSolver(strategies).solve(Level.of(SokobanState.INITIAL),
+                Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.TIMEOUT, result.getStatus());
+    }
+
+    @Test
+    void testSolveUnsolvable() {
+        SolverResult result = new PortfolioSolver().solve(Level.of(new int[][] {
+                {1, 1, 1, 1, 1},
+                {1, 3, 0, 4, 1},
+                {1, 2, 0, 0, 1},
+                {1, 1, 1, 1, 1}}), Duration.ofSeconds(10));
+        assertEquals(SolverResult.Status.UNSOLVABLE, result.getStatus());
+        assertNull(result.getSolution());
+    }
+
+}
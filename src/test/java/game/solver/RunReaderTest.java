@@ -0,0 +1,52 @@
+package game.solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path path = directory.resolve("run");
+        long[] values = {0, 1, 127, 128, 300, 1L << 40, Long.MAX_VALUE};
+        try (RunWriter writer = new RunWriter(path)) {
+            for (long value : values) {
+                writer.write(value);
+            }
+            assertEquals(values.length, writer.getCount());
+        }
+        try (RunReader reader = new RunReader(path)) {
+            for (long value : values) {
+                assertTrue(reader.advance());
+                assertEquals(value, reader.value());
+            }
+            assertFalse(reader.advance());
+        }
+    }
+
+    @Test
+    void testEmpty() throws IOException {
+        Path path = directory.resolve("run");
+        new RunWriter(path).close();
+        try (RunReader reader = new RunReader(path)) {
+            assertFalse(reader.advance());
+        }
+    }
+
+    @Test
+    void testNotAscending() throws IOException {
+        try (RunWriter writer = new RunWriter(directory.resolve("run"))) {
+            writer.write(5);
+            assertThrows(IllegalArgumentException.class, () -> writer.write(5));
+        }
+    }
+
+}
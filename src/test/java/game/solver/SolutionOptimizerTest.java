@@ -0,0 +1,50 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionOptimizerTest {
+
+    private static final Level CORRIDOR = XsbFormat.parse(String.join("\n",
+            "#######",
+            "#@$  .#",
+            "#     #",
+            "#######"));
+
+    @Test
+    void testOptimizeDetour() {
+        OptimizedSolution result = new SolutionOptimizer(6, 1).optimize(CORRIDOR, "duRdrruLdlluRRR");
+        assertEquals(5, result.getOriginal().getPushes());
+        assertEquals("RRR", result.getFewestPushes().getMoves());
+        assertEquals("RRR", result.getFewestSteps().getMoves());
+    }
+
+    @Test
+    void testOptimizeSolverSolution() {
+        Level level = Level.of(SokobanState.INITIAL);
+        Solution solution = new AStarSolver(true, true, 5).solve(level, Duration.ofSeconds(10)).getSolution();
+        OptimizedSolution result = new SolutionOptimizer().optimize(level, solution.getMoves());
+        assertTrue(result.getFewestPushes().solves(level));
+        assertTrue(result.getFewestSteps().solves(level));
+        assertTrue(result.getFewestPushes().getPushes() <= solution.getPushes());
+        assertTrue(result.getFewestSteps().getSteps() <= solution.getSteps());
+        assertTrue(result.getFewestPushes().getPushes() <= result.getFewestSteps().getPushes());
+    }
+
+    @Test
+    void testOptimizeAll() throws InterruptedException {
+        List<OptimizedSolution> results = new SolutionOptimizer(4, 2).optimizeAll(
+                Arrays.asList(CORRIDOR, CORRIDOR), Arrays.asList("duRdrruLdlluRRR", "RR"));
+        assertEquals(2, results.size());
+        assertEquals(3, results.get(0).getFewestPushes().getPushes());
+        assertNull(results.get(1));
+        assertThrows(IllegalArgumentException.class, () -> new SolutionOptimizer().optimize(CORRIDOR, "RR"));
+    }
+
+}
@@ -0,0 +1,48 @@
+package game.solver;
+
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XsbFormatTest {
+
+    private static final String INITIAL =
+            "#####\n" +
+            "#@  #\n" +
+            "# $$# ###\n" +
+            "# $ # #.#\n" +
+            "### ###.#\n" +
+            " ##    .#\n" +
+            " #   #  #\n" +
+            " #   ####\n" +
+            " #####\n";
+
+    @Test
+    void testFormat() {
+        assertEquals(INITIAL, XsbFormat.format(Level.of(SokobanState.INITIAL)));
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(Level.of(SokobanState.INITIAL), XsbFormat.parse(INITIAL));
+        Level level = XsbFormat.parse("#####\n#+*$#\n#####\n");
+        assertEquals(6, level.getCharacter());
+        assertTrue(level.isStorage(6));
+        assertArrayEquals(new int[] {7, 8}, level.getBalls());
+        assertThrows(IllegalArgumentException.class, () -> XsbFormat.parse("#####\n# $ #\n#####\n"));
+        assertThrows(IllegalArgumentException.class, () -> XsbFormat.parse("#####\n#@$@#\n#####\n"));
+    }
+
+    @Test
+    void testParsePack() {
+        List<Level> levels = Arrays.asList(Level.of(SokobanState.INITIAL), Level.of(SokobanState.GOAL));
+        String pack = XsbFormat.formatPack(levels, Arrays.asList("First", "Second"));
+        assertEquals(levels, XsbFormat.parsePack(pack));
+        assertEquals(levels, XsbFormat.parsePack("Title: one\n" + INITIAL + "\n; comment\n" + XsbFormat.format(levels.get(1))));
+    }
+
+}
@@ -0,0 +1,51 @@
+package game.solver.distributed;
+
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.solver.SolverResult;
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedSolverTest {
+
+    @Test
+    void testSolve() {
+        Level level = Level.of(SokobanState.INITIAL);
+        try (DistributedSolver solver = new DistributedSolver(2)) {
+            SolverResult result = solver.solve(level, Duration.ofSeconds(60));
+            assertEquals(SolverResult.Status.SOLVED, result.getStatus());
+            assertTrue(result.getSolution().solves(level));
+            assertEquals(new AStarSolver().solve(level, Duration.ofSeconds(10)).getSolution().getPushes(),
+                    result.getSolution().getPushes());
+            SolverResult goal = solver.solve(Level.of(SokobanState.GOAL), Duration.ofSeconds(60));
+            assertEquals("", goal.getSolution().getMoves());
+        }
+    }
+
+    @Test
+    void testSolveUnsolvable() {
+        Level level = Level.of(new int[][] {
+                {1, 1, 1, 1, 1, 1},
+                {1, 2, 0, 3, 0, 1},
+                {1, 0, 3, 4, 4, 1},
+                {1, 1, 1, 1, 0, 1},
+                {1, 1, 1, 1, 1, 1}});
+        try (DistributedSolver solver = new DistributedSolver(3)) {
+            SolverResult result = solver.solve(level, Duration.ofSeconds(60));
+            assertEquals(new AStarSolver().solve(level, Duration.ofSeconds(10)).getStatus(), result.getStatus());
+        }
+    }
+
+    @Test
+    void testSolveTimeout() {
+        try (DistributedSolver solver = new DistributedSolver(1)) {
+            SolverResult result = solver.solve(Level.of(SokobanState.INITIAL), Duration.ZERO);
+            assertEquals(SolverResult.Status.TIMEOUT, result.getStatus());
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package game.solver.distributed;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateTableTest {
+
+    @Test
+    void testAdd() {
+        StateTable table = new StateTable(2);
+        long[] root = {1L, 2L};
+        long[] child = {3L, 4L};
+        assertEquals(0, table.add(root, 0, null, 0, StateTable.NO_MOVE));
+        assertEquals(1, table.add(child, 0, root, 0, 42));
+        assertEquals(-1, table.add(new long[] {1L, 2L}, 0, child, 0, 7));
+        assertEquals(2, table.size());
+        assertEquals(1, table.indexOf(new long[] {0L, 3L, 4L}, 1));
+        assertEquals(-1, table.indexOf(new long[] {3L, 5L}, 0));
+        long[] parent = new long[2];
+        table.getParent(1, parent, 0);
+        assertArrayEquals(root, parent);
+        assertEquals(42, table.getMove(1));
+        assertEquals(StateTable.NO_MOVE, table.getMove(0));
+    }
+
+    @Test
+    void testGrowth() {
+        StateTable table = new StateTable(1);
+        long[] key = new long[1];
+        long[] parent = new long[1];
+        for (int i = 0; i < 100_000; i++) {
+            key[0] = i * 31L;
+            parent[0] = i;
+            assertEquals(i, table.add(key, 0, parent, 0, i));
+        }
+        for (int i = 0; i < 100_000; i += 977) {
+            key[0] = i * 31L;
+            assertEquals(i, table.indexOf(key, 0));
+            table.getKey(i, key, 0);
+            assertEquals(i * 31L, key[0]);
+            table.getParent(i, parent, 0);
+            assertEquals(i, parent[0]);
+        }
+    }
+
+}
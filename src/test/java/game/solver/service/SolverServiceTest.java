@@ -0,0 +1,149 @@
+package game.solver.service;
+
+import game.solver.Level;
+import game.solver.SolverResult;
+import game.solver.XsbFormat;
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverServiceTest {
+
+    private static final String CORRIDOR = String.join("\n",
+            "########",
+            "#@$   .#",
+            "########");
+
+    @Test
+    void testParseLevel() {
+        Level xsb = SolverService.parseLevel(CORRIDOR);
+        assertEquals(XsbFormat.parse(CORRIDOR), xsb);
+        assertEquals(xsb, SolverService.parseLevel("[[1,1,1,1,1,1,1,1],[1,2,3,0,0,0,4,1],[1,1,1,1,1,1,1,1]]"));
+        assertEquals(xsb, SolverService.parseLevel("1 1 1 1 1 1 1 1\n1 2 3 0 0 0 4 1\n1 1 1 1 1 1 1 1\n"));
+        assertThrows(IllegalArgumentException.class, () -> SolverService.parseLevel("[[1,1],[1]]"));
+    }
+
+    @Test
+    void testHttpSolve() throws Exception {
+        try (SolverService service = new SolverService(SolverServiceConfig.builder().workers(1).build())
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            HttpURLConnection connection = post(service, "priority=2&timeout=5000", CORRIDOR);
+            assertEquals(200, connection.getResponseCode());
+            String body = read(connection.getInputStream());
+            assertTrue(body.startsWith("{\"status\":\"SOLVED\",\"moves\":\"RRRR\",\"pushes\":4"), body);
+            assertEquals(400, post(service, "", "not a level").getResponseCode());
+            assertEquals(400, post(service, "timeout=-1", CORRIDOR).getResponseCode());
+            assertEquals(400, post(service, "cpu=-5", CORRIDOR).getResponseCode());
+        }
+    }
+
+    @Test
+    void testMergeAndShed() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SolverServiceConfig config = SolverServiceConfig.builder()
+                .workers(1)
+                .queueCapacity(1)
+                .solver(() -> (level, timeout) -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return SolverResult.builder().status(SolverResult.Status.UNSOLVABLE).build();
+                })
+                .build();
+        try (SolverService service = new SolverService(config)) {
+            Duration budget = Duration.ofSeconds(10);
+            Level running = XsbFormat.parse(CORRIDOR);
+            CompletableFuture<SolverResult> first = service.submit(running, 0, budget, budget);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertSame(first, service.submit(running, 5, budget, budget));
+            CompletableFuture<SolverResult> low = service.submit(Level.of(SokobanState.GOAL), 0, budget, budget);
+            assertSame(low, service.submit(Level.of(SokobanState.GOAL), 0, budget, budget));
+            RejectedRequestException full = assertThrows(RejectedRequestException.class,
+                    () -> service.submit(Level.of(SokobanState.INITIAL), 0, budget, budget));
+            assertEquals(429, full.getStatusCode());
+            CompletableFuture<SolverResult> high = service.submit(Level.of(SokobanState.INITIAL), 1, budget, budget);
+            ExecutionException displaced = assertThrows(ExecutionException.class,
+                    () -> low.get(1, TimeUnit.SECONDS));
+            assertEquals(429, ((RejectedRequestException) displaced.getCause()).getStatusCode());
+            release.countDown();
+            assertEquals(SolverResult.Status.UNSOLVABLE, first.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(SolverResult.Status.UNSOLVABLE, high.get(5, TimeUnit.SECONDS).getStatus());
+        }
+    }
+
+    @Test
+    void testSolverError() throws Exception {
+        SolverServiceConfig config = SolverServiceConfig.builder()
+                .workers(1)
+                .solver(() -> (level, timeout) -> {
+                    throw new StackOverflowError("Simulated");
+                })
+                .build();
+        try (SolverService service = new SolverService(config)) {
+            Duration budget = Duration.ofSeconds(10);
+            Level level = XsbFormat.parse(CORRIDOR);
+            ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> service.submit(level, 0, budget, budget).get(5, TimeUnit.SECONDS));
+            assertTrue(failed.getCause() instanceof StackOverflowError);
+            CompletableFuture<SolverResult> retried = service.submit(level, 0, budget, budget);
+            assertThrows(ExecutionException.class, () -> retried.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testCpuBudget() throws Exception {
+        SolverServiceConfig config = SolverServiceConfig.builder()
+                .workers(1)
+                .solver(() -> (level, timeout) -> {
+                    long spin = 0;
+                    while (!Thread.currentThread().isInterrupted()) {
+                        spin++;
+                    }
+                    return SolverResult.builder().status(SolverResult.Status.CANCELLED).expandedNodes(spin).build();
+                })
+                .build();
+        try (SolverService service = new SolverService(config)) {
+            SolverResult result = service.submit(XsbFormat.parse(CORRIDOR), 0, Duration.ofSeconds(10),
+                    Duration.ofMillis(50)).get(5, TimeUnit.SECONDS);
+            assertEquals(SolverResult.Status.TIMEOUT, result.getStatus());
+        }
+    }
+
+    private static HttpURLConnection post(SolverService service, String query, String body) throws Exception {
+        URL url = new URL("http", service.getAddress().getHostString(), service.getAddress().getPort(),
+                "/solve?" + query);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static String read(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        in.transferTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+}
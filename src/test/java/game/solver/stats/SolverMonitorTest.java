@@ -0,0 +1,65 @@
+package game.solver.stats;
+
+import game.solver.AStarSolver;
+import game.solver.Level;
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverMonitorTest {
+
+    @Test
+    void testSample() {
+        SolverProbe probe = new SolverProbe();
+        new AStarSolver().solve(Level.of(SokobanState.INITIAL), Duration.ofSeconds(10), probe);
+        SolverStats stats = new SolverMonitor("test", probe, Duration.ofSeconds(1)).sample();
+        assertTrue(stats.getExpandedNodes() > 0);
+        assertTrue(stats.getGeneratedNodes() >= stats.getExpandedNodes());
+        assertTrue(stats.getBranchingFactor() > 0);
+        assertTrue(stats.getTranspositionHitRate() > 0 && stats.getTranspositionHitRate() < 1);
+        assertEquals(stats.getExpandedNodes(), stats.getClosedSize());
+        assertTrue(stats.getMemoryHeadroom() > 0);
+        assertTrue(probe.getThreads().isEmpty());
+    }
+
+    @Test
+    void testNdjson() {
+        SolverProbe probe = new SolverProbe();
+        probe.attach();
+        probe.publish(100, 250, 40, 100, 200, 50, 3);
+        StringWriter out = new StringWriter();
+        SolverMonitor monitor = new SolverMonitor("test", probe, Duration.ofSeconds(1))
+                .addListener(new NdjsonStatsWriter(out));
+        monitor.sample();
+        monitor.sample();
+        probe.detach();
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"timestamp\":"));
+        assertTrue(lines[0].contains("\"branchingFactor\":2.500"));
+        assertTrue(lines[0].contains("\"transpositionHitRate\":0.250"));
+        assertTrue(lines[0].contains("\"deadlockPrunes\":3"));
+        assertTrue(lines[0].contains("\"" + Thread.currentThread().getName() + "\":"));
+        assertTrue(lines[1].contains("\"nodesPerSecond\":0.000"));
+    }
+
+    @Test
+    void testJmx() throws Exception {
+        SolverProbe probe = new SolverProbe();
+        probe.publish(7, 14, 3, 7, 10, 2, 1);
+        ObjectName name = new ObjectName("game.solver:type=SolverStats,name=\"jmx\"");
+        try (SolverMonitor monitor = new SolverMonitor("jmx", probe, Duration.ofMinutes(1)).start()) {
+            assertEquals(7L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ExpandedNodes"));
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "DeadlockPrunes"));
+            assertNotNull(monitor.getLatest());
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+}
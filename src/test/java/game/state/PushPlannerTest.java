@@ -0,0 +1,74 @@
+package game.state;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PushPlannerTest {
+
+    private void apply(SokobanState state, int[][] moves) {
+        for (int[] move : moves) {
+            assertTrue(state.isMoveDirectionCorrect(move[0], move[1]));
+            if (!state.checkBallCollision(move[0], move[1])) {
+                state.moveToEmptySpace(move[0], move[1]);
+            } else {
+                assertFalse(state.checksBallDisappearance(move[0], move[1]));
+                if (state.isBallPlaced(move[0], move[1])) {
+                    state.fillStorage(move[0], move[1]);
+                } else {
+                    state.pushBall(move[0], move[1]);
+                }
+            }
+            state.placeEmptyStorage();
+        }
+    }
+
+    @Test
+    void testPlan() {
+        SokobanState state = new SokobanState();
+        int[][] moves = new PushPlanner(state).plan(2, 3, 3, 3);
+        assertArrayEquals(new int[][] {{1, 2}, {1, 3}, {2, 3}}, moves);
+        apply(state, moves);
+        assertEquals(Actor.BALL, state.getTray()[3][3]);
+        assertEquals(Actor.CHARACTER, state.getTray()[2][3]);
+    }
+
+    @Test
+    void testPlanAroundCorner() {
+        SokobanState state = new SokobanState();
+        int[][] moves = new PushPlanner(state).plan(2, 3, 6, 3);
+        assertNotNull(moves);
+        apply(state, moves);
+        assertEquals(Actor.BALL, state.getTray()[6][3]);
+        assertEquals(Actor.EMPTY, state.getTray()[2][3]);
+    }
+
+    @Test
+    void testPlanToStorage() {
+        SokobanState state = new SokobanState(new int[][] {
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 2, 0, 0, 0, 0, 0, 0, 1},
+                {1, 0, 3, 0, 0, 0, 0, 0, 1},
+                {1, 0, 0, 0, 0, 0, 0, 0, 1},
+                {1, 0, 0, 0, 0, 0, 0, 4, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1}});
+        int[][] moves = new PushPlanner(state).plan(2, 2, 4, 7);
+        assertNotNull(moves);
+        apply(state, moves);
+        assertTrue(state.isSolved());
+    }
+
+    @Test
+    void testPlanImpossible() {
+        SokobanState state = new SokobanState();
+        PushPlanner planner = new PushPlanner(state);
+        assertNull(planner.plan(1, 2, 1, 3));
+        assertNull(planner.plan(2, 2, 0, 0));
+        assertNull(planner.plan(2, 2, 2, 3));
+        assertEquals(0, planner.plan(2, 2, 2, 2).length);
+    }
+
+}
@@ -91,6 +91,15 @@ class SokobanStateTest {
                 {0, 1, 1, 1, 1, 1, 0, 0, 0}}).isSolved());
     }
 
+    @Test
+    void testIsStorage() {
+        SokobanState state = new SokobanState();
+        assertTrue(state.isStorage(3, 7));
+        assertTrue(state.isStorage(5, 7));
+        assertFalse(state.isStorage(6, 7));
+        assertFalse(state.isStorage(1, 1));
+    }
+
     @Test
     void testCanMove() {
         SokobanState state = new SokobanState();
@@ -317,6 +326,54 @@ class SokobanStateTest {
         assertEquals(Actor.STORAGE0, state.getTray()[5][7]);
     }
 
+    @Test
+    void testFindWalk() {
+        SokobanState state = new SokobanState();
+        assertArrayEquals(new int[][] {{2, 1}, {3, 1}}, state.findWalk(3, 1));
+        assertEquals(0, state.findWalk(1, 1).length);
+        assertNull(state.findWalk(3, 3));
+        assertNull(state.findWalk(2, 2));
+        assertNull(state.findWalk(0, 0));
+    }
+
+    @Test
+    void testWalkTo() {
+        SokobanState state = new SokobanState(SokobanState.GOAL);
+        assertEquals(-1, state.walkTo(0, 0));
+        assertEquals(3, state.walkTo(5, 3));
+        assertCharacterSpace(5, 3, state);
+        assertEquals(Actor.EMPTY, state.getTray()[5][6]);
+        assertEquals(Actor.CHARACTER, state.getTray()[5][3]);
+        state = new SokobanState(new int[][] {
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 2, 0, 0, 0, 0, 0, 4, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1},
+                {1, 1, 1, 1, 1, 1, 1, 1, 1}});
+        assertEquals(6, state.walkTo(1, 7));
+        assertEquals(6, state.walkTo(1, 1));
+        assertEquals(Actor.STORAGE0, state.getTray()[1][7]);
+    }
+
+    @Test
+    void testRestorePosition() {
+        SokobanState state = new SokobanState(SokobanState.GOAL);
+        int[][] balls = new SokobanState().getBallPositions();
+        assertArrayEquals(new int[][] {{2, 2}, {2, 3}, {3, 2}}, balls);
+        state.restorePosition(balls, 1, 1);
+        assertEquals(new SokobanState().toString(), state.toString());
+        assertCharacterSpace(1, 1, state);
+        state.restorePosition(new int[][] {{3, 7}}, 4, 7);
+        assertEquals(Actor.STORAGE1, state.getTray()[3][7]);
+        assertEquals(Actor.STORAGE0, state.getTray()[5][7]);
+        assertThrows(IllegalArgumentException.class, () -> state.restorePosition(new int[][] {{0, 0}}, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> state.restorePosition(new int[][] {{1, 1}}, 1, 1));
+    }
+
     @Test
     void testToString() {
         SokobanState state = new SokobanState();
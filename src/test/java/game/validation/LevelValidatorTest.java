@@ -0,0 +1,86 @@
+package game.validation;
+
+import game.solver.Level;
+import game.solver.SolverResult;
+import game.solver.XsbFormat;
+import game.state.SokobanState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelValidatorTest {
+
+    private static final Level COUNTS = XsbFormat.parse(String.join("\n",
+            "#####",
+            "#@$.#",
+            "#  .#",
+            "#####"));
+
+    private static final Level UNREACHABLE = XsbFormat.parse(String.join("\n",
+            "#######",
+            "#@$ .##",
+            "#####$#",
+            "#####.#",
+            "#######"));
+
+    private static final Level CORNER = XsbFormat.parse(String.join("\n",
+            "#####",
+            "#@ $#",
+            "# . #",
+            "#####"));
+
+    @Test
+    void testValidate() {
+        LevelValidator validator = new LevelValidator();
+        assertTrue(validator.validate(Level.of(SokobanState.INITIAL)).isValid());
+        assertEquals("counts", validator.validate(COUNTS).getFailedCheck());
+        assertEquals("reachability", validator.validate(UNREACHABLE).getFailedCheck());
+        assertEquals("dead squares", validator.validate(CORNER).getFailedCheck());
+        assertEquals("layout", validator.validate(new int[][] {{1, 1}, {1, 1}}).getFailedCheck());
+    }
+
+    @Test
+    void testValidateStopsAtFirstFailure() {
+        AtomicInteger later = new AtomicInteger();
+        LevelCheck counting = new LevelCheck() {
+            @Override
+            public String getName() {
+                return "counting";
+            }
+
+            @Override
+            public Optional<String> check(Level level) {
+                later.incrementAndGet();
+                return Optional.empty();
+            }
+        };
+        LevelValidator validator = new LevelValidator(Arrays.asList(LevelChecks.counts(),
+                LevelChecks.solvable(() -> (level, timeout) -> SolverResult.builder()
+                        .status(SolverResult.Status.UNSOLVABLE)
+                        .build(), Duration.ofSeconds(1)), counting), 1);
+        ValidationResult result = validator.validate(Level.of(SokobanState.INITIAL));
+        assertEquals("solvable", result.getFailedCheck());
+        assertEquals("The level cannot be solved", result.getReason());
+        assertEquals(0, later.get());
+        validator.validate(COUNTS);
+        assertEquals(0, later.get());
+    }
+
+    @Test
+    void testValidateAll() throws InterruptedException {
+        List<ValidationResult> results = new LevelValidator().validateAll(Arrays.asList(COUNTS,
+                Level.of(SokobanState.INITIAL), CORNER, UNREACHABLE));
+        assertEquals(4, results.size());
+        assertFalse(results.get(0).isValid());
+        assertTrue(results.get(1).isValid());
+        assertEquals("dead squares", results.get(2).getFailedCheck());
+        assertEquals("reachability", results.get(3).getFailedCheck());
+    }
+
+}
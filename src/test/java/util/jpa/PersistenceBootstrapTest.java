@@ -0,0 +1,34 @@
+package util.jpa;
+
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceBootstrapTest {
+
+    @Test
+    void testFactoryThrowsException() {
+        CompletableFuture<EntityManagerFactory> future = PersistenceBootstrap.bootstrap(() -> {
+            throw new PersistenceException("no database");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof PersistenceException);
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void testFactoryThrowsError() {
+        CompletableFuture<EntityManagerFactory> future = PersistenceBootstrap.bootstrap(() -> {
+            throw new NoClassDefFoundError("org/h2/Driver");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof NoClassDefFoundError);
+    }
+
+}
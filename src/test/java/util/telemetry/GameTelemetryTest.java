@@ -0,0 +1,74 @@
+package util.telemetry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameTelemetryTest {
+
+    private final GameTelemetry telemetry = GameTelemetry.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        telemetry.setEnabled(true);
+        telemetry.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        telemetry.reset();
+    }
+
+    @Test
+    void testMoveApplied() {
+        GameTelemetry.moveApplied("step", GameTelemetry.start());
+        GameTelemetry.moveApplied("push", GameTelemetry.start());
+        assertEquals(2, telemetry.getMoveCount());
+        assertTrue(telemetry.getMaxMoveMicros() >= telemetry.getAverageMoveMicros());
+    }
+
+    @Test
+    void testDaoOperations() {
+        GameTelemetry.persisted("GameResult", GameTelemetry.start());
+        GameTelemetry.queried("GameResult", "findBest", GameTelemetry.start());
+        GameTelemetry.queried("PlayerStats", "findFastest", GameTelemetry.start());
+        GameTelemetry.rendered(GameTelemetry.start());
+        assertEquals(1, telemetry.getPersistCount());
+        assertEquals(2, telemetry.getQueryCount());
+        assertEquals(1, telemetry.getRenderCount());
+    }
+
+    @Test
+    void testDisabled() {
+        telemetry.setEnabled(false);
+        GameTelemetry.moveApplied("step", GameTelemetry.start());
+        GameTelemetry.rendered(GameTelemetry.start());
+        assertEquals(0, telemetry.getMoveCount());
+        assertEquals(0, telemetry.getRenderCount());
+    }
+
+    @Test
+    void testMovesPerSecond() {
+        GameTelemetry.moveApplied("step", GameTelemetry.start());
+        telemetry.sample();
+        assertTrue(telemetry.getMovesPerSecond() > 0);
+        telemetry.reset();
+        assertEquals(0.0, telemetry.getMovesPerSecond());
+    }
+
+    @Test
+    void testMBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(GameTelemetry.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        GameTelemetry.moveApplied("step", GameTelemetry.start());
+        assertEquals(1L, server.getAttribute(name, "MoveCount"));
+    }
+
+}
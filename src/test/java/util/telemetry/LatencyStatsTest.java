@@ -0,0 +1,48 @@
+package util.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyStatsTest {
+
+    @Test
+    void testRecord() {
+        LatencyStats stats = new LatencyStats();
+        assertEquals(0, stats.getCount());
+        assertEquals(0.0, stats.getAverageMicros());
+        stats.record(1000);
+        stats.record(5000);
+        assertEquals(2, stats.getCount());
+        assertEquals(3.0, stats.getAverageMicros());
+        assertEquals(5.0, stats.getMaxMicros());
+    }
+
+    @Test
+    void testSampleRate() {
+        LatencyStats stats = new LatencyStats();
+        long now = System.nanoTime();
+        stats.sampleRate(now);
+        for (int i = 0; i < 6; i++) {
+            stats.record(1000);
+        }
+        assertEquals(3.0, stats.sampleRate(now + 2_000_000_000L), 1e-9);
+        assertEquals(0.0, stats.sampleRate(now + 3_000_000_000L), 1e-9);
+        stats.record(1000);
+        assertEquals(2.0, stats.sampleRate(now + 3_500_000_000L), 1e-9);
+    }
+
+    @Test
+    void testReset() {
+        LatencyStats stats = new LatencyStats();
+        stats.record(1000);
+        stats.record(2000);
+        stats.reset();
+        assertEquals(0, stats.getCount());
+        assertEquals(0.0, stats.getAverageMicros());
+        assertEquals(0.0, stats.getMaxMicros());
+        stats.record(1000);
+        assertTrue(stats.sampleRate(System.nanoTime()) > 0);
+    }
+
+}